@@ -80,6 +80,9 @@ public enum RupsConfiguration {
     private static final String HOME_FOLDER_KEY = "user.home";
     private static final String LOCALE_KEY = "user.locale";
     private static final String LOOK_AND_FEEL_KEY = "ui.lookandfeel";
+    private static final String INDEX_CACHE_KEY = "rups.indexcache";
+    private static final String PARALLEL_SCAN_KEY = "rups.parallelscan";
+    private static final String VIRTUAL_THREADS_KEY = "rups.virtualthreads";
 
     private final Preferences systemPreferences;
     private final Properties defaultProperties;
@@ -114,6 +117,37 @@ public enum RupsConfiguration {
         return Boolean.parseBoolean(value);
     }
 
+    /**
+     * Returns whether or not RUPS scans the objects of a document on all cores, when it is opened.
+     *
+     * @return boolean indicating if the objects are scanned in parallel
+     */
+    public boolean isParallelScanEnabled() {
+        final String value = getValueFromSystemPreferences(PARALLEL_SCAN_KEY);
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Returns whether or not RUPS keeps the object index of opened documents on disk, to reopen them faster.
+     *
+     * @return boolean indicating if the object index is cached
+     */
+    public boolean isIndexCacheEnabled() {
+        final String value = getValueFromSystemPreferences(INDEX_CACHE_KEY);
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Returns whether or not RUPS runs its background tasks on virtual threads. This only has an effect on JDK 21
+     * and later, and only after a restart.
+     *
+     * @return boolean indicating if virtual threads should be used
+     */
+    public boolean useVirtualThreads() {
+        final String value = getValueFromSystemPreferences(VIRTUAL_THREADS_KEY);
+        return Boolean.parseBoolean(value);
+    }
+
     /**
      * Returns the closing operation for the RUPS instance. Default it is returning EXIT_ON_CLOSE, but
      * another value could be useful when embedding RUPS or calling it from a Java process.
@@ -207,6 +241,18 @@ public enum RupsConfiguration {
         this.temporaryProperties.setProperty(DUPLICATE_OPEN_FILES_KEY, Boolean.toString(value));
     }
 
+    public void setParallelScan(boolean value) {
+        this.temporaryProperties.setProperty(PARALLEL_SCAN_KEY, Boolean.toString(value));
+    }
+
+    public void setIndexCache(boolean value) {
+        this.temporaryProperties.setProperty(INDEX_CACHE_KEY, Boolean.toString(value));
+    }
+
+    public void setUseVirtualThreads(boolean value) {
+        this.temporaryProperties.setProperty(VIRTUAL_THREADS_KEY, Boolean.toString(value));
+    }
+
     /**
      * Sets the default folder to use in JFileChoosers.
      *
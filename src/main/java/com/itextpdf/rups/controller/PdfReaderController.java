@@ -92,6 +92,7 @@ import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.TreeSelectionListener;
@@ -202,7 +203,7 @@ public class PdfReaderController extends Observable implements Observer {
                 Language.FORM_XFA_DESCRIPTION.getString());
         navigationTabs.addTab(Language.XREF.getString(), null, new JScrollPane(xref),
                 Language.XREF_DESCRIPTION.getString());
-        navigationTabs.addTab(Language.PLAINTEXT.getString(), null, new JScrollPane(text),
+        navigationTabs.addTab(Language.PLAINTEXT.getString(), null, text,
                 Language.PLAINTEXT_DESCRIPTION.getString());
         navigationTabs.addChangeListener(new ChangeListener() {
             public void stateChanged(ChangeEvent e) {
@@ -300,6 +301,10 @@ public class PdfReaderController extends Observable implements Observer {
                     setChanged();
                     super.notifyObservers(event);
                     break;
+                case RupsEvent.OBJECT_TYPES_SCANNED_EVENT:
+                    setChanged();
+                    super.notifyObservers(event);
+                    break;
                 case RupsEvent.COMPARE_POST_EVENT:
                     highlightChanges((CompareTool.CompareResult) event.getContent());
                     pdfTree.repaint();
@@ -341,21 +346,29 @@ public class PdfReaderController extends Observable implements Observer {
                     render(node);
                     break;
                 case RupsEvent.NODE_DELETE_DICT_CHILD_EVENT:
+                    streamPane.invalidate(((NodeDeleteDictChildEvent.Content) event.getContent()).parent);
                     deleteTreeNodeDictChild(((NodeDeleteDictChildEvent.Content) event.getContent()).parent,
                             ((NodeDeleteDictChildEvent.Content) event.getContent()).key);
+                    xref.invalidate(((NodeDeleteDictChildEvent.Content) event.getContent()).parent);
                     break;
                 case RupsEvent.NODE_ADD_DICT_CHILD_EVENT:
+                    streamPane.invalidate(((NodeAddDictChildEvent.Content) event.getContent()).parent);
                     addTreeNodeDictChild(((NodeAddDictChildEvent.Content) event.getContent()).parent,
                             ((NodeAddDictChildEvent.Content) event.getContent()).key,
                             ((NodeAddDictChildEvent.Content) event.getContent()).index);
+                    xref.invalidate(((NodeAddDictChildEvent.Content) event.getContent()).parent);
                     break;
                 case RupsEvent.NODE_ADD_ARRAY_CHILD_EVENT:
+                    streamPane.invalidate(((NodeAddArrayChildEvent.Content) event.getContent()).parent);
                     addTreeNodeArrayChild(((NodeAddArrayChildEvent.Content) event.getContent()).parent,
                             ((NodeAddArrayChildEvent.Content) event.getContent()).index);
+                    xref.invalidate(((NodeAddArrayChildEvent.Content) event.getContent()).parent);
                     break;
                 case RupsEvent.NODE_DELETE_ARRAY_CHILD_EVENT:
+                    streamPane.invalidate(((NodeDeleteArrayChildEvent.Content) event.getContent()).parent);
                     deleteTreeChild(((NodeDeleteArrayChildEvent.Content) event.getContent()).parent,
                             ((NodeDeleteArrayChildEvent.Content) event.getContent()).index);
+                    xref.invalidate(((NodeDeleteArrayChildEvent.Content) event.getContent()).parent);
                     break;
                 case RupsEvent.POST_NEW_INDIRECT_OBJECT_EVENT:
                     nodes.addNewIndirectObject((PdfObject) event.getContent());
@@ -446,7 +459,7 @@ public class PdfReaderController extends Observable implements Observer {
                     currentNode = nodes.getChildNode(currentNode, ((DictPathItem) item).getKey());
                 } else if (item instanceof ArrayPathItem) {
                     int index = ((ArrayPathItem) item).getIndex();
-                    currentNode = (PdfObjectTreeNode) currentNode.getChildAt(index);
+                    currentNode = nodes.getArrayChildNode(currentNode, index);
                 }
             }
             if (currentNode != null) {
@@ -464,6 +477,10 @@ public class PdfReaderController extends Observable implements Observer {
     }
 
     public int deleteTreeNodeDictChild(PdfObjectTreeNode parent, PdfName key) {
+        if (nodes.isGrouped(parent)) {
+            regroup(parent);
+            return -1;
+        }
         PdfObjectTreeNode child = parent.getDictionaryChildNode(key);
         int index = parent.getIndex(child);
         return deleteTreeChild(parent, index);
@@ -471,22 +488,49 @@ public class PdfReaderController extends Observable implements Observer {
 
     //Returns index of the added child
     public int addTreeNodeDictChild(PdfObjectTreeNode parent, PdfName key, int index) {
+        if (nodes.isGrouped(parent)) {
+            regroup(parent);
+            return index;
+        }
         PdfObjectTreeNode child = PdfObjectTreeNode.getInstance((PdfDictionary) parent.getPdfObject(), key);
         return addTreeNodeChild(parent, child, index);
     }
 
     //Returns index of the added child
     public int addTreeNodeArrayChild(PdfObjectTreeNode parent, int index) {
+        if (nodes.isGrouped(parent)) {
+            regroup(parent);
+            return index;
+        }
         PdfObjectTreeNode child = PdfObjectTreeNode.getInstance(((PdfArray) parent.getPdfObject()).get(index, false));
         return addTreeNodeChild(parent, child, index);
     }
 
     public int deleteTreeChild(PdfObjectTreeNode parent, int index) {
+        if (nodes.isGrouped(parent)) {
+            regroup(parent);
+            return index;
+        }
         parent.remove(index);
         ((DefaultTreeModel) pdfTree.getModel()).reload(parent);
         return index;
     }
 
+    /**
+     * Recreates the range nodes of a large array or dictionary after
+     * one of its entries was added or removed. The table models notify
+     * deletions before the entry is removed, so this is done afterwards.
+     *
+     * @param parent the node of the array or dictionary, or one of its range nodes
+     */
+    private void regroup(PdfObjectTreeNode parent) {
+        final TreeNodeFactory factory = nodes;
+        SwingUtilities.invokeLater(() -> {
+            final PdfObjectTreeNode container = factory.regroup(parent);
+            ((DefaultTreeModel) pdfTree.getModel()).reload(container);
+        });
+    }
+
     //Returns index of the added child
     public int addTreeNodeChild(PdfObjectTreeNode parent, PdfObjectTreeNode child, int index) {
         parent.insert(child, index);
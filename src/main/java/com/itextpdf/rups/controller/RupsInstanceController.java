@@ -51,11 +51,15 @@ import com.itextpdf.rups.event.CloseDocumentEvent;
 import com.itextpdf.rups.event.PostCompareEvent;
 import com.itextpdf.rups.event.RupsEvent;
 import com.itextpdf.rups.event.TreeNodeClickedEvent;
+import com.itextpdf.rups.model.BackgroundTask;
 import com.itextpdf.rups.model.IPdfFile;
+import com.itextpdf.rups.model.IndexCache;
 import com.itextpdf.rups.model.LoggerHelper;
 import com.itextpdf.rups.model.ObjectLoader;
 import com.itextpdf.rups.model.PdfFile;
 import com.itextpdf.rups.model.ProgressDialog;
+import com.itextpdf.rups.model.TaskGroup;
+import com.itextpdf.rups.model.TaskPriority;
 import com.itextpdf.rups.view.Console;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.PageSelectionListener;
@@ -72,9 +76,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.UUID;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
@@ -96,6 +105,11 @@ import javax.swing.event.TreeSelectionListener;
 public class RupsInstanceController extends Observable
         implements TreeSelectionListener, PageSelectionListener, Observer {
 
+    /**
+     * How long closing a file waits for its cancelled background tasks, in milliseconds.
+     */
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
     private final JPanel ownerPanel;
 
     /**
@@ -118,6 +132,11 @@ public class RupsInstanceController extends Observable
 
     private ObjectLoader loader;
 
+    /**
+     * The background tasks working on the currently open file.
+     */
+    private TaskGroup taskGroup;
+
     // constructor
 
     /**
@@ -175,6 +194,7 @@ public class RupsInstanceController extends Observable
             final RupsEvent event = (RupsEvent) arg;
             switch (event.getType()) {
                 case RupsEvent.OPEN_DOCUMENT_POST_EVENT:
+                case RupsEvent.OBJECT_TYPES_SCANNED_EVENT:
                     setChanged();
                     super.notifyObservers(event);
                     break;
@@ -207,6 +227,7 @@ public class RupsInstanceController extends Observable
             } else {
                 pdfFile = PdfFile.open(file);
             }
+            taskGroup = new TaskGroup(file.getName());
             startObjectLoader();
             readerController.getParser().setDocument(pdfFile.getPdfDocument());
         } catch (IOException | PdfException | com.itextpdf.io.exceptions.IOException ioe) {
@@ -220,7 +241,6 @@ public class RupsInstanceController extends Observable
      * @param file java.io.File file to save
      */
     public void saveFile(File file) {
-        OutputStream fos = null;
         File localFile = file;
         try {
             final String pdfSuffix = ".pdf";
@@ -238,43 +258,123 @@ public class RupsInstanceController extends Observable
 
             final ByteArrayOutputStream bos = pdfFile.getByteArrayOutputStream();
             pdfFile.getPdfDocument().setFlushUnusedObjects(false);
-            closeRoutine();
-            if (bos != null) {
-                bos.close();
-                fos = Files.newOutputStream(localFile.toPath());
-                bos.writeTo(fos);
-            }
-
-            JOptionPane.showMessageDialog(masterComponent, Language.SAVE_SUCCESS.getString(),
-                    Language.DIALOG.getString(), JOptionPane.INFORMATION_MESSAGE);
-            loadFile(localFile);
-        } catch (PdfException | IOException | com.itextpdf.io.exceptions.IOException de) {
+            final TaskGroup group = taskGroup;
+            final IPdfFile fileToSave = detachFile();
+            // the document is written when it is closed, which waits for its tasks
+            new SaveTask(fileToSave, group, bos, localFile).start();
+        } catch (PdfException | com.itextpdf.io.exceptions.IOException de) {
             JOptionPane.showMessageDialog(masterComponent, de.getMessage(), Language.DIALOG.getString(),
                     JOptionPane.ERROR_MESSAGE);
-        } finally {
+        }
+    }
+
+    /**
+     * Writes the bytes to a temporary file next to the target, and then
+     * moves it over the target, so the target is never left half-written.
+     *
+     * @param bos    the bytes to write
+     * @param target the file to write
+     *
+     * @throws IOException if the file could not be written
+     */
+    private static void writeReplacing(ByteArrayOutputStream bos, Path target) throws IOException {
+        final Path absoluteTarget = target.toAbsolutePath();
+        // not Files.createTempFile, which would only give the owner access
+        final Path temporary = absoluteTarget.resolveSibling(
+                absoluteTarget.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream fos = Files.newOutputStream(temporary, StandardOpenOption.CREATE_NEW)) {
+                bos.writeTo(fos);
+            }
+            copyPermissions(absoluteTarget, temporary);
             try {
-                if (fos != null) {
-                    fos.close();
-                }
-            } catch (IOException e) {
-                LoggerHelper.error(Language.ERROR_CLOSING_STREAM.getString(), e, getClass());
+                Files.move(temporary, absoluteTarget,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, absoluteTarget, StandardCopyOption.REPLACE_EXISTING);
             }
+        } finally {
+            Files.deleteIfExists(temporary);
         }
     }
 
+    /**
+     * Copies the POSIX permissions of a file, if it exists, onto another one.
+     *
+     * @param source the file to copy the permissions of
+     * @param target the file to set the permissions of
+     *
+     * @throws IOException if the permissions could not be copied
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        if (Files.exists(source) && source.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        }
+    }
+
+    /**
+     * Closes the currently open file. The file is closed in the background,
+     * once its cancelled tasks stopped working on it.
+     */
     public final void closeRoutine() {
-        loader = null;
-        PdfDocument docToClose = null;
-        if (pdfFile != null && pdfFile.getPdfDocument() != null) {
-            docToClose = pdfFile.getPdfDocument();
+        final TaskGroup group = taskGroup;
+        final IPdfFile fileToClose = detachFile();
+        if (fileToClose != null) {
+            new CloseTask(fileToClose, group).start();
         }
+    }
+
+    /**
+     * Cancels the tasks of the currently open file and lets the views know
+     * it is closed, without closing the file itself.
+     *
+     * @return the file, which was open, or {@code null}
+     */
+    private IPdfFile detachFile() {
+        cancelTasks();
+        loader = null;
+        final IPdfFile detached = pdfFile;
         pdfFile = null;
         setChanged();
         super.notifyObservers(new CloseDocumentEvent());
-        if (docToClose != null) {
-            docToClose.close();
-        }
         readerController.getParser().setDocument(null);
+        return detached;
+    }
+
+    /**
+     * Closes a file, once the cancelled background tasks stopped working on
+     * it. This waits, so it must not be called on the event dispatch thread.
+     * Tasks which don't stop in time get an empty content to read, once the
+     * file is closed.
+     *
+     * @param file  the file to close
+     * @param group the cancelled tasks of the file, or {@code null}
+     */
+    private void closeFile(IPdfFile file, TaskGroup group) {
+        boolean terminated = true;
+        if (group != null) {
+            try {
+                terminated = group.awaitTermination(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                terminated = false;
+            }
+        }
+        if (!terminated) {
+            LoggerHelper.warn(Language.ERROR_CLOSING_TASKS.getString(), getClass());
+        }
+        file.close();
+    }
+
+    /**
+     * Cancels all the background tasks, which are still working on the
+     * currently open file.
+     */
+    public final void cancelTasks() {
+        if (taskGroup != null) {
+            taskGroup.cancel();
+            taskGroup = null;
+        }
     }
 
     public final CompareTool.CompareResult compareWithDocument(PdfDocument document) {
@@ -341,7 +441,7 @@ public class RupsInstanceController extends Observable
         loader = new ObjectLoader(
                 this, pdfFile, pdfFile.getOriginalFile().getName(), dialog
         );
-        loader.start();
+        loader.start(taskGroup);
     }
 
     // tree selection
@@ -375,4 +475,79 @@ public class RupsInstanceController extends Observable
         return pdfFile;
     }
 
+    /**
+     * Closes a file in the background.
+     */
+    private final class CloseTask extends BackgroundTask {
+        private final IPdfFile file;
+
+        private final TaskGroup group;
+
+        CloseTask(IPdfFile file, TaskGroup group) {
+            super(Language.MENU_BAR_CLOSE.getString(), TaskPriority.INTERACTIVE);
+            this.file = file;
+            this.group = group;
+        }
+
+        @Override
+        public void doTask() {
+            closeFile(file, group);
+        }
+
+        @Override
+        public void finished() {
+            // nothing to show
+        }
+    }
+
+    /**
+     * Closes an editable file in the background, which writes the document,
+     * saves it, and then opens the saved file.
+     */
+    private final class SaveTask extends BackgroundTask {
+        private final IPdfFile file;
+
+        private final TaskGroup group;
+
+        private final ByteArrayOutputStream bos;
+
+        private final File target;
+
+        private Exception error;
+
+        SaveTask(IPdfFile file, TaskGroup group, ByteArrayOutputStream bos, File target) {
+            super(Language.SAVE.getString(), TaskPriority.INTERACTIVE);
+            this.file = file;
+            this.group = group;
+            this.bos = bos;
+            this.target = target;
+        }
+
+        @Override
+        public void doTask() {
+            try {
+                closeFile(file, group);
+                if (bos != null) {
+                    bos.close();
+                    writeReplacing(bos, target.toPath());
+                    // the cached index of the overwritten file is stale
+                    IndexCache.getDefault().invalidate(target);
+                }
+            } catch (PdfException | IOException | com.itextpdf.io.exceptions.IOException e) {
+                error = e;
+            }
+        }
+
+        @Override
+        public void finished() {
+            if (error != null) {
+                JOptionPane.showMessageDialog(masterComponent, error.getMessage(), Language.DIALOG.getString(),
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            JOptionPane.showMessageDialog(masterComponent, Language.SAVE_SUCCESS.getString(),
+                    Language.DIALOG.getString(), JOptionPane.INFORMATION_MESSAGE);
+            loadFile(target);
+        }
+    }
 }
@@ -40,55 +40,29 @@
     For more information, please contact iText Software Corp. at this
     address: sales@itextpdf.com
  */
-package com.itextpdf.rups.view.itext;
+package com.itextpdf.rups.event;
 
-import com.itextpdf.kernel.pdf.PdfArray;
-import com.itextpdf.kernel.pdf.PdfDictionary;
-import com.itextpdf.kernel.pdf.PdfIndirectReference;
-import com.itextpdf.kernel.pdf.PdfName;
-import com.itextpdf.rups.model.TreeNodeFactory;
-import com.itextpdf.rups.view.itext.treenodes.PdfPageTreeNode;
+import com.itextpdf.rups.model.ObjectLoader;
 
-import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.List;
-
-class PageEnumerator implements Enumeration<PdfPageTreeNode> {
+/**
+ * Signals that the objects of a loaded document were classified by a scan
+ * in the background, after the document was shown.
+ */
+public class ObjectTypesScannedEvent extends RupsEvent {
 
-    protected List<PdfPageTreeNode> pages = new ArrayList<>();
-    protected TreeNodeFactory factory;
-    protected int cursor = 0;
+    private final ObjectLoader loader;
 
-    public PageEnumerator(PdfDictionary catalog, TreeNodeFactory factory) {
-        this.factory = factory;
-        expand(
-                (PdfIndirectReference) catalog.get(PdfName.Pages, false), catalog.getAsDictionary(PdfName.Pages)
-        );
+    public ObjectTypesScannedEvent(ObjectLoader loader) {
+        this.loader = loader;
     }
 
     @Override
-    public boolean hasMoreElements() {
-        return cursor < pages.size();
+    public int getType() {
+        return OBJECT_TYPES_SCANNED_EVENT;
     }
 
     @Override
-    public PdfPageTreeNode nextElement() {
-        return pages.get(cursor++);
-    }
-
-    public final void expand(PdfIndirectReference ref, PdfDictionary dict) {
-        if (dict == null) {
-            return;
-        }
-        if (PdfName.Pages.equals(dict.getAsName(PdfName.Type))) {
-            PdfArray kids = dict.getAsArray(PdfName.Kids);
-            if (kids != null) {
-                for (int i = 0; i < kids.size(); i++) {
-                    expand((PdfIndirectReference) kids.get(i, false), kids.getAsDictionary(i));
-                }
-            }
-        } else if (PdfName.Page.equals(dict.getAsName(PdfName.Type))) {
-            pages.add((PdfPageTreeNode) factory.getNode(ref.getObjNumber()));
-        }
+    public Object getContent() {
+        return loader;
     }
 }
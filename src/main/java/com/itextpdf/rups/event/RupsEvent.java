@@ -67,6 +67,7 @@ public abstract class RupsEvent {
     public static final byte ALL_FILES_CLOSED = 17;
     public static final byte DISPLAYED_TAB_CHANGED = 18;
     public static final byte REOPEN_CURRENT_FILE_AS_OWNER = 19;
+    public static final byte OBJECT_TYPES_SCANNED_EVENT = 20;
 
     public abstract int getType();
 
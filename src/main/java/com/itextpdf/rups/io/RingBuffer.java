@@ -0,0 +1,170 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.io;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free queue for many producers and a single consumer.
+ *
+ * <p>
+ * Producers, e.g. the threads writing log messages, claim a slot by advancing
+ * the tail with a compare-and-set and publish it by updating the sequence of
+ * the slot. They never wait: once the buffer is full, offered values are
+ * dropped and counted instead. The consumer, typically a Swing timer on the
+ * event dispatch thread, drains all published values at once.
+ * </p>
+ *
+ * @param <T> the type of the buffered values
+ */
+public final class RingBuffer<T> {
+    private final int mask;
+
+    private final AtomicReferenceArray<T> slots;
+
+    /**
+     * The sequence of every slot: equal to a position when the slot can be
+     * claimed for it, one more once the value at the position is published.
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    /**
+     * The position of the next value to drain. Only used by the consumer.
+     */
+    private long head;
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity the maximum number of buffered values, rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a value, unless the buffer is full. Can be called from any thread.
+     *
+     * @param value the value to add
+     *
+     * @return {@code true} if the value was added, {@code false} if it was dropped
+     */
+    public boolean offer(T value) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, value);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the slot still holds a value from the previous round
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Passes all published values to a consumer, in the order they were
+     * added. Must only be called by a single thread at a time.
+     *
+     * @param consumer the consumer of the values
+     *
+     * @return the number of drained values
+     */
+    public int drain(Consumer<? super T> consumer) {
+        int count = 0;
+        while (true) {
+            final int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return count;
+            }
+            final T value = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, head + mask + 1);
+            ++head;
+            ++count;
+            consumer.accept(value);
+        }
+    }
+
+    /**
+     * Checks whether there are published values or dropped values which
+     * weren't taken yet. Must only be called by the consumer.
+     *
+     * @return {@code true} if a drain would find values or dropped values
+     */
+    public boolean hasPending() {
+        return sequences.get((int) head & mask) == head + 1 || dropped.get() > 0;
+    }
+
+    /**
+     * Returns the number of values dropped since the last call, because the buffer was full.
+     *
+     * @return the number of dropped values
+     */
+    public int takeDropped() {
+        return dropped.getAndSet(0);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.io;
+
+import com.itextpdf.rups.RupsConfiguration;
+import com.itextpdf.rups.view.Language;
+
+import javax.swing.Timer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Collects output written on any thread, and passes it in batches to a
+ * consumer on the event dispatch thread.
+ *
+ * <p>
+ * The output waits in a {@link RingBuffer}, which a Swing {@link Timer}
+ * drains. The timer only runs while output is waiting: the first value
+ * offered to an idle buffer starts it, and it stops once it finds nothing
+ * to drain. When the buffer is full, output is dropped, and the consumer
+ * gets a notice with the number of dropped values in its place.
+ * </p>
+ *
+ * @param <T> the type of the buffered output
+ */
+public final class SwingOutputBuffer<T> {
+    private final RingBuffer<T> buffer;
+
+    private final Timer timer;
+
+    /**
+     * Whether the timer was started for the offered values.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Function<String, T> notice;
+
+    private final Consumer<? super T> consumer;
+
+    private final Runnable batchEnd;
+
+    /**
+     * Creates an idle output buffer.
+     *
+     * @param capacity the maximum number of values waiting to be drained
+     * @param delay    the delay between two drains in milliseconds
+     * @param notice   creates the value telling that output was dropped, from its text
+     * @param consumer the consumer of the drained values, called on the event dispatch thread
+     * @param batchEnd called on the event dispatch thread after each batch of drained values
+     */
+    public SwingOutputBuffer(int capacity, int delay, Function<String, T> notice,
+            Consumer<? super T> consumer, Runnable batchEnd) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.notice = notice;
+        this.consumer = consumer;
+        this.batchEnd = batchEnd;
+        timer = new Timer(delay, e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Adds a value and makes sure the timer runs to drain it. Can be called from any thread.
+     *
+     * @param value the value to add
+     */
+    public void offer(T value) {
+        // a dropped value still needs a drain, for the notice
+        buffer.offer(value);
+        schedule();
+    }
+
+    /**
+     * Passes all waiting values to the consumer, followed by a notice if
+     * values were dropped, and ends the batch. Must be called on the event
+     * dispatch thread.
+     *
+     * @return {@code true} if anything was passed to the consumer
+     */
+    public boolean drain() {
+        final int count = buffer.drain(consumer);
+        final int dropped = buffer.takeDropped();
+        if (dropped > 0) {
+            consumer.accept(notice.apply(String.format(RupsConfiguration.INSTANCE.getUserLocale(),
+                    Language.ERROR_MESSAGES_DROPPED.getString(), dropped)));
+        }
+        if (count == 0 && dropped == 0) {
+            return false;
+        }
+        batchEnd.run();
+        return true;
+    }
+
+    /**
+     * Checks whether the timer is running, i.e. whether output may be waiting.
+     *
+     * @return {@code true} if the timer is running
+     */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            timer.start();
+        }
+    }
+
+    private void tick() {
+        if (drain()) {
+            return;
+        }
+        timer.stop();
+        scheduled.set(false);
+        // a value offered while stopping may have seen the timer as scheduled
+        if (buffer.hasPending()) {
+            schedule();
+        }
+    }
+}
@@ -43,13 +43,18 @@
 package com.itextpdf.rups.io;
 
 import javax.swing.JTextArea;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 /**
  * Everything writing to this OutputStream will be shown in a JTextArea.
+ *
+ * <p>
+ * The written bytes are collected, and only decoded and appended to the
+ * text area when the stream is flushed or closed. This way a large resource
+ * is appended at once, and no UTF-8 sequence is split between two appends.
+ * </p>
  */
 public class TextAreaOutputStream extends OutputStream {
     /**
@@ -57,6 +62,11 @@ public class TextAreaOutputStream extends OutputStream {
      */
     protected JTextArea text;
 
+    /**
+     * The bytes which weren't appended yet.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
     /**
      * Constructs a TextAreaOutputStream.
      *
@@ -71,6 +81,7 @@ public class TextAreaOutputStream extends OutputStream {
      * Clear the text area.
      */
     public void clear() {
+        pending.reset();
         text.setText("");
     }
 
@@ -79,8 +90,7 @@ public class TextAreaOutputStream extends OutputStream {
      */
     @Override
     public void write(int i) {
-        final byte[] b = {(byte) i};
-        write(b, 0, 1);
+        pending.write(i);
     }
 
     /**
@@ -88,21 +98,70 @@ public class TextAreaOutputStream extends OutputStream {
      */
     @Override
     public void write(byte[] b, int off, int len) {
-        final String snippet = new String(b, off, len, StandardCharsets.UTF_8);
-        text.append(snippet);
+        pending.write(b, off, len);
     }
 
     /**
      * @see java.io.OutputStream#write(byte[])
      */
     @Override
-    public void write(byte[] b) throws IOException {
-        final ByteArrayInputStream bais = new ByteArrayInputStream(b);
-        final int bufferSize = 1024;
-        final byte[] snippet = new byte[bufferSize];
-        int bytesread;
-        while ((bytesread = bais.read(snippet)) > 0) {
-            write(snippet, 0, bytesread);
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    /**
+     * Appends the written characters to the text area. The bytes of an
+     * incomplete UTF-8 sequence at the end are kept until the next flush.
+     *
+     * @see java.io.OutputStream#flush()
+     */
+    @Override
+    public void flush() {
+        if (pending.size() == 0) {
+            return;
+        }
+        final byte[] bytes = pending.toByteArray();
+        final int complete = getCompleteLength(bytes);
+        text.append(new String(bytes, 0, complete, StandardCharsets.UTF_8));
+        pending.reset();
+        pending.write(bytes, complete, bytes.length - complete);
+    }
+
+    /**
+     * @see java.io.OutputStream#close()
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Returns the length of the bytes, without a trailing incomplete UTF-8 sequence.
+     *
+     * @param bytes UTF-8 encoded bytes
+     *
+     * @return the number of bytes which can be decoded
+     */
+    static int getCompleteLength(byte[] bytes) {
+        int lead = bytes.length - 1;
+        // skip at most three continuation bytes, 10xxxxxx
+        while (lead >= 0 && lead > bytes.length - 4 && (bytes[lead] & 0xC0) == 0x80) {
+            --lead;
+        }
+        if (lead < 0) {
+            return bytes.length;
+        }
+        final int b = bytes[lead] & 0xFF;
+        final int sequenceLength;
+        if (b >= 0xF0) {
+            sequenceLength = 4;
+        } else if (b >= 0xE0) {
+            sequenceLength = 3;
+        } else if (b >= 0xC0) {
+            sequenceLength = 2;
+        } else {
+            sequenceLength = 1;
         }
+        return lead + sequenceLength > bytes.length ? lead : bytes.length;
     }
 }
@@ -42,84 +42,193 @@
  */
 package com.itextpdf.rups.model;
 
+import com.itextpdf.rups.view.Language;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.swing.SwingUtilities;
 
 /**
  * Allows you to perform long-lasting tasks in background.
- * If we ever move to Java 6, we should use the SwingWorker class
- * (included in the JDK) instead of this custom Event Dispatching
- * code.
+ * The tasks are executed by the central {@link TaskScheduler}. A task can
+ * be started in a {@link TaskGroup}, so that all tasks working on the same
+ * document can be cancelled at once.
  */
 public abstract class BackgroundTask {
 
+    private static final String DEFAULT_NAME = "background task";
+
     /**
-     * A wrapper for the tread that executes a time-consuming task.
+     * A human readable name, which is added to the name of the executing thread.
      */
-    private final ThreadWrapper thread;
+    private final String name;
 
     /**
-     * Starts a thread.
-     * Executes the time-consuming task in the construct method;
-     * finally calls the finish().
+     * The priority of this task in the queue of the scheduler.
      */
-    public BackgroundTask() {
-        final Runnable doFinished = this::finished;
+    private final TaskPriority priority;
+
+    /**
+     * The future of the scheduled task, {@code null} if not started yet.
+     */
+    private volatile Future<?> future;
+
+    private volatile boolean cancelled;
 
-        final Runnable doConstruct = () -> {
-            doTask();
-            SwingUtilities.invokeLater(doFinished);
-        };
+    private volatile TaskGroup group;
 
-        final Thread t = new Thread(doConstruct);
-        thread = new ThreadWrapper(t);
+    /**
+     * Creates a task with a default name and normal priority.
+     */
+    public BackgroundTask() {
+        this(DEFAULT_NAME, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Creates a task.
+     *
+     * @param name     a human readable name for the task
+     * @param priority the priority of the task
+     */
+    protected BackgroundTask(String name, TaskPriority priority) {
+        this.name = name;
+        this.priority = priority;
     }
 
     /**
      * Implement this class; the time-consuming task will go here.
+     * Long loops should regularly check {@link #isCancelled()}.
      */
     public abstract void doTask();
 
     /**
-     * Starts the thread.
+     * Starts the task, without a task group.
      */
     public void start() {
-        final Thread t = thread.get();
-        if (t != null) {
-            t.start();
+        start(null);
+    }
+
+    /**
+     * Starts the task in a task group. If the group is cancelled, this task
+     * is cancelled as well.
+     *
+     * @param group the group of the task, can be {@code null}
+     */
+    public void start(TaskGroup group) {
+        if (future != null) {
+            return;
+        }
+        this.group = group;
+        if (group != null) {
+            group.add(this);
+        }
+        future = TaskScheduler.getInstance().submit(priority, this::execute);
+        if (cancelled) {
+            future.cancel(true);
         }
     }
 
     /**
-     * Wait for thread to finish what it's doing
+     * Wait for the task to finish what it's doing.
      *
      * @throws InterruptedException an exception
      */
     public void join() throws InterruptedException {
-        Thread t = thread.get();
-        if (t != null) {
-            t.join();
+        final Future<?> f = future;
+        if (f != null) {
+            try {
+                f.get();
+            } catch (ExecutionException | CancellationException ignored) {
+                // the task is done, which is all that matters here
+            }
         }
     }
 
     /**
-     * Called on the event dispatching thread once the
-     * construct method has finished its task.
+     * Cancels the task. If it is running, its thread is interrupted;
+     * {@link #finished()} will not be called anymore.
      */
-    public abstract void finished();
+    public void cancel() {
+        cancelled = true;
+        final Future<?> f = future;
+        if (f != null) {
+            f.cancel(true);
+        }
+    }
 
     /**
-     * Inner class that holds the reference to the thread.
+     * Returns whether the task, or its group, was cancelled.
+     *
+     * @return {@code true} if the task was cancelled
      */
-    private static class ThreadWrapper {
-        private final Thread thread;
+    public boolean isCancelled() {
+        final TaskGroup currentGroup = group;
+        return cancelled || (currentGroup != null && currentGroup.isCancelled());
+    }
 
-        ThreadWrapper(Thread t) {
-            thread = t;
-        }
+    /**
+     * Gets the group in which this task was started.
+     *
+     * @return the task group, or {@code null}
+     */
+    public TaskGroup getGroup() {
+        return group;
+    }
 
-        Thread get() {
-            synchronized (this) {
-                return thread;
+    /**
+     * Gets the human readable name of this task.
+     *
+     * @return the name of the task
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the priority of this task.
+     *
+     * @return the priority of the task
+     */
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Called on the event dispatching thread once the
+     * construct method has finished its task.
+     */
+    public abstract void finished();
+
+    private void execute() {
+        final Thread current = Thread.currentThread();
+        final String threadName = current.getName();
+        final TaskGroup currentGroup = group;
+        if (currentGroup != null) {
+            // counted before the cancellation check, so a cancelled group can wait for its tasks
+            currentGroup.taskStarted();
+        }
+        current.setName(currentGroup == null
+                ? threadName + ": " + name
+                : threadName + ": " + currentGroup.getName() + ": " + name);
+        try {
+            if (!isCancelled()) {
+                doTask();
+                SwingUtilities.invokeLater(() -> {
+                    if (!isCancelled()) {
+                        finished();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            if (!isCancelled()) {
+                LoggerHelper.error(String.format(Language.ERROR_BACKGROUND_TASK.getString(), name), e, getClass());
+            }
+        } finally {
+            current.setName(threadName);
+            if (currentGroup != null) {
+                currentGroup.remove(this);
+                currentGroup.taskEnded();
             }
         }
     }
@@ -0,0 +1,264 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Searches the raw content of a file for a byte sequence.
+ *
+ * <p>
+ * The content is split in chunks, which are searched on several cores with
+ * the Boyer-Moore-Horspool algorithm. The hits of a chunk become available as
+ * soon as the chunk is searched, so they can be navigated while the search
+ * is still running. A hit belongs to the chunk in which it starts, so every
+ * chunk is read with an overlap of the pattern length minus one.
+ * </p>
+ */
+public final class ByteSearch {
+    /**
+     * The default size of the chunks which are searched by a single task.
+     */
+    static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final long[] NO_HITS = new long[0];
+
+    private final OriginalContent content;
+
+    private final byte[] pattern;
+
+    private final int chunkSize;
+
+    private final int[] shifts = new int[256];
+
+    private final AtomicReferenceArray<long[]> hits;
+
+    private final AtomicInteger hitCount = new AtomicInteger();
+
+    private final ThreadLocal<byte[]> buffers;
+
+    private volatile boolean complete;
+
+    /**
+     * Creates a search for a byte sequence.
+     *
+     * @param content the content to search
+     * @param pattern the bytes to search for, which can't be empty
+     */
+    public ByteSearch(OriginalContent content, byte[] pattern) {
+        this(content, pattern, CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a search for a byte sequence with a given chunk size.
+     *
+     * @param content   the content to search
+     * @param pattern   the bytes to search for, which can't be empty
+     * @param chunkSize the number of bytes searched by a single task
+     */
+    ByteSearch(OriginalContent content, byte[] pattern, int chunkSize) {
+        if (pattern.length == 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.content = content;
+        this.pattern = pattern.clone();
+        this.chunkSize = chunkSize;
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < pattern.length - 1; ++i) {
+            shifts[pattern[i] & 0xff] = pattern.length - 1 - i;
+        }
+        this.hits = new AtomicReferenceArray<>((int) ((content.length() + chunkSize - 1) / chunkSize));
+        this.buffers = ThreadLocal.withInitial(() -> new byte[chunkSize + this.pattern.length - 1]);
+    }
+
+    /**
+     * Searches the whole content.
+     *
+     * @param cancelled checked regularly; once it returns {@code true}, the
+     *                  chunks which weren't searched yet are skipped
+     */
+    public void run(BooleanSupplier cancelled) {
+        final int chunks = hits.length();
+        final int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), chunks));
+        TaskScheduler.forkJoin("rups-byte-search", parallelism, new SearchTask(0, chunks, cancelled));
+        complete = !cancelled.getAsBoolean();
+    }
+
+    /**
+     * Gets the length of the pattern.
+     *
+     * @return the number of bytes searched for
+     */
+    public int getPatternLength() {
+        return pattern.length;
+    }
+
+    /**
+     * Gets the number of hits found so far.
+     *
+     * @return the number of hits
+     */
+    public int getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Checks whether all chunks were searched.
+     *
+     * @return {@code true} if the search finished
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the first hit after an offset, among the chunks which were searched.
+     *
+     * @param offset the offset after which to look, -1 to get the first hit
+     *
+     * @return the offset of the hit, or -1 if there is none
+     */
+    public long next(long offset) {
+        final long from = offset + 1;
+        for (int chunk = (int) Math.max(0, from / chunkSize); chunk < hits.length(); ++chunk) {
+            final long[] chunkHits = hits.get(chunk);
+            if (chunkHits == null) {
+                continue;
+            }
+            int index = Arrays.binarySearch(chunkHits, from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index < chunkHits.length) {
+                return chunkHits[index];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the last hit before an offset, among the chunks which were searched.
+     *
+     * @param offset the offset before which to look, {@link Long#MAX_VALUE} to get the last hit
+     *
+     * @return the offset of the hit, or -1 if there is none
+     */
+    public long previous(long offset) {
+        for (int chunk = (int) Math.min(hits.length() - 1, (offset - 1) / chunkSize); chunk >= 0; --chunk) {
+            final long[] chunkHits = hits.get(chunk);
+            if (chunkHits == null) {
+                continue;
+            }
+            int index = Arrays.binarySearch(chunkHits, offset);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index > 0) {
+                return chunkHits[index - 1];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches a single chunk.
+     *
+     * @param chunk the index of the chunk
+     */
+    private void searchChunk(int chunk) {
+        final long start = (long) chunk * chunkSize;
+        final byte[] text = buffers.get();
+        final int length = Math.max(0, content.get(start, text, 0, text.length));
+        final int last = Math.min(chunkSize, length - pattern.length + 1);
+        final int m = pattern.length;
+        long[] found = NO_HITS;
+        int count = 0;
+        int position = 0;
+        while (position < last) {
+            int j = m - 1;
+            while (j >= 0 && text[position + j] == pattern[j]) {
+                --j;
+            }
+            if (j < 0) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, Math.max(16, count * 2));
+                }
+                found[count++] = start + position;
+            }
+            position += shifts[text[position + m - 1] & 0xff];
+        }
+        hits.set(chunk, count == found.length ? found : Arrays.copyOf(found, count));
+        hitCount.addAndGet(count);
+    }
+
+    private final class SearchTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final BooleanSupplier cancelled;
+
+        SearchTask(int from, int to, BooleanSupplier cancelled) {
+            this.from = from;
+            this.to = to;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            if (to - from <= 1) {
+                if (from < to) {
+                    searchChunk(from);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new SearchTask(from, middle, cancelled), new SearchTask(middle, to, cancelled));
+        }
+    }
+}
@@ -46,6 +46,7 @@ import com.itextpdf.kernel.pdf.PdfDocument;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 
 /**
  * An interface for holding opened {@link PdfDocument} objects.
@@ -79,13 +80,12 @@ public interface IPdfFile {
     }
 
     /**
-     * Returns a byte array, which contains the original raw data of the opened
-     * PDF document.
+     * Returns a read-only view on the original raw data of the opened PDF
+     * document. The view can be sliced without copying the whole document.
      *
-     * @return a byte array, which contains the original raw data of the opened
-     *         PDF document
+     * @return a view on the original raw data of the opened PDF document
      */
-    byte[] getOriginalContent();
+    OriginalContent getOriginalContent();
 
     /**
      * Returns the output byte stream, which contains the modified PDF document.
@@ -97,4 +97,29 @@ public interface IPdfFile {
      * @see #isOpenedAsOwner()
      */
     ByteArrayOutputStream getByteArrayOutputStream();
+
+    /**
+     * Opens an additional read-only {@link PdfDocument} over the original
+     * content, for instance for a background worker, which should not touch
+     * the main document. The caller is responsible for closing it.
+     *
+     * @return a new read-only {@link PdfDocument}, or {@code null} if this
+     *         is not supported
+     *
+     * @throws IOException if the document could not be opened
+     */
+    default PdfDocument openReadOnlyCopy() throws IOException {
+        return null;
+    }
+
+    /**
+     * Closes the document and releases the original content. Nothing
+     * should read the content anymore, when this is called.
+     */
+    default void close() {
+        final PdfDocument document = getPdfDocument();
+        if (document != null && !document.isClosed()) {
+            document.close();
+        }
+    }
 }
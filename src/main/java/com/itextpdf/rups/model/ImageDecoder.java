@@ -0,0 +1,239 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNull;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decodes image streams into previews which fit a given size.
+ *
+ * <p>
+ * Whenever the image is encoded in a format ImageIO can read, e.g. because
+ * it is DCT encoded, or because iText converts its samples to PNG, only every
+ * n-th pixel of every n-th row is decoded, so a huge scan never has to fit in
+ * memory at full resolution.
+ * </p>
+ */
+public final class ImageDecoder {
+
+    private ImageDecoder() {
+        // static utility class
+    }
+
+    /**
+     * Copies an image stream, with all the objects it refers to, so it can be
+     * decoded on another thread. The copy must be made on the thread which
+     * reads the document, as iText documents are not thread-safe.
+     *
+     * @param stream the image stream
+     *
+     * @return a copy which is fully loaded and doesn't belong to a document
+     */
+    public static PdfStream detach(PdfStream stream) {
+        return (PdfStream) detach(stream, new IdentityHashMap<>());
+    }
+
+    /**
+     * Decodes an image at full resolution.
+     *
+     * @param image the image stream
+     *
+     * @return the decoded image
+     *
+     * @throws IOException if the image can't be decoded
+     */
+    public static BufferedImage decode(PdfStream image) throws IOException {
+        return new PdfImageXObject(image).getBufferedImage();
+    }
+
+    /**
+     * Decodes an image into a preview which fits a given size. The aspect
+     * ratio is kept, and images which already fit are decoded as is.
+     *
+     * @param image     the image stream
+     * @param maxWidth  the maximum width of the preview
+     * @param maxHeight the maximum height of the preview
+     *
+     * @return the decoded preview
+     *
+     * @throws IOException if the image can't be decoded
+     */
+    public static BufferedImage decodePreview(PdfStream image, int maxWidth, int maxHeight) throws IOException {
+        final PdfImageXObject xObject = new PdfImageXObject(image);
+        final int subsampling = getSubsampling(
+                (int) xObject.getWidth(), (int) xObject.getHeight(), maxWidth, maxHeight);
+        if (subsampling == 1) {
+            return xObject.getBufferedImage();
+        }
+        final BufferedImage preview = readSubsampled(xObject.getImageBytes(), subsampling);
+        return preview == null ? scale(xObject.getBufferedImage(), subsampling) : preview;
+    }
+
+    /**
+     * Returns the factor by which an image must be subsampled to fit a given size.
+     *
+     * @param width     the width of the image
+     * @param height    the height of the image
+     * @param maxWidth  the maximum width
+     * @param maxHeight the maximum height
+     *
+     * @return the subsampling factor, 1 if the image already fits
+     */
+    static int getSubsampling(int width, int height, int maxWidth, int maxHeight) {
+        if (maxWidth <= 0 || maxHeight <= 0) {
+            return 1;
+        }
+        final int horizontal = (width + maxWidth - 1) / maxWidth;
+        final int vertical = (height + maxHeight - 1) / maxHeight;
+        return Math.max(1, Math.max(horizontal, vertical));
+    }
+
+    /**
+     * Reads an encoded image with ImageIO, reading only every n-th pixel of every n-th row.
+     *
+     * @param encoded     the encoded image
+     * @param subsampling the subsampling factor
+     *
+     * @return the subsampled image, or {@code null} if ImageIO can't read it
+     */
+    static BufferedImage readSubsampled(byte[] encoded, int subsampling) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(encoded))) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // e.g. a color space ImageIO doesn't support, which iText converts itself
+            return null;
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int subsampling) {
+        final int width = Math.max(1, image.getWidth() / subsampling);
+        final int height = Math.max(1, image.getHeight() / subsampling);
+        final BufferedImage scaled = new BufferedImage(width, height,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static PdfObject detach(PdfObject object, Map<PdfObject, PdfObject> copies) {
+        final PdfObject direct = object instanceof PdfIndirectReference
+                ? ((PdfIndirectReference) object).getRefersTo() : object;
+        if (direct == null) {
+            return null;
+        }
+        final PdfObject known = copies.get(direct);
+        if (known != null) {
+            return known;
+        }
+        switch (direct.getType()) {
+            case PdfObject.STREAM:
+                final PdfStream stream = new PdfStream(((PdfStream) direct).getBytes(false));
+                copies.put(direct, stream);
+                copyEntries((PdfDictionary) direct, stream, copies);
+                return stream;
+            case PdfObject.DICTIONARY:
+                final PdfDictionary dictionary = new PdfDictionary();
+                copies.put(direct, dictionary);
+                copyEntries((PdfDictionary) direct, dictionary, copies);
+                return dictionary;
+            case PdfObject.ARRAY:
+                final PdfArray source = (PdfArray) direct;
+                final PdfArray array = new PdfArray();
+                copies.put(direct, array);
+                for (int i = 0; i < source.size(); i++) {
+                    final PdfObject item = detach(source.get(i, false), copies);
+                    array.add(item == null ? PdfNull.PDF_NULL : item);
+                }
+                return array;
+            default:
+                // names, numbers, strings and booleans hold no lazily read data
+                return direct;
+        }
+    }
+
+    private static void copyEntries(PdfDictionary source, PdfDictionary target, Map<PdfObject, PdfObject> copies) {
+        for (final PdfName key : source.keySet()) {
+            final PdfObject value = detach(source.get(key, false), copies);
+            if (value != null) {
+                target.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.rups.view.Language;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An on-disk cache of the object index of PDF files, so reopening a large
+ * file doesn't need to index and scan all of its objects again.
+ *
+ * <p>
+ * An entry holds the reference numbers of the indexed objects and their
+ * {@link IndirectObjectType}s. It is keyed by the path of the file, and only
+ * used if the size, the modification time and a hash of samples of the
+ * content still match. Entries of files that changed are deleted when they
+ * are found to be stale. Entries are written to a temporary file first, so
+ * a half-written entry is never used.
+ * </p>
+ *
+ * <p>
+ * The amount and the total size of the entries are limited; when an entry
+ * is stored, the least recently used entries above these limits are
+ * deleted. Restoring an entry marks it as used.
+ * </p>
+ */
+public final class IndexCache {
+    private static final long MAGIC = 0x5255505349445831L;
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".idx";
+
+    /**
+     * The size of the samples at the start and the end of the file, which
+     * are part of the hash.
+     */
+    private static final int EDGE_SAMPLE_SIZE = 64 * 1024;
+    /**
+     * The amount and size of the samples spread over the rest of the file.
+     */
+    private static final int SAMPLE_COUNT = 64;
+    private static final int SAMPLE_SIZE = 4096;
+
+    /**
+     * The default limits of the amount and the total size of the entries.
+     */
+    private static final int MAX_ENTRIES = 64;
+    private static final long MAX_SIZE = 256L * 1024 * 1024;
+
+    private final Path directory;
+
+    private final int maxEntries;
+
+    private final long maxSize;
+
+    /**
+     * Creates a cache, which keeps its entries in a directory. The directory
+     * is created when the first entry is stored.
+     *
+     * @param directory the directory of the entries
+     */
+    public IndexCache(File directory) {
+        this(directory, MAX_ENTRIES, MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache, which keeps at most a number of entries of at most
+     * a total size in a directory.
+     *
+     * @param directory  the directory of the entries
+     * @param maxEntries the maximum amount of entries
+     * @param maxSize    the maximum total size of the entries, in bytes
+     */
+    IndexCache(File directory, int maxEntries, long maxSize) {
+        this.directory = directory.toPath();
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cache in the {@code .rups/cache} folder of the user.
+     *
+     * @return the default index cache
+     */
+    public static IndexCache getDefault() {
+        return new IndexCache(new File(System.getProperty("user.home"), ".rups" + File.separator + "cache"));
+    }
+
+    /**
+     * Restores the object index of a file into a factory, which didn't index
+     * any objects yet. If the cached entry is stale, it is deleted.
+     *
+     * @param file    the opened file
+     * @param objects the factory of the objects of the file
+     *
+     * @return true if the index was restored, false if the objects should
+     *         be indexed as usual
+     */
+    public boolean restore(IPdfFile file, IndirectObjectFactory objects) {
+        final File original = file.getOriginalFile();
+        if (original == null) {
+            return false;
+        }
+        final Path entry = getEntry(original);
+        if (!Files.isRegularFile(entry)) {
+            return false;
+        }
+        boolean restored = false;
+        try {
+            // read rather than mapped, so a stale entry can be deleted right away
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(entry));
+            if (matchesHeader(buffer, original, file.getOriginalContent(), objects.getXRefMaximum())) {
+                final int count = buffer.getInt();
+                if (count >= 0 && (long) count * (Integer.BYTES + 1) == buffer.remaining()) {
+                    final IntBuffer refs = buffer.slice().asIntBuffer();
+                    refs.limit(count);
+                    buffer.position(buffer.position() + count * Integer.BYTES);
+                    restored = objects.restoreIndex(refs, buffer.slice());
+                }
+            }
+            if (restored) {
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        } catch (IOException | RuntimeException e) {
+            LoggerHelper.warn(Language.ERROR_INDEX_CACHE.getString(), e, getClass());
+        }
+        if (!restored) {
+            delete(entry);
+        }
+        return restored;
+    }
+
+    /**
+     * Stores the object index of a file. An older entry of the file is
+     * replaced.
+     *
+     * @param file    the opened file
+     * @param objects the factory, which indexed all objects of the file
+     */
+    public void store(IPdfFile file, IndirectObjectFactory objects) {
+        store(file, objects, objects.getObjectTypes());
+    }
+
+    /**
+     * Stores the object index of a file, with the types of its objects.
+     *
+     * @param file    the opened file
+     * @param objects the factory, which indexed all objects of the file
+     * @param types   the ordinals of the types of the objects, by index
+     */
+    void store(IPdfFile file, IndirectObjectFactory objects, byte[] types) {
+        final File original = file.getOriginalFile();
+        if (original == null) {
+            return;
+        }
+        final Path entry = getEntry(original);
+        Path temporary = null;
+        try {
+            final byte[] path = getKey(original).getBytes(StandardCharsets.UTF_8);
+            final int count = types.length;
+            final ByteBuffer buffer = ByteBuffer.allocate(
+                    headerSize(path.length) + Integer.BYTES + count * (Integer.BYTES + 1));
+            buffer.putLong(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(IndirectObjectType.values().length)
+                    .putLong(original.length())
+                    .putLong(original.lastModified())
+                    .putLong(hash(file.getOriginalContent()))
+                    .putInt(objects.getXRefMaximum())
+                    .putInt(path.length)
+                    .put(path)
+                    .putInt(count);
+            for (int i = 0; i < count; ++i) {
+                buffer.putInt(objects.getRefByIndex(i));
+            }
+            buffer.put(types);
+            buffer.flip();
+
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, "index", ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temporary = null;
+            evict(entry);
+        } catch (IOException | RuntimeException e) {
+            LoggerHelper.warn(Language.ERROR_INDEX_CACHE.getString(), e, getClass());
+        } finally {
+            if (temporary != null) {
+                delete(temporary);
+            }
+        }
+    }
+
+    /**
+     * Deletes the entry of a file, if there is one, e.g. because the file
+     * was overwritten.
+     *
+     * @param file the file
+     */
+    public void invalidate(File file) {
+        delete(getEntry(file));
+    }
+
+    /**
+     * Deletes the least recently used entries, until the amount and the
+     * total size of the entries are within the limits. The entry which was
+     * stored last is always kept.
+     *
+     * @param stored the entry which was stored last
+     *
+     * @throws IOException if the entries could not be listed
+     */
+    private void evict(Path stored) throws IOException {
+        final List<Path> entries;
+        try (Stream<Path> files = Files.list(directory)) {
+            entries = files.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .filter(path -> !path.equals(stored))
+                    .collect(Collectors.toList());
+        }
+        final Map<Path, Long> lastUsed = new HashMap<>();
+        for (final Path path : entries) {
+            lastUsed.put(path, lastModified(path));
+        }
+        entries.sort(Comparator.comparing(lastUsed::get, Comparator.reverseOrder()));
+        int count = 1;
+        long size = Files.size(stored);
+        for (final Path path : entries) {
+            ++count;
+            size += size(path);
+            if (count > maxEntries || size > maxSize) {
+                delete(path);
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            // deleted in the meantime, or not readable: evicted first
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Hashes the length of the content, its start and its end, and samples
+     * spread over the rest of it. Incremental updates are appended at the
+     * end of a file, so they always change the hash.
+     *
+     * @param content the content to hash
+     *
+     * @return the hash of the content
+     */
+    static long hash(OriginalContent content) {
+        final long length = content.length();
+        final CRC32C crc = new CRC32C();
+        final byte[] sample = new byte[EDGE_SAMPLE_SIZE];
+        update(crc, content, 0, sample, EDGE_SAMPLE_SIZE);
+        final long middle = length - 2L * EDGE_SAMPLE_SIZE;
+        if (middle > 0) {
+            final long stride = middle / SAMPLE_COUNT;
+            for (int i = 0; i < SAMPLE_COUNT; ++i) {
+                update(crc, content, EDGE_SAMPLE_SIZE + i * stride, sample, (int) Math.min(SAMPLE_SIZE, stride));
+            }
+        }
+        update(crc, content, Math.max(0, length - EDGE_SAMPLE_SIZE), sample, EDGE_SAMPLE_SIZE);
+        return (length << 32) ^ crc.getValue();
+    }
+
+    private static void update(CRC32C crc, OriginalContent content, long position, byte[] sample, int len) {
+        final int read = content.get(position, sample, 0, len);
+        if (read > 0) {
+            crc.update(sample, 0, read);
+        }
+    }
+
+    private static boolean matchesHeader(ByteBuffer buffer, File original, OriginalContent content,
+            int xrefMaximum) {
+        if (buffer.remaining() < headerSize(0)
+                || buffer.getLong() != MAGIC
+                || buffer.getInt() != VERSION
+                || buffer.getInt() != IndirectObjectType.values().length
+                || buffer.getLong() != original.length()
+                || buffer.getLong() != original.lastModified()) {
+            return false;
+        }
+        final long hash = buffer.getLong();
+        if (buffer.getInt() != xrefMaximum) {
+            return false;
+        }
+        final int pathLength = buffer.getInt();
+        if (pathLength < 0 || pathLength > buffer.remaining() - Integer.BYTES) {
+            return false;
+        }
+        final byte[] path = new byte[pathLength];
+        buffer.get(path);
+        // a collision of the file names is unlikely, but would be fatal
+        return Arrays.equals(path, getKey(original).getBytes(StandardCharsets.UTF_8))
+                && content.length() == original.length()
+                && hash == hash(content);
+    }
+
+    private static int headerSize(int pathLength) {
+        return Long.BYTES + 3 * Integer.BYTES + 3 * Long.BYTES + Integer.BYTES + pathLength;
+    }
+
+    private Path getEntry(File file) {
+        return directory.resolve(
+                UUID.nameUUIDFromBytes(getKey(file).getBytes(StandardCharsets.UTF_8)) + EXTENSION);
+    }
+
+    private static String getKey(File file) {
+        return file.getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LoggerHelper.warn(Language.ERROR_INDEX_CACHE.getString(), e, getClass());
+        }
+    }
+}
@@ -42,19 +42,23 @@
  */
 package com.itextpdf.rups.model;
 
-import com.itextpdf.io.util.IntHashtable;
 import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfNull;
 import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfXrefTable;
 import com.itextpdf.rups.view.Language;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * A factory that can produce all the indirect objects in a PDF file.
@@ -74,26 +78,35 @@ public class IndirectObjectFactory {
      */
     protected int n;
     /**
-     * A list of all the indirect objects in a PDF file.
+     * The indirect objects in a PDF file that are kept in memory. Slots of
+     * objects that were not loaded, or were released, are empty.
      */
-    protected ArrayList<PdfObject> objects = new ArrayList<>();
+    private final SlotTable<PdfObject> objects = new SlotTable<>();
     /**
      * Mapping between the index in the objects list and the reference number in the xref table.
      */
-    protected IntHashtable idxToRef = new IntHashtable();
+    private final ObjectIndex index;
     /**
-     * Mapping between the reference number in the xref table and the index in the objects list .
+     * Set of the indexes of the objects that are already loaded.
      */
-    protected IntHashtable refToIdx = new IntHashtable();
+    private final BitSet isLoaded = new BitSet();
     /**
-     * Array to indicate if object is already loaded
+     * The ordinals of the {@link IndirectObjectType} of every object, by index.
      */
-    protected ArrayList<Boolean> isLoaded = new ArrayList<>();
+    private byte[] types = new byte[0];
+
+    /**
+     * The xref table of the document, used to index the objects without
+     * parsing them. Can be {@code null}, if it is not accessible.
+     */
+    private final PdfXrefTable xref;
 
     private static final String METHOD_NAME = "checkState";
     private static final String FIELD_NAME = "FORBID_RELEASE";
+    private static final String XREF_FIELD_NAME = "xref";
     private static Method checkStateMethod;
     private static Field forbidReleaseField;
+    private static Field xrefField;
 
     static {
         try {
@@ -104,6 +117,12 @@ public class IndirectObjectFactory {
         } catch (NoSuchFieldException | NoSuchMethodException | SecurityException ignored) {
             // left intentionally empty
         }
+        try {
+            xrefField = PdfDocument.class.getDeclaredField(XREF_FIELD_NAME);
+            xrefField.setAccessible(true);
+        } catch (NoSuchFieldException | SecurityException ignored) {
+            // left intentionally empty, objects will be parsed while indexing
+        }
     }
 
     /**
@@ -116,6 +135,8 @@ public class IndirectObjectFactory {
         this.document = document;
         current = -1;
         n = document.getNumberOfPdfObjects();
+        index = new ObjectIndex(n);
+        xref = getXrefTable(document);
     }
 
     /**
@@ -158,10 +179,7 @@ public class IndirectObjectFactory {
             }
 
             if (object != null) {
-                final int idx = size();
-                idxToRef.put(idx, current);
-                refToIdx.put(current, idx);
-                store(object);
+                store(index.add(current), object);
                 return true;
             }
         }
@@ -169,28 +187,59 @@ public class IndirectObjectFactory {
 
     }
 
+    /**
+     * Indexes the next object of the XRef table without parsing it.
+     * The entry is marked as not loaded; the object itself will only be
+     * read when it is requested with {@link #loadObjectByReference(int)}.
+     * As soon as this method returns false, it makes no longer
+     * sense calling it as all the objects have been indexed.
+     *
+     * <p>
+     * If the xref table of the document is not accessible, this falls back
+     * to {@link #storeNextObject()}.
+     * </p>
+     *
+     * @return false if there are no objects left to check.
+     */
+    public boolean indexNextObject() {
+        if (xref == null) {
+            return storeNextObject();
+        }
+        while (current < n) {
+            current++;
+            final PdfIndirectReference reference = xref.get(current);
+            // free entries would be read as null anyway, so they are skipped like in storeNextObject
+            if (reference != null && !reference.isFree()) {
+                index.add(current);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * If we store all the objects, we might run out of memory;
      * that's why we'll only store the objects that are necessary
      * to construct other objects (for instance the page table).
      *
+     * @param idx    the index of the object
      * @param object an object we might want to store
      */
-    private void store(PdfObject object) {
+    private void store(int idx, PdfObject object) {
+        setObjectType(idx, IndirectObjectType.classify(object));
         if (object.isDictionary()) {
             final PdfDictionary dict = (PdfDictionary) object;
             if (PdfName.Page.equals(dict.get(PdfName.Type, false))) {
-                objects.add(dict);
-                isLoaded.add(true);
+                objects.set(idx, dict);
+                isLoaded.set(idx);
                 return;
             }
         }
-        isLoaded.add(object.isNull());
+        isLoaded.set(idx, object.isNull());
         if (canRelease(object)) {
             object.release();
-            objects.add(PdfNull.PDF_NULL);
         } else {
-            objects.add(object);
+            objects.set(idx, object);
         }
     }
 
@@ -202,17 +251,18 @@ public class IndirectObjectFactory {
      * @return the total number of indirect objects in the PDF.
      */
     public int size() {
-        return objects.size();
+        return index.size();
     }
 
     /**
      * Gets the index of an object based on its number in the xref table.
      *
      * @param ref a number in the xref table
-     * @return the index in the list of indirect objects
+     * @return the index in the list of indirect objects, or -1 if there is
+     *         no such object
      */
     public int getIndexByRef(int ref) {
-        return refToIdx.get(ref);
+        return index.getIndex(ref);
     }
 
     /**
@@ -223,7 +273,7 @@ public class IndirectObjectFactory {
      * @return the corresponding reference number in the xref table
      */
     public int getRefByIndex(int i) {
-        return idxToRef.get(i);
+        return index.getRef(i);
     }
 
     /**
@@ -233,7 +283,8 @@ public class IndirectObjectFactory {
      * @return a PDF object
      */
     public PdfObject getObjectByIndex(int i) {
-        return getObjectByReference(getRefByIndex(i));
+        final PdfObject object = objects.get(i);
+        return object == null ? PdfNull.PDF_NULL : object;
     }
 
     /**
@@ -243,15 +294,69 @@ public class IndirectObjectFactory {
      * @return a PDF object
      */
     public PdfObject getObjectByReference(int ref) {
-        return objects.get(getIndexByRef(ref));
+        return getObjectByIndex(getIndexByRef(ref));
+    }
+
+    /**
+     * Gets the type of an object based on its index in the indirect object
+     * list. Objects are classified when they are loaded, or in bulk by a
+     * scan of the whole document.
+     *
+     * @param i an index in the indirect object list
+     * @return the type of the object, {@link IndirectObjectType#UNKNOWN} if
+     *         it was not classified yet
+     */
+    public IndirectObjectType getObjectTypeByIndex(int i) {
+        if (i < 0 || i >= types.length) {
+            return IndirectObjectType.UNKNOWN;
+        }
+        return IndirectObjectType.valueOf(types[i]);
+    }
+
+    /**
+     * Gets the indexes of all objects, ordered by their type. Objects of the
+     * same type keep the order of the indirect object list.
+     *
+     * @return the indexes in the indirect object list, ordered by type
+     */
+    public int[] getIndexesByType() {
+        final int size = size();
+        final int[] starts = new int[IndirectObjectType.values().length + 1];
+        for (int i = 0; i < size; ++i) {
+            ++starts[getObjectTypeByIndex(i).ordinal() + 1];
+        }
+        for (int type = 1; type < starts.length; ++type) {
+            starts[type] += starts[type - 1];
+        }
+        final int[] sorted = new int[size];
+        for (int i = 0; i < size; ++i) {
+            sorted[starts[getObjectTypeByIndex(i).ordinal()]++] = i;
+        }
+        return sorted;
+    }
+
+    /**
+     * Classifies a loaded object again, after it was edited.
+     *
+     * @param ref a reference number in the xref table
+     */
+    public void reclassifyByReference(int ref) {
+        final int idx = getIndexByRef(ref);
+        if (idx < 0) {
+            return;
+        }
+        final PdfObject object = getObjectByIndex(idx);
+        if (isLoaded.get(idx) || !(object instanceof PdfNull)) {
+            setObjectType(idx, IndirectObjectType.classify(object));
+        }
     }
 
     public boolean isLoadedByIndex(int i) {
-        return isLoaded.get(i);
+        return i >= 0 && isLoaded.get(i);
     }
 
     public boolean isLoadedByReference(int ref) {
-        return isLoaded.get(getIndexByRef(ref));
+        return isLoadedByIndex(getIndexByRef(ref));
     }
 
     /**
@@ -261,17 +366,149 @@ public class IndirectObjectFactory {
      * @return a PDF object
      */
     public PdfObject loadObjectByReference(int ref) {
-        PdfObject object = getObjectByReference(ref);
         final int idx = getIndexByRef(ref);
+        if (idx < 0) {
+            return readObject(ref);
+        }
+        PdfObject object = getObjectByIndex(idx);
         if (object instanceof PdfNull && !isLoaded.get(idx)) {
-            object = document.getPdfObject(ref);
+            object = readObject(ref);
             objects.set(idx, object);
-            isLoaded.set(idx, true);
+            isLoaded.set(idx);
+            setObjectType(idx, IndirectObjectType.classify(object));
         }
         return object;
     }
 
-    private boolean canRelease(PdfObject obj) {
+    /**
+     * Merges object types, which were determined by a scan of the document,
+     * into this factory. Types of objects that are already classified are
+     * kept.
+     *
+     * @param scannedTypes the ordinals of the scanned types, by index
+     */
+    void mergeObjectTypes(byte[] scannedTypes) {
+        final int count = Math.min(scannedTypes.length, size());
+        for (int i = 0; i < count; ++i) {
+            if (getObjectTypeByIndex(i) == IndirectObjectType.UNKNOWN) {
+                setObjectType(i, IndirectObjectType.valueOf(scannedTypes[i]));
+            }
+        }
+    }
+
+    /**
+     * Gets the types of all indexed objects, as they would be after merging
+     * scanned types, without changing this factory.
+     *
+     * @param scannedTypes the ordinals of the scanned types, by index
+     *
+     * @return the ordinals of the {@link IndirectObjectType} of every
+     *         object, by index
+     */
+    byte[] getObjectTypes(byte[] scannedTypes) {
+        final byte[] merged = getObjectTypes();
+        final int count = Math.min(scannedTypes.length, merged.length);
+        for (int i = 0; i < count; ++i) {
+            if (merged[i] == IndirectObjectType.UNKNOWN.ordinal()) {
+                merged[i] = scannedTypes[i];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Gets the types of all indexed objects, for instance to store them in
+     * an {@link IndexCache}.
+     *
+     * @return the ordinals of the {@link IndirectObjectType} of every
+     *         object, by index
+     */
+    byte[] getObjectTypes() {
+        return Arrays.copyOf(types, size());
+    }
+
+    /**
+     * Restores the index of the objects and their types, as stored by an
+     * {@link IndexCache}, instead of indexing the xref table. The objects
+     * themselves are only read when they are requested. Nothing is restored
+     * if the index doesn't fit the xref table of the document.
+     *
+     * @param refs  the reference numbers of the objects, by index
+     * @param types the ordinals of the types of the objects, by index
+     *
+     * @return true if the index was restored, false if the objects should
+     *         be indexed as usual
+     */
+    boolean restoreIndex(IntBuffer refs, ByteBuffer types) {
+        final int count = refs.remaining();
+        if (current != -1 || types.remaining() != count) {
+            return false;
+        }
+        int previous = -1;
+        for (int i = 0; i < count; ++i) {
+            final int ref = refs.get(refs.position() + i);
+            if (ref <= previous || ref > n || !isIndexable(ref)) {
+                return false;
+            }
+            previous = ref;
+        }
+        for (int i = 0; i < count; ++i) {
+            index.add(refs.get(refs.position() + i));
+        }
+        this.types = new byte[count];
+        types.duplicate().get(this.types);
+        current = n;
+        return true;
+    }
+
+    private boolean isIndexable(int ref) {
+        if (xref == null) {
+            return true;
+        }
+        final PdfIndirectReference reference = xref.get(ref);
+        return reference != null && !reference.isFree();
+    }
+
+    private void setObjectType(int idx, IndirectObjectType type) {
+        if (idx >= types.length) {
+            if (type == IndirectObjectType.UNKNOWN) {
+                return;
+            }
+            types = Arrays.copyOf(types, Math.max(idx + 1, size()));
+        }
+        types[idx] = (byte) type.ordinal();
+    }
+
+    /**
+     * Reads an object, which was indexed, but not parsed yet. If it cannot
+     * be read, a PdfNull is returned, like for objects that failed to load
+     * while storing them.
+     *
+     * @param ref a reference number in the xref table.
+     * @return a PDF object
+     */
+    private PdfObject readObject(int ref) {
+        PdfObject object = null;
+        try {
+            object = document.getPdfObject(ref);
+        } catch (PdfException ignored) {
+            LoggerHelper.info(String.format(Language.ERROR_READING_OBJECT_NUMBER.getString(), ref), getClass());
+        }
+        return object == null ? PdfNull.PDF_NULL : object;
+    }
+
+    private static PdfXrefTable getXrefTable(PdfDocument document) {
+        if (xrefField == null) {
+            return null;
+        }
+        try {
+            return (PdfXrefTable) xrefField.get(document);
+        } catch (IllegalAccessException | IllegalArgumentException | ClassCastException any) {
+            return null;
+        }
+    }
+
+    static boolean canRelease(PdfObject obj) {
         try {
             return !(Boolean) checkStateMethod.invoke(obj, forbidReleaseField.get(obj));
         } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException any) {
@@ -282,10 +519,10 @@ public class IndirectObjectFactory {
     void addNewIndirectObject(PdfObject object) {
         object.makeIndirect(document);
         ++n;
-        final int idx = size();
-        idxToRef.put(idx, object.getIndirectReference().getObjNumber());
-        refToIdx.put(object.getIndirectReference().getObjNumber(), idx);
-        objects.add(object);
+        final int idx = index.add(object.getIndirectReference().getObjNumber());
+        objects.set(idx, object);
+        isLoaded.set(idx);
+        setObjectType(idx, IndirectObjectType.classify(object));
         LoggerHelper.info(
                 String.format(Language.INDIRECT_OBJECT_CREATION_SUCCESS.getString(),
                         object.getIndirectReference().getObjNumber()),
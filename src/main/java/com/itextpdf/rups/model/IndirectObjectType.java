@@ -0,0 +1,141 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+/**
+ * A rough classification of the indirect objects in a PDF file.
+ */
+public enum IndirectObjectType {
+    /**
+     * The object was not classified yet.
+     */
+    UNKNOWN,
+    CATALOG,
+    PAGES,
+    PAGE,
+    FONT,
+    IMAGE,
+    FORM_XOBJECT,
+    STREAM,
+    ANNOTATION,
+    STRUCTURE_ELEMENT,
+    DICTIONARY,
+    ARRAY,
+    /**
+     * Any other direct value, like a number, string or null.
+     */
+    OTHER;
+
+    private static final IndirectObjectType[] VALUES = values();
+
+    /**
+     * Classifies a PDF object, only looking at its own dictionary entries.
+     *
+     * @param object the object to classify
+     *
+     * @return the type of the object
+     */
+    public static IndirectObjectType classify(PdfObject object) {
+        if (object == null) {
+            return OTHER;
+        }
+        switch (object.getType()) {
+            case PdfObject.STREAM:
+                final PdfName subtype = ((PdfDictionary) object).getAsName(PdfName.Subtype);
+                if (PdfName.Image.equals(subtype)) {
+                    return IMAGE;
+                }
+                if (PdfName.Form.equals(subtype)) {
+                    return FORM_XOBJECT;
+                }
+                return STREAM;
+            case PdfObject.DICTIONARY:
+                return classifyDictionary((PdfDictionary) object);
+            case PdfObject.ARRAY:
+                return ARRAY;
+            default:
+                return OTHER;
+        }
+    }
+
+    /**
+     * Gets a type by its ordinal, as stored in compact tables.
+     *
+     * @param ordinal the ordinal of the type
+     *
+     * @return the type, or {@link #UNKNOWN} for an invalid ordinal
+     */
+    static IndirectObjectType valueOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            return UNKNOWN;
+        }
+        return VALUES[ordinal];
+    }
+
+    private static IndirectObjectType classifyDictionary(PdfDictionary dictionary) {
+        final PdfName type = dictionary.getAsName(PdfName.Type);
+        if (PdfName.Catalog.equals(type)) {
+            return CATALOG;
+        }
+        if (PdfName.Pages.equals(type)) {
+            return PAGES;
+        }
+        if (PdfName.Page.equals(type)) {
+            return PAGE;
+        }
+        if (PdfName.Font.equals(type) || PdfName.FontDescriptor.equals(type)) {
+            return FONT;
+        }
+        if (PdfName.Annot.equals(type)) {
+            return ANNOTATION;
+        }
+        if (PdfName.StructElem.equals(type)) {
+            return STRUCTURE_ELEMENT;
+        }
+        return DICTIONARY;
+    }
+}
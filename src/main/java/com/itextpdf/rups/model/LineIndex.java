@@ -0,0 +1,283 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An index of the line starts in the raw content of a file.
+ *
+ * <p>
+ * A line ends after a line feed, a carriage return, or a carriage return
+ * followed by a line feed. Lines longer than {@link #MAX_LINE_LENGTH} bytes,
+ * e.g. in binary stream data, are split, so a line can always be shown at
+ * once. Only the start of every {@link #CHECKPOINT_INTERVAL}-th line is
+ * stored; the other lines are found by scanning forward from the nearest
+ * checkpoint, so the index stays small, even for files of several gigabytes.
+ * </p>
+ *
+ * <p>
+ * The index is built by a single background scan, while the lines which are
+ * already indexed can be read from another thread.
+ * </p>
+ */
+public final class LineIndex {
+    /**
+     * The maximum length of a line in bytes.
+     */
+    public static final int MAX_LINE_LENGTH = 4096;
+
+    /**
+     * The number of lines between two stored line starts.
+     */
+    static final int CHECKPOINT_INTERVAL = 64;
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final OriginalContent content;
+
+    private volatile long[] checkpoints = new long[1024];
+
+    private volatile int lineCount;
+
+    private volatile boolean complete;
+
+    /**
+     * Creates an empty index over some content.
+     *
+     * @param content the content to index
+     */
+    public LineIndex(OriginalContent content) {
+        this.content = content;
+    }
+
+    /**
+     * Scans the content for line starts. Lines become available as soon as they are found.
+     *
+     * @param cancelled checked regularly; once it returns {@code true}, the scan stops
+     */
+    public void build(BooleanSupplier cancelled) {
+        final Reader reader = new Reader();
+        final long length = content.length();
+        long start = 0;
+        int count = 0;
+        while (start < length) {
+            if (count % CHECKPOINT_INTERVAL == 0) {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                final int checkpoint = count / CHECKPOINT_INTERVAL;
+                long[] current = checkpoints;
+                if (checkpoint == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                    checkpoints = current;
+                }
+                current[checkpoint] = start;
+            }
+            start = reader.nextLineStart(start);
+            lineCount = ++count;
+        }
+        complete = true;
+    }
+
+    /**
+     * Gets the number of lines which are indexed so far.
+     *
+     * @return the number of indexed lines
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Checks whether the whole content was indexed.
+     *
+     * @return {@code true} if the scan finished
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the content which is indexed.
+     *
+     * @return the content
+     */
+    public OriginalContent getContent() {
+        return content;
+    }
+
+    /**
+     * Gets the offset of the first byte of an indexed line.
+     *
+     * @param line the number of the line, starting at 0
+     *
+     * @return the offset of the line start, or the length of the content for
+     *         the line after the last indexed line
+     */
+    public long getLineStart(int line) {
+        final int count = lineCount;
+        if (line >= count) {
+            return line == count && complete ? content.length() : getLineStart(count - 1, 1);
+        }
+        return getLineStart(line, 0);
+    }
+
+    /**
+     * Gets the starts of a range of indexed lines at once.
+     *
+     * @param first the number of the first line
+     * @param count the number of lines, which must all be indexed
+     *
+     * @return the {@code count + 1} offsets of the line starts, of which the
+     *         last one is the end of the last line
+     */
+    public long[] getLineStarts(int first, int count) {
+        final long[] starts = new long[count + 1];
+        final Reader reader = new Reader();
+        long start = checkpoints[first / CHECKPOINT_INTERVAL];
+        for (int i = first % CHECKPOINT_INTERVAL; i > 0; --i) {
+            start = reader.nextLineStart(start);
+        }
+        starts[0] = start;
+        for (int i = 1; i <= count; ++i) {
+            starts[i] = reader.nextLineStart(starts[i - 1]);
+        }
+        return starts;
+    }
+
+    /**
+     * Gets the number of the indexed line containing a byte.
+     *
+     * @param offset the offset of the byte
+     *
+     * @return the number of the line, or of the last indexed line if the byte isn't indexed yet
+     */
+    public int getLineOf(long offset) {
+        final int count = lineCount;
+        if (count == 0) {
+            return 0;
+        }
+        final long[] current = checkpoints;
+        final int last = (count - 1) / CHECKPOINT_INTERVAL;
+        int checkpoint = Arrays.binarySearch(current, 0, last + 1, offset);
+        if (checkpoint < 0) {
+            checkpoint = -checkpoint - 2;
+        }
+        final Reader reader = new Reader();
+        int line = checkpoint * CHECKPOINT_INTERVAL;
+        long start = current[checkpoint];
+        while (line < count - 1) {
+            final long next = reader.nextLineStart(start);
+            if (next > offset) {
+                break;
+            }
+            start = next;
+            ++line;
+        }
+        return line;
+    }
+
+    private long getLineStart(int line, int skip) {
+        if (line < 0) {
+            return 0;
+        }
+        final Reader reader = new Reader();
+        long start = checkpoints[line / CHECKPOINT_INTERVAL];
+        for (int i = line % CHECKPOINT_INTERVAL + skip; i > 0; --i) {
+            start = reader.nextLineStart(start);
+        }
+        return start;
+    }
+
+    /**
+     * Reads the content through a small block buffer.
+     */
+    private final class Reader {
+        private final byte[] block = new byte[BLOCK_SIZE];
+
+        private long blockStart = -1;
+
+        private int blockLength;
+
+        int get(long position) {
+            if (!load(position)) {
+                return -1;
+            }
+            return block[(int) (position - blockStart)] & 0xff;
+        }
+
+        long nextLineStart(long start) {
+            final long limit = Math.min(content.length(), start + MAX_LINE_LENGTH);
+            long position = start;
+            while (position < limit && load(position)) {
+                final int to = (int) Math.min(blockLength, limit - blockStart);
+                for (int i = (int) (position - blockStart); i < to; ++i) {
+                    final byte b = block[i];
+                    if (b == '\n') {
+                        return blockStart + i + 1;
+                    }
+                    if (b == '\r') {
+                        final long end = blockStart + i + 1;
+                        return get(end) == '\n' ? end + 1 : end;
+                    }
+                }
+                position = blockStart + to;
+            }
+            return limit;
+        }
+
+        private boolean load(long position) {
+            if (position >= blockStart && position < blockStart + blockLength) {
+                return true;
+            }
+            if (position >= content.length()) {
+                return false;
+            }
+            blockStart = position;
+            blockLength = content.get(position, block, 0, block.length);
+            return true;
+        }
+    }
+}
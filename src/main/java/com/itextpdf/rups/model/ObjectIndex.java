@@ -0,0 +1,168 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.io.util.IntHashtable;
+
+import java.util.Arrays;
+
+/**
+ * A two-way mapping between the index of an indirect object in the list of
+ * objects and its reference number in the xref table.
+ *
+ * <p>
+ * Reference numbers are normally dense, so the reverse mapping is a plain
+ * {@code int[]} addressed by reference number, with -1 marking the gaps of
+ * free entries. If the reference numbers turn out to be too sparse for that
+ * (less than a quarter of the array would be used), the reverse mapping
+ * falls back to a hashtable.
+ * </p>
+ */
+final class ObjectIndex {
+    private static final int NO_INDEX = -1;
+    private static final int MIN_CAPACITY = 1024;
+
+    private int size;
+
+    private int[] refs;
+
+    private int[] indices;
+
+    private IntHashtable sparseIndices;
+
+    /**
+     * Creates an index for the expected amount of reference numbers.
+     *
+     * @param expectedMaximum the highest expected reference number
+     */
+    ObjectIndex(int expectedMaximum) {
+        final int capacity = Math.max(MIN_CAPACITY, expectedMaximum + 1);
+        refs = new int[capacity];
+        indices = new int[capacity];
+        Arrays.fill(indices, NO_INDEX);
+    }
+
+    /**
+     * Returns the amount of indexed objects.
+     *
+     * @return the amount of indexed objects
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a reference number to the index.
+     *
+     * @param ref the reference number
+     *
+     * @return the index assigned to the reference number
+     */
+    int add(int ref) {
+        final int idx = size;
+        if (idx == refs.length) {
+            refs = Arrays.copyOf(refs, idx + (idx >> 1));
+        }
+        refs[idx] = ref;
+        putIndex(ref, idx);
+        ++size;
+        return idx;
+    }
+
+    /**
+     * Returns the reference number of an index.
+     *
+     * @param idx the index
+     *
+     * @return the reference number
+     */
+    int getRef(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(idx));
+        }
+        return refs[idx];
+    }
+
+    /**
+     * Returns the index of a reference number.
+     *
+     * @param ref the reference number
+     *
+     * @return the index, or -1 if the reference number is not indexed
+     */
+    int getIndex(int ref) {
+        if (sparseIndices != null) {
+            return sparseIndices.containsKey(ref) ? sparseIndices.get(ref) : NO_INDEX;
+        }
+        if (ref < 0 || ref >= indices.length) {
+            return NO_INDEX;
+        }
+        return indices[ref];
+    }
+
+    private void putIndex(int ref, int idx) {
+        if (sparseIndices == null && ref >= indices.length) {
+            final int capacity = Math.max(ref + 1, indices.length + (indices.length >> 1));
+            if (capacity > Math.max(MIN_CAPACITY, 4 * size)) {
+                switchToSparse();
+            } else {
+                final int oldLength = indices.length;
+                indices = Arrays.copyOf(indices, capacity);
+                Arrays.fill(indices, oldLength, capacity, NO_INDEX);
+            }
+        }
+        if (sparseIndices != null) {
+            sparseIndices.put(ref, idx);
+        } else {
+            indices[ref] = idx;
+        }
+    }
+
+    private void switchToSparse() {
+        sparseIndices = new IntHashtable(Math.max(MIN_CAPACITY, 2 * size));
+        for (int i = 0; i < size; ++i) {
+            sparseIndices.put(refs[i], i);
+        }
+        indices = null;
+    }
+}
@@ -42,10 +42,13 @@
  */
 package com.itextpdf.rups.model;
 
+import com.itextpdf.rups.RupsConfiguration;
+import com.itextpdf.rups.event.ObjectTypesScannedEvent;
 import com.itextpdf.rups.event.PostOpenDocumentEvent;
 import com.itextpdf.rups.view.Language;
 
 import java.util.Observer;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.SwingUtilities;
 
 /**
@@ -75,6 +78,11 @@ public class ObjectLoader extends BackgroundTask {
 
     private final IProgressDialog progress;
 
+    /**
+     * Whether the index of the objects was restored from the {@link IndexCache}.
+     */
+    private boolean restored;
+
     /**
      * Creates a new ObjectLoader.
      *
@@ -84,6 +92,7 @@ public class ObjectLoader extends BackgroundTask {
      * @param file       the PdfFile from which the objects will be read.
      */
     public ObjectLoader(Observer observer, IPdfFile file, String loaderName, IProgressDialog progress) {
+        super(loaderName, TaskPriority.NORMAL);
         this.observer = observer;
         this.file = file;
         this.loaderName = loaderName;
@@ -133,19 +142,46 @@ public class ObjectLoader extends BackgroundTask {
     @Override
     public void doTask() {
         objects = new IndirectObjectFactory(file.getPdfDocument());
-        final int n = objects.getXRefMaximum();
-        SwingUtilities.invokeLater(() -> {
-            progress.setMessage(Language.XREF_READING.getString());
-            progress.setTotal(n);
-        });
-        while (objects.storeNextObject()) {
-            SwingUtilities.invokeLater(() -> progress.setValue(objects.getCurrent()));
+        final IndexCache cache = getIndexCache();
+        restored = cache != null && cache.restore(file, objects);
+        if (!restored) {
+            indexObjects();
+        }
+        if (isCancelled()) {
+            return;
+        }
+        if (!restored && cache != null && !RupsConfiguration.INSTANCE.isParallelScanEnabled()) {
+            cache.store(file, objects);
         }
-        SwingUtilities.invokeLater(() -> progress.setTotal(0));
         nodes = new TreeNodeFactory(objects);
         SwingUtilities.invokeLater(() -> progress.setMessage(Language.GUI_UPDATING.getString()));
     }
 
+    /**
+     * Indexes the objects of the xref table, without parsing them.
+     */
+    private void indexObjects() {
+        final ProgressSampler sampler = new ProgressSampler(progress);
+        sampler.start(Language.XREF_READING.getString(), objects.getXRefMaximum());
+        while (!isCancelled() && objects.indexNextObject()) {
+            sampler.set(objects.getCurrent());
+        }
+        sampler.stop();
+    }
+
+    private static IndexCache getIndexCache() {
+        return RupsConfiguration.INSTANCE.isIndexCacheEnabled() ? IndexCache.getDefault() : null;
+    }
+
+    /**
+     * Cancels the loading and hides the progress dialog.
+     */
+    @Override
+    public void cancel() {
+        super.cancel();
+        SwingUtilities.invokeLater(() -> progress.setVisible(false));
+    }
+
     @Override
     public void finished() {
         try {
@@ -155,5 +191,45 @@ public class ObjectLoader extends BackgroundTask {
             LoggerHelper.error(ex.getLocalizedMessage(), ex, getClass());
         }
         progress.setVisible(false);
+        if (!restored && RupsConfiguration.INSTANCE.isParallelScanEnabled()) {
+            new ObjectTypeScan().start(getGroup());
+        }
+    }
+
+    /**
+     * Classifies all indexed objects on all available cores, after the
+     * document is shown, and merges the result into the object factory.
+     * If the scan fails, the objects are simply classified when they are
+     * loaded.
+     */
+    private final class ObjectTypeScan extends BackgroundTask {
+        private byte[] types;
+
+        ObjectTypeScan() {
+            super(Language.OBJECTS_SCANNING.getString(), TaskPriority.BULK);
+        }
+
+        @Override
+        public void doTask() {
+            try {
+                types = new ParallelObjectScanner(file, objects, new AtomicInteger(), this::isCancelled).scan();
+            } catch (RuntimeException e) {
+                LoggerHelper.warn(Language.ERROR_SCANNING_OBJECTS.getString(), e, getClass());
+                return;
+            }
+            final IndexCache cache = getIndexCache();
+            if (cache != null && !isCancelled()) {
+                cache.store(file, objects, objects.getObjectTypes(types));
+            }
+        }
+
+        @Override
+        public void finished() {
+            if (types == null) {
+                return;
+            }
+            objects.mergeObjectTypes(types);
+            observer.update(null, new ObjectTypesScannedEvent(ObjectLoader.this));
+        }
     }
 }
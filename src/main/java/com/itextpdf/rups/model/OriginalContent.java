@@ -0,0 +1,375 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.rups.view.Language;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read-only view on the raw bytes of an opened PDF document.
+ *
+ * <p>
+ * The content is either backed by a byte array, or by a memory mapping of
+ * the original file. In the latter case the bytes are paged in by the
+ * operating system on demand, so opening a document costs almost no heap,
+ * regardless of its size. Mappings are split into segments, as a single
+ * {@link java.nio.MappedByteBuffer} cannot be larger than 2 GiB.
+ * </p>
+ *
+ * <p>
+ * All read operations use absolute positions and never touch the position
+ * of the underlying buffers, so the same content can be read concurrently
+ * from several threads.
+ * </p>
+ *
+ * <p>
+ * A mapping keeps the file locked on some platforms until it is released,
+ * so the owner of the content has to {@link #close()} it. Closing waits for
+ * the reads in progress, and later reads behave as if the content was
+ * empty, so it is safe to close the content while other threads still
+ * read it.
+ * </p>
+ */
+public final class OriginalContent {
+    /**
+     * Size of a single mapped segment.
+     */
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private static final ByteBuffer[] CLOSED = new ByteBuffer[0];
+
+    private static Object unsafe;
+    private static Method invokeCleanerMethod;
+
+    static {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ClassNotFoundException | NoSuchFieldException | NoSuchMethodException
+                | IllegalAccessException | RuntimeException ignored) {
+            // left intentionally empty, mappings are then released by the garbage collector
+        }
+    }
+
+    private volatile ByteBuffer[] segments;
+
+    /**
+     * The reads of the mapped segments which started and which finished, so
+     * closing can wait for the reads in progress before unmapping. These are
+     * striped counters, as many threads read the content byte by byte.
+     */
+    private final LongAdder readsStarted = new LongAdder();
+    private final LongAdder readsFinished = new LongAdder();
+
+    private final long length;
+
+    private final boolean mapped;
+
+    private OriginalContent(ByteBuffer[] segments, long length, boolean mapped) {
+        this.segments = segments;
+        this.length = length;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Maps the provided file into memory in read-only mode.
+     *
+     * @param file the file to map
+     *
+     * @return the mapped content of the file
+     *
+     * @throws IOException if the file could not be mapped
+     */
+    public static OriginalContent map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final int count = (int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            final ByteBuffer[] segments = new ByteBuffer[count];
+            for (int i = 0; i < count; ++i) {
+                final long offset = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(
+                        FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset)
+                );
+            }
+            // The mappings stay valid after the channel has been closed.
+            return new OriginalContent(segments, size, true);
+        }
+    }
+
+    /**
+     * Wraps a byte array, which already contains the content of a document.
+     *
+     * @param content the raw content
+     *
+     * @return the content view over the array
+     */
+    public static OriginalContent wrap(byte[] content) {
+        return new OriginalContent(new ByteBuffer[] {ByteBuffer.wrap(content)}, content.length, false);
+    }
+
+    /**
+     * Returns the length of the content in bytes.
+     *
+     * @return the length of the content
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the byte at the provided position.
+     *
+     * @param position the absolute position
+     *
+     * @return the byte value in the range [0, 255], or -1 if the position is
+     *         outside of the content
+     */
+    public int get(long position) {
+        if (position < 0 || position >= length) {
+            return -1;
+        }
+        readsStarted.increment();
+        try {
+            // only read after the start was counted, so close() either waits or the read sees it
+            final ByteBuffer[] current = segments;
+            if (current == CLOSED) {
+                return -1;
+            }
+            return current[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE)) & 0xff;
+        } finally {
+            readsFinished.increment();
+        }
+    }
+
+    /**
+     * Copies a range of the content into the provided array.
+     *
+     * @param position the absolute position of the first byte to copy
+     * @param bytes    the destination array
+     * @param off      the offset in the destination array
+     * @param len      the maximum amount of bytes to copy
+     *
+     * @return the amount of bytes copied, or -1 if the position is outside
+     *         of the content
+     */
+    public int get(long position, byte[] bytes, int off, int len) {
+        if (position < 0 || position >= length) {
+            return -1;
+        }
+        readsStarted.increment();
+        try {
+            final ByteBuffer[] current = segments;
+            if (current == CLOSED) {
+                return -1;
+            }
+            final int total = (int) Math.min(len, length - position);
+            int copied = 0;
+            while (copied < total) {
+                final long at = position + copied;
+                final ByteBuffer segment = current[(int) (at / SEGMENT_SIZE)].duplicate();
+                segment.position((int) (at % SEGMENT_SIZE));
+                final int chunk = Math.min(total - copied, segment.remaining());
+                segment.get(bytes, off + copied, chunk);
+                copied += chunk;
+            }
+            return total;
+        } finally {
+            readsFinished.increment();
+        }
+    }
+
+    /**
+     * Returns a read-only buffer over a range of the content. If the content
+     * is a wrapped array, no bytes are copied; a range of a mapping is
+     * always copied, as a buffer over the mapping would outlive
+     * {@link #close()}.
+     *
+     * @param position the absolute position of the first byte
+     * @param len      the length of the range
+     *
+     * @return a read-only buffer over the range
+     */
+    public ByteBuffer slice(long position, int len) {
+        if (position < 0 || len < 0 || position + len > length) {
+            throw new IndexOutOfBoundsException(position + ", " + len);
+        }
+        final ByteBuffer[] current = ensureOpen();
+        if (!mapped) {
+            final ByteBuffer segment = current[0].asReadOnlyBuffer();
+            segment.position((int) position);
+            segment.limit((int) position + len);
+            return segment.slice();
+        }
+        return ByteBuffer.wrap(getBytes(position, len)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a copy of a range of the content.
+     *
+     * @param position the absolute position of the first byte
+     * @param len      the length of the range
+     *
+     * @return a new array with the bytes of the range
+     */
+    public byte[] getBytes(long position, int len) {
+        ensureOpen();
+        final byte[] bytes = new byte[len];
+        get(position, bytes, 0, len);
+        return bytes;
+    }
+
+    /**
+     * Copies the whole content into a new byte array. This is only meant for
+     * consumers, which cannot work on the view, as it defeats the purpose of
+     * mapping the file.
+     *
+     * @return a new array with the whole content
+     */
+    public byte[] toByteArray() {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException(Language.ERROR_CONTENT_TOO_LARGE.getString());
+        }
+        return getBytes(0, (int) length);
+    }
+
+    /**
+     * Releases the content. A memory mapping of a file is unmapped as soon
+     * as the reads in progress are done, so the file can be replaced.
+     * Reading an unmapped buffer would crash the virtual machine, so reads
+     * which start after this behave as if the content was empty.
+     */
+    public void close() {
+        final ByteBuffer[] released = segments;
+        segments = CLOSED;
+        if (!mapped || invokeCleanerMethod == null) {
+            return;
+        }
+        awaitReads();
+        for (final ByteBuffer segment : released) {
+            try {
+                invokeCleanerMethod.invoke(unsafe, segment);
+            } catch (IllegalAccessException | InvocationTargetException | RuntimeException e) {
+                // the mapping is released by the garbage collector instead
+                LoggerHelper.warn(Language.ERROR_RELEASING_CONTENT.getString(), e, OriginalContent.class);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the content was released.
+     *
+     * @return {@code true} if the content was closed
+     */
+    public boolean isClosed() {
+        return segments == CLOSED;
+    }
+
+    /**
+     * Creates a new iText byte source over this content. Every source keeps
+     * no state of its own, so each reader can get a separate one.
+     *
+     * @return a new byte source
+     */
+    public IRandomAccessSource createSource() {
+        return new ContentSource();
+    }
+
+    /**
+     * Waits until every read, which started before the content was closed,
+     * has finished. Reads copy at most a requested range, so this is short.
+     */
+    private void awaitReads() {
+        // finished reads are summed first: a read counted there was counted as started before
+        while (readsFinished.sum() != readsStarted.sum()) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private ByteBuffer[] ensureOpen() {
+        final ByteBuffer[] current = segments;
+        if (current == CLOSED) {
+            throw new IllegalStateException(Language.ERROR_CONTENT_CLOSED.getString());
+        }
+        return current;
+    }
+
+    /**
+     * {@link IRandomAccessSource} adapter for {@link com.itextpdf.kernel.pdf.PdfReader} instances.
+     * Closing it does not release the content, as it is shared.
+     */
+    private final class ContentSource implements IRandomAccessSource {
+        @Override
+        public int get(long position) {
+            return OriginalContent.this.get(position);
+        }
+
+        @Override
+        public int get(long position, byte[] bytes, int off, int len) {
+            return OriginalContent.this.get(position, bytes, off, len);
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public void close() {
+            // The content is owned by the PdfFile, not by the reader.
+        }
+    }
+}
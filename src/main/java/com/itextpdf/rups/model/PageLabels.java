@@ -0,0 +1,140 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.numbering.EnglishAlphabetNumbering;
+import com.itextpdf.kernel.numbering.RomanNumbering;
+import com.itextpdf.kernel.pdf.PdfCatalog;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumTree;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfString;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes the labels of single pages from the /PageLabels number tree.
+ *
+ * <p>
+ * Only the ranges of the number tree are read up front; a label is formatted
+ * when it is requested, like {@link com.itextpdf.kernel.pdf.PdfDocument#getPageLabels()}
+ * would format it.
+ * </p>
+ */
+public final class PageLabels {
+    private final int[] starts;
+
+    private final PdfDictionary[] ranges;
+
+    /**
+     * Reads the page label ranges of a document.
+     *
+     * @param catalog the catalog of the document
+     */
+    public PageLabels(PdfCatalog catalog) {
+        final Map<Integer, PdfObject> numbers = new TreeMap<>();
+        if (catalog.getPdfObject().containsKey(PdfName.PageLabels)) {
+            numbers.putAll(new PdfNumTree(catalog, PdfName.PageLabels).getNumbers());
+        }
+        numbers.values().removeIf(range -> !(range instanceof PdfDictionary));
+        starts = new int[numbers.size()];
+        ranges = new PdfDictionary[numbers.size()];
+        int i = 0;
+        for (Map.Entry<Integer, PdfObject> entry : numbers.entrySet()) {
+            starts[i] = entry.getKey();
+            ranges[i++] = (PdfDictionary) entry.getValue();
+        }
+    }
+
+    /**
+     * Checks whether the document has page labels.
+     *
+     * @return true if there is at least one page label range
+     */
+    public boolean hasLabels() {
+        return starts.length > 0;
+    }
+
+    /**
+     * Gets the label of a page.
+     *
+     * @param pageIndex the zero-based index of the page
+     *
+     * @return the label of the page
+     */
+    public String getLabel(int pageIndex) {
+        int range = Arrays.binarySearch(starts, pageIndex);
+        if (range < 0) {
+            range = -range - 2;
+        }
+        if (range < 0) {
+            // pages before the first range are numbered with decimals
+            return String.valueOf(pageIndex + 1);
+        }
+        final PdfDictionary dictionary = ranges[range];
+        final PdfNumber start = dictionary.getAsNumber(PdfName.St);
+        final int number = (start == null ? 1 : start.intValue()) + pageIndex - starts[range];
+        final PdfString prefixString = dictionary.getAsString(PdfName.P);
+        final String prefix = prefixString == null ? "" : prefixString.toUnicodeString();
+        final PdfName style = dictionary.getAsName(PdfName.S);
+        if (style == null) {
+            return prefix;
+        }
+        switch (style.getValue()) {
+            case "R":
+                return prefix + RomanNumbering.toRomanUpperCase(number);
+            case "r":
+                return prefix + RomanNumbering.toRomanLowerCase(number);
+            case "A":
+                return prefix + EnglishAlphabetNumbering.toLatinAlphabetNumberUpperCase(number);
+            case "a":
+                return prefix + EnglishAlphabetNumbering.toLatinAlphabetNumberLowerCase(number);
+            default:
+                return prefix + number;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Finds the pages of a document by their index, without walking the whole
+ * page tree.
+ *
+ * <p>
+ * The number of pages is taken from the /Count entry of the root of the
+ * page tree. To find a page, the tree is descended from the root; for every
+ * intermediate node that is passed, the page counts of its kids are summed
+ * once and cached, so a lookup only reads the nodes on the path to the page.
+ * Leaves aren't read at all if the count of their parent shows that all its
+ * kids are pages. The index of a page is found the other way around, by
+ * ascending from the page to the root.
+ * </p>
+ */
+public final class PageTreeIndex {
+    /**
+     * The maximum depth of the page tree, to stop at circular references.
+     */
+    private static final int MAX_DEPTH = 256;
+
+    private final PdfDictionary root;
+
+    /**
+     * The cumulative page counts of the kids of the intermediate nodes which
+     * were passed: entry {@code i} is the number of pages before kid {@code i},
+     * and the last entry is the number of pages below the node.
+     */
+    private final Map<PdfDictionary, int[]> offsets = new IdentityHashMap<>();
+
+    /**
+     * Creates an index over the page tree of a catalog.
+     *
+     * @param catalog the catalog of the document
+     */
+    public PageTreeIndex(PdfDictionary catalog) {
+        this.root = catalog == null ? null : catalog.getAsDictionary(PdfName.Pages);
+    }
+
+    /**
+     * Gets the number of pages, as stated by the root of the page tree.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return root == null ? 0 : getCount(root);
+    }
+
+    /**
+     * Gets the reference to a page.
+     *
+     * @param pageIndex the zero-based index of the page
+     *
+     * @return the reference to the page dictionary, or {@code null} if the
+     *         page tree has no such page
+     */
+    public PdfIndirectReference getPageReference(int pageIndex) {
+        if (root == null || pageIndex < 0) {
+            return null;
+        }
+        PdfDictionary node = root;
+        int index = pageIndex;
+        for (int depth = 0; depth < MAX_DEPTH; ++depth) {
+            final PdfArray kids = node.getAsArray(PdfName.Kids);
+            if (kids == null) {
+                return null;
+            }
+            final int[] kidOffsets = getOffsets(node, kids);
+            int kid = Arrays.binarySearch(kidOffsets, 0, kids.size(), index);
+            if (kid < 0) {
+                kid = -kid - 2;
+            } else {
+                // skip kids without pages
+                while (kid + 1 < kids.size() && kidOffsets[kid + 1] == index) {
+                    ++kid;
+                }
+            }
+            if (kid < 0 || index >= kidOffsets[kids.size()]) {
+                return null;
+            }
+            final PdfObject kidReference = kids.get(kid, false);
+            if (kidOffsets[kid + 1] - kidOffsets[kid] == 1 && isLeaf(node, kids, kid)) {
+                return kidReference instanceof PdfIndirectReference ? (PdfIndirectReference) kidReference
+                        : kids.get(kid).getIndirectReference();
+            }
+            final PdfDictionary next = kids.getAsDictionary(kid);
+            if (next == null) {
+                return null;
+            }
+            index -= kidOffsets[kid];
+            node = next;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the index of a page, by following the /Parent entries up to the
+     * root of the page tree.
+     *
+     * @param page the page dictionary
+     *
+     * @return the zero-based index of the page, or -1 if the page isn't
+     *         part of the page tree
+     */
+    public int getPageIndex(PdfDictionary page) {
+        if (root == null || page == null) {
+            return -1;
+        }
+        PdfDictionary node = page;
+        int index = 0;
+        for (int depth = 0; depth < MAX_DEPTH; ++depth) {
+            if (isSameObject(node, root)) {
+                return index;
+            }
+            final PdfDictionary parent = node.getAsDictionary(PdfName.Parent);
+            final PdfArray kids = parent == null ? null : parent.getAsArray(PdfName.Kids);
+            if (kids == null) {
+                return -1;
+            }
+            final int kid = indexOf(kids, node);
+            if (kid < 0) {
+                return -1;
+            }
+            index += getOffsets(parent, kids)[kid];
+            node = parent;
+        }
+        return -1;
+    }
+
+    private static int indexOf(PdfArray kids, PdfDictionary node) {
+        for (int i = 0; i < kids.size(); ++i) {
+            final PdfObject kid = kids.get(i, false);
+            if (kid == node || (kid instanceof PdfIndirectReference && kid.equals(node.getIndirectReference()))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSameObject(PdfDictionary dictionary, PdfDictionary other) {
+        return dictionary == other || (dictionary.getIndirectReference() != null
+                && dictionary.getIndirectReference().equals(other.getIndirectReference()));
+    }
+
+    /**
+     * Gets the cumulative page counts of the kids of an intermediate node.
+     */
+    private int[] getOffsets(PdfDictionary node, PdfArray kids) {
+        int[] kidOffsets = offsets.get(node);
+        if (kidOffsets == null) {
+            kidOffsets = new int[kids.size() + 1];
+            final boolean leaves = getCount(node) == kids.size();
+            for (int i = 0; i < kids.size(); ++i) {
+                kidOffsets[i + 1] = kidOffsets[i] + (leaves ? 1 : getPageCount(kids.getAsDictionary(i)));
+            }
+            offsets.put(node, kidOffsets);
+        }
+        return kidOffsets;
+    }
+
+    /**
+     * Checks whether a kid, which counts for a single page, is a page itself.
+     * If the count of the parent showed that all its kids are pages, the kid
+     * is read to verify this; if it's not, the counts of the parent are
+     * summed after all.
+     */
+    private boolean isLeaf(PdfDictionary node, PdfArray kids, int kid) {
+        final PdfDictionary dictionary = kids.getAsDictionary(kid);
+        if (dictionary == null || !PdfName.Pages.equals(dictionary.getAsName(PdfName.Type))) {
+            return true;
+        }
+        final int[] kidOffsets = offsets.get(node);
+        for (int i = 0; i < kids.size(); ++i) {
+            kidOffsets[i + 1] = kidOffsets[i] + getPageCount(kids.getAsDictionary(i));
+        }
+        return false;
+    }
+
+    private static int getPageCount(PdfDictionary kid) {
+        if (kid == null) {
+            return 0;
+        }
+        if (PdfName.Pages.equals(kid.getAsName(PdfName.Type))) {
+            return getCount(kid);
+        }
+        return 1;
+    }
+
+    private static int getCount(PdfDictionary node) {
+        final PdfNumber count = node.getAsNumber(PdfName.Count);
+        return count == null ? 0 : Math.max(0, count.intValue());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.rups.view.Language;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Classifies all the indexed objects of a PDF file on several cores.
+ *
+ * <p>
+ * The range of object indexes is split across a {@link ForkJoinPool}. Every
+ * worker thread reads with its own read-only {@link PdfDocument} over the
+ * shared original content, as iText documents are not thread-safe. Objects
+ * are released as soon as they are classified, so the scan does not keep
+ * the document in memory.
+ * </p>
+ */
+final class ParallelObjectScanner {
+    /**
+     * The minimal amount of objects a single task will scan.
+     */
+    private static final int MIN_OBJECTS_PER_TASK = 2048;
+
+    private final IPdfFile file;
+    private final IndirectObjectFactory objects;
+    private final AtomicInteger scanned;
+    private final BooleanSupplier cancelled;
+    private final byte[] types;
+
+    private final Queue<PdfDocument> openedDocuments = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<PdfDocument> workerDocument = ThreadLocal.withInitial(this::openWorkerDocument);
+
+    /**
+     * Creates a scanner for the objects of a file.
+     *
+     * @param file    the file to scan
+     * @param objects the factory, which already indexed all objects
+     * @param scanned a counter, which is incremented for every scanned object
+     */
+    ParallelObjectScanner(IPdfFile file, IndirectObjectFactory objects, AtomicInteger scanned) {
+        this(file, objects, scanned, () -> false);
+    }
+
+    /**
+     * Creates a cancellable scanner for the objects of a file.
+     *
+     * @param file      the file to scan
+     * @param objects   the factory, which already indexed all objects
+     * @param scanned   a counter, which is incremented for every scanned object
+     * @param cancelled checked regularly by the workers; once it returns
+     *                  {@code true}, the remaining objects are left unknown
+     */
+    ParallelObjectScanner(IPdfFile file, IndirectObjectFactory objects, AtomicInteger scanned,
+            BooleanSupplier cancelled) {
+        this.file = file;
+        this.objects = objects;
+        this.scanned = scanned;
+        this.cancelled = cancelled;
+        this.types = new byte[objects.size()];
+    }
+
+    /**
+     * Scans all objects and returns their types.
+     *
+     * @return the ordinals of the {@link IndirectObjectType} of every
+     *         object, by index
+     */
+    byte[] scan() {
+        final int size = types.length;
+        final int parallelism = Math.max(1,
+                Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_OBJECTS_PER_TASK));
+        final int threshold = Math.max(MIN_OBJECTS_PER_TASK, size / (parallelism * 8));
+        try {
+            TaskScheduler.forkJoin("rups-object-scan", parallelism, new ScanTask(0, size, threshold));
+        } finally {
+            PdfDocument document;
+            while ((document = openedDocuments.poll()) != null) {
+                document.close();
+            }
+        }
+        return types;
+    }
+
+    private PdfDocument openWorkerDocument() {
+        try {
+            final PdfDocument document = file.openReadOnlyCopy();
+            if (document == null) {
+                throw new IllegalStateException(Language.ERROR_PARALLEL_SCAN_UNSUPPORTED.getString());
+            }
+            openedDocuments.add(document);
+            return document;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scanRange(int from, int to) {
+        final PdfDocument document = workerDocument.get();
+        for (int i = from; i < to; ++i) {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            final int ref = objects.getRefByIndex(i);
+            try {
+                final PdfObject object = document.getPdfObject(ref);
+                types[i] = (byte) IndirectObjectType.classify(object).ordinal();
+                if (object != null && IndirectObjectFactory.canRelease(object)) {
+                    object.release();
+                }
+            } catch (PdfException | com.itextpdf.io.exceptions.IOException ignored) {
+                // left unknown, the object will be reported when it is actually loaded
+            }
+            scanned.incrementAndGet();
+        }
+    }
+
+    private final class ScanTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ScanTask(int from, int to, int threshold) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            if (to - from <= threshold) {
+                scanRange(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ScanTask(from, middle, threshold), new ScanTask(middle, to, threshold));
+        }
+    }
+}
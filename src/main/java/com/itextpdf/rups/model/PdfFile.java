@@ -49,11 +49,9 @@ import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.ReaderProperties;
 import com.itextpdf.rups.view.Language;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 
 /**
  * Wrapper for both iText's PdfReader (referring to a PDF file to read)
@@ -66,9 +64,10 @@ public final class PdfFile implements IPdfFile {
     private final File originalFile;
 
     /**
-     * Raw content
+     * Raw content. When opened from a file, this is a read-only memory
+     * mapping of the file, so the document bytes are not copied to the heap.
      */
-    private final byte[] originalContent;
+    private final OriginalContent originalContent;
 
     /**
      * The PdfDocument object.
@@ -77,17 +76,22 @@ public final class PdfFile implements IPdfFile {
 
     private ByteArrayOutputStream writerOutputStream = null;
 
-    private PdfFile(File file, byte[] content) {
+    /**
+     * The password, with which the document was opened successfully.
+     */
+    private byte[] password = new byte[0];
+
+    private PdfFile(File file, OriginalContent content) {
         this.originalFile = file;
         this.originalContent = content;
     }
 
     public static PdfFile open(File file) throws IOException {
-        return open(file, Files.readAllBytes(file.toPath()), DialogPasswordProvider.anyPassword());
+        return open(file, DialogPasswordProvider.anyPassword());
     }
 
     public static PdfFile open(File file, IPasswordProvider passwordProvider) throws IOException {
-        return open(file, Files.readAllBytes(file.toPath()), passwordProvider);
+        return open(file, OriginalContent.map(file), passwordProvider, false);
     }
 
     public static PdfFile open(File file, byte[] content) throws IOException {
@@ -95,17 +99,15 @@ public final class PdfFile implements IPdfFile {
     }
 
     public static PdfFile open(File file, byte[] content, IPasswordProvider passwordProvider) throws IOException {
-        final PdfFile pdfFile = new PdfFile(file, content);
-        pdfFile.openDocument(passwordProvider, false);
-        return pdfFile;
+        return open(file, OriginalContent.wrap(content), passwordProvider, false);
     }
 
     public static PdfFile openAsOwner(File file) throws IOException {
-        return openAsOwner(file, Files.readAllBytes(file.toPath()), DialogPasswordProvider.ownerPassword());
+        return openAsOwner(file, DialogPasswordProvider.ownerPassword());
     }
 
     public static PdfFile openAsOwner(File file, IPasswordProvider passwordProvider) throws IOException {
-        return openAsOwner(file, Files.readAllBytes(file.toPath()), passwordProvider);
+        return open(file, OriginalContent.map(file), passwordProvider, true);
     }
 
     public static PdfFile openAsOwner(File file, byte[] content) throws IOException {
@@ -115,8 +117,13 @@ public final class PdfFile implements IPdfFile {
 
     public static PdfFile openAsOwner(File file, byte[] content, IPasswordProvider passwordProvider)
             throws IOException {
+        return open(file, OriginalContent.wrap(content), passwordProvider, true);
+    }
+
+    private static PdfFile open(File file, OriginalContent content, IPasswordProvider passwordProvider,
+            boolean requireEditable) throws IOException {
         final PdfFile pdfFile = new PdfFile(file, content);
-        pdfFile.openDocument(passwordProvider, true);
+        pdfFile.openDocument(passwordProvider, requireEditable);
         return pdfFile;
     }
 
@@ -131,7 +138,7 @@ public final class PdfFile implements IPdfFile {
     }
 
     @Override
-    public byte[] getOriginalContent() {
+    public OriginalContent getOriginalContent() {
         return originalContent;
     }
 
@@ -140,6 +147,21 @@ public final class PdfFile implements IPdfFile {
         return writerOutputStream;
     }
 
+    @Override
+    public PdfDocument openReadOnlyCopy() throws IOException {
+        final ReaderProperties readerProperties = new ReaderProperties().setPassword(password);
+        return new PdfDocument(new PdfReader(originalContent.createSource(), readerProperties));
+    }
+
+    @Override
+    public void close() {
+        try {
+            IPdfFile.super.close();
+        } finally {
+            originalContent.close();
+        }
+    }
+
     /**
      * Opens the document, using the file and content stored in the current
      * object. If password is required, then the password provider will be
@@ -230,14 +252,12 @@ public final class PdfFile implements IPdfFile {
     private boolean openDocumentReadWrite(byte[] password) throws IOException {
         try {
             final ReaderProperties readerProperties = new ReaderProperties().setPassword(password);
-            final PdfReader reader = new PdfReader(
-                    new ByteArrayInputStream(getOriginalContent()),
-                    readerProperties
-            );
+            final PdfReader reader = new PdfReader(originalContent.createSource(), readerProperties);
             final ByteArrayOutputStream tempWriterOutputStream = new ByteArrayOutputStream();
             final PdfWriter writer = new PdfWriter(tempWriterOutputStream);
             document = new PdfDocument(reader, writer);
             writerOutputStream = tempWriterOutputStream;
+            this.password = password;
             return true;
         } catch (BadPasswordException e) {
             return false;
@@ -272,12 +292,10 @@ public final class PdfFile implements IPdfFile {
         try {
             final ReaderProperties readerProperties = new ReaderProperties();
             readerProperties.setPassword(password);
-            final PdfReader reader = new PdfReader(
-                    new ByteArrayInputStream(getOriginalContent()),
-                    readerProperties
-            );
+            final PdfReader reader = new PdfReader(originalContent.createSource(), readerProperties);
             document = new PdfDocument(reader);
             writerOutputStream = null;
+            this.password = password;
             return true;
         } catch (BadPasswordException e) {
             return false;
@@ -70,11 +70,26 @@ public final class ProgressDialog extends JDialog implements IProgressDialog {
      */
     private final JProgressBar progress;
 
+    /**
+     * label showing the throughput and the estimated time remaining.
+     */
+    private final JLabel rate;
+
+    /**
+     * the time at which the progress bar was last set to determinate mode.
+     */
+    private long startTime;
+
     /**
      * the icon used for this dialog box.
      */
     public static final JLabel INFO = new JLabel(UIManager.getIcon("OptionPane.informationIcon"));
 
+    /**
+     * the minimal time in seconds before the throughput is shown.
+     */
+    private static final double MIN_RATE_SECONDS = 0.5;
+
     /**
      * Creates a Progress frame displaying a certain message
      * and a progress bar in indeterminate mode.
@@ -87,14 +102,14 @@ public final class ProgressDialog extends JDialog implements IProgressDialog {
         super(frame);
         this.setTitle(Language.DIALOG_PROGRESS.getString());
         setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-        setSize(300, 100);
+        setSize(300, 120);
         this.setLocationRelativeTo(parent);
 
         setLayout(new GridBagLayout());
         final GridBagConstraints constraints = new GridBagConstraints();
         constraints.gridx = 0;
         constraints.gridy = 0;
-        constraints.gridheight = 2;
+        constraints.gridheight = 3;
         getContentPane().add(INFO, constraints);
         constraints.gridheight = 1;
         constraints.gridx = 1;
@@ -105,6 +120,9 @@ public final class ProgressDialog extends JDialog implements IProgressDialog {
         progress = new JProgressBar();
         progress.setIndeterminate(true);
         getContentPane().add(progress, constraints);
+        constraints.gridy = 2;
+        rate = new JLabel(" ");
+        getContentPane().add(rate, constraints);
     }
 
     @Override
@@ -132,6 +150,7 @@ public final class ProgressDialog extends JDialog implements IProgressDialog {
     @Override
     public void setValue(int value) {
         progress.setValue(value);
+        updateRate(value);
     }
 
     /**
@@ -146,10 +165,29 @@ public final class ProgressDialog extends JDialog implements IProgressDialog {
             progress.setMaximum(n);
             progress.setIndeterminate(false);
             progress.setStringPainted(true);
+            startTime = System.nanoTime();
         } else {
             progress.setIndeterminate(true);
             progress.setStringPainted(false);
         }
+        rate.setText(" ");
+    }
+
+    /**
+     * Shows the throughput and the estimated time remaining, once enough
+     * time has passed to make a sensible estimate.
+     *
+     * @param value the current value
+     */
+    private void updateRate(int value) {
+        final double seconds = (System.nanoTime() - startTime) / 1e9;
+        if (progress.isIndeterminate() || value <= 0 || seconds < MIN_RATE_SECONDS) {
+            return;
+        }
+        final double perSecond = value / seconds;
+        final long remaining = Math.round(Math.max(0, progress.getMaximum() - value) / perSecond);
+        rate.setText(String.format(Language.PROGRESS_RATE.getString(),
+                Math.round(perSecond), remaining / 60, remaining % 60));
     }
 
     /**
@@ -0,0 +1,126 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * A progress channel between a background task and an {@link IProgressDialog}.
+ *
+ * <p>
+ * The background task only updates an atomic counter, which a Swing
+ * {@link Timer} samples at a fixed rate on the event dispatch thread. This
+ * way the task can run at full speed without flooding the event queue with
+ * one update per processed item.
+ * </p>
+ */
+final class ProgressSampler {
+    /**
+     * The delay between two samples in milliseconds.
+     */
+    private static final int SAMPLE_DELAY = 40;
+
+    private final IProgressDialog progress;
+    private final AtomicInteger counter = new AtomicInteger();
+    private final Timer timer;
+
+    private int lastValue = -1;
+
+    /**
+     * Creates a sampler for a progress dialog.
+     *
+     * @param progress the dialog to update
+     */
+    ProgressSampler(IProgressDialog progress) {
+        this.progress = progress;
+        this.timer = new Timer(SAMPLE_DELAY, e -> sample());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Starts a new phase of the task and the sampling of its counter.
+     *
+     * @param message the message describing what's in progress
+     * @param total   the maximum value of the counter
+     */
+    void start(String message, int total) {
+        counter.set(0);
+        SwingUtilities.invokeLater(() -> {
+            lastValue = -1;
+            progress.setMessage(message);
+            progress.setTotal(total);
+        });
+        timer.start();
+    }
+
+    /**
+     * Sets the current value of the counter.
+     *
+     * @param value the current value
+     */
+    void set(int value) {
+        counter.set(value);
+    }
+
+    /**
+     * Stops the sampling, shows the final value of the counter and switches
+     * the progress bar to indeterminate mode.
+     */
+    void stop() {
+        timer.stop();
+        SwingUtilities.invokeLater(() -> {
+            sample();
+            progress.setTotal(0);
+        });
+    }
+
+    private void sample() {
+        final int value = counter.get();
+        if (value != lastValue) {
+            lastValue = value;
+            progress.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+/**
+ * A sparse table of object slots, addressed by a non-negative index.
+ *
+ * <p>
+ * The slots are stored in fixed size chunks, which are only allocated once
+ * a slot inside of them is set. Empty slots return {@code null}. This way
+ * millions of indexed, but not yet loaded objects cost no memory beyond the
+ * chunk directory.
+ * </p>
+ *
+ * @param <T> the type of the stored values
+ */
+final class SlotTable<T> {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Object[][] chunks = new Object[0][];
+
+    /**
+     * Returns the value of a slot.
+     *
+     * @param index the index of the slot
+     *
+     * @return the stored value, or {@code null} if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        final int chunk = index >>> CHUNK_BITS;
+        if (index < 0 || chunk >= chunks.length || chunks[chunk] == null) {
+            return null;
+        }
+        return (T) chunks[chunk][index & CHUNK_MASK];
+    }
+
+    /**
+     * Sets the value of a slot. Setting {@code null} empties the slot, but
+     * does not release its chunk.
+     *
+     * @param index the index of the slot
+     * @param value the value to store
+     */
+    void set(int index, T value) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        final int chunk = index >>> CHUNK_BITS;
+        if (chunk >= chunks.length) {
+            if (value == null) {
+                return;
+            }
+            final Object[][] grown = new Object[Math.max(chunk + 1, chunks.length + (chunks.length >> 1))][];
+            System.arraycopy(chunks, 0, grown, 0, chunks.length);
+            chunks = grown;
+        }
+        if (chunks[chunk] == null) {
+            if (value == null) {
+                return;
+            }
+            chunks[chunk] = new Object[CHUNK_SIZE];
+        }
+        chunks[chunk][index & CHUNK_MASK] = value;
+    }
+}
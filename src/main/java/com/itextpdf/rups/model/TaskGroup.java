@@ -0,0 +1,147 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of background tasks, which belong together, for instance because
+ * they all work on the same document. The whole group can be cancelled at
+ * once; tasks started in a cancelled group are cancelled right away.
+ */
+public final class TaskGroup {
+    private final String name;
+    private final Set<BackgroundTask> tasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * The amount of tasks of this group, which are being executed.
+     */
+    private int running;
+
+    /**
+     * Creates a new task group.
+     *
+     * @param name a human readable name for the group, used for the names of
+     *             the threads
+     */
+    public TaskGroup(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of this group.
+     *
+     * @return the name of the group
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Cancels all the tasks of this group, which did not finish yet, and all
+     * tasks that will still be started in it.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (final BackgroundTask task : tasks) {
+            task.cancel();
+        }
+        tasks.clear();
+    }
+
+    /**
+     * Returns whether this group was cancelled.
+     *
+     * @return {@code true} if the group was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Waits until none of the tasks of this group is being executed anymore,
+     * for instance to release a document after the group was cancelled.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds
+     *
+     * @return {@code true} if no task is executed anymore, {@code false} if
+     *         the time ran out
+     *
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    public synchronized boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (running > 0) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    synchronized void taskStarted() {
+        ++running;
+    }
+
+    synchronized void taskEnded() {
+        if (--running == 0) {
+            notifyAll();
+        }
+    }
+
+    void add(BackgroundTask task) {
+        tasks.add(task);
+        if (cancelled) {
+            // the group might have been cancelled while the task was added
+            task.cancel();
+        }
+    }
+
+    void remove(BackgroundTask task) {
+        tasks.remove(task);
+    }
+}
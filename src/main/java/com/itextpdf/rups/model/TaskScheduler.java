@@ -0,0 +1,270 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.rups.RupsConfiguration;
+import com.itextpdf.rups.view.Language;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The central scheduler, which executes all {@link BackgroundTask} instances.
+ *
+ * <p>
+ * By default, tasks run on pools of named daemon threads. Interactive tasks
+ * have a pool of their own, so they never wait for long-running tasks, which
+ * share a smaller pool. Queued tasks are ordered by their
+ * {@link TaskPriority}, and by submission order within the same priority.
+ * On JDK 21 and later, the scheduler can run every task on
+ * its own virtual thread instead. As virtual threads are not pooled, there
+ * is no queue and the priorities have no effect in that mode.
+ * </p>
+ */
+public final class TaskScheduler {
+    private static final String THREAD_NAME_PREFIX = "rups-task-";
+    private static final String BACKGROUND_THREAD_NAME_PREFIX = "rups-background-task-";
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "rups-virtual-task-";
+    private static final int VIRTUAL_THREADS_MIN_VERSION = 21;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static TaskScheduler instance;
+
+    /**
+     * The executor of the interactive tasks.
+     */
+    private final ExecutorService interactiveExecutor;
+    /**
+     * The executor of the other tasks; the same as the interactive one for virtual threads.
+     */
+    private final ExecutorService backgroundExecutor;
+    private final boolean virtualThreads;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private TaskScheduler(boolean preferVirtualThreads) {
+        ExecutorService virtualExecutor = null;
+        if (preferVirtualThreads) {
+            virtualExecutor = createVirtualThreadExecutor();
+        }
+        virtualThreads = virtualExecutor != null;
+        if (virtualThreads) {
+            interactiveExecutor = virtualExecutor;
+            backgroundExecutor = virtualExecutor;
+        } else {
+            final int processors = Runtime.getRuntime().availableProcessors();
+            interactiveExecutor = createPlatformThreadExecutor(THREAD_NAME_PREFIX, Math.max(2, processors));
+            backgroundExecutor = createPlatformThreadExecutor(BACKGROUND_THREAD_NAME_PREFIX,
+                    Math.max(2, processors / 2));
+        }
+    }
+
+    /**
+     * Gets the scheduler of the application. The backend is chosen on first
+     * use, based on the RUPS configuration.
+     *
+     * @return the scheduler
+     */
+    public static synchronized TaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new TaskScheduler(RupsConfiguration.INSTANCE.useVirtualThreads());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns whether the tasks are executed on virtual threads.
+     *
+     * @return {@code true} for the virtual thread backend, {@code false} for
+     *         the platform thread pool
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Schedules the body of a task.
+     *
+     * @param priority the priority of the task
+     * @param body     the code to execute
+     *
+     * @return a future, which can be used to wait for or cancel the task
+     */
+    Future<?> submit(TaskPriority priority, Runnable body) {
+        final PrioritizedTask task = new PrioritizedTask(body, priority, sequence.getAndIncrement());
+        if (priority == TaskPriority.INTERACTIVE) {
+            interactiveExecutor.execute(task);
+        } else {
+            backgroundExecutor.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Runs a task, which splits itself into subtasks, on a temporary fork/join
+     * pool and waits for it. This is meant for work on many parts of a
+     * document which is done within a single background task. The pool is
+     * shut down afterwards, even if the task failed, and this only returns
+     * once none of its subtasks runs anymore, so the caller can release what
+     * they work on.
+     *
+     * @param name        the prefix of the names of the worker threads
+     * @param parallelism the number of worker threads
+     * @param task        the task to run
+     */
+    public static void forkJoin(String name, int parallelism, ForkJoinTask<?> task) {
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism), forkJoinPool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName(name + "-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        try {
+            pool.invoke(task);
+        } finally {
+            pool.shutdownNow();
+            awaitTermination(pool);
+        }
+    }
+
+    /**
+     * Waits until a pool, which was shut down, terminated. A failing subtask
+     * makes its siblings return early, while others may still be running.
+     * Interrupts, e.g. from cancelling the calling task, don't end the wait,
+     * but are kept.
+     *
+     * @param pool the pool to wait for
+     */
+    private static void awaitTermination(ForkJoinPool pool) {
+        boolean interrupted = false;
+        while (!pool.isTerminated()) {
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService createPlatformThreadExecutor(String namePrefix, int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadFactory factory = runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), factory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates an executor, which starts a new virtual thread per task. This
+     * uses reflection, as RUPS itself is compiled for an older JDK.
+     *
+     * @return the executor, or {@code null} if virtual threads are not available
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        if (Runtime.version().feature() < VIRTUAL_THREADS_MIN_VERSION) {
+            LoggerHelper.info(Language.VIRTUAL_THREADS_UNAVAILABLE.getString(), TaskScheduler.class);
+            return null;
+        }
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, VIRTUAL_THREAD_NAME_PREFIX, 1L);
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                | InvocationTargetException | ClassCastException e) {
+            LoggerHelper.warn(Language.VIRTUAL_THREADS_UNAVAILABLE.getString(), e, TaskScheduler.class);
+            return null;
+        }
+    }
+
+    /**
+     * A future task, which can be ordered in the queue of the thread pool.
+     */
+    private static final class PrioritizedTask extends FutureTask<Void> implements Comparable<PrioritizedTask> {
+        private final TaskPriority priority;
+        private final long sequenceNumber;
+
+        PrioritizedTask(Runnable body, TaskPriority priority, long sequenceNumber) {
+            super(body, null);
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            final int result = priority.compareTo(other.priority);
+            return result != 0 ? result : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof PrioritizedTask && compareTo((PrioritizedTask) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(sequenceNumber);
+        }
+    }
+}
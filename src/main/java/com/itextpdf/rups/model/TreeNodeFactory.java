@@ -43,6 +43,7 @@
 package com.itextpdf.rups.model;
 
 import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfCatalog;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
@@ -50,10 +51,11 @@ import com.itextpdf.kernel.pdf.PdfNull;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
-import com.itextpdf.rups.view.itext.treenodes.PdfPagesTreeNode;
+import com.itextpdf.rups.view.itext.treenodes.PdfPageTreeNode;
+import com.itextpdf.rups.view.itext.treenodes.PdfRangeTreeNode;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import javax.swing.tree.TreeNode;
 
 /**
  * A factory that creates TreeNode objects corresponding with PDF objects.
@@ -65,9 +67,21 @@ public class TreeNodeFactory {
      */
     protected IndirectObjectFactory objects;
     /**
-     * An list containing the nodes of every indirect object.
+     * A table containing the nodes of the indirect objects, by index.
+     * Nodes are only created once they are requested.
      */
-    private final List<PdfObjectTreeNode> nodes = new ArrayList<>();
+    private final SlotTable<PdfObjectTreeNode> nodes = new SlotTable<>();
+
+    /**
+     * The page tree of the document, which numbers the page nodes.
+     * Created when it is first needed.
+     */
+    private PageTreeIndex pageTree;
+
+    /**
+     * The page labels of the document, created together with {@link #pageTree}.
+     */
+    private PageLabels pageLabels;
 
     /**
      * Creates a factory that can produce TreeNode objects
@@ -77,10 +91,6 @@ public class TreeNodeFactory {
      */
     public TreeNodeFactory(IndirectObjectFactory objects) {
         this.objects = objects;
-        for (int i = 0; i < objects.size(); i++) {
-            final int ref = objects.getRefByIndex(i);
-            nodes.add(PdfObjectTreeNode.getInstance(PdfNull.PDF_NULL, ref));
-        }
     }
 
     /**
@@ -90,15 +100,50 @@ public class TreeNodeFactory {
      * @return the TreeNode representing the PDF object
      */
     public PdfObjectTreeNode getNode(int ref) {
-        int idx = objects.getIndexByRef(ref);
+        final int idx = objects.getIndexByRef(ref);
+        if (idx < 0) {
+            // a reference to a non-existing object is a reference to the null object
+            return PdfObjectTreeNode.getInstance(PdfNull.PDF_NULL, ref);
+        }
         PdfObjectTreeNode node = nodes.get(idx);
-        if (node.getPdfObject().isNull()) {
+        if (node == null || node.getPdfObject().isNull()) {
             node = PdfObjectTreeNode.getInstance(objects.loadObjectByReference(ref), ref);
+            if (node instanceof PdfPageTreeNode) {
+                ((PdfPageTreeNode) node).setPageNumbering(getPageTree(), getPageLabels());
+            }
             nodes.set(idx, node);
         }
         return node;
     }
 
+    /**
+     * Gets the page tree of the document, to find pages by their number and the other way around.
+     *
+     * @return the page tree index
+     */
+    public PageTreeIndex getPageTree() {
+        initPageNumbering();
+        return pageTree;
+    }
+
+    /**
+     * Gets the page labels of the document.
+     *
+     * @return the page labels
+     */
+    public PageLabels getPageLabels() {
+        initPageNumbering();
+        return pageLabels;
+    }
+
+    private synchronized void initPageNumbering() {
+        if (pageTree == null) {
+            final PdfCatalog catalog = objects.document.getCatalog();
+            pageTree = new PageTreeIndex(catalog.getPdfObject());
+            pageLabels = new PageLabels(catalog);
+        }
+    }
+
     protected void associateIfIndirect(PdfObjectTreeNode node) {
         PdfIndirectReference ref = null;
         if (node != null && node.getPdfObject() != null) {
@@ -106,20 +151,31 @@ public class TreeNodeFactory {
         }
         if (ref != null) {
             final int idx = objects.getIndexByRef(ref.getObjNumber());
-            nodes.set(idx, node);
+            if (idx >= 0) {
+                nodes.set(idx, node);
+            }
         }
     }
 
     /**
      * Creates the Child TreeNode objects for a PDF object TreeNode.
+     * Only the direct children are created; the grandchildren are
+     * created once the children themselves are expanded. The entries of
+     * arrays and dictionaries larger than {@link PdfRangeTreeNode#GROUP_SIZE}
+     * are grouped in range nodes, which are expanded in the same way.
      *
      * @param node the parent node
      */
     public void expandNode(PdfObjectTreeNode node) {
-        if (node.getChildCount() > 0) {
+        if (node == null || node.getPdfObject() == null || node.getChildCount() > 0) {
             return;
         }
         final PdfObject object = node.getPdfObject();
+        if (node instanceof PdfRangeTreeNode) {
+            final PdfRangeTreeNode range = (PdfRangeTreeNode) node;
+            addRange(node, object, range.getKeys(), range.getKeyIndexes(), range.getFrom(), range.getTo());
+            return;
+        }
         PdfObjectTreeNode leaf;
 
         switch (object.getType()) {
@@ -127,32 +183,156 @@ public class TreeNodeFactory {
                 final PdfIndirectReference ref = (PdfIndirectReference) object;
                 leaf = getNode(ref.getObjNumber());
                 addNodes(node, leaf);
-                if (leaf instanceof PdfPagesTreeNode) {
-                    expandNode(leaf);
-                }
                 break;
             case PdfObject.ARRAY:
                 final PdfArray array = (PdfArray) object;
+                if (array.size() > PdfRangeTreeNode.GROUP_SIZE) {
+                    addRange(node, array, null, null, 0, array.size());
+                    break;
+                }
                 for (int i = 0; i < array.size(); ++i) {
                     leaf = PdfObjectTreeNode.getInstance(array.get(i, false));
                     associateIfIndirect(leaf);
                     addNodes(node, leaf);
-                    expandNode(leaf);
                 }
                 break;
             case PdfObject.DICTIONARY:
             case PdfObject.STREAM:
                 final PdfDictionary dict = (PdfDictionary) object;
+                if (dict.size() > PdfRangeTreeNode.GROUP_SIZE) {
+                    final PdfName[] keys = dict.keySet().toArray(new PdfName[0]);
+                    addRange(node, dict, keys, PdfRangeTreeNode.indexKeys(keys), 0, dict.size());
+                    break;
+                }
                 for (PdfName key : dict.keySet()) {
                     leaf = PdfObjectTreeNode.getInstance(dict, key);
                     associateIfIndirect(leaf);
                     addNodes(node, leaf);
-                    expandNode(leaf);
                 }
                 break;
         }
     }
 
+    /**
+     * Creates the child nodes for a range of the entries of an array or a
+     * dictionary. If the range is too large, it is split in smaller ranges.
+     *
+     * @param node      the parent node
+     * @param container the array or dictionary
+     * @param keys      the keys of the dictionary, {@code null} for an array
+     * @param indexes   the index of every key of the dictionary, {@code null} for an array
+     * @param from      the index of the first entry
+     * @param to        the index after the last entry
+     */
+    private void addRange(PdfObjectTreeNode node, PdfObject container, PdfName[] keys,
+            Map<PdfName, Integer> indexes, int from, int to) {
+        final int count = to - from;
+        if (count > PdfRangeTreeNode.GROUP_SIZE) {
+            long span = PdfRangeTreeNode.GROUP_SIZE;
+            while (count > span * PdfRangeTreeNode.GROUP_SIZE) {
+                span *= PdfRangeTreeNode.GROUP_SIZE;
+            }
+            for (long start = from; start < to; start += span) {
+                addNodes(node, new PdfRangeTreeNode(
+                        container, keys, indexes, (int) start, (int) Math.min(start + span, to)));
+            }
+            return;
+        }
+        for (int i = from; i < to; ++i) {
+            final PdfObjectTreeNode leaf = keys == null
+                    ? PdfObjectTreeNode.getInstance(((PdfArray) container).get(i, false))
+                    : PdfObjectTreeNode.getInstance((PdfDictionary) container, keys[i]);
+            associateIfIndirect(leaf);
+            addNodes(node, leaf);
+        }
+    }
+
+    /**
+     * Tells you if the children of a node are grouped in ranges, or if the
+     * node is such a range itself.
+     *
+     * @param node the node to check
+     * @return true if the node is, or contains, a range node
+     */
+    public boolean isGrouped(PdfObjectTreeNode node) {
+        return node instanceof PdfRangeTreeNode
+                || (node.getChildCount() > 0 && node.getFirstChild() instanceof PdfRangeTreeNode);
+    }
+
+    /**
+     * Recreates the child nodes of a grouped array or dictionary, after
+     * entries were added or removed.
+     *
+     * @param node the node of the array or dictionary, or one of its range nodes
+     * @return the node of the array or dictionary, of which the children were recreated
+     */
+    public PdfObjectTreeNode regroup(PdfObjectTreeNode node) {
+        PdfObjectTreeNode container = node;
+        while (container instanceof PdfRangeTreeNode && container.getParent() instanceof PdfObjectTreeNode) {
+            container = (PdfObjectTreeNode) container.getParent();
+        }
+        container.removeAllChildren();
+        expandNode(container);
+        return container;
+    }
+
+    /**
+     * Finds the node of an element of an array, expanding the range nodes
+     * on the way if necessary.
+     *
+     * @param node  the node of the array, or one of its range nodes
+     * @param index the index of the element in the array
+     * @return the node of the element, or {@code null} if the index is out of range
+     */
+    public PdfObjectTreeNode getArrayChildNode(PdfObjectTreeNode node, int index) {
+        expandNode(node);
+        if (node.getChildCount() > 0 && node.getFirstChild() instanceof PdfRangeTreeNode) {
+            for (int i = 0; i < node.getChildCount(); ++i) {
+                final PdfRangeTreeNode range = (PdfRangeTreeNode) node.getChildAt(i);
+                if (range.containsIndex(index)) {
+                    return getArrayChildNode(range, index);
+                }
+            }
+            return null;
+        }
+        final int first = node instanceof PdfRangeTreeNode ? ((PdfRangeTreeNode) node).getFrom() : 0;
+        final int position = index - first;
+        if (position < 0 || position >= node.getChildCount()) {
+            return null;
+        }
+        return (PdfObjectTreeNode) node.getChildAt(position);
+    }
+
+    /**
+     * Tells you if a node has children, without creating them.
+     *
+     * @param node the node to check
+     * @return false if the node will stay empty when it is expanded
+     */
+    public boolean hasChildren(PdfObjectTreeNode node) {
+        if (node.getChildCount() > 0) {
+            return true;
+        }
+        final PdfObject object = node.getPdfObject();
+        if (object == null) {
+            return false;
+        }
+        if (node instanceof PdfRangeTreeNode) {
+            return true;
+        }
+        switch (object.getType()) {
+            case PdfObject.INDIRECT_REFERENCE:
+                return !node.isRecursive();
+            case PdfObject.ARRAY:
+                return !((PdfArray) object).isEmpty();
+            case PdfObject.DICTIONARY:
+            case PdfObject.STREAM:
+                return ((PdfDictionary) object).size() > 0;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Finds a specific child of dictionary node.
      * This method will follow indirect references and expand nodes if necessary
@@ -163,7 +343,7 @@ public class TreeNodeFactory {
      */
     @SuppressWarnings("unchecked")
     public PdfObjectTreeNode getChildNode(PdfObjectTreeNode node, PdfName key) {
-        PdfObjectTreeNode child = node.getDictionaryChildNode(key);
+        PdfObjectTreeNode child = findDictionaryChildNode(node, key);
         if (child != null && child.isDictionaryNode(key)) {
             if (child.isIndirectReference()) {
                 expandNode(child);
@@ -175,6 +355,29 @@ public class TreeNodeFactory {
         return null;
     }
 
+    /**
+     * Finds the node of a dictionary entry, expanding the node and its range
+     * nodes if necessary.
+     *
+     * @param node the node of the dictionary, or one of its range nodes
+     * @param key  the key of the entry
+     * @return the node of the entry, or {@code null}
+     */
+    private PdfObjectTreeNode findDictionaryChildNode(PdfObjectTreeNode node, PdfName key) {
+        expandNode(node);
+        final PdfObjectTreeNode child = node.getDictionaryChildNode(key);
+        if (child != null) {
+            return child;
+        }
+        for (int i = 0; i < node.getChildCount(); ++i) {
+            final TreeNode range = node.getChildAt(i);
+            if (range instanceof PdfRangeTreeNode && ((PdfRangeTreeNode) range).containsKey(key)) {
+                return findDictionaryChildNode((PdfRangeTreeNode) range, key);
+            }
+        }
+        return null;
+    }
+
     /**
      * Tries adding a child node to a parent node without
      * throwing an exception. Normally, if the child node is already
@@ -195,7 +398,8 @@ public class TreeNodeFactory {
 
     public void addNewIndirectObject(PdfObject object) {
         objects.addNewIndirectObject(object);
-        nodes.add(PdfObjectTreeNode.getInstance(object, object.getIndirectReference().getObjNumber()));
+        nodes.set(objects.size() - 1,
+                PdfObjectTreeNode.getInstance(object, object.getIndirectReference().getObjNumber()));
         LoggerHelper.info(Language.LOG_TREE_NODE_CREATED.getString(), getClass());
     }
 }
@@ -0,0 +1,167 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache which evicts its least recently used entries once the summed
+ * weight of its values exceeds a maximum.
+ *
+ * <p>
+ * The weight of a value is determined once, when it is put into the cache.
+ * A value which is heavier than the maximum on its own is not cached at all.
+ * All methods are synchronized, so the cache can be filled by background tasks.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public final class WeightedLruCache<K, V> {
+    private final long maxWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxWeight the maximum summed weight of the cached values
+     * @param weigher   the function determining the weight of a value, e.g. its size in bytes
+     */
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns a cached value and marks it as the most recently used one.
+     *
+     * @param key the key of the value
+     *
+     * @return the cached value, or {@code null} if there is none
+     */
+    public synchronized V get(K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Caches a value, replacing the previous value of its key. The least
+     * recently used values are evicted until the cache fits its maximum weight.
+     *
+     * @param key   the key of the value
+     * @param value the value to cache
+     */
+    public synchronized void put(K key, V value) {
+        remove(key);
+        final long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, valueWeight));
+        weight += valueWeight;
+        final Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (weight > maxWeight) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key the key of the value
+     *
+     * @return the removed value, or {@code null} if there was none
+     */
+    public synchronized V remove(K key) {
+        final Entry<V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.weight;
+        return entry.value;
+    }
+
+    /**
+     * Removes all values from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the number of cached values.
+     *
+     * @return the number of cached values
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the summed weight of the cached values.
+     *
+     * @return the summed weight
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
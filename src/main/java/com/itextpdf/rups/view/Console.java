@@ -44,6 +44,7 @@ package com.itextpdf.rups.view;
 
 import com.itextpdf.rups.event.ConsoleWriteEvent;
 import com.itextpdf.rups.event.RupsEvent;
+import com.itextpdf.rups.io.SwingOutputBuffer;
 
 import javax.swing.JTextArea;
 import javax.swing.JTextPane;
@@ -61,6 +62,13 @@ import java.util.Observer;
 
 /**
  * A Class that is used for displaying logger messages to a {@link JTextPane}.
+ *
+ * <p>
+ * The styled text of a flush is inserted per run of messages of the same
+ * type, instead of per message, and the observers, which update the console
+ * tab, are notified once per flush. The document is a rolling window: once
+ * it grows too large, the oldest lines make way for a notice.
+ * </p>
  */
 public class Console extends Observable implements Observer {
 
@@ -83,6 +91,26 @@ public class Console extends Observable implements Observer {
 
     private static final int BUFFER_SIZE = 1024;
 
+    /**
+     * The maximum number of messages waiting to be shown.
+     */
+    private static final int MESSAGE_CAPACITY = 4096;
+
+    /**
+     * The delay between two flushes in milliseconds.
+     */
+    private static final int FLUSH_DELAY = 100;
+
+    /**
+     * The text of consecutive messages of the same type, while flushing.
+     */
+    private final StringBuilder run = new StringBuilder();
+
+    private String runType;
+
+    private final SwingOutputBuffer<Message> messages = new SwingOutputBuffer<>(MESSAGE_CAPACITY, FLUSH_DELAY,
+            notice -> new Message(notice, ConsoleStyleContext.ERROR), this::appendToRun, this::endFlush);
+
     /**
      * Creates a new Console object.
      */
@@ -119,22 +147,68 @@ public class Console extends Observable implements Observer {
     }
 
     private void updateTextPane(final String msg, final String type) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override public void run() {
-                try {
-                    final Document doc = textArea.getDocument();
-                    if (doc.getLength() + msg.length() > MAX_TEXT_AREA_SIZE) {
-                        Console.this.clearWithBuffer(Language.ERROR_TOO_MANY_OUTPUT.getString());
-                    }
-                    doc.insertString(doc.getLength(), msg, styleContext.getStyle(type));
-                    textArea.setCaretPosition(textArea.getDocument().getLength());
-                    Console.this.setChanged();
-                    Console.this.notifyObservers(new ConsoleWriteEvent());
-                } catch (BadLocationException ignored) {
-                    // Intentionally Empty
-                }
-            }
-        });
+        messages.offer(new Message(msg, type));
+    }
+
+    /**
+     * Appends all pending messages to the document, inserting consecutive
+     * messages of the same type at once, and notifies the observers once.
+     * Must be called on the event dispatch thread.
+     */
+    void flush() {
+        messages.drain();
+    }
+
+    private void endFlush() {
+        insertRun();
+        trim();
+        textArea.setCaretPosition(textArea.getDocument().getLength());
+        setChanged();
+        notifyObservers(new ConsoleWriteEvent());
+    }
+
+    private void appendToRun(Message message) {
+        if (!message.type.equals(runType)) {
+            insertRun();
+            runType = message.type;
+        }
+        run.append(message.text);
+    }
+
+    private void insertRun() {
+        if (run.length() == 0) {
+            return;
+        }
+        final Document doc = textArea.getDocument();
+        try {
+            doc.insertString(doc.getLength(), run.toString(), styleContext.getStyle(runType));
+        } catch (BadLocationException ignored) {
+            // Intentionally Empty
+        }
+        run.setLength(0);
+    }
+
+    /**
+     * Removes the oldest lines once the document is larger than its maximum
+     * size, so the document is a rolling window over the output.
+     */
+    private void trim() {
+        final Document doc = textArea.getDocument();
+        if (doc.getLength() <= MAX_TEXT_AREA_SIZE) {
+            return;
+        }
+        final String notice = Language.ERROR_TOO_MANY_OUTPUT.getString().trim() + "\n";
+        final int excess = doc.getLength() + notice.length() - MAX_TEXT_AREA_SIZE;
+        try {
+            // cut after a complete line, unless that would leave too much
+            final int searched = Math.min(BUFFER_SIZE, doc.getLength() - excess);
+            final int newline = doc.getText(excess, searched).indexOf('\n');
+            final int end = newline < 0 ? excess : excess + newline + 1;
+            doc.remove(0, end);
+            doc.insertString(0, notice, styleContext.getStyle(ConsoleStyleContext.INFO));
+        } catch (BadLocationException ignored) {
+            // Intentionally Empty
+        }
     }
 
     private void clearWithBuffer(final String message) {
@@ -192,6 +266,19 @@ public class Console extends Observable implements Observer {
         }
     }
 
+    /**
+     * A message waiting to be shown.
+     */
+    private static final class Message {
+        final String text;
+        final String type;
+
+        Message(String text, String type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
     /**
      * The style context defining the styles of each type of PrintStream.
      */
@@ -42,13 +42,21 @@
  */
 package com.itextpdf.rups.view;
 
+import com.itextpdf.rups.io.SwingOutputBuffer;
+
 import javax.swing.JTextArea;
-import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.io.OutputStream;
 
 /**
  * A Class that is used for displaying debug messages to a JTextPane.
+ *
+ * <p>
+ * Debug messages wait in a {@link SwingOutputBuffer}, and all messages of a
+ * drain are appended to the text area at once, so a flood of log messages
+ * doesn't flood the event queue.
+ * </p>
  */
 public class DebugView {
 
@@ -60,8 +68,21 @@ public class DebugView {
     private final JTextArea textArea = new JTextArea();
 
     private static final int MAX_LINES = 8192;
-    private static final int BACKUP_SIZE = 8192;
 
+    /**
+     * The maximum number of messages waiting to be shown.
+     */
+    private static final int BUFFER_CAPACITY = 8192;
+
+    /**
+     * The delay between two drains of the buffer in milliseconds.
+     */
+    private static final int DRAIN_DELAY = 50;
+
+    private final StringBuilder batch = new StringBuilder();
+
+    private final SwingOutputBuffer<String> buffer = new SwingOutputBuffer<>(BUFFER_CAPACITY, DRAIN_DELAY,
+            notice -> notice, batch::append, this::appendBatch);
 
     /**
      * Creates a new DebugView object.
@@ -88,33 +109,52 @@ public class DebugView {
     }
 
     private void updateTextPane(final String msg) {
-        SwingUtilities.invokeLater(new UpdateTextPaneTask(msg));
+        buffer.offer(msg);
+    }
+
+    /**
+     * Appends all pending messages to the text area. Must be called on the
+     * event dispatch thread.
+     */
+    void drain() {
+        buffer.drain();
     }
 
-    static class UpdateTextPaneTask implements Runnable {
-        private final String msg;
+    /**
+     * Checks whether messages may be waiting to be appended.
+     *
+     * @return {@code true} if the drain timer is running
+     */
+    boolean isDraining() {
+        return buffer.isRunning();
+    }
 
-        public UpdateTextPaneTask(String msg) {
-            this.msg = msg;
-        }
+    private void appendBatch() {
+        append(batch.toString());
+        batch.setLength(0);
+    }
 
-        @Override
-        public void run() {
-            JTextArea textArea = DebugView.getInstance().getTextArea();
-            if (textArea.getLineCount() >= MAX_LINES) {
-                String backupString = "";
-                try {
-                    backupString = textArea.getText(Math.max(
-                                    textArea.getDocument().getLength() - BACKUP_SIZE, 0),
-                            Math.min(textArea.getDocument().getLength(), BACKUP_SIZE));
-                } catch (BadLocationException ignored) {
-                    // Intentionally left blank
-                }
-                textArea.setText(backupString + Language.ERROR_TOO_MANY_OUTPUT.getString());
+    /**
+     * Appends text to the text area, removing the oldest lines once there are too many.
+     *
+     * @param msg the text to append
+     */
+    void append(final String msg) {
+        textArea.append(msg);
+        final int lineCount = textArea.getLineCount();
+        if (lineCount > MAX_LINES) {
+            final String notice = Language.ERROR_TOO_MANY_OUTPUT.getString().trim() + "\n";
+            try {
+                // the notice takes the place of the removed lines
+                final int end = textArea.getLineStartOffset(lineCount - MAX_LINES + 1);
+                final Document doc = textArea.getDocument();
+                doc.remove(0, end);
+                doc.insertString(0, notice, null);
+            } catch (BadLocationException ignored) {
+                // Intentionally left blank
             }
-            textArea.append(msg);
-            textArea.setCaretPosition(textArea.getDocument().getLength());
         }
+        textArea.setCaretPosition(textArea.getDocument().getLength());
     }
 
     static class DebugOutputStream extends OutputStream {
@@ -92,13 +92,17 @@ public enum Language {
     ENTER_OWNER_PASSWORD,
 
     ERROR,
+    ERROR_BACKGROUND_TASK,
     ERROR_BUILDING_CONTENT_STREAM,
     ERROR_CANNOT_CHECK_NULL_FOR_INPUT_STREAM,
     ERROR_CANNOT_FIND_FILE,
     ERROR_CLOSING_STREAM,
+    ERROR_CLOSING_TASKS,
     ERROR_COMPARE_DOCUMENT_CREATION,
     ERROR_COMPARED_DOCUMENT_CLOSED,
     ERROR_COMPARED_DOCUMENT_NULL,
+    ERROR_CONTENT_CLOSED,
+    ERROR_CONTENT_TOO_LARGE,
     ERROR_DRAG_AND_DROP,
     ERROR_DUPLICATE_KEY,
     ERROR_EMPTY_FIELD,
@@ -107,19 +111,23 @@ public enum Language {
     ERROR_ILLEGAL_CHUNK,
     ERROR_INCORRECT_ARRAY_BRACKETS,
     ERROR_INCORRECT_DICTIONARY_BRACKETS,
+    ERROR_INDEX_CACHE,
     ERROR_INDEX_NOT_INTEGER,
     ERROR_INDEX_NOT_IN_RANGE,
     ERROR_INITIALIZING_SETTINGS,
+    ERROR_INVALID_OFFSET,
     ERROR_KEY_IS_NOT_NAME,
     ERROR_LOADING_DEFAULT_SETTINGS,
     ERROR_LOADING_IMAGE,
     ERROR_LOADING_XFA,
     ERROR_LOOK_AND_FEEL,
+    ERROR_MESSAGES_DROPPED,
     ERROR_MISSING_PASSWORD,
     ERROR_NO_OPEN_DOCUMENT,
     ERROR_NO_OPEN_DOCUMENT_COMPARE,
     ERROR_ONLY_OPEN_ONE_FILE,
     ERROR_OPENING_FILE,
+    ERROR_PARALLEL_SCAN_UNSUPPORTED,
     ERROR_PARENT_NULL,
     ERROR_PARSING_IMAGE,
     ERROR_PARSING_PDF_OBJECT,
@@ -130,6 +138,8 @@ public enum Language {
     ERROR_QUERY_CONTENT_STREAM,
     ERROR_READING_OBJECT_NUMBER,
     ERROR_REFLECTION_PDF_STREAM,
+    ERROR_RELEASING_CONTENT,
+    ERROR_SCANNING_OBJECTS,
     ERROR_TOO_MANY_OUTPUT,
     ERROR_TRUNCATED_INPUT,
     ERROR_UNEXPECTED_EXCEPTION,
@@ -153,6 +163,9 @@ public enum Language {
     GUI_UPDATING,
 
     IGNORED_TEXT,
+    IMAGE_DECODING,
+    IMAGE_FULL_RESOLUTION,
+    IMAGE_PREVIEW,
     INDIRECT_OBJECT,
     INDIRECT_OBJECT_CREATION_SUCCESS,
     INLINE_IMAGE_ALT,
@@ -182,6 +195,7 @@ public enum Language {
     NULL_AS_TEXT,
 
     OBJECT,
+    OBJECTS_SCANNING,
     OPEN,
     OPEN_PDF,
     OUTLINES,
@@ -195,16 +209,27 @@ public enum Language {
     PDF_OBJECT_TREE,
     PLAINTEXT,
     PLAINTEXT_DESCRIPTION,
+    PLAINTEXT_FIND,
+    PLAINTEXT_GO_TO_OFFSET,
+    PLAINTEXT_HITS,
+    PLAINTEXT_INDEXING,
+    PLAINTEXT_NEXT,
+    PLAINTEXT_PREVIOUS,
+    PLAINTEXT_SEARCHING,
     PREFERENCES,
     PREFERENCES_ALLOW_DUPLICATE_FILES,
+    PREFERENCES_INDEX_CACHE,
     PREFERENCES_NEED_RESTART,
     PREFERENCES_OPEN_FOLDER,
+    PREFERENCES_PARALLEL_SCAN,
     PREFERENCES_RESET_TO_DEFAULTS,
     PREFERENCES_RESET_TO_DEFAULTS_CONFIRM,
     PREFERENCES_RUPS_SETTINGS,
     PREFERENCES_SELECT_NEW_DEFAULT_FOLDER,
+    PREFERENCES_VIRTUAL_THREADS,
     PREFERENCES_VISUAL_SETTINGS,
 
+    PROGRESS_RATE,
     RAW_BYTES,
 
     SAVE,
@@ -217,6 +242,8 @@ public enum Language {
     SAVE_UNSAVED_CHANGES,
     SELECT_ALL,
     STREAM,
+    STREAM_LARGE,
+    STREAM_LOAD_FULL,
     STREAM_OF_TYPE,
     STRUCTURE,
     STRUCTURE_TREE,
@@ -229,6 +256,7 @@ public enum Language {
     TOOLTIP_ENCODING,
     TOOLTIP_HEX,
 
+    VIRTUAL_THREADS_UNAVAILABLE,
     WARNING,
     WARNING_OPENED_IN_READ_ONLY_MODE,
 
@@ -236,7 +264,8 @@ public enum Language {
     XREF_DESCRIPTION,
     XREF_NUMBER,
     XREF_OBJECT,
-    XREF_READING;
+    XREF_READING,
+    XREF_TYPE;
 
     /**
      * The location of the resource bundles.
@@ -82,6 +82,9 @@ public class PreferencesWindow {
 
     // Fields to reset
     private JCheckBox openDuplicateFiles;
+    private JCheckBox parallelScan;
+    private JCheckBox virtualThreads;
+    private JCheckBox indexCache;
     private JTextField pathField;
     private JLabel restartLabel;
     private JComboBox<String> localeBox;
@@ -156,6 +159,27 @@ public class PreferencesWindow {
         JLabel openDuplicateFilesLabel = new JLabel(Language.PREFERENCES_ALLOW_DUPLICATE_FILES.getString());
         openDuplicateFilesLabel.setLabelFor(this.openDuplicateFiles);
 
+        this.parallelScan = new JCheckBox("", RupsConfiguration.INSTANCE.isParallelScanEnabled());
+        this.parallelScan.addActionListener(
+                e -> RupsConfiguration.INSTANCE.setParallelScan(((JCheckBox) e.getSource()).isSelected())
+        );
+        JLabel parallelScanLabel = new JLabel(Language.PREFERENCES_PARALLEL_SCAN.getString());
+        parallelScanLabel.setLabelFor(this.parallelScan);
+
+        this.virtualThreads = new JCheckBox("", RupsConfiguration.INSTANCE.useVirtualThreads());
+        this.virtualThreads.addActionListener(
+                e -> RupsConfiguration.INSTANCE.setUseVirtualThreads(((JCheckBox) e.getSource()).isSelected())
+        );
+        JLabel virtualThreadsLabel = new JLabel(Language.PREFERENCES_VIRTUAL_THREADS.getString());
+        virtualThreadsLabel.setLabelFor(this.virtualThreads);
+
+        this.indexCache = new JCheckBox("", RupsConfiguration.INSTANCE.isIndexCacheEnabled());
+        this.indexCache.addActionListener(
+                e -> RupsConfiguration.INSTANCE.setIndexCache(((JCheckBox) e.getSource()).isSelected())
+        );
+        JLabel indexCacheLabel = new JLabel(Language.PREFERENCES_INDEX_CACHE.getString());
+        indexCacheLabel.setLabelFor(this.indexCache);
+
         JPanel generalSettingsPanel = new JPanel();
         generalSettingsPanel.setLayout(this.gridBagLayout);
 
@@ -165,6 +189,15 @@ public class PreferencesWindow {
         generalSettingsPanel.add(openDuplicateFilesLabel, this.left);
         generalSettingsPanel.add(this.openDuplicateFiles, this.right);
 
+        generalSettingsPanel.add(parallelScanLabel, this.left);
+        generalSettingsPanel.add(this.parallelScan, this.right);
+
+        generalSettingsPanel.add(virtualThreadsLabel, this.left);
+        generalSettingsPanel.add(this.virtualThreads, this.right);
+
+        generalSettingsPanel.add(indexCacheLabel, this.left);
+        generalSettingsPanel.add(this.indexCache, this.right);
+
         this.generalSettingsScrollPane = new JScrollPane(generalSettingsPanel);
     }
 
@@ -253,6 +286,9 @@ public class PreferencesWindow {
     private void resetView() {
         this.pathField.setText(RupsConfiguration.INSTANCE.getHomeFolder().getPath());
         this.openDuplicateFiles.setSelected(RupsConfiguration.INSTANCE.canOpenDuplicateFiles());
+        this.parallelScan.setSelected(RupsConfiguration.INSTANCE.isParallelScanEnabled());
+        this.virtualThreads.setSelected(RupsConfiguration.INSTANCE.useVirtualThreads());
+        this.indexCache.setSelected(RupsConfiguration.INSTANCE.isIndexCacheEnabled());
         this.localeBox.setSelectedItem(RupsConfiguration.INSTANCE.getUserLocale().toLanguageTag());
         this.restartLabel.setVisible(false);
     }
@@ -97,6 +97,7 @@ public class RupsTabbedPane {
     public boolean closeCurrentFile() {
         boolean isLastTab = this.jTabbedPane.getTabCount() == 1;
 
+        cancelTasks(this.jTabbedPane.getSelectedComponent());
         this.jTabbedPane.removeTabAt(this.jTabbedPane.getSelectedIndex());
 
         if (this.jTabbedPane.getTabCount() == 0) {
@@ -110,12 +111,27 @@ public class RupsTabbedPane {
         for (int i = 0; i < this.jTabbedPane.getTabCount(); i++) {
             final Component comp = this.jTabbedPane.getComponentAt(i);
             if ((comp instanceof RupsPanel) && ((RupsPanel) comp).getPdfFile() == file) {
+                cancelTasks(comp);
                 this.jTabbedPane.removeTabAt(i);
                 return;
             }
         }
     }
 
+    /**
+     * Stops all the work on the file of a tab, which is about to be removed.
+     *
+     * @param component the content of the tab
+     */
+    private static void cancelTasks(Component component) {
+        if (component instanceof RupsPanel) {
+            final RupsInstanceController controller = ((RupsPanel) component).getRupsInstanceController();
+            if (controller != null) {
+                controller.cancelTasks();
+            }
+        }
+    }
+
     public IPdfFile getCurrentFile() {
         final Component currentComponent = this.jTabbedPane.getSelectedComponent();
         if (currentComponent instanceof RupsPanel) {
@@ -42,7 +42,9 @@
  */
 package com.itextpdf.rups.view.contextmenu;
 
+import com.itextpdf.rups.model.BackgroundTask;
 import com.itextpdf.rups.model.LoggerHelper;
+import com.itextpdf.rups.model.TaskPriority;
 import com.itextpdf.rups.view.Language;
 
 import javax.imageio.ImageIO;
@@ -57,6 +59,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.function.Supplier;
 
 /**
  * Action to save an image to the filesystem.
@@ -66,6 +69,13 @@ public final class SaveImageAction extends AbstractRupsAction {
 
     private transient BufferedImage saveImg;
 
+    private transient Supplier<BufferedImage> source;
+
+    /**
+     * The task decoding the image from its source, {@code null} if not started.
+     */
+    private transient DecodeTask decodeTask;
+
     /**
      * Create a save image action with a given name, invoker and target image.
      *
@@ -78,6 +88,20 @@ public final class SaveImageAction extends AbstractRupsAction {
         this.saveImg = saveImg;
     }
 
+    /**
+     * Create a save image action with a given name and invoker, which only
+     * decodes the image to save when it is performed. This way a preview
+     * can be shown, while the full resolution image is saved.
+     *
+     * @param name    the name of the action
+     * @param invoker the action's invoking component
+     * @param source  supplies the image to save, or {@code null} if it can't be decoded
+     */
+    public SaveImageAction(String name, Component invoker, Supplier<BufferedImage> source) {
+        super(name, invoker);
+        this.source = source;
+    }
+
     /**
      * Create a "save image" button.
      *
@@ -91,11 +115,37 @@ public final class SaveImageAction extends AbstractRupsAction {
         return saveImgButton;
     }
 
+    /**
+     * Create a "save image" button, which only decodes the image when it is clicked.
+     *
+     * @param source supplies the {@link BufferedImage} to save
+     * @return {@link JButton} to perform the save action
+     */
+    public static JButton createSaveImageButton(final Supplier<BufferedImage> source) {
+        final String saveImageString = Language.SAVE_IMAGE.getString();
+        final JButton saveImgButton = new JButton(saveImageString);
+        saveImgButton.addActionListener(new SaveImageAction(saveImageString, saveImgButton, source));
+        return saveImgButton;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void actionPerformed(ActionEvent ev) {
+        if (saveImg != null || source == null) {
+            save(saveImg);
+        } else if (decodeTask == null) {
+            // decoding a full resolution image can take a while, so the dialog is opened when it is done
+            decodeTask = new DecodeTask(source);
+            decodeTask.start();
+        }
+    }
+
+    private void save(BufferedImage image) {
+        if (image == null) {
+            return;
+        }
         try {
             final String file = "Untitled.png";
             final String suffix = ".png";
@@ -104,19 +154,60 @@ public final class SaveImageAction extends AbstractRupsAction {
             fileDialog.setFilenameFilter((dir, name) -> name.endsWith(suffix));
             fileDialog.setFile(file);
             fileDialog.setVisible(true);
-            ImageIO.write(saveImg, IMAGE_FORMAT, new File(fileDialog.getDirectory() + fileDialog.getFile()));
+            if (fileDialog.getFile() == null) {
+                return;
+            }
+            ImageIO.write(image, IMAGE_FORMAT, new File(fileDialog.getDirectory() + fileDialog.getFile()));
         } catch (HeadlessException | IOException e) {
             LoggerHelper.error(Language.ERROR_PARSING_IMAGE.getString(), e, getClass());
         }
     }
 
+    private BufferedImage getImage() {
+        if (saveImg == null && source != null) {
+            saveImg = source.get();
+            source = null;
+        }
+        return saveImg;
+    }
+
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.defaultWriteObject();
-        ImageIO.write(saveImg, IMAGE_FORMAT, out);
+        ImageIO.write(getImage(), IMAGE_FORMAT, out);
     }
 
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         this.saveImg = ImageIO.read(in);
     }
+
+    /**
+     * Decodes the image to save in the background, and asks where to save
+     * it once it is decoded.
+     */
+    private final class DecodeTask extends BackgroundTask {
+        private final Supplier<BufferedImage> decoder;
+
+        private BufferedImage decoded;
+
+        DecodeTask(Supplier<BufferedImage> decoder) {
+            super(Language.SAVE_IMAGE.getString(), TaskPriority.INTERACTIVE);
+            this.decoder = decoder;
+        }
+
+        @Override
+        public void doTask() {
+            decoded = decoder.get();
+        }
+
+        @Override
+        public void finished() {
+            decodeTask = null;
+            if (decoded != null) {
+                saveImg = decoded;
+                source = null;
+            }
+            save(decoded);
+        }
+    }
 }
@@ -42,37 +42,50 @@
  */
 package com.itextpdf.rups.view.itext;
 
-import com.itextpdf.kernel.pdf.PdfDictionary;
-import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.RupsEvent;
 import com.itextpdf.rups.model.ObjectLoader;
+import com.itextpdf.rups.model.PageTreeIndex;
 import com.itextpdf.rups.model.TreeNodeFactory;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.PageSelectionListener;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
-import com.itextpdf.rups.view.itext.treenodes.PdfPageTreeNode;
-import com.itextpdf.rups.view.itext.treenodes.PdfTrailerTreeNode;
 import com.itextpdf.rups.view.models.JTableAutoModel;
 import com.itextpdf.rups.view.models.JTableAutoModelInterface;
 
 import javax.swing.JTable;
 import javax.swing.event.ListSelectionEvent;
-import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.Observable;
 import java.util.Observer;
 
 /**
  * A JTable listing all the pages in a PDF file: the object number of each
  * page dictionary and the page numbers (with label information if present).
+ *
+ * <p>
+ * The number of rows is taken from the root of the page tree. The page of a
+ * row is only looked up in the page tree when the row is shown or selected.
+ * The tree node of a page formats its page number and label itself, so it is
+ * captioned the same way in the {@link PdfTree}.
+ * </p>
  */
 public class PagesTable extends JTable implements JTableAutoModelInterface, Observer {
 
     /**
-     * A list with page nodes.
+     * The page tree of the document, or {@code null} if no document is open.
      */
-    private ArrayList<PdfPageTreeNode> list = new ArrayList<>();
+    private PageTreeIndex pageTree;
+
+    private TreeNodeFactory factory;
+
+    private int pageCount;
+
+    /**
+     * The object numbers of the pages which were looked up, by row; 0 if the
+     * page of a row wasn't looked up yet.
+     */
+    private int[] references = new int[0];
 
     /**
      * Nodes in the FormTree correspond with nodes in the main PdfTree.
@@ -100,32 +113,17 @@ public class PagesTable extends JTable implements JTableAutoModelInterface, Obse
             RupsEvent event = (RupsEvent) obj;
             switch (event.getType()) {
                 case RupsEvent.CLOSE_DOCUMENT_EVENT:
-                    list = new ArrayList<>();
+                    pageTree = null;
+                    factory = null;
+                    pageCount = 0;
+                    references = new int[0];
                     break;
                 case RupsEvent.OPEN_DOCUMENT_POST_EVENT:
                     ObjectLoader loader = (ObjectLoader) event.getContent();
-                    String[] pageLabels = loader.getFile().getPdfDocument().getPageLabels();
-                    int i = 0;
-                    TreeNodeFactory factory = loader.getNodes();
-                    PdfTrailerTreeNode trailer = controller.getPdfTree().getRoot();
-                    PdfObjectTreeNode catalog = factory.getChildNode(trailer, PdfName.Root);
-                    final Enumeration<PdfPageTreeNode> p =
-                            new PageEnumerator((PdfDictionary) catalog.getPdfObject(), factory);
-                    PdfPageTreeNode child;
-                    final StringBuilder stringBuilder = new StringBuilder();
-                    while (p.hasMoreElements()) {
-                        child = p.nextElement();
-                        stringBuilder.setLength(0);
-                        i++;
-                        stringBuilder.append(String.format(Language.PAGE_NUMBER.getString(), i));
-                        if (pageLabels != null) {
-                            stringBuilder.append(" ( ");
-                            stringBuilder.append(pageLabels[i - 1]);
-                            stringBuilder.append(" )");
-                        }
-                        child.setUserObject(stringBuilder.toString());
-                        list.add(child);
-                    }
+                    factory = loader.getNodes();
+                    pageTree = factory.getPageTree();
+                    pageCount = pageTree.getPageCount();
+                    references = new int[pageCount];
                     break;
             }
             setModel(new JTableAutoModel(this));
@@ -146,7 +144,7 @@ public class PagesTable extends JTable implements JTableAutoModelInterface, Obse
      */
     @Override
     public int getRowCount() {
-        return list.size();
+        return pageCount;
     }
 
     /**
@@ -157,9 +155,10 @@ public class PagesTable extends JTable implements JTableAutoModelInterface, Obse
         if (getRowCount() == 0) return null;
         switch (columnIndex) {
             case 0:
-                return String.format(Language.PAGES_TABLE_OBJECT.getString(), list.get(rowIndex).getNumber());
+                final int reference = getPageReference(rowIndex);
+                return reference == 0 ? null : String.format(Language.PAGES_TABLE_OBJECT.getString(), reference);
             case 1:
-                return list.get(rowIndex);
+                return getPageNode(rowIndex);
             default:
                 return null;
         }
@@ -194,11 +193,45 @@ public class PagesTable extends JTable implements JTableAutoModelInterface, Obse
         if (getRowCount() > 0) {
             int selectedRow = getSelectedRow();
             if (selectedRow >= 0) {
-                controller.selectNode(list.get(selectedRow));
+                final PdfObjectTreeNode node = getPageNode(selectedRow);
+                if (node != null) {
+                    controller.selectNode(node);
+                }
                 if (listener != null) {
                     listener.gotoPage(getSelectedRow() + 1);
                 }
             }
         }
     }
+
+    /**
+     * Gets the object number of the page in a row, looking it up in the page
+     * tree the first time.
+     *
+     * @param rowIndex a row number
+     * @return the object number, or 0 if the page tree has no such page
+     */
+    private int getPageReference(int rowIndex) {
+        if (references[rowIndex] == 0) {
+            final PdfIndirectReference reference = pageTree.getPageReference(rowIndex);
+            if (reference != null) {
+                references[rowIndex] = reference.getObjNumber();
+            }
+        }
+        return references[rowIndex];
+    }
+
+    /**
+     * Gets the tree node of the page in a row, which is captioned with its page number.
+     *
+     * @param rowIndex a row number
+     * @return the tree node, or {@code null} if the page tree has no such page
+     */
+    private PdfObjectTreeNode getPageNode(int rowIndex) {
+        final int reference = getPageReference(rowIndex);
+        if (reference == 0) {
+            return null;
+        }
+        return factory.getNode(reference);
+    }
 }
@@ -57,6 +57,7 @@ import com.itextpdf.rups.model.PdfSyntaxParser;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.icons.IconFetcher;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
+import com.itextpdf.rups.view.itext.treenodes.PdfRangeTreeNode;
 import com.itextpdf.rups.view.models.AbstractPdfObjectPanelTableModel;
 import com.itextpdf.rups.view.models.DictionaryTableModel;
 import com.itextpdf.rups.view.models.DictionaryTableModelButton;
@@ -174,6 +175,9 @@ public class PdfObjectPanel extends Observable implements Observer {
     public void render(PdfObjectTreeNode node, PdfSyntaxParser parser) {
         target = node;
         final PdfObject object = node.getPdfObject();
+        // a range node only shows its own part of the array or dictionary
+        final int from = node instanceof PdfRangeTreeNode ? ((PdfRangeTreeNode) node).getFrom() : 0;
+        final int to = node instanceof PdfRangeTreeNode ? ((PdfRangeTreeNode) node).getTo() : -1;
         if (object == null) {
             text.setText(null);
             layout.show(panel, TEXT);
@@ -186,7 +190,7 @@ public class PdfObjectPanel extends Observable implements Observer {
             case PdfObject.DICTIONARY:
             case PdfObject.STREAM:
                 final DictionaryTableModel model =
-                        new DictionaryTableModel((PdfDictionary) object, parser, panel);
+                        new DictionaryTableModel((PdfDictionary) object, parser, panel, from, to);
                 model.setEditable(editable);
                 model.addTableModelListener(new DictionaryModelListener());
                 table.setModel(model);
@@ -199,7 +203,7 @@ public class PdfObjectPanel extends Observable implements Observer {
                 break;
             case PdfObject.ARRAY:
                 final PdfArrayTableModel arrayModel =
-                        new PdfArrayTableModel((PdfArray) object, parser, panel);
+                        new PdfArrayTableModel((PdfArray) object, parser, panel, from, to);
                 arrayModel.addTableModelListener(new ArrayModelListener());
                 arrayModel.setEditable(editable);
                 table.setModel(arrayModel);
@@ -285,10 +289,10 @@ public class PdfObjectPanel extends Observable implements Observer {
     private class ArrayModelListener implements TableModelListener {
         @Override
         public void tableChanged(TableModelEvent e) {
-            final int row = e.getFirstRow();
-            if (row < 0 || row != e.getLastRow()) {
+            if (e.getFirstRow() < 0 || e.getFirstRow() != e.getLastRow()) {
                 return;
             }
+            final int row = e.getFirstRow() + ((AbstractPdfObjectPanelTableModel) e.getSource()).getOffset();
             final PdfObject value = ((PdfArray) target.getPdfObject()).get(row, false);
             switch (e.getType()) {
                 case TableModelEvent.UPDATE:
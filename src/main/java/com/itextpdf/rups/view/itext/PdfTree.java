@@ -46,12 +46,13 @@ import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.RupsEvent;
 import com.itextpdf.rups.io.listeners.PdfTreeExpansionListener;
 import com.itextpdf.rups.io.listeners.PdfTreeNavigationListener;
+import com.itextpdf.rups.model.ObjectLoader;
+import com.itextpdf.rups.model.TreeNodeFactory;
 import com.itextpdf.rups.view.icons.IconTreeCellRenderer;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
 import com.itextpdf.rups.view.itext.treenodes.PdfTrailerTreeNode;
 
 import javax.swing.JTree;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.util.Observable;
 import java.util.Observer;
@@ -77,7 +78,7 @@ public class PdfTree extends JTree implements Observer {
         addMouseListener(listener);
         setCellRenderer(new IconTreeCellRenderer());
         addTreeExpansionListener(new PdfTreeExpansionListener());
-        setModel(new DefaultTreeModel(root));
+        setModel(new PdfTreeModel(root, null));
         repaint();
     }
 
@@ -99,16 +100,32 @@ public class PdfTree extends JTree implements Observer {
      * @see java.util.Observer#update(java.util.Observable, java.lang.Object)
      */
     public void update(Observable observable, Object obj) {
+        TreeNodeFactory factory = getFactory();
         if (observable instanceof PdfReaderController && obj instanceof RupsEvent) {
             final RupsEvent event = (RupsEvent) obj;
             if (RupsEvent.CLOSE_DOCUMENT_EVENT == event.getType()) {
                 root = new PdfTrailerTreeNode();
+                factory = null;
+            } else if (RupsEvent.OPEN_DOCUMENT_POST_EVENT == event.getType()) {
+                factory = ((ObjectLoader) event.getContent()).getNodes();
             }
         }
-        setModel(new DefaultTreeModel(root));
+        setModel(new PdfTreeModel(root, factory));
         repaint();
     }
 
+    /**
+     * Gets the factory that creates the nodes of the tree on demand.
+     *
+     * @return the factory, or {@code null} if no document is open
+     */
+    private TreeNodeFactory getFactory() {
+        if (getModel() instanceof PdfTreeModel) {
+            return ((PdfTreeModel) getModel()).getFactory();
+        }
+        return null;
+    }
+
     /**
      * Select a specific node in the tree.
      * Typically this method will be called from a different tree,
@@ -0,0 +1,115 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext;
+
+import com.itextpdf.rups.model.TreeNodeFactory;
+import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
+
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+
+/**
+ * A tree model for the {@link PdfTree} that creates the child nodes of a
+ * PDF object only when the tree asks for them, i.e. when a node is expanded.
+ * Whether a node is a leaf is decided by looking at the PDF object, so
+ * collapsed nodes never have their children created.
+ */
+public class PdfTreeModel extends DefaultTreeModel {
+
+    /**
+     * The factory creating the child nodes, {@code null} if no document is open.
+     */
+    private final transient TreeNodeFactory factory;
+
+    /**
+     * Creates a tree model.
+     *
+     * @param root    the root of the tree
+     * @param factory the factory that creates the child nodes, can be {@code null}
+     */
+    public PdfTreeModel(TreeNode root, TreeNodeFactory factory) {
+        super(root);
+        this.factory = factory;
+    }
+
+    /**
+     * Gets the factory creating the child nodes.
+     *
+     * @return the factory, or {@code null} if no document is open
+     */
+    public TreeNodeFactory getFactory() {
+        return factory;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        expand(parent);
+        return super.getChild(parent, index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        expand(parent);
+        return super.getChildCount(parent);
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        expand(parent);
+        return super.getIndexOfChild(parent, child);
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        if (factory != null && node instanceof PdfObjectTreeNode) {
+            return !factory.hasChildren((PdfObjectTreeNode) node);
+        }
+        return super.isLeaf(node);
+    }
+
+    private void expand(Object node) {
+        if (factory != null && node instanceof PdfObjectTreeNode) {
+            factory.expandNode((PdfObjectTreeNode) node);
+        }
+    }
+}
@@ -44,23 +44,158 @@ package com.itextpdf.rups.view.itext;
 
 import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.RupsEvent;
+import com.itextpdf.rups.model.BackgroundTask;
+import com.itextpdf.rups.model.ByteSearch;
 import com.itextpdf.rups.model.IPdfFile;
+import com.itextpdf.rups.model.LineIndex;
+import com.itextpdf.rups.model.LoggerHelper;
 import com.itextpdf.rups.model.ObjectLoader;
+import com.itextpdf.rups.model.OriginalContent;
+import com.itextpdf.rups.model.TaskGroup;
+import com.itextpdf.rups.model.TaskPriority;
 import com.itextpdf.rups.view.Language;
 
-import java.io.UnsupportedEncodingException;
-import javax.swing.SwingWorker;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.nio.charset.Charset;
 import java.util.Observable;
 import java.util.Observer;
-import java.util.concurrent.ExecutionException;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Highlighter;
 
-public class PlainText extends ReadOnlyTextArea implements Observer {
+/**
+ * A read-only view of the raw bytes of the file.
+ *
+ * <p>
+ * The line starts of the file are indexed in the background. Only the lines
+ * which fit in the view are read from the original content and decoded, so
+ * the memory and layout time needed depend on the size of the view instead
+ * of the size of the file. Lines can be shown before the whole file is indexed.
+ * </p>
+ *
+ * <p>
+ * The raw bytes can be searched, see {@link ByteSearch}. Hits can be navigated
+ * while the search is still running.
+ * </p>
+ */
+public class PlainText extends JPanel implements Observer {
+
+    /**
+     * The delay between two updates of the line count while indexing, in milliseconds.
+     */
+    private static final int INDEX_UPDATE_DELAY = 100;
+
+    private static final Charset ENCODING = Charset.forName("cp1252");
 
     protected boolean loaded = false;
 
     private IPdfFile file;
 
-    private SwingWorker<String, Object> worker;
+    private TaskGroup group;
+
+    private BackgroundTask worker;
+
+    private final ReadOnlyTextArea text = new ReadOnlyTextArea();
+
+    private final JScrollPane textScrollPane = new JScrollPane(JScrollPane.VERTICAL_SCROLLBAR_NEVER,
+            JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+
+    private final JTextField offsetField = new JTextField(12);
+
+    private final JLabel status = new JLabel();
+
+    private final JTextField searchField = new JTextField(16);
+
+    private final JLabel hits = new JLabel();
+
+    private final Timer indexUpdater = new Timer(INDEX_UPDATE_DELAY, e -> updateLineCount());
+
+    private final Timer searchUpdater = new Timer(INDEX_UPDATE_DELAY, e -> updateHits());
+
+    private final Highlighter.HighlightPainter highlightPainter =
+            new DefaultHighlighter.DefaultHighlightPainter(Color.YELLOW);
+
+    private LineIndex index;
+
+    private int renderedFirst = -1;
+
+    private int renderedCount;
+
+    /**
+     * The start offsets of the shown lines, and the end of the last one.
+     */
+    private long[] renderedStarts;
+
+    /**
+     * The number of shown characters of every shown line, without its line break.
+     */
+    private int[] renderedLengths;
+
+    private long highlightStart = -1;
+
+    private long highlightEnd = -1;
+
+    private BackgroundTask searcher;
+
+    private ByteSearch search;
+
+    private long currentHit = -1;
+
+    /**
+     * Creates an empty view.
+     */
+    public PlainText() {
+        super(new BorderLayout());
+        final JButton goButton = new JButton(Language.PLAINTEXT_GO_TO_OFFSET.getString());
+        goButton.addActionListener(e -> goToOffset());
+        offsetField.addActionListener(e -> goToOffset());
+        final JPanel toolBar = new JPanel(new FlowLayout(FlowLayout.LEADING));
+        toolBar.add(offsetField);
+        toolBar.add(goButton);
+        final JButton findButton = new JButton(Language.PLAINTEXT_FIND.getString());
+        findButton.addActionListener(e -> find());
+        searchField.addActionListener(e -> find());
+        final JButton previousButton = new JButton(Language.PLAINTEXT_PREVIOUS.getString());
+        previousButton.addActionListener(e -> showPreviousHit());
+        final JButton nextButton = new JButton(Language.PLAINTEXT_NEXT.getString());
+        nextButton.addActionListener(e -> showNextHit());
+        toolBar.add(searchField);
+        toolBar.add(findButton);
+        toolBar.add(previousButton);
+        toolBar.add(nextButton);
+        toolBar.add(hits);
+        toolBar.add(status);
+
+        textScrollPane.setViewportView(text);
+        textScrollPane.setWheelScrollingEnabled(false);
+        textScrollPane.addMouseWheelListener(e -> scrollBar.setValue(scrollBar.getValue() + e.getUnitsToScroll()));
+        textScrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateLineCount();
+            }
+        });
+        scrollBar.addAdjustmentListener(e -> renderWindow());
+        indexUpdater.setCoalesce(true);
+        searchUpdater.setCoalesce(true);
+
+        add(toolBar, BorderLayout.NORTH);
+        add(textScrollPane, BorderLayout.CENTER);
+        add(scrollBar, BorderLayout.EAST);
+    }
 
     public void update(Observable o, Object arg) {
         if (o instanceof PdfReaderController && arg instanceof RupsEvent) {
@@ -68,60 +203,302 @@ public class PlainText extends ReadOnlyTextArea implements Observer {
             switch (event.getType()) {
                 case RupsEvent.CLOSE_DOCUMENT_EVENT:
                     file = null;
-                    setText("");
-                    if (worker != null) {
-                        worker.cancel(true);
-                        worker = null;
-                    }
+                    group = null;
+                    reset();
                     loaded = false;
                     break;
                 case RupsEvent.OPEN_DOCUMENT_POST_EVENT:
-                    file = ((ObjectLoader) event.getContent()).getFile();
+                    final ObjectLoader loader = (ObjectLoader) event.getContent();
+                    file = loader.getFile();
+                    group = loader.getGroup();
                     loaded = false;
-                    if (worker != null) {
-                        worker.cancel(true);
-                        worker = null;
-                    }
+                    reset();
                     break;
                 case RupsEvent.OPEN_PLAIN_TEXT_EVENT:
                     if (file == null || loaded) {
                         break;
                     }
                     loaded = true;
-                    setText(Language.LOADING.getString());
-                    worker = new SwingWorker<String, Object>() {
-                        @Override
-                        protected String doInBackground() {
-                            return getFileContentAsString(file);
-                        }
-
-                        @Override
-                        protected void done() {
-                            if (!isCancelled()) {
-                                String text;
-                                try {
-                                    text = get();
-                                } catch (InterruptedException any) {
-                                    text = Language.ERROR_WHILE_LOADING_TEXT.getString();
-                                    Thread.currentThread().interrupt();
-                                } catch (ExecutionException any) {
-                                    text = Language.ERROR_WHILE_LOADING_TEXT.getString();
-                                }
-                                setText(text);
-                            }
-                        }
-                    };
-                    worker.execute();
+                    index = new LineIndex(file.getOriginalContent());
+                    status.setText(Language.PLAINTEXT_INDEXING.getString());
+                    worker = new LineIndexer(index);
+                    worker.start(group);
+                    indexUpdater.start();
                     break;
             }
         }
     }
 
-    private static String getFileContentAsString(IPdfFile file) {
+    /**
+     * Shows the line containing a byte of the file, and highlights a range of bytes.
+     *
+     * @param offset the offset of the first byte to highlight
+     * @param length the number of bytes to highlight
+     */
+    public void showOffset(long offset, int length) {
+        if (index == null) {
+            return;
+        }
+        highlightStart = offset;
+        highlightEnd = offset + length;
+        final int line = index.getLineOf(offset);
+        final int first = scrollBar.getValue();
+        renderedFirst = -1;
+        // the last shown line may be cut off
+        if (line < first || line >= first + scrollBar.getVisibleAmount() - 1) {
+            scrollBar.setValue(line);
+        }
+        renderWindow();
+    }
+
+    private void goToOffset() {
+        if (index == null) {
+            return;
+        }
+        final long length = index.getContent().length();
         try {
-            return new String(file.getOriginalContent(), "cp1252");
-        } catch (UnsupportedEncodingException e) {
-            return Language.ERROR_WRONG_ENCODING.getString();
+            final long offset = Long.parseLong(offsetField.getText().trim());
+            if (offset >= 0 && offset < length) {
+                showOffset(offset, 1);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        LoggerHelper.warn(String.format(Language.ERROR_INVALID_OFFSET.getString(), length - 1), getClass());
+    }
+
+    /**
+     * Starts searching the file for the text in the search field, encoded like the view.
+     */
+    private void find() {
+        stopSearch();
+        if (index == null || searchField.getText().isEmpty()) {
+            return;
+        }
+        search = new ByteSearch(index.getContent(), searchField.getText().getBytes(ENCODING));
+        searcher = new Searcher(search);
+        searcher.start(group);
+        searchUpdater.start();
+        updateHits();
+    }
+
+    private void stopSearch() {
+        if (searcher != null) {
+            searcher.cancel();
+            searcher = null;
+        }
+        searchUpdater.stop();
+        search = null;
+        currentHit = -1;
+        hits.setText("");
+    }
+
+    /**
+     * Shows the hit count, and the first hit once there is one.
+     */
+    private void updateHits() {
+        if (search == null) {
+            return;
+        }
+        final Language format = search.isComplete() ? Language.PLAINTEXT_HITS : Language.PLAINTEXT_SEARCHING;
+        hits.setText(String.format(format.getString(), search.getHitCount()));
+        if (currentHit < 0) {
+            showNextHit();
+        }
+    }
+
+    private void showNextHit() {
+        if (search == null) {
+            return;
+        }
+        long hit = search.next(currentHit);
+        if (hit < 0) {
+            hit = search.next(-1);
+        }
+        showHit(hit);
+    }
+
+    private void showPreviousHit() {
+        if (search == null) {
+            return;
+        }
+        long hit = currentHit < 0 ? -1 : search.previous(currentHit);
+        if (hit < 0) {
+            hit = search.previous(Long.MAX_VALUE);
+        }
+        showHit(hit);
+    }
+
+    private void showHit(long hit) {
+        if (hit >= 0) {
+            currentHit = hit;
+            showOffset(hit, search.getPatternLength());
+        }
+    }
+
+    private void reset() {
+        if (worker != null) {
+            worker.cancel();
+            worker = null;
+        }
+        stopSearch();
+        indexUpdater.stop();
+        index = null;
+        renderedFirst = -1;
+        renderedStarts = null;
+        highlightStart = -1;
+        highlightEnd = -1;
+        status.setText("");
+        text.setText("");
+        scrollBar.setValues(0, 0, 0, 0);
+    }
+
+    private int getVisibleLineCount() {
+        final int lineHeight = text.getFontMetrics(text.getFont()).getHeight();
+        return Math.max(1, textScrollPane.getViewport().getHeight() / Math.max(1, lineHeight) + 1);
+    }
+
+    /**
+     * Adapts the scroll bar to the number of lines which are indexed so far.
+     */
+    private void updateLineCount() {
+        if (index == null) {
+            return;
+        }
+        final int count = getVisibleLineCount();
+        final int lineCount = index.getLineCount();
+        scrollBar.setValues(scrollBar.getValue(), count, 0, Math.max(count, lineCount));
+        scrollBar.setBlockIncrement(count);
+        // the last lines may have been incomplete
+        if (renderedFirst + renderedCount >= lineCount - 1) {
+            renderedFirst = -1;
+        }
+        renderWindow();
+    }
+
+    /**
+     * Shows the lines at the position of the scroll bar.
+     */
+    private void renderWindow() {
+        if (index == null) {
+            return;
+        }
+        final int first = scrollBar.getValue();
+        final int count = Math.max(0, Math.min(scrollBar.getVisibleAmount(), index.getLineCount() - first));
+        if (first == renderedFirst && count == renderedCount) {
+            return;
+        }
+        renderedFirst = first;
+        renderedCount = count;
+        if (count == 0) {
+            renderedStarts = null;
+            text.setText("");
+            return;
+        }
+        final OriginalContent content = index.getContent();
+        final long[] starts = index.getLineStarts(first, count);
+        final byte[] bytes = content.getBytes(starts[0], (int) (starts[count] - starts[0]));
+        final StringBuilder window = new StringBuilder(bytes.length + count);
+        final int[] lengths = new int[count];
+        for (int i = 0; i < count; ++i) {
+            final int from = (int) (starts[i] - starts[0]);
+            int to = (int) (starts[i + 1] - starts[0]);
+            // line breaks are shown as a single line feed
+            while (to > from && (bytes[to - 1] == '\n' || bytes[to - 1] == '\r')) {
+                --to;
+            }
+            lengths[i] = to - from;
+            window.append(new String(bytes, from, to - from, ENCODING));
+            if (i < count - 1) {
+                window.append('\n');
+            }
+        }
+        renderedStarts = starts;
+        renderedLengths = lengths;
+        text.setText(window.toString());
+        text.setCaretPosition(0);
+        highlight();
+    }
+
+    /**
+     * Highlights the part of the highlighted range which is shown.
+     */
+    private void highlight() {
+        text.getHighlighter().removeAllHighlights();
+        if (renderedStarts == null || highlightEnd <= renderedStarts[0]
+                || highlightStart >= renderedStarts[renderedCount]) {
+            return;
+        }
+        try {
+            int lineOffset = 0;
+            for (int i = 0; i < renderedCount; ++i) {
+                final int lineLength = renderedLengths[i];
+                final long from = Math.max(highlightStart, renderedStarts[i]) - renderedStarts[i];
+                final long to = Math.min(highlightEnd, renderedStarts[i] + lineLength) - renderedStarts[i];
+                if (from < to) {
+                    text.getHighlighter().addHighlight(
+                            lineOffset + (int) from, lineOffset + (int) to, highlightPainter);
+                }
+                lineOffset += lineLength + 1;
+            }
+        } catch (BadLocationException e) {
+            LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
+        }
+    }
+
+    /**
+     * Indexes the line starts of the file in the background.
+     */
+    private final class LineIndexer extends BackgroundTask {
+        private final LineIndex lines;
+
+        LineIndexer(LineIndex lines) {
+            super(Language.PLAINTEXT.getString(), TaskPriority.NORMAL);
+            this.lines = lines;
+        }
+
+        @Override
+        public void doTask() {
+            lines.build(this::isCancelled);
+        }
+
+        @Override
+        public void finished() {
+            if (index != lines) {
+                return;
+            }
+            worker = null;
+            indexUpdater.stop();
+            status.setText("");
+            updateLineCount();
+        }
+    }
+
+    /**
+     * Searches the file in the background.
+     */
+    private final class Searcher extends BackgroundTask {
+        private final ByteSearch bytes;
+
+        Searcher(ByteSearch bytes) {
+            super(Language.PLAINTEXT_FIND.getString(), TaskPriority.NORMAL);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void doTask() {
+            bytes.run(this::isCancelled);
+        }
+
+        @Override
+        public void finished() {
+            if (search != bytes) {
+                return;
+            }
+            searcher = null;
+            searchUpdater.stop();
+            updateHits();
         }
     }
 }
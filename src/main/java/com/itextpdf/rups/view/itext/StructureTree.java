@@ -42,6 +42,7 @@
  */
 package com.itextpdf.rups.view.itext;
 
+import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
@@ -49,34 +50,55 @@ import com.itextpdf.kernel.pdf.PdfNumber;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.RupsEvent;
+import com.itextpdf.rups.model.BackgroundTask;
+import com.itextpdf.rups.model.LoggerHelper;
 import com.itextpdf.rups.model.ObjectLoader;
+import com.itextpdf.rups.model.TaskPriority;
 import com.itextpdf.rups.model.TreeNodeFactory;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.icons.IconTreeCellRenderer;
-import com.itextpdf.rups.view.itext.contentstream.MarkedContentInfoGatherer;
+import com.itextpdf.rups.view.itext.contentstream.MarkedContentIndexer;
 import com.itextpdf.rups.view.itext.contentstream.MarkedContentInfo;
+import com.itextpdf.rups.view.itext.contentstream.MarkedContentScanner;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
 import com.itextpdf.rups.view.itext.treenodes.PdfTrailerTreeNode;
 import com.itextpdf.rups.view.itext.treenodes.StructureTreeNode;
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 import javax.swing.JTree;
-import javax.swing.SwingWorker;
+import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
-import java.util.concurrent.ExecutionException;
 
 /**
  * A JTree visualizing information about the structure tree of
  * the PDF file (if any).
+ *
+ * <p>
+ * The children of a structure element are only created when it is expanded,
+ * in a background task; until then, the element shows a placeholder.
+ * The marked content of a page is indexed once an element with marked
+ * content on that page is expanded; if an element has marked content on
+ * several pages, these are indexed on several cores with a
+ * {@link MarkedContentIndexer}, which is kept for the loaded document.
+ * </p>
  */
 public class StructureTree extends JTree implements TreeSelectionListener, Observer {
 
@@ -93,17 +115,42 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
 
     protected boolean loaded = false;
 
-    private transient SwingWorker<TreeModel, Integer> worker;
+    private transient BackgroundTask worker;
 
     private final Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> mciByPage
             = new ConcurrentHashMap<>();
 
+    /**
+     * Indexes the marked content of several pages at once; created on first
+     * use and closed when the document is.
+     */
+    private MarkedContentIndexer indexer;
+
+    /**
+     * The pages of which the content stream nodes were expanded in the PdfTree.
+     */
+    private final Set<PdfIndirectReference> expandedPages = ConcurrentHashMap.newKeySet();
+
     public StructureTree(PdfReaderController controller) {
         super();
         this.controller = controller;
         setCellRenderer(new IconTreeCellRenderer());
         setModel(new DefaultTreeModel(new StructureTreeNode()));
         addTreeSelectionListener(this);
+        addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                final Object node = event.getPath().getLastPathComponent();
+                if (node instanceof StructureTreeNode) {
+                    startLoadingChildren((StructureTreeNode) node);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+                // the children are kept
+            }
+        });
     }
 
     public void update(Observable observable, Object obj) {
@@ -125,7 +172,7 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
                     loaded = true;
                     setModel(new DefaultTreeModel(new DefaultMutableTreeNode(Language.LOADING.getString())));
                     worker = new TreeUpdateWorker();
-                    worker.execute();
+                    worker.start(loader.getGroup());
                     break;
             }
         }
@@ -133,7 +180,9 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
 
 
     /**
-     * Recalculates the tree model backing the structure tree view.
+     * Recalculates the tree model backing the structure tree view. Only the
+     * top level of the structure tree is created right away; the children of
+     * a structure element are created when it is expanded.
      *
      * @return the new tree model
      */
@@ -152,15 +201,75 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
         return new DefaultTreeModel(root);
     }
 
+    /**
+     * Collects the pages of which the marked content is shown as a direct
+     * child of a structure element.
+     *
+     * @param element the structure element
+     * @param page    the page of the element, which may be inherited, or {@code null}
+     * @return the references to the pages, in order of appearance
+     */
+    static Set<PdfIndirectReference> collectPages(PdfDictionary element, PdfDictionary page) {
+        final Set<PdfIndirectReference> pages = new LinkedHashSet<>();
+        final PdfObject k = element.get(PdfName.K);
+        final PdfArray kids = k != null && k.isArray() ? (PdfArray) k : null;
+        final int count = kids == null ? (k == null ? 0 : 1) : kids.size();
+        for (int i = 0; i < count; ++i) {
+            final PdfObject kid = kids == null ? k : kids.get(i);
+            PdfDictionary kidPage = null;
+            if (kid != null && kid.isNumber()) {
+                kidPage = page;
+            } else if (kid != null && kid.isDictionary()
+                    && PdfName.MCR.equals(((PdfDictionary) kid).getAsName(PdfName.Type))) {
+                kidPage = ((PdfDictionary) kid).getAsDictionary(PdfName.Pg);
+                if (kidPage == null) {
+                    kidPage = page;
+                }
+            }
+            if (kidPage != null && kidPage.getIndirectReference() != null) {
+                pages.add(kidPage.getIndirectReference());
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Indexes the marked content of pages which weren't indexed yet. If
+     * there are several, they are indexed in parallel; a single page is
+     * indexed when its marked content is looked up.
+     *
+     * @param pages     the references to the pages
+     * @param cancelled checked before every page
+     */
+    private void indexMarkedContent(Set<PdfIndirectReference> pages, BooleanSupplier cancelled) {
+        final List<PdfIndirectReference> missing = new ArrayList<>(pages);
+        missing.removeAll(mciByPage.keySet());
+        if (missing.size() < 2) {
+            return;
+        }
+        try {
+            getIndexer().index(missing, mciByPage, cancelled);
+        } catch (IllegalStateException | UncheckedIOException e) {
+            LoggerHelper.warn(Language.ERROR_PARALLEL_SCAN_UNSUPPORTED.getString(), e, getClass());
+        }
+    }
+
+    private synchronized MarkedContentIndexer getIndexer() {
+        if (indexer == null) {
+            indexer = new MarkedContentIndexer(loader.getFile());
+        }
+        return indexer;
+    }
+
     private Map<Integer, MarkedContentInfo> indexMarkedContentOnPage(PdfDictionary page) {
         final PdfIndirectReference ref = page.getIndirectReference();
         Map<Integer, MarkedContentInfo> result = this.mciByPage.get(ref);
         if (result != null) {
             return result;
         }
-        final MarkedContentInfoGatherer gatherer = new MarkedContentInfoGatherer();
-        gatherer.processPageContent(this.loader.getFile().getPdfDocument().getPage(page));
-        result = gatherer.getMarkedContentIndex();
+        final MarkedContentScanner scanner = new MarkedContentScanner();
+        scanner.processPageContent(this.loader.getFile().getPdfDocument().getPage(page));
+        result = scanner.getMarkedContentIndex();
         this.mciByPage.put(ref, result);
         return result;
     }
@@ -182,54 +291,56 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
         }
     }
 
-    private static StructureTreeNode attemptMcidNode(
-            PdfObjectTreeNode mcidNode, TreeNodeFactory factory,
-            Map<Integer, MarkedContentInfo> mciIndex) {
+    private StructureTreeNode attemptMcidNode(
+            PdfObjectTreeNode mcidNode, TreeNodeFactory factory, PdfDictionary page) {
         MarkedContentInfo mci = null;
         final PdfObject mcidObj = mcidNode.getPdfObject();
-        if (mcidObj.isNumber() && mciIndex != null) {
-            mci = mciIndex.get(((PdfNumber) mcidObj).intValue());
+        if (mcidObj.isNumber() && page != null) {
+            mci = indexMarkedContentOnPage(page).get(((PdfNumber) mcidObj).intValue());
         }
         if (mci == null) {
             // can't make it work -> fall back to default node constructor
             return new StructureTreeNode(mcidNode, BULLET_GO_ICON);
         } else {
             final PdfIndirectReference streamRef = mci.getStreamRef();
-            // make the structure tree node jump to the relevant content stream
-            return new StructureTreeNode(
+            // make the structure tree node jump to the relevant content stream,
+            // the text is only decoded once the node is shown
+            return StructureTreeNode.createMarkedContentNode(
                     factory.getNode(streamRef.getObjNumber()), BULLET_GO_ICON,
-                    mci.getExtractedText(), mcidNode.getPdfObject()
+                    mci::getExtractedText, mcidNode.getPdfObject()
             );
         }
     }
 
 
     private void loadKids(TreeNodeFactory factory, StructureTreeNode structureNode,
-            PdfObjectTreeNode objectNode, Map<Integer, MarkedContentInfo> mciIndex) {
+            PdfObjectTreeNode objectNode, PdfDictionary page) {
         if (objectNode == null) {
             return;
         }
         factory.expandNode(objectNode);
         if (objectNode.isDictionary()) {
-            loadDictionaryKids(factory, structureNode, objectNode, mciIndex);
+            loadDictionaryKids(factory, structureNode, objectNode, page);
         } else if (objectNode.isArray()) {
             final Enumeration<TreeNode> children = objectNode.children();
             while (children.hasMoreElements()) {
-                loadKids(factory, structureNode, (PdfObjectTreeNode) children.nextElement(), mciIndex);
+                loadKids(factory, structureNode, (PdfObjectTreeNode) children.nextElement(), page);
             }
         } else if (objectNode.isIndirectReference()) {
-            loadKids(factory, structureNode, (PdfObjectTreeNode) objectNode.getFirstChild(), mciIndex);
+            loadKids(factory, structureNode, (PdfObjectTreeNode) objectNode.getFirstChild(), page);
         } else {
-            structureNode.add(attemptMcidNode(objectNode, factory, mciIndex));
+            structureNode.add(attemptMcidNode(objectNode, factory, page));
         }
     }
 
     private void loadDictionaryKids(TreeNodeFactory factory, StructureTreeNode structureNode,
-            PdfObjectTreeNode objectNode, Map<Integer, MarkedContentInfo> mciIndex) {
+            PdfObjectTreeNode objectNode, PdfDictionary page) {
         final PdfName dictType = objectNode.getPdfDictionaryType();
+        final PdfDictionary dict = (PdfDictionary) objectNode.getPdfObject();
+        final PdfDictionary ownPage = dict.getAsDictionary(PdfName.Pg);
         if (PdfName.MCR.equals(dictType)) {
             final PdfObjectTreeNode mcidNode = factory.getChildNode(objectNode, PdfName.MCID);
-            structureNode.add(attemptMcidNode(mcidNode, factory, mciIndex));
+            structureNode.add(attemptMcidNode(mcidNode, factory, ownPage == null ? page : ownPage));
             return;
         }
         if (PdfName.OBJR.equals(dictType)) {
@@ -239,30 +350,100 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
                     new StructureTreeNode(refTarget, BULLET_GO_ICON, null, objectNode.getPdfObject()));
             return;
         }
+        final StructureTreeNode leaf = new StructureTreeNode(objectNode, CHART_ORG_ICON);
+        structureNode.add(leaf);
+        if (dict.get(PdfName.K, false) != null) {
+            leaf.setChildLoader((node, cancelled) ->
+                    loadElementKids(factory, node, objectNode, ownPage == null ? page : ownPage, cancelled));
+        }
+    }
+
+    /**
+     * Creates the children of a structure element, when it is expanded.
+     *
+     * @param factory    the factory of the nodes in the PdfTree
+     * @param node       the node to add the children to
+     * @param objectNode the PdfTree node of the structure element
+     * @param page       the page of the element, which may be inherited, or {@code null}
+     * @param cancelled  checked while the marked content is indexed
+     */
+    private void loadElementKids(TreeNodeFactory factory, StructureTreeNode node,
+            PdfObjectTreeNode objectNode, PdfDictionary page, BooleanSupplier cancelled) {
         final PdfDictionary dict = (PdfDictionary) objectNode.getPdfObject();
-        Map<Integer, MarkedContentInfo> newMciIndex = null;
-        final PdfDictionary page = dict.getAsDictionary(PdfName.Pg);
-        if (page != null) {
-            final boolean unseen = !mciByPage.containsKey(page.getIndirectReference());
-            newMciIndex = indexMarkedContentOnPage(page);
-            if (unseen) {
-                ensureContentStreamsExpanded(objectNode, factory);
+        final PdfDictionary ownPage = dict.getAsDictionary(PdfName.Pg);
+        if (ownPage != null && expandedPages.add(ownPage.getIndirectReference())) {
+            ensureContentStreamsExpanded(objectNode, factory);
+        }
+        indexMarkedContent(collectPages(dict, page), cancelled);
+        loadKids(factory, node, factory.getChildNode(objectNode, PdfName.K), page);
+    }
+
+    /**
+     * Starts creating the children of a structure element in the background,
+     * unless that was done already.
+     *
+     * @param node the node of the structure element
+     */
+    private void startLoadingChildren(StructureTreeNode node) {
+        final BiConsumer<StructureTreeNode, BooleanSupplier> childLoader = node.takeChildLoader();
+        if (childLoader != null && loader != null) {
+            new ChildLoader(node, childLoader).start(loader.getGroup());
+        }
+    }
+
+    /**
+     * Creates the children of a structure element right away, unless that
+     * was done already.
+     *
+     * @param node the node of the structure element
+     */
+    void loadChildren(StructureTreeNode node) {
+        final BiConsumer<StructureTreeNode, BooleanSupplier> childLoader = node.takeChildLoader();
+        if (childLoader != null) {
+            final StructureTreeNode children = new StructureTreeNode();
+            childLoader.accept(children, () -> false);
+            insertChildren(node, children);
+        }
+    }
+
+    /**
+     * Replaces the placeholder of a structure element with its children.
+     *
+     * @param node     the node of the structure element
+     * @param children a node holding the children
+     */
+    private void insertChildren(StructureTreeNode node, StructureTreeNode children) {
+        final DefaultTreeModel model = (DefaultTreeModel) getModel();
+        // the model is replaced when another document is opened
+        final boolean shown = node.getRoot() == model.getRoot();
+        while (node.getChildCount() > 0) {
+            final MutableTreeNode placeholder = (MutableTreeNode) node.getFirstChild();
+            if (shown) {
+                model.removeNodeFromParent(placeholder);
+            } else {
+                node.remove(placeholder);
             }
         }
-        final StructureTreeNode leaf = new StructureTreeNode(objectNode, CHART_ORG_ICON);
-        structureNode.add(leaf);
-        final PdfObjectTreeNode kids = factory.getChildNode(objectNode, PdfName.K);
-        loadKids(factory, leaf, kids, newMciIndex == null ? mciIndex : newMciIndex);
+        final int[] indices = new int[children.getChildCount()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = i;
+            node.add((MutableTreeNode) children.getFirstChild());
+        }
+        if (shown && indices.length > 0) {
+            model.nodesWereInserted(node, indices);
+        }
     }
 
     public void valueChanged(TreeSelectionEvent e) {
         if (controller == null) {
             return;
         }
-        final StructureTreeNode selectednode = (StructureTreeNode) this.getLastSelectedPathComponent();
-        if (selectednode == null) {
+        final Object selected = this.getLastSelectedPathComponent();
+        if (!(selected instanceof StructureTreeNode)) {
+            // nothing, or a placeholder
             return;
         }
+        final StructureTreeNode selectednode = (StructureTreeNode) selected;
         final PdfObjectTreeNode node = selectednode.getCorrespondingPdfObjectNode();
         if (node != null) {
             controller.selectNode(node);
@@ -277,36 +458,70 @@ public class StructureTree extends JTree implements TreeSelectionListener, Obser
     void setLoader(ObjectLoader loader) {
         this.loader = loader;
         if (worker != null) {
-            worker.cancel(true);
+            worker.cancel();
             worker = null;
         }
+        synchronized (this) {
+            if (indexer != null) {
+                indexer.close();
+                indexer = null;
+            }
+        }
+        mciByPage.clear();
+        expandedPages.clear();
         loaded = false;
     }
 
-    private final class TreeUpdateWorker extends SwingWorker<TreeModel, Integer> {
+    private final class TreeUpdateWorker extends BackgroundTask {
+        private TreeModel model;
+
         TreeUpdateWorker() {
+            super(Language.STRUCTURE.getString(), TaskPriority.INTERACTIVE);
+        }
 
+        @Override
+        public void doTask() {
+            try {
+                model = recalculateTreeModel();
+            } catch (RuntimeException any) {
+                model = new DefaultTreeModel(new StructureTreeNode());
+            }
         }
 
         @Override
-        protected TreeModel doInBackground() {
-            return recalculateTreeModel();
+        public void finished() {
+            StructureTree.this.setModel(model);
+        }
+    }
+
+    /**
+     * Creates the children of a structure element, which was expanded.
+     */
+    private final class ChildLoader extends BackgroundTask {
+        private final StructureTreeNode node;
+
+        private final BiConsumer<StructureTreeNode, BooleanSupplier> childLoader;
+
+        private final StructureTreeNode children = new StructureTreeNode();
+
+        ChildLoader(StructureTreeNode node, BiConsumer<StructureTreeNode, BooleanSupplier> childLoader) {
+            super(Language.STRUCTURE.getString(), TaskPriority.INTERACTIVE);
+            this.node = node;
+            this.childLoader = childLoader;
         }
 
         @Override
-        protected void done() {
+        public void doTask() {
             try {
-                if (!isCancelled()) {
-                    final TreeModel model = this.get();
-                    StructureTree.this.setModel(model);
-                }
-            } catch (InterruptedException any) {
-                StructureTree.this.setModel(new DefaultTreeModel(new StructureTreeNode()));
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException any) {
-                StructureTree.this.setModel(new DefaultTreeModel(new StructureTreeNode()));
+                childLoader.accept(children, this::isCancelled);
+            } catch (RuntimeException any) {
+                children.removeAllChildren();
             }
-            super.done();
+        }
+
+        @Override
+        public void finished() {
+            insertChildren(node, children);
         }
     }
 }
@@ -42,22 +42,32 @@
  */
 package com.itextpdf.rups.view.itext;
 
+import com.itextpdf.commons.exceptions.ITextException;
 import com.itextpdf.kernel.exceptions.PdfException;
 import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.rups.RupsConfiguration;
 import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.RupsEvent;
+import com.itextpdf.rups.model.BackgroundTask;
+import com.itextpdf.rups.model.ImageDecoder;
 import com.itextpdf.rups.model.LoggerHelper;
+import com.itextpdf.rups.model.TaskPriority;
+import com.itextpdf.rups.model.WeightedLruCache;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.contextmenu.ContextMenuMouseListener;
 import com.itextpdf.rups.view.contextmenu.SaveImageAction;
 import com.itextpdf.rups.view.contextmenu.StreamPanelContextMenu;
+import com.itextpdf.rups.view.itext.contentstream.ContentStreamEditorKit;
+import com.itextpdf.rups.view.itext.contentstream.ContentStreamIndex;
 import com.itextpdf.rups.view.itext.contentstream.ContentStreamWriter;
 import com.itextpdf.rups.view.itext.contentstream.StyledSyntaxDocument;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
 
+import java.awt.Dimension;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
@@ -72,16 +82,22 @@ import java.util.Observable;
 import java.util.Observer;
 import javax.swing.AbstractAction;
 import javax.swing.ImageIcon;
+import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JTextPane;
 import javax.swing.KeyStroke;
 import javax.swing.ToolTipManager;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.EditorKit;
+import javax.swing.text.Element;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
+import javax.swing.tree.TreeNode;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoManager;
@@ -90,6 +106,37 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
 
     private static final int MAX_NUMBER_OF_EDITS = 8192;
 
+    /**
+     * The size in bytes above which a content stream is shown in a read-only
+     * view that only holds the visible operators, until the user asks for the
+     * full, editable stream.
+     */
+    private static final int LARGE_STREAM_THRESHOLD = 4 * 1024 * 1024;
+
+    /**
+     * The estimated number of bytes a rendered document takes per character
+     * of its text, which is stored in a gapped char array.
+     */
+    private static final int DOCUMENT_WEIGHT_PER_CHAR = 4;
+
+    /**
+     * The estimated number of bytes a rendered document takes per element:
+     * the element itself, the two positions bounding it and its attributes.
+     * As every token of a content stream is styled separately, the elements
+     * take far more memory than the text.
+     */
+    private static final int DOCUMENT_WEIGHT_PER_ELEMENT = 160;
+
+    /**
+     * The maximum number of bytes taken by the cached image previews.
+     */
+    private static final long THUMBNAIL_CACHE_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * The width and height of an image preview, if the pane isn't shown yet.
+     */
+    private static final int DEFAULT_PREVIEW_SIZE = 1024;
+
     private static Method pdfStreamGetInputStreamMethod;
 
     /**
@@ -108,6 +155,49 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
 
     private boolean editable = false;
 
+    /**
+     * The view of large content streams.
+     */
+    private final VirtualContentStreamView virtualView;
+
+    /**
+     * The task preparing the content stream that is being rendered.
+     */
+    private RenderTask renderTask;
+
+    /**
+     * The decoded and rendered content streams which were shown before, by
+     * the reference of their object, so revisiting them is instant.
+     */
+    private final WeightedLruCache<PdfIndirectReference, CachedStream> cache = new WeightedLruCache<>(
+            Math.min(Runtime.getRuntime().maxMemory() / 8, 256L * 1024 * 1024), CachedStream::getWeight);
+
+    /**
+     * The previews of the images which were shown before, by the reference of their object.
+     */
+    private final WeightedLruCache<PdfIndirectReference, BufferedImage> thumbnails = new WeightedLruCache<>(
+            THUMBNAIL_CACHE_SIZE, image -> 4L * image.getWidth() * image.getHeight());
+
+    /**
+     * Drops the rendered document of the shown stream from the cache, as soon as it is edited.
+     */
+    private final DocumentListener editListener = new DocumentListener() {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            dropEditedDocument();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            dropEditedDocument();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // restyling doesn't change the content
+        }
+    };
+
     static {
         try {
             pdfStreamGetInputStreamMethod = PdfStream.class.getDeclaredMethod("getInputStream");
@@ -127,6 +217,7 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
         this.text = new JSyntaxPane();
         ToolTipManager.sharedInstance().registerComponent(text);
         setViewportView(text);
+        virtualView = new VirtualContentStreamView(text, this::loadFullContentStream);
         this.controller = controller;
 
         popupMenu = new StreamPanelContextMenu(text, this);
@@ -147,10 +238,43 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
      */
     public void update(Observable observable, Object obj) {
         if (observable instanceof PdfReaderController && obj instanceof RupsEvent) {
+            final int type = ((RupsEvent) obj).getType();
+            if (type == RupsEvent.CLOSE_DOCUMENT_EVENT || type == RupsEvent.OPEN_DOCUMENT_POST_EVENT) {
+                cache.clear();
+                thumbnails.clear();
+            }
             clearPane();
         }
     }
 
+    /**
+     * Drops the cached content streams of a node and of its ancestors, after
+     * the node was edited. Editing an entry of a stream dictionary, e.g. its
+     * filter, can change the decoded stream.
+     *
+     * @param node the edited node
+     */
+    public void invalidate(PdfObjectTreeNode node) {
+        for (TreeNode current = node; current != null; current = current.getParent()) {
+            if (current instanceof PdfObjectTreeNode
+                    && ((PdfObjectTreeNode) current).getPdfObject() instanceof PdfStream) {
+                invalidate(((PdfObjectTreeNode) current).getPdfObject().getIndirectReference());
+            }
+        }
+    }
+
+    private void invalidate(PdfIndirectReference key) {
+        if (key == null) {
+            return;
+        }
+        cache.remove(key);
+        thumbnails.remove(key);
+        if (renderTask != null && key.equals(renderTask.key)) {
+            // the stream may have changed while the task was running
+            renderTask.key = null;
+        }
+    }
+
     /**
      * Renders the content stream of a PdfObject or empties the text area.
      *
@@ -159,42 +283,22 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
     public void render(PdfObjectTreeNode target) {
         manager.discardAllEdits();
         manager.setLimit(0);
+        cancelRenderTask();
+        showTextView();
         this.target = target;
         if (!(target.getPdfObject() instanceof PdfStream)) {
             clearPane();
             return;
         }
         final PdfStream stream = (PdfStream) target.getPdfObject();
-        text.setText("");
+        setDocument(new StyledSyntaxDocument());
         //Check if stream is image
         if (PdfName.Image.equals(stream.getAsName(PdfName.Subtype))) {
-            try {
-                //Convert byte array back to Image
-                if (!stream.get(PdfName.Width, false).isNumber() && !stream.get(PdfName.Height, false).isNumber()) {
-                    return;
-                }
-                PdfImageXObject pimg = new PdfImageXObject(stream);
-                BufferedImage img = pimg.getBufferedImage();
-                if (img == null) {
-                    text.setText(Language.ERROR_LOADING_IMAGE.getString());
-                } else {
-                    //Show image in textpane
-                    StyledDocument doc = (StyledDocument) text.getDocument();
-                    Style style = doc.addStyle("Image", null);
-                    StyleConstants.setIcon(style, new ImageIcon(img));
-
-                    try {
-                        doc.insertString(doc.getLength(), Language.IGNORED_TEXT.getString(), style);
-                        doc.insertString(doc.getLength(), "\n", SimpleAttributeSet.EMPTY);
-                        text.insertComponent(SaveImageAction.createSaveImageButton(img));
-                    } catch (BadLocationException e) {
-                        LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
-                    }
-                }
-            } catch (IOException e) {
-                LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
+            if (!stream.get(PdfName.Width, false).isNumber() && !stream.get(PdfName.Height, false).isNumber()) {
+                return;
             }
             setTextEditableRoutine(false);
+            renderImage(stream);
         } else if (stream.get(PdfName.Length1) != null) {
             try {
                 setTextEditableRoutine(true);
@@ -219,7 +323,7 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
         if (controller != null && ((PdfDictionary) target.getPdfObject()).containsKey(PdfName.Filter)) {
             controller.deleteTreeNodeDictChild(target, PdfName.Filter);
         }
-        final int sizeEst = text.getText().length();
+        final int sizeEst = text.getDocument().getLength();
         final ByteArrayOutputStream baos = new ByteArrayOutputStream(sizeEst);
         try {
             new ContentStreamWriter(baos).write(text.getDocument());
@@ -227,6 +331,7 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
             LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
         }
         ((PdfStream) target.getPdfObject()).setData(baos.toByteArray());
+        invalidate(target.getPdfObject().getIndirectReference());
         if (controller != null) {
             controller.selectNode(target);
         }
@@ -239,7 +344,7 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
     }
 
     private void setTextEditableRoutine(boolean editable) {
-        if (!this.editable) {
+        if (!this.editable || renderTask != null || getViewport().getView() == virtualView) {
             text.setEditable(false);
             popupMenu.setSaveToStreamEnabled(false);
             return;
@@ -260,27 +365,418 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
 
     private void clearPane() {
         target = null;
+        cancelRenderTask();
+        showTextView();
         manager.discardAllEdits();
         manager.setLimit(0);
-        text.setText("");
+        setDocument(new StyledSyntaxDocument());
         setTextEditableRoutine(false);
     }
 
-    private void renderGenericContentStream(PdfStream stream) {
-        final StyledSyntaxDocument doc = (StyledSyntaxDocument) text.getDocument();
+    /**
+     * Replaces the document of the text pane, moving the undo manager along.
+     *
+     * @param document the new document
+     */
+    private void setDocument(StyledSyntaxDocument document) {
+        text.getDocument().removeUndoableEditListener(manager);
+        text.getDocument().removeDocumentListener(editListener);
+        text.setDocument(document);
+        document.addUndoableEditListener(manager);
+        document.addDocumentListener(editListener);
+    }
+
+    /**
+     * Attaches the complete document of a content stream to the text pane.
+     *
+     * @param document the document
+     */
+    private void showDocument(StyledSyntaxDocument document) {
+        setDocument(document);
         setTextEditableRoutine(true);
+        text.setCaretPosition(0); // set the caret at the start so the panel will show the first line
+        manager.discardAllEdits();
+    }
+
+    /**
+     * Shows a large content stream in the view that only holds the visible operators.
+     *
+     * @param content the content stream
+     * @param index   the index of its operators
+     */
+    private void showIndex(byte[] content, ContentStreamIndex index) {
+        setViewportView(virtualView);
+        virtualView.show(content, index);
+        setTextEditableRoutine(false);
+    }
+
+    /**
+     * Keeps only the decoded bytes of the shown stream in the cache, as its
+     * rendered document no longer matches them once it is edited.
+     */
+    private void dropEditedDocument() {
+        final PdfIndirectReference key = getTargetReference();
+        final CachedStream cached = key == null ? null : cache.get(key);
+        if (cached != null && cached.document == text.getDocument()) {
+            cache.put(key, new CachedStream(cached.content, null, null));
+        }
+    }
+
+    private PdfIndirectReference getTargetReference() {
+        return target == null ? null : target.getPdfObject().getIndirectReference();
+    }
+
+    private void cancelRenderTask() {
+        if (renderTask != null) {
+            renderTask.cancel();
+            renderTask = null;
+        }
+    }
+
+    /**
+     * Shows the text pane with the full document, instead of the view of a large content stream.
+     */
+    private void showTextView() {
+        if (getViewport().getView() != text) {
+            virtualView.release();
+            setViewportView(text);
+        }
+    }
+
+    /**
+     * Replaces the view of a large content stream with the full, editable document.
+     */
+    private void loadFullContentStream() {
+        final byte[] bb = virtualView.getContent();
+        if (bb == null) {
+            return;
+        }
+        showTextView();
+        setDocument(new StyledSyntaxDocument());
+        setTextEditableRoutine(false);
+        renderTask = new DocumentBuilder(bb, getTargetReference());
+        renderTask.start();
+    }
+
+    private void renderGenericContentStream(PdfStream stream) {
+        final PdfIndirectReference key = stream.getIndirectReference();
+        final CachedStream cached = key == null ? null : cache.get(key);
+        if (cached != null && cached.document != null) {
+            showDocument(cached.document);
+            return;
+        }
+        if (cached != null && cached.index != null) {
+            showIndex(cached.content, cached.index);
+            return;
+        }
+        // the stream is read here, as the PDF document must not be accessed concurrently
+        final byte[] bb;
+        if (cached != null) {
+            bb = cached.content;
+        } else {
+            try {
+                bb = stream.getBytes();
+            } catch (PdfException | com.itextpdf.io.exceptions.IOException e) {
+                LoggerHelper.warn(Language.ERROR_PARSING_PDF_STREAM.getString(), e, getClass());
+                return;
+            }
+        }
+        setTextEditableRoutine(false);
+        renderTask = bb.length > LARGE_STREAM_THRESHOLD ? new IndexBuilder(bb, key) : new DocumentBuilder(bb, key);
+        renderTask.start();
+    }
 
-        byte[] bb = null;
+    /**
+     * Shows an image, decoding a preview of it in the background unless it was cached.
+     *
+     * @param stream the image stream
+     */
+    private void renderImage(PdfStream stream) {
+        final PdfIndirectReference key = stream.getIndirectReference();
+        final BufferedImage preview = key == null ? null : thumbnails.get(key);
+        // the image is detached here, as the PDF document must not be accessed concurrently
+        final PdfStream detached;
         try {
-            bb = stream.getBytes();
-            doc.processContentStream(bb);
-        } catch (PdfException | com.itextpdf.io.exceptions.IOException e) {
-            LoggerHelper.warn(Language.ERROR_PARSING_PDF_STREAM.getString(), e, getClass());
-            if (bb != null) {
-                text.setText(new String(bb, StandardCharsets.ISO_8859_1));
+            detached = ImageDecoder.detach(stream);
+        } catch (ITextException e) {
+            LoggerHelper.error(Language.ERROR_LOADING_IMAGE.getString(), e, getClass());
+            text.setText(Language.ERROR_LOADING_IMAGE.getString());
+            return;
+        }
+        if (preview != null) {
+            showImage(detached, preview);
+            return;
+        }
+        decodeImage(detached, key, false);
+    }
+
+    /**
+     * Shows a placeholder while an image is decoded in the background.
+     *
+     * @param stream         the detached image stream
+     * @param key            the reference to cache the preview by, or {@code null}
+     * @param fullResolution whether to decode the image at full resolution, instead of a preview
+     */
+    private void decodeImage(PdfStream stream, PdfIndirectReference key, boolean fullResolution) {
+        text.setText(Language.IMAGE_DECODING.getString());
+        final Dimension size = getViewport().getExtentSize();
+        renderTask = new ImageDecoderTask(stream, key, fullResolution,
+                size.width > 0 ? size.width : DEFAULT_PREVIEW_SIZE,
+                size.height > 0 ? size.height : DEFAULT_PREVIEW_SIZE);
+        renderTask.start();
+    }
+
+    /**
+     * Shows a decoded image, with a button to save it. If only a preview was
+     * decoded, the full resolution image is decoded when it is saved, or when
+     * it is explicitly requested.
+     *
+     * @param stream the detached image stream
+     * @param image  the decoded image or its preview
+     */
+    private void showImage(PdfStream stream, BufferedImage image) {
+        setDocument(new StyledSyntaxDocument());
+        final StyledDocument doc = (StyledDocument) text.getDocument();
+        final Style style = doc.addStyle("Image", null);
+        StyleConstants.setIcon(style, new ImageIcon(image));
+        final PdfImageXObject xObject = new PdfImageXObject(stream);
+        final int width = (int) xObject.getWidth();
+        final int height = (int) xObject.getHeight();
+        final boolean preview = image.getWidth() < width;
+        try {
+            doc.insertString(doc.getLength(), Language.IGNORED_TEXT.getString(), style);
+            doc.insertString(doc.getLength(), "\n", SimpleAttributeSet.EMPTY);
+            if (preview) {
+                doc.insertString(doc.getLength(), String.format(RupsConfiguration.INSTANCE.getUserLocale(),
+                        Language.IMAGE_PREVIEW.getString(), width, height, image.getWidth(), image.getHeight()),
+                        SimpleAttributeSet.EMPTY);
+                doc.insertString(doc.getLength(), "\n", SimpleAttributeSet.EMPTY);
+                final JButton fullResolution = new JButton(Language.IMAGE_FULL_RESOLUTION.getString());
+                fullResolution.addActionListener(e -> decodeImage(stream, null, true));
+                text.insertComponent(fullResolution);
+                doc.insertString(doc.getLength(), "\n", SimpleAttributeSet.EMPTY);
+                text.insertComponent(SaveImageAction.createSaveImageButton(() -> decodeFullImage(stream)));
+            } else {
+                text.insertComponent(SaveImageAction.createSaveImageButton(image));
             }
+        } catch (BadLocationException e) {
+            LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
+        }
+        setTextEditableRoutine(false);
+    }
+
+    private BufferedImage decodeFullImage(PdfStream stream) {
+        try {
+            return ImageDecoder.decode(stream);
+        } catch (IOException | ITextException e) {
+            LoggerHelper.error(Language.ERROR_LOADING_IMAGE.getString(), e, getClass());
+            return null;
+        }
+    }
+
+    /**
+     * A task preparing a stream for display.
+     */
+    private abstract class RenderTask extends BackgroundTask {
+        /**
+         * The reference the prepared stream is cached by, or {@code null}
+         * if it shouldn't be cached.
+         */
+        PdfIndirectReference key;
+
+        RenderTask(PdfIndirectReference key) {
+            super(Language.STREAM.getString(), TaskPriority.INTERACTIVE);
+            this.key = key;
+        }
+    }
+
+    /**
+     * A task preparing a content stream for display.
+     */
+    private abstract class ContentStreamTask extends RenderTask {
+        final byte[] content;
+
+        ContentStreamTask(byte[] content, PdfIndirectReference key) {
+            super(key);
+            this.content = content;
+        }
+
+        void cache(StyledSyntaxDocument document, ContentStreamIndex index) {
+            if (key != null) {
+                cache.put(key, new CachedStream(content, document, index));
+            }
+        }
+    }
+
+    /**
+     * Builds the document of a content stream in the background. The document
+     * is not attached to the text pane until it is complete, so no views are
+     * updated while it is built.
+     */
+    private final class DocumentBuilder extends ContentStreamTask {
+        private StyledSyntaxDocument document;
+
+        DocumentBuilder(byte[] content, PdfIndirectReference key) {
+            super(content, key);
+        }
+
+        @Override
+        public void doTask() {
+            document = new StyledSyntaxDocument();
+            try {
+                document.processContentStream(content);
+            } catch (ITextException e) {
+                LoggerHelper.warn(Language.ERROR_PARSING_PDF_STREAM.getString(), e, getClass());
+                document = new StyledSyntaxDocument();
+                try {
+                    document.insertString(0, new String(content, StandardCharsets.ISO_8859_1), null);
+                } catch (BadLocationException any) {
+                    LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), any, getClass());
+                }
+            }
+        }
+
+        @Override
+        public void finished() {
+            if (renderTask != this) {
+                return;
+            }
+            renderTask = null;
+            cache(document, null);
+            showDocument(document);
+        }
+    }
+
+    /**
+     * Indexes the operators of a large content stream in the background, so
+     * it can be shown in a view that only holds the visible operators.
+     */
+    private final class IndexBuilder extends ContentStreamTask {
+        private ContentStreamIndex index;
+
+        IndexBuilder(byte[] content, PdfIndirectReference key) {
+            super(content, key);
+        }
+
+        @Override
+        public void doTask() {
+            try {
+                index = new ContentStreamIndex(content, this::isCancelled);
+            } catch (ITextException e) {
+                LoggerHelper.warn(Language.ERROR_PARSING_PDF_STREAM.getString(), e, getClass());
+            }
+        }
+
+        @Override
+        public void finished() {
+            if (renderTask != this) {
+                return;
+            }
+            renderTask = null;
+            if (index == null) {
+                setDocument(new StyledSyntaxDocument());
+                text.setText(new String(content, StandardCharsets.ISO_8859_1));
+                setTextEditableRoutine(true);
+                text.setCaretPosition(0);
+                manager.discardAllEdits();
+                return;
+            }
+            cache(null, index);
+            showIndex(content, index);
+        }
+    }
+
+    /**
+     * Decodes an image in the background, by default into a preview which
+     * fits the pane. A placeholder is shown until it is decoded.
+     */
+    private final class ImageDecoderTask extends RenderTask {
+        private final PdfStream stream;
+
+        private final boolean fullResolution;
+
+        private final int maxWidth;
+
+        private final int maxHeight;
+
+        private BufferedImage image;
+
+        ImageDecoderTask(PdfStream stream, PdfIndirectReference key, boolean fullResolution, int maxWidth,
+                int maxHeight) {
+            super(key);
+            this.stream = stream;
+            this.fullResolution = fullResolution;
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+        }
+
+        @Override
+        public void doTask() {
+            try {
+                image = fullResolution ? ImageDecoder.decode(stream)
+                        : ImageDecoder.decodePreview(stream, maxWidth, maxHeight);
+            } catch (IOException | ITextException e) {
+                LoggerHelper.error(Language.ERROR_LOADING_IMAGE.getString(), e, getClass());
+            }
+        }
+
+        @Override
+        public void finished() {
+            if (renderTask != this) {
+                return;
+            }
+            renderTask = null;
+            if (image == null) {
+                text.setText(Language.ERROR_LOADING_IMAGE.getString());
+                return;
+            }
+            if (key != null) {
+                thumbnails.put(key, image);
+            }
+            showImage(stream, image);
+        }
+    }
+
+    /**
+     * A decoded content stream, with either its rendered document or the
+     * index of its operators, if it was prepared for display.
+     */
+    private static final class CachedStream {
+        final byte[] content;
+
+        final StyledSyntaxDocument document;
+
+        final ContentStreamIndex index;
+
+        CachedStream(byte[] content, StyledSyntaxDocument document, ContentStreamIndex index) {
+            this.content = content;
+            this.document = document;
+            this.index = index;
+        }
+
+        long getWeight() {
+            long weight = content.length;
+            if (document != null) {
+                weight += (long) DOCUMENT_WEIGHT_PER_CHAR * document.getLength()
+                        + (long) DOCUMENT_WEIGHT_PER_ELEMENT * countElements(document.getDefaultRootElement());
+            }
+            if (index != null) {
+                // an offset and an indentation state per operator
+                weight += 8L * index.getOperatorCount();
+            }
+            return weight;
+        }
+
+        /**
+         * Counts the paragraph and character elements below an element.
+         */
+        private static long countElements(Element root) {
+            long count = root.getElementCount();
+            for (int i = 0; i < root.getElementCount(); ++i) {
+                count += root.getElement(i).getElementCount();
+            }
+            return count;
         }
-        text.setCaretPosition(0); // set the caret at the start so the panel will show the first line
     }
 
     private static final class JSyntaxPane extends JTextPane {
@@ -289,6 +785,11 @@ public class SyntaxHighlightedStreamPane extends JScrollPane implements Observer
             super(new StyledSyntaxDocument());
         }
 
+        @Override
+        protected EditorKit createDefaultEditorKit() {
+            return new ContentStreamEditorKit();
+        }
+
         StyledSyntaxDocument getStyledSyntaxDocument() {
             // can't just override getDocument() because the superclass
             // constructor relies on it
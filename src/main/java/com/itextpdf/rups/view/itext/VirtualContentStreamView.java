@@ -0,0 +1,211 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext;
+
+import com.itextpdf.commons.exceptions.ITextException;
+import com.itextpdf.rups.model.LoggerHelper;
+import com.itextpdf.rups.view.Language;
+import com.itextpdf.rups.view.itext.contentstream.ContentStreamIndex;
+import com.itextpdf.rups.view.itext.contentstream.StyledSyntaxDocument;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTextPane;
+import javax.swing.Scrollable;
+
+/**
+ * A read-only view of a large content stream. Only the operators that fit in
+ * the view are parsed and styled, using a {@link ContentStreamIndex} to find
+ * them in the stream, so the memory that is needed depends on the size of the
+ * view instead of the size of the stream.
+ */
+final class VirtualContentStreamView extends JPanel implements Scrollable {
+
+    private final JTextPane text;
+
+    private final JScrollPane textScrollPane;
+
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+
+    private byte[] content;
+
+    private ContentStreamIndex index;
+
+    private int renderedFirst = -1;
+
+    private int renderedCount;
+
+    /**
+     * Creates a view of a large content stream.
+     *
+     * @param text         the text pane to show the visible operators in
+     * @param loadFullView the action to take when the user wants to see the complete, editable stream
+     */
+    VirtualContentStreamView(JTextPane text, Runnable loadFullView) {
+        super(new BorderLayout());
+        this.text = text;
+
+        final JButton loadButton = new JButton(Language.STREAM_LOAD_FULL.getString());
+        loadButton.addActionListener(e -> loadFullView.run());
+        final JPanel header = new JPanel(new BorderLayout());
+        header.add(new JLabel(Language.STREAM_LARGE.getString()), BorderLayout.CENTER);
+        header.add(loadButton, BorderLayout.EAST);
+
+        textScrollPane = new JScrollPane(JScrollPane.VERTICAL_SCROLLBAR_NEVER,
+                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        textScrollPane.setWheelScrollingEnabled(false);
+        textScrollPane.addMouseWheelListener(e -> scrollBar.setValue(scrollBar.getValue() + e.getUnitsToScroll()));
+        textScrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateWindow();
+            }
+        });
+        scrollBar.addAdjustmentListener(e -> renderWindow());
+
+        add(header, BorderLayout.NORTH);
+        add(textScrollPane, BorderLayout.CENTER);
+        add(scrollBar, BorderLayout.EAST);
+    }
+
+    /**
+     * Shows a content stream, starting at its first operator.
+     *
+     * @param content the stream content
+     * @param index   the index of the operators in the stream
+     */
+    void show(byte[] content, ContentStreamIndex index) {
+        this.content = content;
+        this.index = index;
+        renderedFirst = -1;
+        textScrollPane.setViewportView(text);
+        scrollBar.setValues(0, getVisibleOperatorCount(), 0, index.getOperatorCount());
+        renderWindow();
+    }
+
+    /**
+     * Gets the content stream that is shown.
+     *
+     * @return the stream content, or {@code null} if no stream is shown
+     */
+    byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * Stops showing the content stream, so it can be garbage collected.
+     */
+    void release() {
+        content = null;
+        index = null;
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 1;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 1;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return true;
+    }
+
+    private int getVisibleOperatorCount() {
+        final int lineHeight = text.getFontMetrics(text.getFont()).getHeight();
+        return Math.max(1, textScrollPane.getViewport().getHeight() / Math.max(1, lineHeight) + 1);
+    }
+
+    private void updateWindow() {
+        if (index == null) {
+            return;
+        }
+        final int count = getVisibleOperatorCount();
+        scrollBar.setVisibleAmount(count);
+        scrollBar.setBlockIncrement(count);
+        renderWindow();
+    }
+
+    private void renderWindow() {
+        if (index == null) {
+            return;
+        }
+        final int first = scrollBar.getValue();
+        final int count = scrollBar.getVisibleAmount();
+        if (first == renderedFirst && count == renderedCount) {
+            return;
+        }
+        renderedFirst = first;
+        renderedCount = count;
+        final StyledSyntaxDocument document = new StyledSyntaxDocument();
+        try {
+            document.processContentStream(content, index, first, count);
+        } catch (ITextException e) {
+            LoggerHelper.warn(Language.ERROR_PARSING_PDF_STREAM.getString(), e, getClass());
+        }
+        text.setDocument(document);
+        text.setCaretPosition(0);
+    }
+}
@@ -47,6 +47,7 @@ import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.RupsEvent;
 import com.itextpdf.rups.model.IndirectObjectFactory;
+import com.itextpdf.rups.model.IndirectObjectType;
 import com.itextpdf.rups.model.ObjectLoader;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
@@ -56,11 +57,21 @@ import com.itextpdf.rups.view.models.JTableAutoModelInterface;
 import javax.swing.JTable;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.table.TableColumn;
+import javax.swing.tree.TreeNode;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.Observable;
 import java.util.Observer;
 
 /**
  * A JTable that shows the indirect objects of a PDF xref table.
+ *
+ * <p>
+ * The captions of the objects are cached per row, so painting a row doesn't
+ * resolve the object again. Rows can be ordered by object type by clicking
+ * the header of the type column, and back in xref order by clicking the
+ * header of the number column.
+ * </p>
  */
 public class XRefTable extends JTable implements JTableAutoModelInterface, Observer {
 
@@ -73,6 +84,26 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      */
     protected PdfReaderController controller;
 
+    private static final int NUMBER_COLUMN = 0;
+    private static final int OBJECT_COLUMN = 1;
+    private static final int TYPE_COLUMN = 2;
+
+    /**
+     * The captions of the objects which were shown, by index in the indirect
+     * object list. Captions of objects which aren't loaded yet aren't cached.
+     */
+    private String[] captions = new String[0];
+    /**
+     * The index in the indirect object list of every row, or {@code null}
+     * if the rows are in xref order.
+     */
+    private int[] order;
+    /**
+     * The row of every index in the indirect object list, if the rows are
+     * ordered by type.
+     */
+    private int[] rows;
+
     /**
      * Creates a JTable visualizing xref table.
      *
@@ -82,6 +113,17 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
         super();
         this.controller = controller;
         setModel(new JTableAutoModel(this));
+        getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                final int column = convertColumnIndexToModel(getTableHeader().columnAtPoint(e.getPoint()));
+                if (column == TYPE_COLUMN) {
+                    setOrderedByType(true);
+                } else if (column == NUMBER_COLUMN) {
+                    setOrderedByType(false);
+                }
+            }
+        });
     }
 
     /**
@@ -93,19 +135,28 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
             switch (event.getType()) {
                 case RupsEvent.CLOSE_DOCUMENT_EVENT:
                     objects = null;
+                    resetRows();
                     setModel(new JTableAutoModel(this));
                     repaint();
                     return;
                 case RupsEvent.OPEN_DOCUMENT_POST_EVENT:
                     final ObjectLoader loader = (ObjectLoader) event.getContent();
                     objects = loader.getObjects();
+                    resetRows();
                     setModel(new JTableAutoModel(this));
                     final TableColumn col = getColumnModel().getColumn(0);
                     col.setPreferredWidth(5);
                     break;
                 case RupsEvent.POST_NEW_INDIRECT_OBJECT_EVENT:
+                    resetRows();
                     setModel(new JTableAutoModel(this));
                     break;
+                case RupsEvent.OBJECT_TYPES_SCANNED_EVENT:
+                    if (objects == ((ObjectLoader) event.getContent()).getObjects()) {
+                        // the types changed, so the order by type is outdated
+                        setOrderedByType(order != null);
+                    }
+                    break;
             }
         }
     }
@@ -114,7 +165,7 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      * @see javax.swing.JTable#getColumnCount()
      */
     public int getColumnCount() {
-        return 2;
+        return 3;
     }
 
     /**
@@ -130,10 +181,12 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      */
     public Object getValueAt(int rowIndex, int columnIndex) {
         switch (columnIndex) {
-            case 0:
+            case NUMBER_COLUMN:
                 return getObjectReferenceByRow(rowIndex);
-            case 1:
+            case OBJECT_COLUMN:
                 return getObjectDescriptionByRow(rowIndex);
+            case TYPE_COLUMN:
+                return getObjectTypeByRow(rowIndex);
             default:
                 return null;
         }
@@ -147,7 +200,7 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      * @return a reference number
      */
     protected int getObjectReferenceByRow(int rowIndex) {
-        return objects.getRefByIndex(rowIndex);
+        return objects.getRefByIndex(getIndexByRow(rowIndex));
     }
 
     /**
@@ -157,11 +210,97 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      * @return a PDF object
      */
     protected String getObjectDescriptionByRow(int rowIndex) {
-        final PdfObject object = objects.getObjectByIndex(rowIndex);
-        if (object instanceof PdfNull && !objects.isLoadedByIndex(rowIndex)) {
+        final int index = getIndexByRow(rowIndex);
+        if (index < captions.length && captions[index] != null) {
+            return captions[index];
+        }
+        final PdfObject object = objects.getObjectByIndex(index);
+        if (object instanceof PdfNull && !objects.isLoadedByIndex(index)) {
             return Language.INDIRECT_OBJECT.getString();
         }
-        return PdfObjectTreeNode.getCaption(object);
+        final String caption = PdfObjectTreeNode.getCaption(object);
+        if (index < captions.length) {
+            captions[index] = caption;
+        }
+        return caption;
+    }
+
+    /**
+     * Gets the type of the object that is shown in a row.
+     *
+     * @param rowIndex the row number containing the object
+     * @return the name of the type, or an empty string if it is not known yet
+     */
+    protected String getObjectTypeByRow(int rowIndex) {
+        final IndirectObjectType type = objects.getObjectTypeByIndex(getIndexByRow(rowIndex));
+        return type == IndirectObjectType.UNKNOWN ? "" : type.toString();
+    }
+
+    /**
+     * Forgets the cached captions and types of the indirect objects
+     * containing an edited node.
+     *
+     * @param node the node that was edited
+     */
+    public void invalidate(PdfObjectTreeNode node) {
+        if (objects == null) {
+            return;
+        }
+        for (TreeNode current = node; current != null; current = current.getParent()) {
+            if (current instanceof PdfObjectTreeNode && ((PdfObjectTreeNode) current).isIndirect()) {
+                final int ref = ((PdfObjectTreeNode) current).getNumber();
+                final int index = objects.getIndexByRef(ref);
+                if (index >= 0 && index < captions.length) {
+                    captions[index] = null;
+                }
+                objects.reclassifyByReference(ref);
+            }
+        }
+        repaint();
+    }
+
+    /**
+     * Orders the rows by object type, or in xref order. Objects which are
+     * classified later on keep their row until the rows are ordered again.
+     *
+     * @param byType true to order the rows by type
+     */
+    public void setOrderedByType(boolean byType) {
+        if (objects == null) {
+            return;
+        }
+        final int selectedRow = getSelectedRow();
+        final int selectedIndex = selectedRow < 0 ? -1 : getIndexByRow(selectedRow);
+        if (byType) {
+            order = objects.getIndexesByType();
+            rows = new int[order.length];
+            for (int row = 0; row < order.length; ++row) {
+                rows[order[row]] = row;
+            }
+        } else {
+            order = null;
+            rows = null;
+        }
+        repaint();
+        if (selectedIndex >= 0) {
+            final int row = getRowByIndex(selectedIndex);
+            getSelectionModel().setSelectionInterval(row, row);
+            scrollRectToVisible(getCellRect(row, OBJECT_COLUMN, true));
+        }
+    }
+
+    private int getIndexByRow(int rowIndex) {
+        return order == null || rowIndex < 0 || rowIndex >= order.length ? rowIndex : order[rowIndex];
+    }
+
+    private int getRowByIndex(int index) {
+        return rows == null || index < 0 || index >= rows.length ? index : rows[index];
+    }
+
+    private void resetRows() {
+        captions = new String[objects == null ? 0 : objects.size()];
+        order = null;
+        rows = null;
     }
 
     /**
@@ -169,10 +308,12 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      */
     public String getColumnName(int columnIndex) {
         switch (columnIndex) {
-            case 0:
+            case NUMBER_COLUMN:
                 return Language.XREF_NUMBER.getString();
-            case 1:
+            case OBJECT_COLUMN:
                 return Language.XREF_OBJECT.getString();
+            case TYPE_COLUMN:
+                return Language.XREF_TYPE.getString();
             default:
                 return null;
         }
@@ -194,9 +335,13 @@ public class XRefTable extends JTable implements JTableAutoModelInterface, Obser
      * @param ref the reference number of the indirect object
      */
     public void selectRowByReference(int ref) {
-        final int row = objects.getIndexByRef(ref);
+        final int index = objects.getIndexByRef(ref);
+        if (index < 0) {
+            return;
+        }
+        final int row = getRowByIndex(index);
         setRowSelectionInterval(row, row);
-        scrollRectToVisible(getCellRect(row, 1, true));
+        scrollRectToVisible(getCellRect(row, OBJECT_COLUMN, true));
         valueChanged(null);
     }
 
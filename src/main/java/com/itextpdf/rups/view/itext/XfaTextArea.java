@@ -73,7 +73,8 @@ public class XfaTextArea extends JScrollPane {
     }
 
     public void load(OutputStreamResource xml) throws IOException {
-        TextAreaOutputStream stream = new TextAreaOutputStream(text);
-        xml.writeTo(stream);
+        try (TextAreaOutputStream stream = new TextAreaOutputStream(text)) {
+            xml.writeTo(stream);
+        }
     }
 }
@@ -0,0 +1,131 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.rups.view.contextmenu.SaveImageAction;
+
+import java.awt.Component;
+import java.awt.image.BufferedImage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.ComponentView;
+import javax.swing.text.Element;
+import javax.swing.text.StyledEditorKit;
+import javax.swing.text.View;
+import javax.swing.text.ViewFactory;
+
+/**
+ * {@link StyledEditorKit} for content stream documents. Documents are built
+ * off the event dispatch thread, so inline images and their save buttons
+ * are only described by attributes in the document. The components showing
+ * them are created by the views, which are built on the event dispatch
+ * thread once the document is displayed.
+ */
+public final class ContentStreamEditorKit extends StyledEditorKit {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ViewFactory FACTORY = new ContentStreamViewFactory();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ViewFactory getViewFactory() {
+        return FACTORY;
+    }
+
+    private static final class ContentStreamViewFactory implements ViewFactory {
+
+        private final ViewFactory delegate = new StyledEditorKit().getViewFactory();
+
+        @Override
+        public View create(Element elem) {
+            final AttributeSet attrs = elem.getAttributes();
+            if (attrs.getAttribute(ContentStreamStyleConstants.IMAGE) != null) {
+                return new EmbeddedView(elem, ContentStreamViewFactory::createImageLabel);
+            }
+            if (attrs.getAttribute(ContentStreamStyleConstants.SAVE_IMAGE) != null) {
+                return new EmbeddedView(elem, ContentStreamViewFactory::createSaveImageButton);
+            }
+            return delegate.create(elem);
+        }
+
+        private static Component createImageLabel(AttributeSet attrs) {
+            final BufferedImage img = (BufferedImage) attrs.getAttribute(ContentStreamStyleConstants.IMAGE);
+            final String description = (String) attrs.getAttribute(ContentStreamStyleConstants.IMAGE_DESCRIPTION);
+            final JLabel label = new JLabel(new ImageIcon(img, description));
+            label.setAlignmentY(1f);
+            return label;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Component createSaveImageButton(AttributeSet attrs) {
+            final Supplier<BufferedImage> source =
+                    (Supplier<BufferedImage>) attrs.getAttribute(ContentStreamStyleConstants.SAVE_IMAGE);
+            return SaveImageAction.createSaveImageButton(source);
+        }
+    }
+
+    /**
+     * A {@link ComponentView} creating its component from the attributes
+     * of its element.
+     */
+    private static final class EmbeddedView extends ComponentView {
+
+        private final Function<AttributeSet, Component> factory;
+
+        EmbeddedView(Element elem, Function<AttributeSet, Component> factory) {
+            super(elem);
+            this.factory = factory;
+        }
+
+        @Override
+        protected Component createComponent() {
+            return factory.apply(getElement().getAttributes());
+        }
+    }
+}
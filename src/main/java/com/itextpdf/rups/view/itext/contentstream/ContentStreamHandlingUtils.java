@@ -127,9 +127,12 @@ final class ContentStreamHandlingUtils {
     }
 
 
-    static PdfCanvasParser createCanvasParserFor(final byte[] streamContent) {
-        final PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(RASF.createSource(streamContent)));
-        return new PdfCanvasParser(tok, new PdfResources());
+    static PdfCanvasParser createCanvasParserFor(final PdfTokenizer tokenizer) {
+        return new PdfCanvasParser(tokenizer, new PdfResources());
+    }
+
+    static PdfTokenizer createTokenizerFor(final byte[] streamContent) {
+        return new PdfTokenizer(new RandomAccessFileOrArray(RASF.createSource(streamContent)));
     }
 
     static boolean hasUtf16beBom(byte[] b) {
@@ -0,0 +1,184 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.commons.exceptions.ITextException;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
+import com.itextpdf.rups.view.Language;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A compact index of the operators in a content stream. The stream is
+ * tokenized once; for every {@link #CHECKPOINT_INTERVAL}th operator the
+ * offset in the stream and the indentation state are kept, so any window
+ * of operators can be parsed again without starting at the beginning.
+ */
+public final class ContentStreamIndex {
+
+    /**
+     * The number of operators between two checkpoints.
+     */
+    public static final int CHECKPOINT_INTERVAL = 64;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] offsets = new int[INITIAL_CAPACITY];
+
+    /**
+     * The indentation state at each checkpoint: the indentation level,
+     * shifted left by one, and whether a path is being indented.
+     */
+    private int[] indentStates = new int[INITIAL_CAPACITY];
+
+    private int checkpointCount;
+
+    private int operatorCount;
+
+    /**
+     * Creates an index of the operators in a content stream.
+     *
+     * @param streamContent the stream content
+     */
+    public ContentStreamIndex(byte[] streamContent) {
+        this(streamContent, () -> false);
+    }
+
+    /**
+     * Creates an index of the operators in a content stream. When indexing is
+     * cancelled, the index only covers the operators that were read so far.
+     *
+     * @param streamContent the stream content
+     * @param cancelled     tells whether indexing should stop
+     */
+    public ContentStreamIndex(byte[] streamContent, BooleanSupplier cancelled) {
+        final PdfTokenizer tokenizer = ContentStreamHandlingUtils.createTokenizerFor(streamContent);
+        final PdfCanvasParser ps = ContentStreamHandlingUtils.createCanvasParserFor(tokenizer);
+        final IndentManager indentManager = new IndentManager();
+        final ArrayList<PdfObject> tokens = new ArrayList<>();
+        try {
+            long offset = tokenizer.getPosition();
+            while (!cancelled.getAsBoolean() && !ps.parse(tokens).isEmpty()) {
+                if (operatorCount % CHECKPOINT_INTERVAL == 0) {
+                    addCheckpoint((int) offset, indentManager);
+                }
+                ++operatorCount;
+                final PdfObject operator = tokens.get(tokens.size() - 1);
+                indentManager.unindentIfNecessary(operator);
+                indentManager.indentIfNecessary(operator);
+                offset = tokenizer.getPosition();
+            }
+        } catch (IOException e) {
+            throw new ITextException(Language.ERROR_BUILDING_CONTENT_STREAM.getString(), e);
+        }
+    }
+
+    /**
+     * Gets the number of operators in the content stream.
+     *
+     * @return the number of operators
+     */
+    public int getOperatorCount() {
+        return operatorCount;
+    }
+
+    /**
+     * Gets the checkpoint at or before an operator.
+     *
+     * @param operator the index of the operator
+     *
+     * @return the index of the checkpoint
+     */
+    int getCheckpoint(int operator) {
+        return operator / CHECKPOINT_INTERVAL;
+    }
+
+    /**
+     * Gets the index of the operator at a checkpoint.
+     *
+     * @param checkpoint the index of the checkpoint
+     *
+     * @return the index of the operator
+     */
+    int getOperator(int checkpoint) {
+        return checkpoint * CHECKPOINT_INTERVAL;
+    }
+
+    /**
+     * Gets the offset in the stream from where the operator at a checkpoint can be parsed.
+     *
+     * @param checkpoint the index of the checkpoint
+     *
+     * @return the offset in the stream
+     */
+    int getOffset(int checkpoint) {
+        return offsets[checkpoint];
+    }
+
+    /**
+     * Restores the indentation state before the operator at a checkpoint.
+     *
+     * @param checkpoint    the index of the checkpoint
+     * @param indentManager the indent manager to restore
+     */
+    void restoreIndentation(int checkpoint, IndentManager indentManager) {
+        final int state = indentStates[checkpoint];
+        indentManager.restore(state >>> 1, (state & 1) != 0);
+    }
+
+    private void addCheckpoint(int offset, IndentManager indentManager) {
+        if (checkpointCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, checkpointCount * 2);
+            indentStates = Arrays.copyOf(indentStates, checkpointCount * 2);
+        }
+        offsets[checkpointCount] = offset;
+        indentStates[checkpointCount] = indentManager.getIndentLevel() << 1
+                | (indentManager.isIndentingPath() ? 1 : 0);
+        ++checkpointCount;
+    }
+}
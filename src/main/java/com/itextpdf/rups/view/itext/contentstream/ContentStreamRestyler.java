@@ -0,0 +1,634 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.commons.exceptions.ITextException;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.PdfTokenizer.TokenType;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.rups.model.LoggerHelper;
+import com.itextpdf.rups.view.Language;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.Position;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Keeps the highlighting and indentation of an edited {@link StyledSyntaxDocument}
+ * up to date. After an edit, only the lines around the edit are tokenized again;
+ * the following lines are only visited as long as their indentation changes.
+ *
+ * <p>
+ * Restyling changes the document too. These changes are added to the undoable
+ * edit of the user that caused them, so they are undone and redone along with it.
+ * Lines with inline images are left as they are.
+ */
+final class ContentStreamRestyler implements DocumentListener {
+
+    /**
+     * The maximum number of lines that are added to the tokenized range to
+     * find the end of an unfinished operator, e.g. while a string is typed.
+     */
+    private static final int MAX_OPERATOR_LINES = 16;
+
+    /**
+     * The number of lines between two indentation checkpoints.
+     */
+    static final int CHECKPOINT_INTERVAL = 64;
+
+    private static final Set<String> LITERALS = Set.of("true", "false", "null");
+
+    private final StyledSyntaxDocument doc;
+
+    private boolean enabled;
+
+    /**
+     * Whether the document is being changed by the restyler itself, or by undoing or redoing an edit.
+     */
+    private boolean restyling;
+
+    private Position damageStart;
+
+    private Position damageEnd;
+
+    /**
+     * The indentation state before every {@link #CHECKPOINT_INTERVAL}th line,
+     * in document order. They are recorded while the state before an edited
+     * line is restored, and dropped when the lines before them change.
+     */
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+    /**
+     * Creates a restyler for a document. It does nothing until it is enabled.
+     *
+     * @param doc the document to keep up to date
+     */
+    ContentStreamRestyler(StyledSyntaxDocument doc) {
+        this.doc = doc;
+        doc.addDocumentListener(this);
+    }
+
+    /**
+     * Enables or disables restyling after edits.
+     *
+     * @param enabled the new state
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        damageStart = null;
+        damageEnd = null;
+    }
+
+    /**
+     * Gets the attributes for text the user inserts. Text typed right after
+     * indentation gets the attributes of the indentation, which are left out
+     * when the document is written, so it gets plain attributes instead,
+     * until it is restyled. Indentation inserted while restyling keeps them.
+     *
+     * @param attributes the attributes the text was inserted with
+     *
+     * @return the attributes to insert the text with
+     */
+    AttributeSet getInsertAttributes(AttributeSet attributes) {
+        if (enabled && !restyling && attributes != null
+                && attributes.getAttribute(ContentStreamStyleConstants.INDENT) != null) {
+            return null;
+        }
+        return attributes;
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        dropCheckpoints(e.getOffset());
+        markDamaged(e.getOffset(), e.getOffset() + e.getLength());
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        dropCheckpoints(e.getOffset());
+        markDamaged(e.getOffset(), e.getOffset());
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // attribute changes don't affect the tokens
+    }
+
+    /**
+     * Wraps an edit of the document, so restyling is undone and redone together
+     * with the edit of the user that caused it.
+     *
+     * @param edit the edit to wrap
+     *
+     * @return the edit to report to the undoable edit listeners
+     */
+    UndoableEdit wrap(UndoableEdit edit) {
+        if (restyling) {
+            return new RestyleEdit(edit);
+        }
+        return enabled ? new UserEdit(edit) : edit;
+    }
+
+    /**
+     * Restyles the lines that were changed since the last call.
+     */
+    void restyle() {
+        if (damageStart == null) {
+            return;
+        }
+        final int start = damageStart.getOffset();
+        final int end = damageEnd.getOffset();
+        damageStart = null;
+        damageEnd = null;
+        restyling = true;
+        doc.setSmartEditLock(false);
+        try {
+            new Pass().run(start, end);
+        } catch (BadLocationException e) {
+            LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
+        } finally {
+            doc.setSmartEditLock(true);
+            restyling = false;
+        }
+    }
+
+    /**
+     * Drops the checkpoints at or after an offset, as the lines before them
+     * changed. This includes changes made while restyling, undoing or redoing.
+     */
+    private void dropCheckpoints(int offset) {
+        checkpoints.subList(findCheckpoint(offset - 1) + 1, checkpoints.size()).clear();
+    }
+
+    /**
+     * Finds the last checkpoint at or before an offset.
+     *
+     * @return the index of the checkpoint, or -1 if there is none
+     */
+    private int findCheckpoint(int offset) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (checkpoints.get(mid).position.getOffset() <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private void markDamaged(int start, int end) {
+        if (!enabled || restyling) {
+            return;
+        }
+        try {
+            if (damageStart == null) {
+                damageStart = doc.createPosition(start);
+                damageEnd = doc.createPosition(end);
+                SwingUtilities.invokeLater(this::restyle);
+                return;
+            }
+            if (start < damageStart.getOffset()) {
+                damageStart = doc.createPosition(start);
+            }
+            if (end > damageEnd.getOffset()) {
+                damageEnd = doc.createPosition(end);
+            }
+        } catch (BadLocationException e) {
+            LoggerHelper.error(Language.ERROR_UNEXPECTED_EXCEPTION.getString(), e, getClass());
+        }
+    }
+
+    /**
+     * A single restyling run, from the first damaged line to the first line
+     * after the damaged lines that already has the right indentation.
+     */
+    private final class Pass {
+        private final Element root = doc.getDefaultRootElement();
+
+        private final IndentManager indentManager = new IndentManager();
+
+        /**
+         * The indentation changes, as start offset, end offset and indentation level.
+         * They are applied at the end, from the last one to the first one.
+         */
+        private final List<int[]> indentChanges = new ArrayList<>();
+
+        private int lastChangedLine = -1;
+
+        private boolean pendingOperands;
+
+        void run(int start, int end) throws BadLocationException {
+            final int firstLine = root.getElementIndex(start);
+            final int lastDamagedLine = root.getElementIndex(end);
+            restoreIndentation(firstLine);
+
+            int lexStart = root.getElement(firstLine).getStartOffset();
+            int line = lastDamagedLine;
+            int extraLines = 0;
+            while (true) {
+                final int lexEnd = Math.min(root.getElement(line).getEndOffset(), doc.getLength());
+                final int next = lex(lexStart, lexEnd);
+                if (next < 0) {
+                    break;
+                }
+                if (pendingOperands) {
+                    if (++extraLines > MAX_OPERATOR_LINES) {
+                        break;
+                    }
+                    lexStart = next;
+                } else {
+                    extraLines = 0;
+                    lexStart = lexEnd;
+                    if (line > lastDamagedLine && lastChangedLine != line) {
+                        break;
+                    }
+                }
+                if (++line >= root.getElementCount()) {
+                    break;
+                }
+            }
+
+            for (int i = indentChanges.size() - 1; i >= 0; --i) {
+                final int[] change = indentChanges.get(i);
+                doc.remove(change[0], change[1] - change[0]);
+                doc.insertString(change[0], StyledSyntaxDocument.INDENTATION_PREFIX.repeat(change[2]),
+                        ContentStreamStyleConstants.INDENT_ATTRS);
+            }
+        }
+
+        /**
+         * Restores the indentation state before a line, starting from the
+         * nearest checkpoint before it. At most {@link #CHECKPOINT_INTERVAL}
+         * lines are replayed, unless the checkpoints after the last one still
+         * have to be recorded.
+         */
+        private void restoreIndentation(int line) throws BadLocationException {
+            final int index = findCheckpoint(root.getElement(line).getStartOffset());
+            int first = 0;
+            if (index >= 0) {
+                final Checkpoint checkpoint = checkpoints.get(index);
+                indentManager.restore(checkpoint.indentLevel, checkpoint.indentingPath);
+                first = root.getElementIndex(checkpoint.position.getOffset());
+            }
+            // new checkpoints can only be appended, to keep them in document order
+            final boolean record = index == checkpoints.size() - 1;
+            for (int i = first; i < line; ++i) {
+                if (record && i > first && (i - first) % CHECKPOINT_INTERVAL == 0) {
+                    checkpoints.add(new Checkpoint(doc.createPosition(root.getElement(i).getStartOffset()),
+                            indentManager.getIndentLevel(), indentManager.isIndentingPath()));
+                }
+                final PdfLiteral operator = new PdfLiteral(getOperator(i));
+                indentManager.unindentIfNecessary(operator);
+                indentManager.indentIfNecessary(operator);
+            }
+        }
+
+        /**
+         * Tokenizes a part of the document and restyles the operators in it.
+         *
+         * @return the offset after the last operator, or -1 if the part can't be restyled
+         */
+        private int lex(int from, int to) throws BadLocationException {
+            final byte[] buffer = new byte[to - from];
+            if (!map(from, buffer)) {
+                return -1;
+            }
+            final PdfTokenizer tokenizer = ContentStreamHandlingUtils.createTokenizerFor(buffer);
+            final List<int[]> operands = new ArrayList<>();
+            int depth = 0;
+            int next = from;
+            int previousEnd = 0;
+            try {
+                while (tokenizer.nextToken()) {
+                    final int end = (int) tokenizer.getPosition();
+                    int tokenStart = previousEnd;
+                    while (tokenStart < end && PdfTokenizer.isWhitespace(buffer[tokenStart])) {
+                        ++tokenStart;
+                    }
+                    previousEnd = end;
+                    final TokenType type = tokenizer.getTokenType();
+                    if (type == TokenType.Comment) {
+                        continue;
+                    }
+                    if (type == TokenType.StartArray || type == TokenType.StartDic) {
+                        ++depth;
+                    } else if (type == TokenType.EndArray || type == TokenType.EndDic) {
+                        --depth;
+                    }
+                    if (type == TokenType.Other && depth <= 0 && !LITERALS.contains(tokenizer.getStringValue())) {
+                        restyleOperator(tokenizer.getStringValue(), operands, from + tokenStart, from + end);
+                        operands.clear();
+                        depth = 0;
+                        next = from + end;
+                    } else {
+                        operands.add(new int[] {from + tokenStart, from + end});
+                    }
+                }
+            } catch (IOException | ITextException e) {
+                // an unfinished token, such as a string that isn't closed yet
+                pendingOperands = true;
+                return next;
+            }
+            pendingOperands = !operands.isEmpty();
+            return next;
+        }
+
+        private void restyleOperator(String operator, List<int[]> operands, int start, int end)
+                throws BadLocationException {
+            final AttributeSet operatorAttributes = doc.getStyleAttributes(operator);
+            final AttributeSet operandAttributes = doc.isMatchingOperands()
+                    ? operatorAttributes : SimpleAttributeSet.EMPTY;
+            for (int i = 0; i < operands.size(); ++i) {
+                final int operandStart = operands.get(i)[0];
+                final int operandEnd = i + 1 < operands.size() ? operands.get(i + 1)[0] : start;
+                setAttributes(operandStart, Math.min(operandEnd, getLineEnd(operandStart)), operandAttributes);
+            }
+            setAttributes(start, getLineEnd(start), operatorAttributes);
+
+            final int first = operands.isEmpty() ? start : operands.get(0)[0];
+            final PdfLiteral literal = new PdfLiteral(operator);
+            indentManager.unindentIfNecessary(literal);
+            updateIndentation(first, indentManager.getIndentLevel());
+            indentManager.indentIfNecessary(literal);
+        }
+
+        /**
+         * Records an indentation change if an operator starts a line, and the
+         * whitespace before it isn't the indentation for the given level.
+         */
+        private void updateIndentation(int operatorStart, int indentLevel) throws BadLocationException {
+            final int line = root.getElementIndex(operatorStart);
+            final int lineStart = root.getElement(line).getStartOffset();
+            final String indentation = doc.getText(lineStart, operatorStart - lineStart);
+            if (!indentation.isBlank()) {
+                return;
+            }
+            if (indentation.length() == indentLevel * StyledSyntaxDocument.INDENTATION_PREFIX.length()
+                    && isIndentation(lineStart, operatorStart)) {
+                return;
+            }
+            indentChanges.add(new int[] {lineStart, operatorStart, indentLevel});
+            lastChangedLine = line;
+        }
+
+        private boolean isIndentation(int start, int end) {
+            int pos = start;
+            while (pos < end) {
+                final Element element = doc.getCharacterElement(pos);
+                if (element.getAttributes().getAttribute(ContentStreamStyleConstants.INDENT) == null) {
+                    return false;
+                }
+                pos = element.getEndOffset();
+            }
+            return true;
+        }
+
+        /**
+         * Sets the attributes of the tokens in a range, which starts at a token
+         * and doesn't extend past the end of its line. Strings with an encoding,
+         * hex edits and binary content keep their attributes. Indentation in the range
+         * follows a token, so it was typed there and is content.
+         */
+        private void setAttributes(int start, int end, AttributeSet attributes) {
+            int pos = start;
+            while (pos < end) {
+                final Element element = doc.getCharacterElement(pos);
+                final int segmentEnd = Math.min(end, element.getEndOffset());
+                final AttributeSet current = element.getAttributes();
+                final boolean content = current.getAttribute(ContentStreamStyleConstants.INDENT) != null
+                        || (current.getAttribute(ContentStreamStyleConstants.BINARY_CONTENT) == null
+                        && current.getAttribute(ContentStreamStyleConstants.ENCODING) == null
+                        && current.getAttribute(ContentStreamStyleConstants.HEX_EDIT) == null);
+                if (content && !current.isEqual(attributes)) {
+                    doc.setCharacterAttributes(pos, segmentEnd - pos, attributes, true);
+                }
+                pos = segmentEnd;
+            }
+        }
+
+        private int getLineEnd(int offset) {
+            return Math.min(root.getElement(root.getElementIndex(offset)).getEndOffset(), doc.getLength());
+        }
+
+        /**
+         * Maps a part of the document to bytes that tokenize like the content
+         * stream it represents, with one byte per character. The contents of
+         * strings and binary data are replaced, as only the token boundaries matter.
+         *
+         * @return {@code false} if the part contains an inline image
+         */
+        private boolean map(int from, byte[] buffer) throws BadLocationException {
+            final String text = doc.getText(from, buffer.length);
+            int pos = from;
+            while (pos < from + buffer.length) {
+                final Element element = doc.getCharacterElement(pos);
+                final int segmentEnd = Math.min(from + buffer.length, element.getEndOffset());
+                final AttributeSet attributes = element.getAttributes();
+                final byte[] binary = (byte[]) attributes.getAttribute(ContentStreamStyleConstants.BINARY_CONTENT);
+                if (ContentStreamStyleConstants.isEmbedded(attributes)) {
+                    return false;
+                }
+                final boolean indentation = attributes.getAttribute(ContentStreamStyleConstants.INDENT) != null;
+                final boolean opaque = attributes.getAttribute(ContentStreamStyleConstants.ENCODING) != null
+                        || attributes.getAttribute(ContentStreamStyleConstants.HEX_EDIT) != null
+                        || (binary != null && !indentation);
+                if (opaque && binary != null && binary.length > 0
+                        && attributes.getAttribute(ContentStreamStyleConstants.HEX_EDIT) == null) {
+                    // raw image data that couldn't be shown
+                    return false;
+                }
+                for (int i = pos; i < segmentEnd; ++i) {
+                    final char c = text.charAt(i - from);
+                    buffer[i - from] = (byte) (opaque || c > 0xFF ? 'x' : c);
+                }
+                pos = segmentEnd;
+            }
+            return true;
+        }
+
+        private String getOperator(int line) throws BadLocationException {
+            final Element element = root.getElement(line);
+            final int end = Math.min(element.getEndOffset(), doc.getLength());
+            final String text = doc.getText(element.getStartOffset(), end - element.getStartOffset()).trim();
+            return text.substring(text.lastIndexOf(' ') + 1);
+        }
+    }
+
+    /**
+     * The indentation state before a line.
+     */
+    private static final class Checkpoint {
+        final Position position;
+
+        final int indentLevel;
+
+        final boolean indentingPath;
+
+        Checkpoint(Position position, int indentLevel, boolean indentingPath) {
+            this.position = position;
+            this.indentLevel = indentLevel;
+            this.indentingPath = indentingPath;
+        }
+    }
+
+    /**
+     * An edit made while restyling.
+     */
+    private static final class RestyleEdit extends AbstractUndoableEdit {
+        private final UndoableEdit edit;
+
+        RestyleEdit(UndoableEdit edit) {
+            this.edit = edit;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            edit.undo();
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            edit.redo();
+        }
+
+        @Override
+        public void die() {
+            edit.die();
+            super.die();
+        }
+
+        @Override
+        public boolean isSignificant() {
+            return false;
+        }
+    }
+
+    /**
+     * An edit made by the user, together with the restyling that followed it.
+     */
+    private final class UserEdit extends AbstractUndoableEdit {
+        private final UndoableEdit edit;
+
+        private final List<UndoableEdit> restyleEdits = new ArrayList<>();
+
+        UserEdit(UndoableEdit edit) {
+            this.edit = edit;
+        }
+
+        @Override
+        public boolean addEdit(UndoableEdit anEdit) {
+            if (anEdit instanceof RestyleEdit && canUndo()) {
+                restyleEdits.add(anEdit);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            damageStart = null;
+            damageEnd = null;
+            restyling = true;
+            try {
+                for (int i = restyleEdits.size() - 1; i >= 0; --i) {
+                    restyleEdits.get(i).undo();
+                }
+                edit.undo();
+            } finally {
+                restyling = false;
+            }
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            restyling = true;
+            try {
+                edit.redo();
+                for (final UndoableEdit restyleEdit : restyleEdits) {
+                    restyleEdit.redo();
+                }
+            } finally {
+                restyling = false;
+            }
+        }
+
+        @Override
+        public void die() {
+            for (final UndoableEdit restyleEdit : restyleEdits) {
+                restyleEdit.die();
+            }
+            edit.die();
+            super.die();
+        }
+
+        @Override
+        public boolean isSignificant() {
+            return edit.isSignificant();
+        }
+
+        @Override
+        public String getPresentationName() {
+            return edit.getPresentationName();
+        }
+    }
+}
@@ -44,13 +44,12 @@ package com.itextpdf.rups.view.itext.contentstream;
 
 import com.itextpdf.rups.RupsConfiguration;
 import com.itextpdf.rups.view.Language;
-import com.itextpdf.rups.view.contextmenu.SaveImageAction;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
-import javax.swing.ImageIcon;
+import java.util.function.Supplier;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.SimpleAttributeSet;
@@ -81,6 +80,26 @@ public final class ContentStreamStyleConstants {
      */
     public static final Attribute INDENT = new Attribute("indent");
 
+    /**
+     * Inline image attribute marker. The value is the decoded
+     * {@link BufferedImage}; the component showing it is created by
+     * {@link ContentStreamEditorKit} when the document is displayed.
+     */
+    public static final Attribute IMAGE = new Attribute("image");
+
+    /**
+     * Inline image description attribute marker.
+     */
+    public static final Attribute IMAGE_DESCRIPTION = new Attribute("image-description");
+
+    /**
+     * Save image button attribute marker. The value is a
+     * {@code Supplier<BufferedImage>} providing the image to save; the
+     * button is created by {@link ContentStreamEditorKit} when the document
+     * is displayed.
+     */
+    public static final Attribute SAVE_IMAGE = new Attribute("save-image");
+
     /**
      * Syntax highlight attributes for operators.
      */
@@ -258,25 +277,47 @@ public final class ContentStreamStyleConstants {
         attributeMap.put("sh", graphics);
     }
 
+    /**
+     * Returns whether the attributes describe an embedded image or component
+     * rather than text.
+     *
+     * @param attrs the attributes of a character element
+     *
+     * @return {@code true} if the element is displayed as a component
+     */
+    public static boolean isEmbedded(final AttributeSet attrs) {
+        return attrs.getAttribute(IMAGE) != null || attrs.getAttribute(SAVE_IMAGE) != null
+                || StyleConstants.getIcon(attrs) != null || StyleConstants.getComponent(attrs) != null;
+    }
+
     public static AttributeSet getStyleAttributesFor(final String operator) {
         final AttributeSet attr = ATTRIBUTE_MAP.get(operator);
         return attr == null ? DEFAULT_ATTRS : attr;
     }
 
     public static AttributeSet getImageAttributes(final BufferedImage img, final byte[] rawBytes) {
+        return getImageAttributes(img, img.getWidth(), img.getHeight(), rawBytes);
+    }
+
+    public static AttributeSet getImageAttributes(final BufferedImage img, final int width, final int height,
+            final byte[] rawBytes) {
         final MutableAttributeSet imageAttrs = new SimpleAttributeSet();
         final String alt = String.format(
-                RupsConfiguration.INSTANCE.getUserLocale(), Language.INLINE_IMAGE_ALT.getString(), img.getWidth(),
-                img.getHeight()
+                RupsConfiguration.INSTANCE.getUserLocale(), Language.INLINE_IMAGE_ALT.getString(), width, height
         );
-        StyleConstants.setIcon(imageAttrs, new ImageIcon(img, alt));
+        imageAttrs.addAttribute(ContentStreamStyleConstants.IMAGE, img);
+        imageAttrs.addAttribute(ContentStreamStyleConstants.IMAGE_DESCRIPTION, alt);
         imageAttrs.addAttribute(ContentStreamStyleConstants.BINARY_CONTENT, rawBytes);
         return imageAttrs;
     }
 
     public static AttributeSet getImageSaveButtonAttributes(final BufferedImage img) {
+        return getImageSaveButtonAttributes(() -> img);
+    }
+
+    public static AttributeSet getImageSaveButtonAttributes(final Supplier<BufferedImage> source) {
         final MutableAttributeSet buttonAttrs = new SimpleAttributeSet();
-        StyleConstants.setComponent(buttonAttrs, SaveImageAction.createSaveImageButton(img));
+        buttonAttrs.addAttribute(ContentStreamStyleConstants.SAVE_IMAGE, source);
         buttonAttrs.addAttributes(DISPLAY_ONLY_ATTRS);
         return buttonAttrs;
     }
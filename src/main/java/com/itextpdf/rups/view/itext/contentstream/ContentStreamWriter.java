@@ -44,31 +44,57 @@ package com.itextpdf.rups.view.itext.contentstream;
 
 import com.itextpdf.commons.exceptions.ITextException;
 import com.itextpdf.io.font.PdfEncodings;
-import com.itextpdf.rups.RupsConfiguration;
+import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.rups.view.Language;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Locale;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.Element;
-import javax.swing.text.ElementIterator;
-import java.io.IOException;
-import java.io.OutputStream;
+import javax.swing.text.Segment;
 
 /**
  * Writer implementation for serializing edited content streams.
  */
 public class ContentStreamWriter {
+    private static final int BUFFER_SIZE = 8192;
+
     private final OutputStream os;
 
+    private final boolean reuseSource;
+
+    /**
+     * The text of the document is read in segments, without copying it.
+     */
+    private final Segment segment = new Segment();
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int bufferLength;
+
     /**
      * Create a content stream writer to output to a specific underlying {@link OutputStream}.
      *
      * @param os the {@link OutputStream} to write to
      */
     public ContentStreamWriter(OutputStream os) {
+        this(os, true);
+    }
+
+    /**
+     * Create a content stream writer to output to a specific underlying {@link OutputStream}.
+     *
+     * @param os          the {@link OutputStream} to write to
+     * @param reuseSource whether the original bytes are written for the parts
+     *                    of a {@link StyledSyntaxDocument} that weren't edited
+     */
+    public ContentStreamWriter(OutputStream os, boolean reuseSource) {
         this.os = os;
+        this.reuseSource = reuseSource;
+        segment.setPartialReturn(true);
     }
 
     /**
@@ -77,70 +103,172 @@ public class ContentStreamWriter {
      * Note that this is not guaranteed to produce a byte-for-byte equal
      * representation of the unedited areas, but the result should be equivalent to
      * the input from the point of view of PDF graphics operator semantics.
+     * When the document is a {@link StyledSyntaxDocument} built from a content
+     * stream, the parts that weren't edited are written as the original bytes.
      *
      * @param doc the document to serialize
      * @throws IOException if an error occurs during reading
      */
     public void write(Document doc) throws IOException {
-        final ElementIterator it = new ElementIterator(doc.getDefaultRootElement());
-        Element current = it.next();
-
-        while (current != null) {
-
-            final AttributeSet attrs = current.getAttributes();
-            if (attrs.getAttribute(ContentStreamStyleConstants.HEX_EDIT) != null) {
-                current = handleHexContent(current, it);
+        final SourceRegions regions = reuseSource && doc instanceof StyledSyntaxDocument
+                ? ((StyledSyntaxDocument) doc).getSourceRegions() : null;
+        final int end = doc.getLength() + 1;
+        if (regions == null) {
+            writeText(doc, 0, end);
+            flushBuffer();
+            return;
+        }
+        int written = 0;
+        boolean separate = false;
+        for (int i = 0; i < regions.getRegionCount(); ++i) {
+            if (regions.isEdited(i)) {
                 continue;
             }
+            final int regionStart = regions.getStart(i);
+            if (written < regionStart) {
+                if (separate) {
+                    // the original bytes end right after an operator
+                    writeByte('\n');
+                }
+                writeText(doc, written, regionStart);
+            }
+            flushBuffer();
+            final int sourceStart = regions.getSourceStart(i);
+            final int sourceEnd = regions.getSourceEnd(i);
+            os.write(regions.getSource(), sourceStart, sourceEnd - sourceStart);
+            separate = sourceEnd > sourceStart && !PdfTokenizer.isWhitespace(regions.getSource()[sourceEnd - 1]);
+            written = regions.getEnd(i, doc);
+        }
+        if (written < end) {
+            if (separate) {
+                writeByte('\n');
+            }
+            writeText(doc, written, end);
+        }
+        flushBuffer();
+    }
 
-            if (current.isLeaf()) {
-                writeLeafElement(current);
+    /**
+     * Serializes the leaf elements in a range of a document.
+     */
+    private void writeText(Document doc, int start, int end) throws IOException {
+        int pos = start;
+        while (pos < end) {
+            Element current = getLeafElement(doc, pos);
+            if (current.getAttributes().getAttribute(ContentStreamStyleConstants.HEX_EDIT) != null) {
+                pos = writeHexContent(doc, pos, end);
+                continue;
             }
-            current = it.next();
+            final int leafEnd = Math.min(end, current.getEndOffset());
+            writeLeafElement(current, pos, leafEnd);
+            pos = leafEnd;
         }
     }
 
-    private Element handleHexContent(Element initElement, ElementIterator it) throws IOException {
-        final Document doc = initElement.getDocument();
-        Element current = initElement;
+    private int writeHexContent(Document doc, int start, int end) throws IOException {
         // collect all contiguous such regions
         // we only convert at the end (to allow abc + 123 to merge into abc123)
         final StringBuilder hexBuf = new StringBuilder();
+        int pos = start;
+        Element current = getLeafElement(doc, pos);
         do {
-            final int start = current.getStartOffset();
-            final int end = current.getEndOffset();
-            try {
-                hexBuf.append(doc.getText(start, end - start).toLowerCase(Locale.ROOT));
-            } catch (BadLocationException e) {
-                throw new ITextException(Language.ERROR_QUERY_CONTENT_STREAM.getString(), e);
-            }
+            final int leafEnd = Math.min(end, current.getEndOffset());
+            appendText(doc, pos, leafEnd, hexBuf);
+            pos = leafEnd;
             // Note: due to the implied linebreak at the end (which is never styled with HEX_EDIT)
-            // the check for current != null is strictly speaking not necessary, but we'll leave
+            // the check for pos < end is strictly speaking not necessary, but we'll leave
             // it in for good measure
-        } while ((current = it.next()) != null
-                && current.getAttributes().getAttribute(ContentStreamStyleConstants.HEX_EDIT) != null);
+        } while (pos < end && (current = getLeafElement(doc, pos)).getAttributes()
+                .getAttribute(ContentStreamStyleConstants.HEX_EDIT) != null);
 
-        os.write(ContentStreamHandlingUtils.ensureEscaped(ContentStreamHandlingUtils.unhexlify(hexBuf)));
-        return current;
+        final String hex = hexBuf.toString().toLowerCase(Locale.ROOT);
+        writeBytes(ContentStreamHandlingUtils.ensureEscaped(ContentStreamHandlingUtils.unhexlify(hex)));
+        return pos;
     }
 
-    private void writeLeafElement(Element current) throws IOException {
+    private void writeLeafElement(Element current, int start, int end) throws IOException {
         final AttributeSet attrs = current.getAttributes();
         final byte[] binaryContent = (byte[]) attrs.getAttribute(ContentStreamStyleConstants.BINARY_CONTENT);
-        if (binaryContent == null) {
-            final int start = current.getStartOffset();
-            final int end = current.getEndOffset();
-            String text;
-            try {
-                text = current.getDocument().getText(start, end - start);
-            } catch (BadLocationException e) {
-                throw new ITextException(Language.ERROR_QUERY_CONTENT_STREAM.getString(), e);
+        if (binaryContent != null) {
+            // binary content is written once, by the range that holds its start
+            if (start == current.getStartOffset()) {
+                writeBytes(binaryContent);
             }
-            final String enc = getContentEncoding(current);
-            os.write(PdfEncodings.convertToBytes(text, enc));
-        } else {
-            os.write(binaryContent);
+            return;
+        }
+        final Document doc = current.getDocument();
+        final String enc = getContentEncoding(current);
+        if (!PdfEncodings.PDF_DOC_ENCODING.equals(enc)) {
+            // only used for the contents of strings, which are short
+            final StringBuilder text = new StringBuilder(end - start);
+            appendText(doc, start, end, text);
+            writeBytes(PdfEncodings.convertToBytes(text.toString(), enc));
+            return;
+        }
+        int pos = start;
+        while (pos < end) {
+            getText(doc, pos, end - pos);
+            for (int i = segment.offset; i < segment.offset + segment.count; ++i) {
+                final char c = segment.array[i];
+                if (c > 0 && c < 0x80) {
+                    writeByte(c);
+                } else {
+                    writeBytes(PdfEncodings.convertToBytes(c, enc));
+                }
+            }
+            pos += segment.count;
+        }
+    }
+
+    private void appendText(Document doc, int start, int end, StringBuilder sb) {
+        int pos = start;
+        while (pos < end) {
+            getText(doc, pos, end - pos);
+            sb.append(segment.array, segment.offset, segment.count);
+            pos += segment.count;
+        }
+    }
+
+    private void getText(Document doc, int offset, int length) {
+        try {
+            doc.getText(offset, length, segment);
+        } catch (BadLocationException e) {
+            throw new ITextException(Language.ERROR_QUERY_CONTENT_STREAM.getString(), e);
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (bufferLength == buffer.length) {
+            flushBuffer();
+        }
+        buffer[bufferLength++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - bufferLength) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                os.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, bufferLength, bytes.length);
+        bufferLength += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (bufferLength > 0) {
+            os.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
+    }
+
+    private static Element getLeafElement(Document doc, int offset) {
+        Element element = doc.getDefaultRootElement();
+        while (!element.isLeaf()) {
+            element = element.getElement(element.getElementIndex(offset));
         }
+        return element;
     }
 
     private static String getContentEncoding(Element el) {
@@ -115,6 +115,27 @@ public class IndentManager {
         return indentLevel;
     }
 
+    /**
+     * Check whether the current indentation was caused by a path that is still being constructed.
+     *
+     * @return {@code true} if a subpath creation operator increased the indentation level
+     */
+    public boolean isIndentingPath() {
+        return isIndentingPath;
+    }
+
+    /**
+     * Restore a state that was previously obtained with {@link #getIndentLevel()}
+     * and {@link #isIndentingPath()}.
+     *
+     * @param indentLevel     the indentation level
+     * @param isIndentingPath whether the indentation was caused by a path under construction
+     */
+    public void restore(int indentLevel, boolean isIndentingPath) {
+        this.indentLevel = indentLevel;
+        this.isIndentingPath = isIndentingPath;
+    }
+
     /**
      * Reset the indentation level to 0.
      */
@@ -0,0 +1,256 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.rups.model.IPdfFile;
+import com.itextpdf.rups.model.TaskScheduler;
+import com.itextpdf.rups.view.Language;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Indexes the marked content of many pages on several cores.
+ *
+ * <p>
+ * The pages are split across a {@link ForkJoinPool}. Every worker thread
+ * reads with a read-only {@link PdfDocument} over the original content of
+ * the file, as iText documents are not thread-safe, and scans its pages with
+ * the {@link MarkedContentScanner} of that document. The worker documents
+ * are kept until the indexer is closed together with the file, so later
+ * calls don't open them again. The indexes are stored by the references of
+ * the pages that were passed in, so they can be looked up with the pages of
+ * the main document. The text of the marked content is decoded
+ * with the fonts of the main document, once it is requested.
+ * </p>
+ */
+public final class MarkedContentIndexer {
+    private final IPdfFile file;
+
+    /**
+     * The workers which are not used by a thread at the moment.
+     */
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed;
+
+    /**
+     * The fonts of the main document which were used to decode text, by object number.
+     */
+    private final Map<Integer, PdfFont> fonts = new HashMap<>();
+
+    /**
+     * Creates an indexer for the pages of a file. It should be closed when
+     * the file is closed.
+     *
+     * @param file the file of which pages are indexed
+     */
+    public MarkedContentIndexer(IPdfFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Indexes the marked content of pages. Pages which can't be processed
+     * get an empty index.
+     *
+     * @param pages     the references to the page dictionaries
+     * @param target    the map to store the index of every page in, by the
+     *                  given reference; this is filled concurrently
+     * @param cancelled checked before every page; once it returns
+     *                  {@code true}, the remaining pages are skipped
+     *
+     * @throws IllegalStateException if the file can't be read by several threads
+     */
+    public void index(List<PdfIndirectReference> pages,
+            Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> target, BooleanSupplier cancelled) {
+        final int size = pages.size();
+        if (size == 0 || closed) {
+            return;
+        }
+        final int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size));
+        final int threshold = Math.max(1, size / (parallelism * 8));
+        TaskScheduler.forkJoin("rups-marked-content", parallelism,
+                new IndexTask(pages, target, cancelled, 0, size, threshold));
+    }
+
+    /**
+     * Closes the worker documents. Documents which are still used by a
+     * running call are closed as soon as that call is done with them.
+     */
+    public void close() {
+        closed = true;
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.document.close();
+        }
+    }
+
+    private Worker acquireWorker() {
+        final Worker worker = idleWorkers.poll();
+        if (worker != null) {
+            return worker;
+        }
+        try {
+            final PdfDocument document = file.openReadOnlyCopy();
+            if (document == null) {
+                throw new IllegalStateException(Language.ERROR_PARALLEL_SCAN_UNSUPPORTED.getString());
+            }
+            return new Worker(document, new MarkedContentScanner(this::getFont));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void releaseWorker(Worker worker) {
+        idleWorkers.add(worker);
+        // the indexer may have been closed in the meantime
+        if (closed && idleWorkers.remove(worker)) {
+            worker.document.close();
+        }
+    }
+
+    private Map<Integer, MarkedContentInfo> indexPage(Worker worker, PdfIndirectReference reference) {
+        final PdfDocument document = worker.document;
+        final MarkedContentScanner scanner = worker.scanner;
+        try {
+            final PdfObject object = document.getPdfObject(reference.getObjNumber());
+            final PdfPage page = object instanceof PdfDictionary ? document.getPage((PdfDictionary) object) : null;
+            if (page == null) {
+                return Collections.emptyMap();
+            }
+            scanner.reset();
+            scanner.processPageContent(page);
+            return scanner.getMarkedContentIndex();
+        } catch (RuntimeException any) {
+            // the page content is broken, the marked content is shown without text
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Gets a font of the main document, to decode text after the worker
+     * documents are closed.
+     */
+    private synchronized PdfFont getFont(int objectNumber) {
+        if (!fonts.containsKey(objectNumber)) {
+            PdfFont font = null;
+            try {
+                final PdfObject dictionary = file.getPdfDocument().getPdfObject(objectNumber);
+                if (dictionary instanceof PdfDictionary) {
+                    font = PdfFontFactory.createFont((PdfDictionary) dictionary);
+                }
+            } catch (RuntimeException any) {
+                // the text is shown undecoded
+            }
+            fonts.put(objectNumber, font);
+        }
+        return fonts.get(objectNumber);
+    }
+
+    /**
+     * A worker document with its scanner, which is used by one thread at a time.
+     */
+    private static final class Worker {
+        final PdfDocument document;
+
+        final MarkedContentScanner scanner;
+
+        Worker(PdfDocument document, MarkedContentScanner scanner) {
+            this.document = document;
+            this.scanner = scanner;
+        }
+    }
+
+    private final class IndexTask extends RecursiveAction {
+        private final List<PdfIndirectReference> pages;
+        private final Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> target;
+        private final BooleanSupplier cancelled;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        IndexTask(List<PdfIndirectReference> pages, Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> target,
+                BooleanSupplier cancelled, int from, int to, int threshold) {
+            this.pages = pages;
+            this.target = target;
+            this.cancelled = cancelled;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                final Worker worker = acquireWorker();
+                try {
+                    for (int i = from; i < to && !cancelled.getAsBoolean(); ++i) {
+                        target.put(pages.get(i), indexPage(worker, pages.get(i)));
+                    }
+                } finally {
+                    releaseWorker(worker);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new IndexTask(pages, target, cancelled, from, middle, threshold),
+                    new IndexTask(pages, target, cancelled, middle, to, threshold));
+        }
+    }
+}
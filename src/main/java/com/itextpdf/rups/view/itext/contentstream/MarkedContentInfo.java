@@ -44,20 +44,36 @@ package com.itextpdf.rups.view.itext.contentstream;
 
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * Describes a piece of marked content in a content stream.
+ *
+ * <p>
+ * The text can be appended as decoded text, or as pieces which are only
+ * decoded the first time the text is requested.
+ * </p>
  */
 public class MarkedContentInfo {
     private final int mcid;
     private final PdfIndirectReference streamRef;
     private final StringBuilder extractedText = new StringBuilder();
+    private List<Supplier<String>> pendingText;
 
     public MarkedContentInfo(int mcid, PdfIndirectReference streamRef) {
         this.mcid = mcid;
         this.streamRef = streamRef;
     }
 
-    public final String getExtractedText() {
+    public final synchronized String getExtractedText() {
+        if (this.pendingText != null) {
+            for (final Supplier<String> text : this.pendingText) {
+                this.extractedText.append(text.get());
+            }
+            this.pendingText = null;
+        }
         return this.extractedText.toString();
     }
 
@@ -65,10 +81,22 @@ public class MarkedContentInfo {
         return mcid;
     }
 
-    protected final void appendExtractedText(CharSequence seq) {
+    protected final synchronized void appendExtractedText(CharSequence seq) {
         this.extractedText.append(seq);
     }
 
+    /**
+     * Appends a piece of text, which is decoded when the text is requested.
+     *
+     * @param text supplies the decoded text
+     */
+    protected final synchronized void appendPendingText(Supplier<String> text) {
+        if (this.pendingText == null) {
+            this.pendingText = new ArrayList<>();
+        }
+        this.pendingText.add(text);
+    }
+
     public final PdfIndirectReference getStreamRef() {
         return streamRef;
     }
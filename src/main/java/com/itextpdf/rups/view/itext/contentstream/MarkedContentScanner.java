@@ -0,0 +1,395 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Indexes the marked content in content streams, like
+ * {@link MarkedContentInfoGatherer}, but without running a full
+ * {@link com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor}.
+ *
+ * <p>
+ * The operators are read with a {@link PdfCanvasParser}; only the nesting of
+ * marked content, the current font, form XObjects and the string operands
+ * of the text showing operators are tracked. The strings are kept as they
+ * are, with the object number of their font, and are only decoded when the
+ * text of the marked content is requested.
+ * </p>
+ */
+public final class MarkedContentScanner {
+    /**
+     * The maximum nesting of form XObjects, to stop at circular references.
+     */
+    private static final int MAX_FORM_DEPTH = 32;
+
+    private static final String BMC = "BMC";
+    private static final String BDC = "BDC";
+    private static final String EMC = "EMC";
+    private static final String TF = "Tf";
+    private static final String TJ_SINGLE = "Tj";
+    private static final String TJ_ARRAY = "TJ";
+    private static final String QUOTE = "'";
+    private static final String DOUBLE_QUOTE = "\"";
+    private static final String SAVE = "q";
+    private static final String RESTORE = "Q";
+    private static final String DO = "Do";
+
+    /**
+     * Resolves fonts by object number, for decoding the text later on.
+     */
+    private final IntFunction<PdfFont> fonts;
+
+    /**
+     * Fonts of the scanned document itself, by font dictionary. Used if no
+     * other resolver was given, and for fonts without an object number.
+     */
+    private final Map<PdfDictionary, PdfFont> scannedFonts = new IdentityHashMap<>();
+
+    /**
+     * The document of the last scanned page or stream.
+     */
+    private PdfDocument document;
+
+    private final List<PdfIndirectReference> streamRefs = new ArrayList<>();
+
+    /**
+     * The open marked content sequences, the outermost first.
+     */
+    private final List<Tag> tags = new ArrayList<>();
+
+    private final List<PdfObject> fontStack = new ArrayList<>();
+
+    private final Set<PdfStream> openForms = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private Map<Integer, MarkedContentInfo> markedContentIndex = new HashMap<>();
+
+    /**
+     * The current font: an indirect reference, a font dictionary, or
+     * {@code null} if no font was selected.
+     */
+    private PdfObject font;
+
+    /**
+     * Creates a scanner which decodes the text with the fonts of the
+     * scanned document itself.
+     */
+    public MarkedContentScanner() {
+        this.fonts = this::getScannedFont;
+    }
+
+    /**
+     * Creates a scanner which decodes the text with fonts resolved by object
+     * number. This allows decoding the text with another instance of the
+     * document than the one which is scanned, after the scan.
+     *
+     * @param fonts resolves a font by the object number of its dictionary
+     */
+    public MarkedContentScanner(IntFunction<PdfFont> fonts) {
+        this.fonts = fonts;
+    }
+
+    public Map<Integer, MarkedContentInfo> getMarkedContentIndex() {
+        return Collections.unmodifiableMap(this.markedContentIndex);
+    }
+
+    /**
+     * Process an entire page's content stream(s).
+     *
+     * @param page page to process
+     */
+    public void processPageContent(PdfPage page) {
+        document = page.getDocument();
+        final PdfResources resources = page.getResources();
+        final int streamCount = page.getContentStreamCount();
+        for (int i = 0; i < streamCount; i++) {
+            processContentStream(page.getContentStream(i), resources);
+        }
+    }
+
+    /**
+     * Process a single content stream, possibly as part of a larger whole.
+     * The marked content and font state are kept between the streams of a page.
+     *
+     * @param stream    content stream
+     * @param resources the resources of the content stream
+     */
+    void processContentStream(PdfStream stream, PdfResources resources) {
+        streamRefs.clear();
+        streamRefs.add(stream.getIndirectReference());
+        if (stream.getIndirectReference() != null) {
+            document = stream.getIndirectReference().getDocument();
+        }
+        scan(stream.getBytes(), resources);
+    }
+
+    /**
+     * Reset the state of the scanner. Must be called between processing of distinct pages.
+     */
+    public void reset() {
+        this.markedContentIndex = new HashMap<>();
+        this.streamRefs.clear();
+        this.tags.clear();
+        this.fontStack.clear();
+        this.font = null;
+    }
+
+    private void scan(byte[] content, PdfResources resources) {
+        final PdfCanvasParser parser =
+                new PdfCanvasParser(ContentStreamHandlingUtils.createTokenizerFor(content), resources);
+        final List<PdfObject> operands = new ArrayList<>();
+        try {
+            while (!parser.parse(operands).isEmpty()) {
+                processOperator(operands, resources);
+            }
+        } catch (IOException e) {
+            // broken content, keep what was found so far
+        }
+    }
+
+    private void processOperator(List<PdfObject> operands, PdfResources resources) {
+        final String operator = operands.get(operands.size() - 1).toString();
+        switch (operator) {
+            case BMC:
+                tags.add(new Tag(-1, null));
+                break;
+            case BDC:
+                beginMarkedContent(operands, resources);
+                break;
+            case EMC:
+                if (!tags.isEmpty()) {
+                    tags.remove(tags.size() - 1);
+                }
+                break;
+            case TF:
+                if (operands.size() == 3 && operands.get(0).isName()) {
+                    final PdfDictionary fontDictionary = resources.getResource(PdfName.Font);
+                    font = fontDictionary == null ? null : fontDictionary.get((PdfName) operands.get(0), false);
+                }
+                break;
+            case TJ_SINGLE:
+            case QUOTE:
+                if (operands.size() == 2) {
+                    showText(operands.get(0));
+                }
+                break;
+            case DOUBLE_QUOTE:
+                if (operands.size() == 4) {
+                    showText(operands.get(2));
+                }
+                break;
+            case TJ_ARRAY:
+                if (operands.size() == 2 && operands.get(0).isArray()) {
+                    for (final PdfObject element : (PdfArray) operands.get(0)) {
+                        showText(element);
+                    }
+                }
+                break;
+            case SAVE:
+                fontStack.add(font);
+                break;
+            case RESTORE:
+                if (!fontStack.isEmpty()) {
+                    font = fontStack.remove(fontStack.size() - 1);
+                }
+                break;
+            case DO:
+                if (operands.size() == 2 && operands.get(0).isName()) {
+                    processForm((PdfName) operands.get(0), resources);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void beginMarkedContent(List<PdfObject> operands, PdfResources resources) {
+        PdfObject properties = operands.size() == 3 ? operands.get(1) : null;
+        if (properties != null && properties.isName()) {
+            final PdfDictionary propertiesDictionary = resources.getResource(PdfName.Properties);
+            properties = propertiesDictionary == null ? null
+                    : propertiesDictionary.getAsDictionary((PdfName) properties);
+        }
+        int mcid = -1;
+        String actualText = null;
+        if (properties != null && properties.isDictionary()) {
+            final PdfNumber number = ((PdfDictionary) properties).getAsNumber(PdfName.MCID);
+            if (number != null) {
+                mcid = number.intValue();
+            }
+            final PdfString text = ((PdfDictionary) properties).getAsString(PdfName.ActualText);
+            if (text != null) {
+                actualText = text.toUnicodeString();
+            }
+        }
+        tags.add(new Tag(mcid, actualText));
+    }
+
+    private void processForm(PdfName name, PdfResources resources) {
+        final PdfDictionary xObjects = resources.getResource(PdfName.XObject);
+        final PdfStream form = xObjects == null ? null : xObjects.getAsStream(name);
+        if (form == null || !PdfName.Form.equals(form.getAsName(PdfName.Subtype))
+                || openForms.size() >= MAX_FORM_DEPTH || !openForms.add(form)) {
+            return;
+        }
+        final PdfDictionary formResources = form.getAsDictionary(PdfName.Resources);
+        final PdfObject savedFont = font;
+        streamRefs.add(form.getIndirectReference());
+        try {
+            scan(form.getBytes(), formResources == null ? resources : new PdfResources(formResources));
+        } finally {
+            streamRefs.remove(streamRefs.size() - 1);
+            openForms.remove(form);
+            font = savedFont;
+        }
+    }
+
+    private void showText(PdfObject operand) {
+        if (!(operand instanceof PdfString)) {
+            return;
+        }
+        int mcid = -1;
+        String actualText = null;
+        for (final Tag tag : tags) {
+            if (mcid == -1) {
+                mcid = tag.mcid;
+            }
+            if (actualText == null) {
+                actualText = tag.actualText;
+            }
+        }
+        if (mcid == -1) {
+            return;
+        }
+        final MarkedContentInfo mci = markedContentIndex.computeIfAbsent(
+                mcid, k -> new MarkedContentInfo(k, streamRefs.get(streamRefs.size() - 1)));
+        // only the raw string and the font are kept; the text is decoded once it is requested
+        final PdfString string = (PdfString) operand;
+        if (actualText != null) {
+            final String text = actualText;
+            mci.appendPendingText(() -> text);
+        } else if (font instanceof PdfIndirectReference) {
+            final int fontNumber = ((PdfIndirectReference) font).getObjNumber();
+            mci.appendPendingText(() -> decode(fonts.apply(fontNumber), string));
+        } else if (font instanceof PdfDictionary) {
+            final PdfDictionary fontDictionary = (PdfDictionary) font;
+            mci.appendPendingText(() -> decode(getScannedFont(fontDictionary), string));
+        } else {
+            mci.appendPendingText(string::toUnicodeString);
+        }
+    }
+
+    /**
+     * Gets a font from the scanned document itself, by object number.
+     */
+    private PdfFont getScannedFont(int objectNumber) {
+        final PdfObject resolved = document == null ? null : document.getPdfObject(objectNumber);
+        return resolved instanceof PdfDictionary ? getScannedFont((PdfDictionary) resolved) : null;
+    }
+
+    /**
+     * Gets a font from the scanned document itself, by its dictionary.
+     */
+    private PdfFont getScannedFont(PdfDictionary dictionary) {
+        synchronized (scannedFonts) {
+            return scannedFonts.computeIfAbsent(dictionary, MarkedContentScanner::createFont);
+        }
+    }
+
+    private static PdfFont createFont(PdfDictionary dictionary) {
+        try {
+            return PdfFontFactory.createFont(dictionary);
+        } catch (RuntimeException any) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a string operand like {@link com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo#getText()}.
+     */
+    private static String decode(PdfFont font, PdfString string) {
+        if (font == null) {
+            return string.toUnicodeString();
+        }
+        try {
+            final GlyphLine glyphs = font.decodeIntoGlyphLine(string);
+            return glyphs.toUnicodeString(glyphs.start, glyphs.end);
+        } catch (RuntimeException any) {
+            return string.toUnicodeString();
+        }
+    }
+
+    private static final class Tag {
+        private final int mcid;
+        private final String actualText;
+
+        Tag(int mcid, String actualText) {
+            this.mcid = mcid;
+            this.actualText = actualText;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Position;
+
+/**
+ * Maps regions of a {@link StyledSyntaxDocument} to the bytes of the content
+ * stream they were built from. Every region holds a fixed number of operators.
+ * As long as a region isn't edited, its original bytes can be written back
+ * instead of serializing its text.
+ */
+final class SourceRegions implements DocumentListener {
+
+    /**
+     * The number of operators in a region.
+     */
+    static final int OPERATORS_PER_REGION = 64;
+
+    private final byte[] source;
+
+    /**
+     * The start offsets of the regions in the source. The last entry is the end of the source.
+     */
+    private final int[] sourceOffsets;
+
+    /**
+     * The start positions of the regions in the document. The last region ends at the end of the document.
+     */
+    private final Position[] starts;
+
+    private final BitSet edited = new BitSet();
+
+    private SourceRegions(byte[] source, int[] sourceOffsets, Position[] starts) {
+        this.source = source;
+        this.sourceOffsets = sourceOffsets;
+        this.starts = starts;
+    }
+
+    /**
+     * Gets the number of regions.
+     *
+     * @return the number of regions
+     */
+    int getRegionCount() {
+        return starts.length;
+    }
+
+    /**
+     * Gets the current start offset of a region in the document.
+     *
+     * @param region the index of the region
+     *
+     * @return the offset in the document
+     */
+    int getStart(int region) {
+        return starts[region].getOffset();
+    }
+
+    /**
+     * Gets the current end offset of a region in the document. The last region
+     * includes the implied newline at the end of the document.
+     *
+     * @param region the index of the region
+     * @param doc    the document
+     *
+     * @return the offset in the document
+     */
+    int getEnd(int region, Document doc) {
+        return region + 1 < starts.length ? starts[region + 1].getOffset() : doc.getLength() + 1;
+    }
+
+    /**
+     * Checks whether a region was edited since the document was built.
+     *
+     * @param region the index of the region
+     *
+     * @return {@code true} if the text of the region changed
+     */
+    boolean isEdited(int region) {
+        return edited.get(region);
+    }
+
+    /**
+     * Gets the source bytes of the stream.
+     *
+     * @return the stream content
+     */
+    byte[] getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the start offset of a region in the source.
+     *
+     * @param region the index of the region
+     *
+     * @return the offset in the source
+     */
+    int getSourceStart(int region) {
+        return sourceOffsets[region];
+    }
+
+    /**
+     * Gets the end offset of a region in the source.
+     *
+     * @param region the index of the region
+     *
+     * @return the offset in the source
+     */
+    int getSourceEnd(int region) {
+        return sourceOffsets[region + 1];
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        markEdited(e.getOffset(), e.getOffset() + e.getLength());
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        markEdited(e.getOffset(), e.getOffset());
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // the attributes aren't part of the source
+    }
+
+    /**
+     * Marks all regions that touch a range of the document as edited,
+     * including the regions that only border it.
+     */
+    private void markEdited(int start, int end) {
+        int first = findRegion(start);
+        if (first > 0 && getStart(first) == start) {
+            --first;
+        }
+        final int last = findRegion(end);
+        if (last >= 0) {
+            edited.set(Math.max(first, 0), last + 1);
+        }
+    }
+
+    /**
+     * Finds the last region that starts at or before an offset.
+     *
+     * @return the index of the region, or -1 if the offset is before the first region
+     */
+    private int findRegion(int offset) {
+        int low = 0;
+        int high = starts.length - 1;
+        int result = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (starts[mid].getOffset() <= offset) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the regions while a content stream is processed.
+     */
+    static final class Builder {
+        private final byte[] source;
+
+        private int[] sourceOffsets = new int[16];
+
+        private int[] documentOffsets = new int[16];
+
+        private int count;
+
+        Builder(byte[] source) {
+            this.source = source;
+        }
+
+        /**
+         * Starts a new region.
+         *
+         * @param sourceOffset   the offset in the source
+         * @param documentOffset the offset in the document
+         */
+        void add(int sourceOffset, int documentOffset) {
+            if (count == sourceOffsets.length) {
+                sourceOffsets = Arrays.copyOf(sourceOffsets, count * 2);
+                documentOffsets = Arrays.copyOf(documentOffsets, count * 2);
+            }
+            sourceOffsets[count] = sourceOffset;
+            documentOffsets[count] = documentOffset;
+            ++count;
+        }
+
+        /**
+         * Creates the regions once the document is built, and starts tracking edits.
+         *
+         * @param doc the document that was built
+         *
+         * @return the regions, or {@code null} if there are none
+         *
+         * @throws BadLocationException if a region is outside the document
+         */
+        SourceRegions build(Document doc) throws BadLocationException {
+            if (count == 0) {
+                return null;
+            }
+            final Position[] starts = new Position[count];
+            for (int i = 0; i < count; ++i) {
+                starts[i] = doc.createPosition(documentOffsets[i]);
+            }
+            final int[] offsets = Arrays.copyOf(sourceOffsets, count + 1);
+            offsets[count] = source.length;
+            final SourceRegions regions = new SourceRegions(source, offsets, starts);
+            doc.addDocumentListener(regions);
+            return regions;
+        }
+    }
+}
@@ -45,6 +45,7 @@ package com.itextpdf.rups.view.itext.contentstream;
 
 import com.itextpdf.commons.exceptions.ITextException;
 import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfName;
@@ -53,12 +54,15 @@ import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfString;
 import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
 import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.rups.model.ImageDecoder;
 import com.itextpdf.rups.model.LoggerHelper;
 import com.itextpdf.rups.view.Language;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.UndoableEditEvent;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultStyledDocument;
@@ -70,11 +74,54 @@ import javax.swing.text.SimpleAttributeSet;
  * Swing document representation of a PDF content stream.
  */
 public class StyledSyntaxDocument extends DefaultStyledDocument implements IMixedContentInterface {
-    private static final String INDENTATION_PREFIX = "    ";
+    static final String INDENTATION_PREFIX = "    ";
     private static final int INLINE_IMAGE_EXPECTED_TOKEN_COUNT = 2;
 
+    /**
+     * The maximum width and height of the preview of an inline image.
+     */
+    private static final int INLINE_IMAGE_PREVIEW_SIZE = 1024;
+
     private final transient IndentManager indentManager;
 
+    /**
+     * Keeps the highlighting and indentation up to date while the document is edited.
+     */
+    private final transient ContentStreamRestyler restyler;
+
+    /**
+     * The element specs collected while processing a content stream, so that
+     * they can be inserted at once. {@code null} when text is inserted directly.
+     */
+    private transient List<ElementSpec> pendingSpecs;
+
+    /**
+     * The text of the last pending run of characters with the same attributes.
+     */
+    private final StringBuilder pendingRun = new StringBuilder();
+
+    private transient AttributeSet pendingRunAttributes;
+
+    /**
+     * The attributes of the paragraphs created while processing a content stream.
+     */
+    private transient AttributeSet paragraphAttributes;
+
+    /**
+     * The length of the document when collecting element specs started.
+     */
+    private int batchStart;
+
+    /**
+     * The number of characters collected since collecting element specs started.
+     */
+    private int batchLength;
+
+    /**
+     * The regions of the document that can be written back as the original stream bytes.
+     */
+    private transient SourceRegions sourceRegions;
+
     /**
      * Highlight operands according to their operator.
      */
@@ -85,6 +132,7 @@ public class StyledSyntaxDocument extends DefaultStyledDocument implements IMixe
      */
     public StyledSyntaxDocument() {
         indentManager = new IndentManager();
+        restyler = new ContentStreamRestyler(this);
     }
 
     /**
@@ -140,25 +188,98 @@ public class StyledSyntaxDocument extends DefaultStyledDocument implements IMixe
 
     /**
      * Process a content stream and add its operators to the document.
+     * The styled text is collected first and inserted in one go, so the
+     * document is locked and its listeners are notified only once. For
+     * large streams, consider building the document before showing it.
+     * Once the stream is processed, later edits are highlighted and
+     * indented incrementally.
      *
      * @param streamContent the stream content
      */
     public void processContentStream(byte[] streamContent) {
+        restyler.setEnabled(false);
+        setSourceRegions(null);
         setSmartEditLock(false);
         final ArrayList<PdfObject> tokens = new ArrayList<>();
-        final PdfCanvasParser ps = ContentStreamHandlingUtils.createCanvasParserFor(streamContent);
+        final PdfTokenizer tokenizer = ContentStreamHandlingUtils.createTokenizerFor(streamContent);
+        final PdfCanvasParser ps = ContentStreamHandlingUtils.createCanvasParserFor(tokenizer);
+        final SourceRegions.Builder regions = new SourceRegions.Builder(streamContent);
         indentManager.reset();
+        beginBatch();
         try {
+            int operatorCount = 0;
+            long position = tokenizer.getPosition();
             while (!ps.parse(tokens).isEmpty()) {
+                if (operatorCount % SourceRegions.OPERATORS_PER_REGION == 0) {
+                    // the first region also holds anything before the first operator
+                    regions.add(operatorCount == 0 ? 0 : (int) position, batchStart + batchLength);
+                }
+                ++operatorCount;
                 final PdfObject operator = tokens.get(tokens.size() - 1);
                 indentManager.unindentIfNecessary(operator);
                 appendGraphicsOperator(tokens);
                 indentManager.indentIfNecessary(operator);
+                position = tokenizer.getPosition();
             }
+            endBatch();
+            setSourceRegions(regions.build(this));
         } catch (IOException | BadLocationException e) {
             throw new ITextException(Language.ERROR_BUILDING_CONTENT_STREAM.getString(), e);
+        } finally {
+            pendingSpecs = null;
+            pendingRun.setLength(0);
         }
         setSmartEditLock(true);
+        restyler.setEnabled(true);
+    }
+
+    /**
+     * Gets the regions of the document that map to the bytes of the processed
+     * content stream.
+     *
+     * @return the source regions, or {@code null} if the document wasn't built from a complete stream
+     */
+    SourceRegions getSourceRegions() {
+        return sourceRegions;
+    }
+
+    /**
+     * Process a window of the operators of a content stream and add them to the
+     * document. The window is parsed starting from the nearest checkpoint in the
+     * index, so only a small part of the stream is read. The document is meant
+     * for display only, as it doesn't represent the whole stream.
+     *
+     * @param streamContent the stream content
+     * @param index         the index of the operators in the stream
+     * @param first         the index of the first operator to add
+     * @param count         the maximum number of operators to add
+     */
+    public void processContentStream(byte[] streamContent, ContentStreamIndex index, int first, int count) {
+        setSmartEditLock(false);
+        final ArrayList<PdfObject> tokens = new ArrayList<>();
+        final PdfTokenizer tokenizer = ContentStreamHandlingUtils.createTokenizerFor(streamContent);
+        final PdfCanvasParser ps = ContentStreamHandlingUtils.createCanvasParserFor(tokenizer);
+        final int checkpoint = index.getCheckpoint(first);
+        final int end = Math.min(first + count, index.getOperatorCount());
+        index.restoreIndentation(checkpoint, indentManager);
+        beginBatch();
+        try {
+            tokenizer.seek(index.getOffset(checkpoint));
+            for (int i = index.getOperator(checkpoint); i < end && !ps.parse(tokens).isEmpty(); ++i) {
+                final PdfObject operator = tokens.get(tokens.size() - 1);
+                indentManager.unindentIfNecessary(operator);
+                if (i >= first) {
+                    appendGraphicsOperator(tokens);
+                }
+                indentManager.indentIfNecessary(operator);
+            }
+            endBatch();
+        } catch (IOException | BadLocationException e) {
+            throw new ITextException(Language.ERROR_BUILDING_CONTENT_STREAM.getString(), e);
+        } finally {
+            pendingSpecs = null;
+            pendingRun.setLength(0);
+        }
     }
 
     /**
@@ -180,6 +301,22 @@ public class StyledSyntaxDocument extends DefaultStyledDocument implements IMixe
         return null;
     }
 
+    @Override
+    public void insertString(int offs, String str, AttributeSet a) throws BadLocationException {
+        // text typed after indentation is content, not indentation
+        super.insertString(offs, str, restyler == null ? a : restyler.getInsertAttributes(a));
+    }
+
+    @Override
+    protected void fireUndoableEditUpdate(UndoableEditEvent e) {
+        // the superclass constructor already makes edits
+        if (restyler == null) {
+            super.fireUndoableEditUpdate(e);
+            return;
+        }
+        super.fireUndoableEditUpdate(new UndoableEditEvent(e.getSource(), restyler.wrap(e.getEdit())));
+    }
+
     /**
      * Append a PDF object to the content stream document.
      *
@@ -262,8 +399,9 @@ public class StyledSyntaxDocument extends DefaultStyledDocument implements IMixe
 
         try {
             // inline image parser takes care of expanding abbreviations
-            final BufferedImage img = new PdfImageXObject(stm).getBufferedImage();
-            insertAndRenderInlineImage(img, stm.getBytes(false), indentLevel + 1);
+            final BufferedImage img = ImageDecoder.decodePreview(
+                    stm, INLINE_IMAGE_PREVIEW_SIZE, INLINE_IMAGE_PREVIEW_SIZE);
+            insertAndRenderInlineImage(img, stm, indentLevel + 1);
             appendText("\n", null);
             appendDisplayOnlyIndent(indentLevel);
             appendText("EI\n", getStyleAttributes("EI"));
@@ -381,30 +519,124 @@ public class StyledSyntaxDocument extends DefaultStyledDocument implements IMixe
     }
 
     private void appendText(String s, AttributeSet attr) throws BadLocationException {
-        insertString(getLength(), s, attr == null ? SimpleAttributeSet.EMPTY : attr);
+        append(s, attr == null ? SimpleAttributeSet.EMPTY : attr);
     }
 
     private void appendDisplayOnlyIndent(int indentLevel) throws BadLocationException {
-        insertString(getLength(), INDENTATION_PREFIX.repeat(indentLevel), ContentStreamStyleConstants.INDENT_ATTRS);
+        append(INDENTATION_PREFIX.repeat(indentLevel), ContentStreamStyleConstants.INDENT_ATTRS);
     }
 
     private void appendDisplayOnlyNewline() throws BadLocationException {
-        insertString(getLength(), "\n", ContentStreamStyleConstants.DISPLAY_ONLY_ATTRS);
+        append("\n", ContentStreamStyleConstants.DISPLAY_ONLY_ATTRS);
+    }
+
+    /**
+     * Starts collecting appended text as element specs instead of
+     * inserting it in the document right away.
+     */
+    private void beginBatch() {
+        pendingSpecs = new ArrayList<>();
+        pendingRun.setLength(0);
+        pendingRunAttributes = null;
+        paragraphAttributes = getParagraphElement(getLength()).getAttributes().copyAttributes();
+        batchStart = getLength();
+        batchLength = 0;
+    }
+
+    /**
+     * Inserts all the collected element specs at the end of the document.
+     * The last line, if it doesn't end with a newline, is inserted as usual,
+     * so it joins the paragraph that holds the final implicit newline.
+     *
+     * @throws BadLocationException if an error occurs while modifying the document
+     */
+    private void endBatch() throws BadLocationException {
+        flushRun();
+        final List<ElementSpec> specs = pendingSpecs;
+        pendingSpecs = null;
+        int lineStart = specs.size();
+        while (lineStart > 0 && specs.get(lineStart - 1).getType() == ElementSpec.ContentType) {
+            --lineStart;
+        }
+        if (lineStart > 0) {
+            insert(getLength(), specs.subList(0, lineStart).toArray(new ElementSpec[0]));
+        }
+        for (final ElementSpec spec : specs.subList(lineStart, specs.size())) {
+            insertString(getLength(), new String(spec.getArray(), spec.getOffset(), spec.getLength()),
+                    spec.getAttributes());
+        }
     }
 
-    private void insertAndRenderInlineImage(final BufferedImage img, byte[] rawBytes, int indentLevel)
+    private void append(String s, AttributeSet attr) throws BadLocationException {
+        if (pendingSpecs == null) {
+            insertString(getLength(), s, attr);
+            return;
+        }
+        if (s.isEmpty()) {
+            return;
+        }
+        batchLength += s.length();
+        if (pendingRun.length() > 0 && !pendingRunAttributes.isEqual(attr)) {
+            flushRun();
+        }
+        pendingRunAttributes = attr;
+        int start = 0;
+        int newline = s.indexOf('\n');
+        while (newline >= 0) {
+            pendingRun.append(s, start, newline + 1);
+            flushRun();
+            pendingSpecs.add(new ElementSpec(null, ElementSpec.EndTagType));
+            pendingSpecs.add(new ElementSpec(paragraphAttributes, ElementSpec.StartTagType));
+            start = newline + 1;
+            newline = s.indexOf('\n', start);
+        }
+        pendingRun.append(s, start, s.length());
+    }
+
+    private void setSourceRegions(SourceRegions regions) {
+        if (sourceRegions != null) {
+            removeDocumentListener(sourceRegions);
+        }
+        sourceRegions = regions;
+    }
+
+    private void flushRun() {
+        if (pendingRun.length() > 0) {
+            final char[] chars = new char[pendingRun.length()];
+            pendingRun.getChars(0, chars.length, chars, 0);
+            pendingSpecs.add(new ElementSpec(pendingRunAttributes, ElementSpec.ContentType, chars, 0, chars.length));
+            pendingRun.setLength(0);
+        }
+    }
+
+    private void insertAndRenderInlineImage(final BufferedImage img, final PdfStream stm, int indentLevel)
             throws BadLocationException {
         // add the image
-        final AttributeSet imageAttrs = ContentStreamStyleConstants.getImageAttributes(img, rawBytes);
+        final PdfImageXObject xObject = new PdfImageXObject(stm);
+        final int width = (int) xObject.getWidth();
+        final int height = (int) xObject.getHeight();
+        final AttributeSet imageAttrs = ContentStreamStyleConstants.getImageAttributes(
+                img, width, height, stm.getBytes(false));
         appendDisplayOnlyIndent(indentLevel);
-        insertString(getLength(), " ", imageAttrs);
+        append(" ", imageAttrs);
         appendDisplayOnlyNewline();
 
-        // add the button
-        final AttributeSet buttonAttrs = ContentStreamStyleConstants.getImageSaveButtonAttributes(img);
+        // add the button, which saves the image at full resolution
+        final AttributeSet buttonAttrs = img.getWidth() == width
+                ? ContentStreamStyleConstants.getImageSaveButtonAttributes(img)
+                : ContentStreamStyleConstants.getImageSaveButtonAttributes(() -> decodeInlineImage(stm));
         appendDisplayOnlyIndent(indentLevel);
-        insertString(getLength(), " ", buttonAttrs);
+        append(" ", buttonAttrs);
         appendDisplayOnlyNewline();
     }
 
+    private BufferedImage decodeInlineImage(final PdfStream stm) {
+        try {
+            return ImageDecoder.decode(stm);
+        } catch (IOException | ITextException e) {
+            LoggerHelper.error(Language.ERROR_PROCESSING_IMAGE.getString(), e, getClass());
+            return null;
+        }
+    }
+
 }
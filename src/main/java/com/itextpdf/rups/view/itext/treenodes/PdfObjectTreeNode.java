@@ -52,8 +52,9 @@ import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.icons.IconFetcher;
 import com.itextpdf.rups.view.icons.IconTreeNode;
 
-import javax.swing.tree.TreeNode;
-import java.util.Enumeration;
+import javax.swing.tree.MutableTreeNode;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Every node in our tree corresponds with a PDF object.
@@ -92,6 +93,12 @@ public class PdfObjectTreeNode extends IconTreeNode {
      */
     protected PdfObject object;
 
+    /**
+     * The direct children that are dictionary entries, by key.
+     * Created on the first lookup and dropped whenever the children change.
+     */
+    private transient Map<PdfName, PdfObjectTreeNode> childrenByKey;
+
     /**
      * Creates a tree node for a PDF object.
      *
@@ -254,21 +261,41 @@ public class PdfObjectTreeNode extends IconTreeNode {
     }
 
     /**
-     * Gets the ChildNode with specific key if this node is a dictionary. Otherwise return {@code null}
+     * Gets the ChildNode with specific key if this node is a dictionary. Otherwise return {@code null}.
+     * Only the direct children of this node are considered.
      *
      * @param key key of the node to find
      * @return find node or {@code null}
      */
     public PdfObjectTreeNode getDictionaryChildNode(PdfName key) {
-        final Enumeration<TreeNode> children = breadthFirstEnumeration();
-        PdfObjectTreeNode child;
-        while (children.hasMoreElements()) {
-            child = (PdfObjectTreeNode) children.nextElement();
-            if (child.isDictionaryNode(key)) {
-                return child;
+        if (key == null) {
+            return null;
+        }
+        if (childrenByKey == null) {
+            final Map<PdfName, PdfObjectTreeNode> index = new HashMap<>();
+            for (int i = 0; i < getChildCount(); ++i) {
+                if (getChildAt(i) instanceof PdfObjectTreeNode) {
+                    final PdfObjectTreeNode child = (PdfObjectTreeNode) getChildAt(i);
+                    if (child.key != null) {
+                        index.putIfAbsent(child.key, child);
+                    }
+                }
             }
+            childrenByKey = index;
         }
-        return null;
+        return childrenByKey.get(key);
+    }
+
+    @Override
+    public void insert(MutableTreeNode newChild, int childIndex) {
+        super.insert(newChild, childIndex);
+        childrenByKey = null;
+    }
+
+    @Override
+    public void remove(int childIndex) {
+        super.remove(childIndex);
+        childrenByKey = null;
     }
 
     /**
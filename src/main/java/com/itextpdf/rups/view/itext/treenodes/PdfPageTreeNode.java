@@ -43,6 +43,9 @@
 package com.itextpdf.rups.view.itext.treenodes;
 
 import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.rups.model.PageLabels;
+import com.itextpdf.rups.model.PageTreeIndex;
+import com.itextpdf.rups.view.Language;
 
 /**
  * A tree node corresponding with a Page dictionary in a PDF file.
@@ -59,4 +62,64 @@ public class PdfPageTreeNode extends PdfObjectTreeNode {
     public PdfPageTreeNode(PdfDictionary object) {
         super(PAGE_ICON, object);
     }
+
+    /**
+     * Captions this node with its page number, and its page label if the
+     * document has labels. The number is only looked up when the node is
+     * shown, so the tree and the pages table agree without numbering all
+     * pages up front.
+     *
+     * @param pageTree the page tree of the document
+     * @param labels   the page labels of the document
+     */
+    public void setPageNumbering(PageTreeIndex pageTree, PageLabels labels) {
+        setUserObject(new PageCaption(super.getUserObject(), pageTree, labels));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getUserObject() {
+        final Object userObj = super.getUserObject();
+        return userObj instanceof PageCaption ? userObj.toString() : userObj;
+    }
+
+    /**
+     * Formats the caption of a page node, with the page number and label,
+     * the first time it is shown.
+     */
+    private final class PageCaption {
+        private Object caption;
+
+        private PageTreeIndex pageTree;
+
+        private PageLabels labels;
+
+        PageCaption(Object caption, PageTreeIndex pageTree, PageLabels labels) {
+            this.caption = caption;
+            this.pageTree = pageTree;
+            this.labels = labels;
+        }
+
+        @Override
+        public String toString() {
+            if (pageTree != null) {
+                final int index = pageTree.getPageIndex((PdfDictionary) object);
+                if (index >= 0) {
+                    final StringBuilder stringBuilder = new StringBuilder();
+                    stringBuilder.append(String.format(Language.PAGE_NUMBER.getString(), index + 1));
+                    if (labels.hasLabels()) {
+                        stringBuilder.append(" ( ");
+                        stringBuilder.append(labels.getLabel(index));
+                        stringBuilder.append(" )");
+                    }
+                    caption = stringBuilder.toString();
+                }
+                pageTree = null;
+                labels = null;
+            }
+            return String.valueOf(caption);
+        }
+    }
 }
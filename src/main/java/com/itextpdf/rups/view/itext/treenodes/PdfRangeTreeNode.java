@@ -0,0 +1,209 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.treenodes;
+
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A tree node grouping a range of the entries of a large array or
+ * dictionary, so that only the entries of the ranges that are
+ * expanded get a tree node of their own.
+ */
+public class PdfRangeTreeNode extends PdfObjectTreeNode {
+
+    /**
+     * The maximum number of children of a node; larger arrays and
+     * dictionaries are split in ranges of this size, or of a power of it.
+     */
+    public static final int GROUP_SIZE = 1000;
+
+    private static final String ARRAY_ICON = "array.png";
+    private static final String DICTIONARY_ICON = "dictionary.png";
+
+    /**
+     * The keys of the dictionary, or {@code null} for an array.
+     */
+    private final PdfName[] keys;
+
+    /**
+     * The index of every key of the dictionary, shared by all ranges of the
+     * dictionary, or {@code null} for an array.
+     */
+    private final Map<PdfName, Integer> keyIndexes;
+
+    /**
+     * The index of the first entry in the range.
+     */
+    private final int from;
+
+    /**
+     * The index after the last entry in the range.
+     */
+    private final int to;
+
+    /**
+     * Creates a tree node for a range of the entries of an array.
+     *
+     * @param array an array
+     * @param from  the index of the first element in the range
+     * @param to    the index after the last element in the range
+     */
+    public PdfRangeTreeNode(PdfObject array, int from, int to) {
+        this(array, null, null, from, to);
+    }
+
+    /**
+     * Creates a tree node for a range of the entries of a dictionary.
+     *
+     * @param dict a dictionary
+     * @param keys all the keys of the dictionary, in the order of the dictionary
+     * @param from the index of the first key in the range
+     * @param to   the index after the last key in the range
+     */
+    public PdfRangeTreeNode(PdfObject dict, PdfName[] keys, int from, int to) {
+        this(dict, keys, indexKeys(keys), from, to);
+    }
+
+    /**
+     * Creates a tree node for a range of the entries of a dictionary, of
+     * which the keys were indexed already.
+     *
+     * @param dict       a dictionary
+     * @param keys       all the keys of the dictionary, in the order of the dictionary
+     * @param keyIndexes the index of every key, as created by {@link #indexKeys(PdfName[])}
+     * @param from       the index of the first key in the range
+     * @param to         the index after the last key in the range
+     */
+    public PdfRangeTreeNode(PdfObject dict, PdfName[] keys, Map<PdfName, Integer> keyIndexes, int from, int to) {
+        super(keys == null ? ARRAY_ICON : DICTIONARY_ICON, dict);
+        this.keys = keys;
+        this.keyIndexes = keyIndexes;
+        this.from = from;
+        this.to = to;
+        setUserObject("[" + from + ".." + (to - 1) + "]");
+    }
+
+    /**
+     * Gets the keys of the dictionary.
+     *
+     * @return all the keys of the dictionary, or {@code null} if this node groups array elements
+     */
+    public PdfName[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Gets the index of every key of the dictionary, which is shared by all
+     * ranges of the dictionary.
+     *
+     * @return the indexes by key, or {@code null} if this node groups array elements
+     */
+    public Map<PdfName, Integer> getKeyIndexes() {
+        return keyIndexes;
+    }
+
+    /**
+     * Indexes the keys of a dictionary, so the ranges of the dictionary can
+     * look up keys without scanning them.
+     *
+     * @param keys all the keys of the dictionary, or {@code null} for an array
+     * @return the index of every key, or {@code null} for an array
+     */
+    public static Map<PdfName, Integer> indexKeys(PdfName[] keys) {
+        if (keys == null) {
+            return null;
+        }
+        final Map<PdfName, Integer> indexes = new HashMap<>(keys.length * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; ++i) {
+            indexes.put(keys[i], i);
+        }
+        return Collections.unmodifiableMap(indexes);
+    }
+
+    /**
+     * Gets the index of the first entry in the range.
+     *
+     * @return an index in the array or the keys of the dictionary
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets the index after the last entry in the range.
+     *
+     * @return an index in the array or the keys of the dictionary
+     */
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * Tells you if an array index is part of this range.
+     *
+     * @param index an index in the array
+     * @return true if the element with that index is grouped by this node
+     */
+    public boolean containsIndex(int index) {
+        return from <= index && index < to;
+    }
+
+    /**
+     * Tells you if a key of the dictionary is part of this range.
+     *
+     * @param key a key of the dictionary
+     * @return true if the entry with that key is grouped by this node
+     */
+    public boolean containsKey(PdfName key) {
+        if (keyIndexes == null) {
+            return false;
+        }
+        final Integer index = keyIndexes.get(key);
+        return index != null && containsIndex(index);
+    }
+}
@@ -49,6 +49,11 @@ import com.itextpdf.kernel.pdf.PdfString;
 import com.itextpdf.rups.view.Language;
 import com.itextpdf.rups.view.icons.IconTreeNode;
 
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import javax.swing.tree.DefaultMutableTreeNode;
+
 public class StructureTreeNode extends IconTreeNode {
 
     private static final String CHART_ORGANISATION_ICON = "chart_organisation.png";
@@ -58,6 +63,12 @@ public class StructureTreeNode extends IconTreeNode {
      */
     private final PdfObjectTreeNode objectNode;
 
+    /**
+     * Creates the children of the node once it is expanded, or {@code null}
+     * if they were created already.
+     */
+    private transient BiConsumer<StructureTreeNode, BooleanSupplier> childLoader;
+
     /**
      * Creates the root node for the structure tree.
      */
@@ -90,6 +101,57 @@ public class StructureTreeNode extends IconTreeNode {
         this.objectNode = referenceTarget;
     }
 
+    /**
+     * Creates a node for a marked-content identifier, of which the text is
+     * only extracted when the node is shown.
+     *
+     * @param referenceTarget the pdfObject treeNode to jump to
+     * @param icon the icon name
+     * @param extractedText supplies the extracted text
+     * @param mcid the marked-content identifier
+     * @return the new node
+     */
+    public static StructureTreeNode createMarkedContentNode(PdfObjectTreeNode referenceTarget, String icon,
+            Supplier<String> extractedText, PdfObject mcid) {
+        return new StructureTreeNode(referenceTarget, icon, new MarkedContentLabel(mcid, extractedText));
+    }
+
+    /**
+     * Gets the label of the node, extracting the text of marked content
+     * if that wasn't done yet.
+     *
+     * @return the user object of the node
+     */
+    @Override
+    public Object getUserObject() {
+        final Object userObj = super.getUserObject();
+        return userObj instanceof MarkedContentLabel ? userObj.toString() : userObj;
+    }
+
+    /**
+     * Sets the loader that creates the children of this node once it is
+     * expanded. Until then, the node has a placeholder child.
+     *
+     * @param childLoader adds the children to the node it is given, and
+     *                    stops early once the supplier returns {@code true}
+     */
+    public void setChildLoader(BiConsumer<StructureTreeNode, BooleanSupplier> childLoader) {
+        this.childLoader = childLoader;
+        add(new DefaultMutableTreeNode(Language.LOADING.getString()));
+    }
+
+    /**
+     * Takes the loader of the children of this node, so they are only
+     * loaded once. The placeholder child is kept until they are loaded.
+     *
+     * @return the loader, or {@code null} if the children are loaded already
+     */
+    public BiConsumer<StructureTreeNode, BooleanSupplier> takeChildLoader() {
+        final BiConsumer<StructureTreeNode, BooleanSupplier> loader = childLoader;
+        childLoader = null;
+        return loader;
+    }
+
     /**
      * Gets the node in the PdfTree that corresponds with this
      * OutlineTreeNode.
@@ -144,4 +206,29 @@ public class StructureTreeNode extends IconTreeNode {
             return referenceTarget;
         }
     }
+
+    /**
+     * The label of marked content, which is formatted the first time it is shown.
+     */
+    private static final class MarkedContentLabel {
+        private final PdfObject mcid;
+        private Supplier<String> extractedText;
+        private String label;
+
+        MarkedContentLabel(PdfObject mcid, Supplier<String> extractedText) {
+            this.mcid = mcid;
+            this.extractedText = extractedText;
+        }
+
+        @Override
+        public String toString() {
+            if (label == null) {
+                final StringBuilder buf = new StringBuilder().append(mcid);
+                formatExtractedText(buf, extractedText.get());
+                label = buf.toString();
+                extractedText = null;
+            }
+            return label;
+        }
+    }
 }
@@ -53,6 +53,16 @@ public abstract class AbstractPdfObjectPanelTableModel extends AbstractTableMode
 
     public abstract int getButtonColumn();
 
+    /**
+     * Gets the index of the entry in the first row, in case only a
+     * range of the entries of a large array or dictionary is shown.
+     *
+     * @return the index of the entry shown in the first row
+     */
+    public int getOffset() {
+        return 0;
+    }
+
     public boolean isEditable() {
         return editable;
     }
@@ -72,6 +72,14 @@ public class DictionaryTableModel extends AbstractPdfObjectPanelTableModel {
      * An ArrayList with the dictionary keys.
      */
     protected ArrayList<PdfName> keys = new ArrayList<>();
+    /**
+     * The index of the key in the first row.
+     */
+    private final int from;
+    /**
+     * Indicates if only a range of the keys is shown.
+     */
+    private final boolean ranged;
 
     /**
      * Creates the TableModel.
@@ -81,10 +89,44 @@ public class DictionaryTableModel extends AbstractPdfObjectPanelTableModel {
      * @param owner      the owner
      */
     public DictionaryTableModel(PdfDictionary dictionary, PdfSyntaxParser parser, Component owner) {
+        this(dictionary, parser, owner, 0, -1);
+    }
+
+    /**
+     * Creates a TableModel showing a range of the entries of a dictionary.
+     *
+     * @param dictionary the dictionary we want to show
+     * @param parser     the pdf syntax parser
+     * @param owner      the owner
+     * @param from       the index of the first key to show
+     * @param to         the index after the last key to show, or -1 to show all entries
+     */
+    public DictionaryTableModel(PdfDictionary dictionary, PdfSyntaxParser parser, Component owner,
+            int from, int to) {
         this.dictionary = dictionary;
         this.parser = parser;
         this.parent = owner;
-        this.keys.addAll(dictionary.keySet());
+        this.from = from;
+        this.ranged = to >= 0;
+        if (ranged) {
+            int index = 0;
+            for (PdfName key : dictionary.keySet()) {
+                if (index >= to) {
+                    break;
+                }
+                if (index >= from) {
+                    keys.add(key);
+                }
+                ++index;
+            }
+        } else {
+            this.keys.addAll(dictionary.keySet());
+        }
+    }
+
+    @Override
+    public int getOffset() {
+        return from;
     }
 
     /**
@@ -106,9 +148,9 @@ public class DictionaryTableModel extends AbstractPdfObjectPanelTableModel {
     public int getRowCount() {
         if (isEditable()) {
             // +1 is for the "add new row" row
-            return dictionary.size() + 1;
+            return (ranged ? keys.size() : dictionary.size()) + 1;
         }
-        return dictionary.size();
+        return ranged ? keys.size() : dictionary.size();
     }
 
 
@@ -257,6 +299,10 @@ public class DictionaryTableModel extends AbstractPdfObjectPanelTableModel {
                 break;
             }
         }
+        if (ranged) {
+            // a key sorted outside of the shown range is shown at its nearest end
+            index = Math.max(0, Math.min(index - from, keys.size()));
+        }
         keys.add(index, key);
         fireTableRowsInserted(index, index);
     }
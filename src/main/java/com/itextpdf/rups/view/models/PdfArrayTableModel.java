@@ -69,6 +69,16 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
      */
     private final Component parent;
 
+    /**
+     * The index of the element in the first row.
+     */
+    private final int from;
+
+    /**
+     * The index after the element in the last row, or -1 if all elements are shown.
+     */
+    private int to;
+
     private String tempValue = "";
 
     /**
@@ -79,9 +89,29 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
      * @param parent     the parent
      */
     public PdfArrayTableModel(PdfArray array, PdfSyntaxParser parser, Component parent) {
+        this(array, parser, parent, 0, -1);
+    }
+
+    /**
+     * Creates a TableModel showing a range of the elements of an array.
+     *
+     * @param array  a PDF array
+     * @param parser the pdf syntax parser
+     * @param parent the parent
+     * @param from   the index of the first element to show
+     * @param to     the index after the last element to show, or -1 to show all elements
+     */
+    public PdfArrayTableModel(PdfArray array, PdfSyntaxParser parser, Component parent, int from, int to) {
         this.array = array;
         this.parser = parser;
         this.parent = parent;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public int getOffset() {
+        return from;
     }
 
     @Override
@@ -108,9 +138,9 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
     public int getRowCount() {
         if (isEditable()) {
             // +1 is for the "add new row" row
-            return array.size() + 1;
+            return size() + 1;
         }
-        return array.size();
+        return size();
     }
 
     /**
@@ -119,8 +149,8 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
         if (columnIndex == 0) {
-            if (rowIndex == array.size()) return tempValue;
-            return PdfSyntaxUtils.getSyntaxString(array.get(rowIndex, false));
+            if (rowIndex == size()) return tempValue;
+            return PdfSyntaxUtils.getSyntaxString(array.get(from + rowIndex, false));
         }
         return null;
     }
@@ -143,7 +173,7 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
                 final PdfObject newValue = parser.parseString(value, parent);
                 if (newValue != null) {
                     removeRow(rowIndex);
-                    addRow(rowIndex, newValue);
+                    addRow(from + rowIndex, newValue);
                 }
             }
         }
@@ -167,7 +197,10 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
     @Override
     public void removeRow(int rowIndex) {
         fireTableRowsDeleted(rowIndex, rowIndex);
-        array.remove(rowIndex);
+        array.remove(from + rowIndex);
+        if (to >= 0) {
+            --to;
+        }
         fireTableDataChanged();
     }
 
@@ -184,7 +217,7 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
             int index;
             while (true) {
                 final String result =
-                        JOptionPane.showInputDialog(parent, Language.ARRAY_CHOOSE_INDEX.getString(), array.size());
+                        JOptionPane.showInputDialog(parent, Language.ARRAY_CHOOSE_INDEX.getString(), from + size());
                 if (result == null) {
                     //canceled input
                     return;
@@ -195,7 +228,8 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
                     LoggerHelper.warn(Language.ERROR_INDEX_NOT_INTEGER.getString(), any, getClass());
                     continue;
                 }
-                if (0 <= index && index <= array.size()) {
+                // new elements can only be added to the range that is shown
+                if (from <= index && index <= from + size()) {
                     //correct input
                     break;
                 } else {
@@ -215,7 +249,14 @@ public class PdfArrayTableModel extends AbstractPdfObjectPanelTableModel {
 
     private void addRow(int index, PdfObject value) {
         array.add(index, value);
-        fireTableRowsInserted(index, index);
+        if (to >= 0) {
+            ++to;
+        }
+        fireTableRowsInserted(index - from, index - from);
+    }
+
+    private int size() {
+        return to < 0 ? array.size() : to - from;
     }
 
 }
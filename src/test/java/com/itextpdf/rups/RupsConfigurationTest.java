@@ -113,6 +113,48 @@ public class RupsConfigurationTest {
         Assertions.assertFalse(RupsConfiguration.INSTANCE.canOpenDuplicateFiles());
     }
 
+    @Test
+    public void setParallelScanTrueTest() {
+        RupsConfiguration.INSTANCE.setParallelScan(true);
+        RupsConfiguration.INSTANCE.saveConfiguration();
+        Assertions.assertTrue(RupsConfiguration.INSTANCE.isParallelScanEnabled());
+    }
+
+    @Test
+    public void setParallelScanFalseTest() {
+        RupsConfiguration.INSTANCE.setParallelScan(false);
+        RupsConfiguration.INSTANCE.saveConfiguration();
+        Assertions.assertFalse(RupsConfiguration.INSTANCE.isParallelScanEnabled());
+    }
+
+    @Test
+    public void setIndexCacheTrueTest() {
+        RupsConfiguration.INSTANCE.setIndexCache(true);
+        RupsConfiguration.INSTANCE.saveConfiguration();
+        Assertions.assertTrue(RupsConfiguration.INSTANCE.isIndexCacheEnabled());
+    }
+
+    @Test
+    public void setIndexCacheFalseTest() {
+        RupsConfiguration.INSTANCE.setIndexCache(false);
+        RupsConfiguration.INSTANCE.saveConfiguration();
+        Assertions.assertFalse(RupsConfiguration.INSTANCE.isIndexCacheEnabled());
+    }
+
+    @Test
+    public void setUseVirtualThreadsTrueTest() {
+        RupsConfiguration.INSTANCE.setUseVirtualThreads(true);
+        RupsConfiguration.INSTANCE.saveConfiguration();
+        Assertions.assertTrue(RupsConfiguration.INSTANCE.useVirtualThreads());
+    }
+
+    @Test
+    public void setUseVirtualThreadsFalseTest() {
+        RupsConfiguration.INSTANCE.setUseVirtualThreads(false);
+        RupsConfiguration.INSTANCE.saveConfiguration();
+        Assertions.assertFalse(RupsConfiguration.INSTANCE.useVirtualThreads());
+    }
+
     @Test
     public void setLookAndFeel() {
         String laf = "crossplatform";
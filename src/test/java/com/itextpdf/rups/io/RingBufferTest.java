@@ -0,0 +1,118 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class RingBufferTest {
+
+    @Test
+    void drainInOrderTest() {
+        final RingBuffer<String> buffer = new RingBuffer<>(4);
+        final List<String> drained = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            Assertions.assertTrue(buffer.offer("a" + round));
+            Assertions.assertTrue(buffer.offer("b" + round));
+            Assertions.assertTrue(buffer.offer("c" + round));
+            Assertions.assertEquals(3, buffer.drain(drained::add));
+        }
+        Assertions.assertEquals(0, buffer.drain(drained::add));
+        Assertions.assertEquals(9, drained.size());
+        Assertions.assertEquals("a0", drained.get(0));
+        Assertions.assertEquals("c2", drained.get(8));
+    }
+
+    @Test
+    void dropWhenFullTest() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 6; i++) {
+            buffer.offer(i);
+        }
+        Assertions.assertEquals(2, buffer.takeDropped());
+        Assertions.assertEquals(0, buffer.takeDropped());
+        final List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add);
+        Assertions.assertEquals(List.of(0, 1, 2, 3), drained);
+        Assertions.assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void concurrentProducersTest() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 10_000;
+        final RingBuffer<Integer> buffer = new RingBuffer<>(producers * perProducer);
+        final Thread[] threads = new Thread[producers];
+        for (int t = 0; t < producers; t++) {
+            final int offset = t * perProducer;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(offset + i);
+                }
+            });
+            threads[t].start();
+        }
+        final boolean[] seen = new boolean[producers * perProducer];
+        final int[] lastOfProducer = new int[producers];
+        Arrays.fill(lastOfProducer, -1);
+        int count = 0;
+        while (count < seen.length) {
+            count += buffer.drain(value -> {
+                Assertions.assertFalse(seen[value]);
+                seen[value] = true;
+                // the values of a single producer keep their order
+                Assertions.assertTrue(value > lastOfProducer[value / perProducer]);
+                lastOfProducer[value / perProducer] = value;
+            });
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, buffer.takeDropped());
+    }
+}
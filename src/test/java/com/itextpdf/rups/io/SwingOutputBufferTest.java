@@ -0,0 +1,100 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.io;
+
+import com.itextpdf.rups.view.Language;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class SwingOutputBufferTest {
+
+    @Test
+    void timerRunsOnlyWhileOutputWaitsTest() throws Exception {
+        final List<String> drained = new ArrayList<>();
+        final SwingOutputBuffer<String> buffer = new SwingOutputBuffer<>(4, 1, notice -> notice,
+                drained::add, () -> {});
+        Assertions.assertFalse(buffer.isRunning());
+        for (int round = 0; round < 2; round++) {
+            buffer.offer("a" + round);
+            Assertions.assertTrue(buffer.isRunning());
+            awaitStopped(buffer);
+        }
+        SwingUtilities.invokeAndWait(() -> Assertions.assertEquals(List.of("a0", "a1"), drained));
+    }
+
+    @Test
+    void droppedOutputNoticeTest() throws Exception {
+        final List<String> drained = new ArrayList<>();
+        final int[] batches = new int[1];
+        final SwingOutputBuffer<String> buffer = new SwingOutputBuffer<>(4, 1000, notice -> notice,
+                drained::add, () -> ++batches[0]);
+        for (int i = 0; i < 6; i++) {
+            buffer.offer(String.valueOf(i));
+        }
+        SwingUtilities.invokeAndWait(() -> {
+            Assertions.assertTrue(buffer.drain());
+            Assertions.assertFalse(buffer.drain());
+        });
+        Assertions.assertEquals(1, batches[0]);
+        Assertions.assertEquals(5, drained.size());
+        Assertions.assertEquals(List.of("0", "1", "2", "3"), drained.subList(0, 4));
+        final String droppedText = Language.ERROR_MESSAGES_DROPPED.getString();
+        Assertions.assertTrue(drained.get(4).startsWith(droppedText.substring(0, droppedText.indexOf('%'))));
+        Assertions.assertTrue(drained.get(4).contains("2"));
+    }
+
+    private static void awaitStopped(SwingOutputBuffer<String> buffer) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertFalse(buffer.isRunning());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.io;
+
+import java.nio.charset.StandardCharsets;
+import javax.swing.JTextArea;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class TextAreaOutputStreamTest {
+
+    @Test
+    void appendOnFlushTest() {
+        final JTextArea text = new JTextArea("old");
+        final TextAreaOutputStream stream = new TextAreaOutputStream(text);
+        Assertions.assertEquals("", text.getText());
+        stream.write("<xfa>".getBytes(StandardCharsets.UTF_8));
+        stream.write('\n');
+        Assertions.assertEquals("", text.getText());
+        stream.flush();
+        Assertions.assertEquals("<xfa>\n", text.getText());
+        stream.write("</xfa>".getBytes(StandardCharsets.UTF_8));
+        stream.close();
+        Assertions.assertEquals("<xfa>\n</xfa>", text.getText());
+    }
+
+    @Test
+    void splitSequenceTest() {
+        final JTextArea text = new JTextArea();
+        final TextAreaOutputStream stream = new TextAreaOutputStream(text);
+        final byte[] bytes = "a\u20ACb".getBytes(StandardCharsets.UTF_8);
+        // the euro sign takes three bytes, of which only two are written
+        stream.write(bytes, 0, 3);
+        stream.flush();
+        Assertions.assertEquals("a", text.getText());
+        stream.write(bytes, 3, bytes.length - 3);
+        stream.flush();
+        Assertions.assertEquals("a\u20ACb", text.getText());
+    }
+
+    @Test
+    void getCompleteLengthTest() {
+        Assertions.assertEquals(0, TextAreaOutputStream.getCompleteLength(new byte[0]));
+        Assertions.assertEquals(2, TextAreaOutputStream.getCompleteLength(new byte[] {'a', 'b'}));
+        Assertions.assertEquals(1, TextAreaOutputStream.getCompleteLength(new byte[] {'a', (byte) 0xC3}));
+        Assertions.assertEquals(3, TextAreaOutputStream.getCompleteLength(new byte[] {'a', (byte) 0xC3, (byte) 0xA9}));
+        Assertions.assertEquals(1, TextAreaOutputStream.getCompleteLength(
+                new byte[] {'a', (byte) 0xF0, (byte) 0x9F, (byte) 0x98}));
+    }
+}
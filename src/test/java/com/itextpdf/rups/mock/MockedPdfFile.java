@@ -44,6 +44,7 @@ package com.itextpdf.rups.mock;
 
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.rups.model.IPdfFile;
+import com.itextpdf.rups.model.OriginalContent;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -60,7 +61,7 @@ public class MockedPdfFile implements IPdfFile {
     }
 
     @Override
-    public byte[] getOriginalContent() {
+    public OriginalContent getOriginalContent() {
         return null;
     }
 
@@ -43,6 +43,13 @@
 package com.itextpdf.rups.model;
 
 import com.itextpdf.rups.mock.MockedBackgroundTask;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -57,4 +64,139 @@ public class BackgroundTaskTest {
         backgroundTask.join();
         Assertions.assertTrue(backgroundTask.hasTaskExecuted());
     }
+
+    @Test
+    public void cancelledGroupTest() throws InterruptedException {
+        TaskGroup group = new TaskGroup("test");
+        group.cancel();
+        MockedBackgroundTask backgroundTask = new MockedBackgroundTask();
+        backgroundTask.start(group);
+        backgroundTask.join();
+        Assertions.assertTrue(backgroundTask.isCancelled());
+        Assertions.assertFalse(backgroundTask.hasTaskExecuted());
+    }
+
+    @Test
+    public void cancelGroupTest() {
+        TaskGroup group = new TaskGroup("test");
+        MockedBackgroundTask backgroundTask = new MockedBackgroundTask();
+        backgroundTask.start(group);
+        group.cancel();
+        Assertions.assertTrue(group.isCancelled());
+        Assertions.assertTrue(backgroundTask.isCancelled());
+    }
+
+    @Test
+    public void awaitTerminationTest() throws InterruptedException {
+        TaskGroup group = new TaskGroup("test");
+        CountDownLatch started = new CountDownLatch(1);
+        BackgroundTask backgroundTask = new BackgroundTask() {
+            @Override
+            public void doTask() {
+                started.countDown();
+                while (!isCancelled()) {
+                    Thread.onSpinWait();
+                }
+            }
+
+            @Override
+            public void finished() {
+            }
+        };
+        backgroundTask.start(group);
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(group.awaitTermination(10));
+        group.cancel();
+        Assertions.assertTrue(group.awaitTermination(10000));
+    }
+
+    @Test
+    public void interactiveTaskNotBlockedTest() throws InterruptedException {
+        TaskGroup group = new TaskGroup("test");
+        CountDownLatch release = new CountDownLatch(1);
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < 2 * processors + 2; ++i) {
+            new BackgroundTask("bulk", TaskPriority.BULK) {
+                @Override
+                public void doTask() {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void finished() {
+                }
+            }.start(group);
+        }
+        CountDownLatch rendered = new CountDownLatch(1);
+        new BackgroundTask("render", TaskPriority.INTERACTIVE) {
+            @Override
+            public void doTask() {
+                rendered.countDown();
+            }
+
+            @Override
+            public void finished() {
+            }
+        }.start();
+        try {
+            Assertions.assertTrue(rendered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            group.cancel();
+        }
+    }
+
+    @Test
+    public void forkJoinNamesWorkersTest() {
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        TaskScheduler.forkJoin("rups-test", 2, new RecursiveAction() {
+            @Override
+            protected void compute() {
+                names.add(Thread.currentThread().getName());
+            }
+        });
+        Assertions.assertEquals(1, names.size());
+        Assertions.assertTrue(names.iterator().next().startsWith("rups-test-"));
+    }
+
+    @Test
+    public void forkJoinWaitsForSubtasksTest() {
+        AtomicBoolean finished = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Assertions.assertThrows(IllegalStateException.class, () -> TaskScheduler.forkJoin("rups-test", 2,
+                new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                // fails once its sibling was stolen by the other worker
+                                try {
+                                    started.await(5, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                throw new IllegalStateException();
+                            }
+                        }, new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                started.countDown();
+                                try {
+                                    Thread.sleep(200);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                finished.set(true);
+                            }
+                        });
+                    }
+                }));
+        // the sibling of the failing subtask still ran to its end
+        Assertions.assertTrue(finished.get());
+    }
 }
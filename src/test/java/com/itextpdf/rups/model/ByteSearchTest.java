@@ -0,0 +1,107 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class ByteSearchTest {
+
+    @Test
+    void overlappingHitsTest() {
+        final ByteSearch search = search("aaaa", "aa", ByteSearch.CHUNK_SIZE);
+        Assertions.assertTrue(search.isComplete());
+        Assertions.assertEquals(3, search.getHitCount());
+        Assertions.assertEquals(0, search.next(-1));
+        Assertions.assertEquals(1, search.next(0));
+        Assertions.assertEquals(2, search.next(1));
+        Assertions.assertEquals(-1, search.next(2));
+    }
+
+    @Test
+    void chunkBoundariesTest() {
+        final String text = "%PDF-1.7\nstartxref\n123\n%%EOF\nxx%%EOF\n%%EO";
+        for (int chunkSize = 1; chunkSize <= text.length(); ++chunkSize) {
+            final ByteSearch search = search(text, "%%EOF", chunkSize);
+            Assertions.assertEquals(2, search.getHitCount(), "chunk size " + chunkSize);
+            Assertions.assertEquals(23, search.next(-1));
+            Assertions.assertEquals(31, search.next(23));
+            Assertions.assertEquals(-1, search.next(31));
+        }
+    }
+
+    @Test
+    void previousTest() {
+        final ByteSearch search = search("x/JS y/JS z/JS", "/JS", 4);
+        Assertions.assertEquals(11, search.previous(Long.MAX_VALUE));
+        Assertions.assertEquals(6, search.previous(11));
+        Assertions.assertEquals(1, search.previous(6));
+        Assertions.assertEquals(-1, search.previous(1));
+    }
+
+    @Test
+    void noHitsTest() {
+        final ByteSearch search = search("startxref", "/JavaScript", 4);
+        Assertions.assertEquals(0, search.getHitCount());
+        Assertions.assertEquals(-1, search.next(-1));
+        Assertions.assertEquals(-1, search.previous(Long.MAX_VALUE));
+    }
+
+    @Test
+    void cancelledTest() {
+        final ByteSearch search = new ByteSearch(OriginalContent.wrap(new byte[100]), new byte[] {0}, 10);
+        search.run(() -> true);
+        Assertions.assertFalse(search.isComplete());
+        Assertions.assertEquals(0, search.getHitCount());
+    }
+
+    private static ByteSearch search(String text, String pattern, int chunkSize) {
+        final ByteSearch search = new ByteSearch(OriginalContent.wrap(text.getBytes(StandardCharsets.ISO_8859_1)),
+                pattern.getBytes(StandardCharsets.ISO_8859_1), chunkSize);
+        search.run(() -> false);
+        return search;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class ImageDecoderTest {
+
+    @Test
+    void getSubsamplingTest() {
+        Assertions.assertEquals(1, ImageDecoder.getSubsampling(100, 100, 100, 100));
+        Assertions.assertEquals(2, ImageDecoder.getSubsampling(101, 50, 100, 100));
+        Assertions.assertEquals(20, ImageDecoder.getSubsampling(20000, 20000, 1000, 2000));
+        Assertions.assertEquals(1, ImageDecoder.getSubsampling(20000, 20000, 0, 0));
+    }
+
+    @Test
+    void readSubsampledTest() throws IOException {
+        final BufferedImage image = new BufferedImage(300, 100, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        image.setRGB(3, 0, 0x00FF00);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+
+        final BufferedImage preview = ImageDecoder.readSubsampled(baos.toByteArray(), 3);
+        Assertions.assertNotNull(preview);
+        Assertions.assertEquals(100, preview.getWidth());
+        Assertions.assertEquals(34, preview.getHeight());
+        Assertions.assertEquals(0xFF0000, preview.getRGB(0, 0) & 0xFFFFFF);
+        Assertions.assertEquals(0x00FF00, preview.getRGB(1, 0) & 0xFFFFFF);
+    }
+
+    @Test
+    void readSubsampledUnknownFormatTest() {
+        Assertions.assertNull(ImageDecoder.readSubsampled(new byte[] {1, 2, 3}, 2));
+    }
+}
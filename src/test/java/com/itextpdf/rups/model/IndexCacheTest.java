@@ -0,0 +1,215 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.test.ExtendedITextTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@Tag("IntegrationTest")
+class IndexCacheTest extends ExtendedITextTest {
+    private static final String SOURCE_FILE =
+            "./src/test/resources/com/itextpdf/rups/controller/hello_world_tagged.pdf";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void restoreStoredIndexTest() throws IOException {
+        final File file = copySource();
+        final IndexCache cache = new IndexCache(folder.resolve("cache").toFile());
+
+        final PdfFile storedFile = open(file);
+        final IndirectObjectFactory stored = indexAndClassify(storedFile);
+        cache.store(storedFile, stored);
+
+        final PdfFile restoredFile = open(file);
+        final IndirectObjectFactory restored = new IndirectObjectFactory(restoredFile.getPdfDocument());
+        Assertions.assertTrue(cache.restore(restoredFile, restored));
+        Assertions.assertFalse(restored.indexNextObject());
+        Assertions.assertEquals(stored.size(), restored.size());
+        for (int i = 0; i < stored.size(); ++i) {
+            Assertions.assertEquals(stored.getRefByIndex(i), restored.getRefByIndex(i));
+            Assertions.assertEquals(stored.getObjectTypeByIndex(i), restored.getObjectTypeByIndex(i));
+            Assertions.assertFalse(restored.isLoadedByIndex(i));
+        }
+        final int ref = restored.getRefByIndex(0);
+        Assertions.assertSame(restoredFile.getPdfDocument().getPdfObject(ref), restored.loadObjectByReference(ref));
+        storedFile.getPdfDocument().close();
+        restoredFile.getPdfDocument().close();
+    }
+
+    @Test
+    void changedFileTest() throws IOException {
+        final File file = copySource();
+        final Path cacheFolder = folder.resolve("cache");
+        final IndexCache cache = new IndexCache(cacheFolder.toFile());
+
+        final PdfFile storedFile = open(file);
+        cache.store(storedFile, indexAndClassify(storedFile));
+        storedFile.getPdfDocument().close();
+
+        // same size and modification time, but different content
+        final long lastModified = file.lastModified();
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final int comment = content.length - 1;
+        content[comment] = content[comment] == '\n' ? (byte) '\r' : (byte) '\n';
+        Files.write(file.toPath(), content);
+        Assertions.assertTrue(file.setLastModified(lastModified));
+
+        final PdfFile changedFile = open(file);
+        final IndirectObjectFactory changed = new IndirectObjectFactory(changedFile.getPdfDocument());
+        Assertions.assertFalse(cache.restore(changedFile, changed));
+        Assertions.assertEquals(0, changed.size());
+        try (Stream<Path> entries = Files.list(cacheFolder)) {
+            Assertions.assertEquals(0, entries.count());
+        }
+        changedFile.getPdfDocument().close();
+    }
+
+    @Test
+    void missingEntryTest() throws IOException {
+        final PdfFile pdfFile = open(copySource());
+        final IndexCache cache = new IndexCache(folder.resolve("cache").toFile());
+        Assertions.assertFalse(cache.restore(pdfFile, new IndirectObjectFactory(pdfFile.getPdfDocument())));
+        pdfFile.getPdfDocument().close();
+    }
+
+    @Test
+    void evictLeastRecentlyUsedTest() throws IOException {
+        final Path cacheFolder = folder.resolve("cache");
+        final IndexCache cache = new IndexCache(cacheFolder.toFile(), 2, Long.MAX_VALUE);
+
+        final PdfFile first = open(copySource("first.pdf"));
+        final Path firstEntry = storeOnly(cache, cacheFolder, first);
+        final PdfFile second = open(copySource("second.pdf"));
+        final Path secondEntry = storeOnly(cache, cacheFolder, second);
+        Files.setLastModifiedTime(firstEntry, FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(secondEntry, FileTime.fromMillis(2000));
+
+        // restoring the first entry makes the second one the least recently used
+        Assertions.assertTrue(cache.restore(first, new IndirectObjectFactory(first.getPdfDocument())));
+        final PdfFile third = open(copySource("third.pdf"));
+        final Path thirdEntry = storeOnly(cache, cacheFolder, third);
+        Assertions.assertTrue(Files.exists(firstEntry));
+        Assertions.assertFalse(Files.exists(secondEntry));
+        Assertions.assertTrue(Files.exists(thirdEntry));
+
+        cache.invalidate(third.getOriginalFile());
+        Assertions.assertFalse(Files.exists(thirdEntry));
+        first.getPdfDocument().close();
+        second.getPdfDocument().close();
+        third.getPdfDocument().close();
+    }
+
+    @Test
+    void hashTest() {
+        final byte[] content = new byte[1024 * 1024];
+        final long hash = IndexCache.hash(OriginalContent.wrap(content));
+        Assertions.assertEquals(hash, IndexCache.hash(OriginalContent.wrap(content.clone())));
+
+        content[content.length - 1] = 1;
+        Assertions.assertNotEquals(hash, IndexCache.hash(OriginalContent.wrap(content)));
+        Assertions.assertNotEquals(hash, IndexCache.hash(OriginalContent.wrap(new byte[content.length + 1])));
+    }
+
+    private File copySource() throws IOException {
+        return copySource("hello_world_tagged.pdf");
+    }
+
+    private File copySource(String name) throws IOException {
+        final Path copy = folder.resolve(name);
+        Files.copy(Paths.get(SOURCE_FILE), copy);
+        return copy.toFile();
+    }
+
+    /**
+     * Stores the index of a file, and returns the only new entry.
+     */
+    private static Path storeOnly(IndexCache cache, Path cacheFolder, PdfFile pdfFile) throws IOException {
+        final Set<Path> before = listEntries(cacheFolder);
+        cache.store(pdfFile, indexAndClassify(pdfFile));
+        final Set<Path> added = listEntries(cacheFolder);
+        added.removeAll(before);
+        Assertions.assertEquals(1, added.size());
+        return added.iterator().next();
+    }
+
+    private static Set<Path> listEntries(Path cacheFolder) throws IOException {
+        if (!Files.isDirectory(cacheFolder)) {
+            return new HashSet<>();
+        }
+        try (Stream<Path> entries = Files.list(cacheFolder)) {
+            return entries.collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private static PdfFile open(File file) throws IOException {
+        // not mapped, so the test can change the file while it is open
+        return PdfFile.open(file, Files.readAllBytes(file.toPath()));
+    }
+
+    private static IndirectObjectFactory indexAndClassify(PdfFile pdfFile) {
+        final IndirectObjectFactory factory = new IndirectObjectFactory(pdfFile.getPdfDocument());
+        while (factory.indexNextObject()) {
+            // index everything
+        }
+        for (int i = 0; i < factory.size(); ++i) {
+            factory.loadObjectByReference(factory.getRefByIndex(i));
+        }
+        return factory;
+    }
+}
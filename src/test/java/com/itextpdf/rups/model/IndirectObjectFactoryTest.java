@@ -0,0 +1,172 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfNull;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.rups.view.Language;
+import com.itextpdf.test.ExtendedITextTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IntegrationTest")
+class IndirectObjectFactoryTest extends ExtendedITextTest {
+    private static final String SOURCE_FILE =
+            "./src/test/resources/com/itextpdf/rups/controller/hello_world_tagged.pdf";
+
+    @Test
+    void indexWithoutParsingTest() throws IOException {
+        final PdfFile pdfFile = PdfFile.open(new File(SOURCE_FILE));
+        final PdfDocument document = pdfFile.getPdfDocument();
+        final IndirectObjectFactory factory = new IndirectObjectFactory(document);
+        while (factory.indexNextObject()) {
+            // index everything
+        }
+
+        Assertions.assertTrue(factory.size() > 0);
+        for (int i = 0; i < factory.size(); ++i) {
+            Assertions.assertFalse(factory.isLoadedByIndex(i));
+            Assertions.assertTrue(factory.getObjectByIndex(i) instanceof PdfNull);
+        }
+
+        final int ref = factory.getRefByIndex(factory.size() - 1);
+        final PdfObject object = factory.loadObjectByReference(ref);
+        Assertions.assertTrue(factory.isLoadedByReference(ref));
+        Assertions.assertSame(document.getPdfObject(ref), object);
+        Assertions.assertSame(object, factory.getObjectByReference(ref));
+        document.close();
+    }
+
+    @Test
+    void indexMatchesStoreTest() throws IOException {
+        final PdfFile indexedFile = PdfFile.open(new File(SOURCE_FILE));
+        final IndirectObjectFactory indexed = new IndirectObjectFactory(indexedFile.getPdfDocument());
+        while (indexed.indexNextObject()) {
+            // index everything
+        }
+        final PdfFile storedFile = PdfFile.open(new File(SOURCE_FILE));
+        final IndirectObjectFactory stored = new IndirectObjectFactory(storedFile.getPdfDocument());
+        while (stored.storeNextObject()) {
+            // parse everything
+        }
+
+        Assertions.assertEquals(stored.size(), indexed.size());
+        for (int i = 0; i < stored.size(); ++i) {
+            Assertions.assertEquals(stored.getRefByIndex(i), indexed.getRefByIndex(i));
+        }
+        indexedFile.getPdfDocument().close();
+        storedFile.getPdfDocument().close();
+    }
+
+    @Test
+    void parallelScanTest() throws IOException {
+        final PdfFile pdfFile = PdfFile.open(new File(SOURCE_FILE));
+        final IndirectObjectFactory factory = new IndirectObjectFactory(pdfFile.getPdfDocument());
+        while (factory.indexNextObject()) {
+            // index everything
+        }
+        final AtomicInteger scanned = new AtomicInteger();
+        factory.mergeObjectTypes(new ParallelObjectScanner(pdfFile, factory, scanned).scan());
+
+        Assertions.assertEquals(factory.size(), scanned.get());
+        final IndirectObjectType[] types = new IndirectObjectType[factory.size()];
+        for (int i = 0; i < factory.size(); ++i) {
+            types[i] = factory.getObjectTypeByIndex(i);
+            // the scan works on separate documents
+            Assertions.assertFalse(factory.isLoadedByIndex(i));
+        }
+        final List<IndirectObjectType> typeList = Arrays.asList(types);
+        Assertions.assertTrue(typeList.contains(IndirectObjectType.CATALOG));
+        Assertions.assertTrue(typeList.contains(IndirectObjectType.PAGES));
+        Assertions.assertTrue(typeList.contains(IndirectObjectType.PAGE));
+        Assertions.assertTrue(typeList.contains(IndirectObjectType.FONT));
+        pdfFile.getPdfDocument().close();
+    }
+
+    @Test
+    void indexesByTypeTest() throws IOException {
+        final PdfFile pdfFile = PdfFile.open(new File(SOURCE_FILE));
+        final IndirectObjectFactory factory = new IndirectObjectFactory(pdfFile.getPdfDocument());
+        while (factory.storeNextObject()) {
+            // parse and classify everything
+        }
+
+        final int[] sorted = factory.getIndexesByType();
+        Assertions.assertEquals(factory.size(), sorted.length);
+        final boolean[] seen = new boolean[factory.size()];
+        for (int row = 0; row < sorted.length; ++row) {
+            Assertions.assertFalse(seen[sorted[row]]);
+            seen[sorted[row]] = true;
+            if (row > 0) {
+                final int previous = factory.getObjectTypeByIndex(sorted[row - 1]).ordinal();
+                final int current = factory.getObjectTypeByIndex(sorted[row]).ordinal();
+                Assertions.assertTrue(previous < current || previous == current && sorted[row - 1] < sorted[row]);
+            }
+        }
+        pdfFile.getPdfDocument().close();
+    }
+
+    @Test
+    void pageNodeCaptionTest() throws IOException {
+        final PdfFile pdfFile = PdfFile.open(new File(SOURCE_FILE));
+        final PdfDocument document = pdfFile.getPdfDocument();
+        final IndirectObjectFactory objects = new IndirectObjectFactory(document);
+        while (objects.indexNextObject()) {
+            // index everything
+        }
+        final TreeNodeFactory nodes = new TreeNodeFactory(objects);
+        final int ref = document.getFirstPage().getPdfObject().getIndirectReference().getObjNumber();
+
+        // the tree and the pages table share the node, so it is captioned regardless of who shows it first
+        Assertions.assertEquals(String.format(Language.PAGE_NUMBER.getString(), 1), nodes.getNode(ref).toString());
+        document.close();
+    }
+}
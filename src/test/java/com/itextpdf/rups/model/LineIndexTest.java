@@ -0,0 +1,114 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class LineIndexTest {
+
+    @Test
+    void lineEndingsTest() {
+        final LineIndex index = build("a\nbc\r\nd\re\n\nf".getBytes(StandardCharsets.ISO_8859_1));
+        Assertions.assertTrue(index.isComplete());
+        Assertions.assertEquals(6, index.getLineCount());
+        final long[] expected = {0, 2, 6, 8, 10, 11};
+        for (int i = 0; i < expected.length; ++i) {
+            Assertions.assertEquals(expected[i], index.getLineStart(i));
+        }
+        Assertions.assertEquals(12, index.getLineStart(6));
+        Assertions.assertArrayEquals(new long[] {2, 6, 8, 10}, index.getLineStarts(1, 3));
+        Assertions.assertArrayEquals(new long[] {10, 11, 12}, index.getLineStarts(4, 2));
+        Assertions.assertEquals(0, index.getLineOf(1));
+        Assertions.assertEquals(1, index.getLineOf(5));
+        Assertions.assertEquals(2, index.getLineOf(6));
+        Assertions.assertEquals(5, index.getLineOf(11));
+    }
+
+    @Test
+    void longLinesTest() {
+        final byte[] bytes = new byte[LineIndex.MAX_LINE_LENGTH * 2 + 10];
+        Arrays.fill(bytes, (byte) 'x');
+        bytes[bytes.length - 1] = '\n';
+        final LineIndex index = build(bytes);
+        Assertions.assertEquals(3, index.getLineCount());
+        Assertions.assertEquals(LineIndex.MAX_LINE_LENGTH, index.getLineStart(1));
+        Assertions.assertEquals(LineIndex.MAX_LINE_LENGTH * 2, index.getLineStart(2));
+    }
+
+    @Test
+    void checkpointsTest() {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < LineIndex.CHECKPOINT_INTERVAL * 10 + 5; ++i) {
+            text.append(i).append('\n');
+        }
+        final String string = text.toString();
+        final LineIndex index = build(string.getBytes(StandardCharsets.ISO_8859_1));
+        Assertions.assertEquals(LineIndex.CHECKPOINT_INTERVAL * 10 + 5, index.getLineCount());
+        for (int line = 0; line < index.getLineCount(); line += 7) {
+            final long start = index.getLineStart(line);
+            Assertions.assertEquals(line + "\n", string.substring((int) start, (int) start + (line + "\n").length()));
+            Assertions.assertEquals(line, index.getLineOf(start));
+            Assertions.assertEquals(line, index.getLineOf(start + 1));
+        }
+    }
+
+    @Test
+    void cancelledTest() {
+        final LineIndex index = new LineIndex(OriginalContent.wrap("a\nb\n".getBytes(StandardCharsets.ISO_8859_1)));
+        index.build(() -> true);
+        Assertions.assertFalse(index.isComplete());
+        Assertions.assertEquals(0, index.getLineCount());
+        Assertions.assertEquals(0, index.getLineStart(0));
+    }
+
+    private static LineIndex build(byte[] bytes) {
+        final LineIndex index = new LineIndex(OriginalContent.wrap(bytes));
+        index.build(() -> false);
+        return index;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class ObjectIndexTest {
+
+    @Test
+    void denseIndexTest() {
+        final ObjectIndex index = new ObjectIndex(10);
+        Assertions.assertEquals(0, index.add(1));
+        Assertions.assertEquals(1, index.add(2));
+        // a gap, like a free entry in the xref table
+        Assertions.assertEquals(2, index.add(5));
+
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(5, index.getRef(2));
+        Assertions.assertEquals(2, index.getIndex(5));
+        Assertions.assertEquals(-1, index.getIndex(3));
+        Assertions.assertEquals(-1, index.getIndex(-1));
+        Assertions.assertEquals(-1, index.getIndex(Integer.MAX_VALUE));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> index.getRef(3));
+    }
+
+    @Test
+    void growingIndexTest() {
+        final ObjectIndex index = new ObjectIndex(0);
+        for (int i = 0; i < 5000; ++i) {
+            Assertions.assertEquals(i, index.add(i + 1));
+        }
+        for (int i = 0; i < 5000; ++i) {
+            Assertions.assertEquals(i, index.getIndex(i + 1));
+            Assertions.assertEquals(i + 1, index.getRef(i));
+        }
+    }
+
+    @Test
+    void sparseFallbackTest() {
+        final ObjectIndex index = new ObjectIndex(10);
+        index.add(1);
+        index.add(100_000_000);
+        index.add(7);
+
+        Assertions.assertEquals(0, index.getIndex(1));
+        Assertions.assertEquals(1, index.getIndex(100_000_000));
+        Assertions.assertEquals(2, index.getIndex(7));
+        Assertions.assertEquals(-1, index.getIndex(2));
+        Assertions.assertEquals(100_000_000, index.getRef(1));
+    }
+}
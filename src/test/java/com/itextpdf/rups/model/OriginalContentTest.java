@@ -0,0 +1,168 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class OriginalContentTest {
+    private static final Path TEST_FILE_PATH = Paths.get(
+            "./src/test/resources/com/itextpdf/rups/model/pdfFile/regular.pdf"
+    );
+
+    @Test
+    void mapTest() throws IOException {
+        final File file = TEST_FILE_PATH.toFile();
+        final OriginalContent content = OriginalContent.map(file);
+        final byte[] expected = Files.readAllBytes(TEST_FILE_PATH);
+        Assertions.assertEquals(expected.length, content.length());
+        Assertions.assertArrayEquals(expected, content.toByteArray());
+    }
+
+    @Test
+    void getOutOfRangeTest() {
+        final OriginalContent content = OriginalContent.wrap(new byte[] {1, 2, 3});
+        Assertions.assertEquals(-1, content.get(-1));
+        Assertions.assertEquals(-1, content.get(3));
+        Assertions.assertEquals(-1, content.get(3, new byte[1], 0, 1));
+    }
+
+    @Test
+    void getRangeTest() {
+        final OriginalContent content = OriginalContent.wrap(new byte[] {1, 2, (byte) 0xff});
+        Assertions.assertEquals(0xff, content.get(2));
+        final byte[] buffer = new byte[4];
+        Assertions.assertEquals(2, content.get(1, buffer, 1, 3));
+        Assertions.assertArrayEquals(new byte[] {0, 2, (byte) 0xff, 0}, buffer);
+    }
+
+    @Test
+    void sliceTest() {
+        final OriginalContent content = OriginalContent.wrap("%PDF-1.7".getBytes(StandardCharsets.US_ASCII));
+        final ByteBuffer slice = content.slice(1, 3);
+        Assertions.assertTrue(slice.isReadOnly());
+        Assertions.assertEquals(3, slice.remaining());
+        Assertions.assertEquals('P', slice.get(0));
+        Assertions.assertEquals('F', slice.get(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> content.slice(6, 3));
+    }
+
+    @Test
+    void createSourceTest() throws IOException {
+        final OriginalContent content = OriginalContent.wrap(new byte[] {4, 5, 6});
+        final IRandomAccessSource source = content.createSource();
+        Assertions.assertEquals(3, source.length());
+        Assertions.assertEquals(5, source.get(1));
+        source.close();
+        // Closing a source must not invalidate the shared content
+        Assertions.assertEquals(6, content.get(2));
+    }
+
+    @Test
+    void closeWhileReadingTest() throws IOException, InterruptedException {
+        final OriginalContent content = OriginalContent.map(TEST_FILE_PATH.toFile());
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicInteger readsAfterClose = new AtomicInteger();
+        final Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; ++i) {
+            readers[i] = new Thread(() -> {
+                final byte[] buffer = new byte[64];
+                while (true) {
+                    final boolean wasClosed = closed.get();
+                    final int read = content.get(0, buffer, 0, buffer.length) + content.get(content.length() - 1);
+                    if (wasClosed) {
+                        if (read >= 0) {
+                            readsAfterClose.incrementAndGet();
+                        }
+                        return;
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        Thread.sleep(50);
+        content.close();
+        closed.set(true);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+        Assertions.assertEquals(0, readsAfterClose.get());
+    }
+
+    @Test
+    void closeTest() throws IOException {
+        final OriginalContent content = OriginalContent.map(TEST_FILE_PATH.toFile());
+        Assertions.assertFalse(content.isClosed());
+        content.close();
+        Assertions.assertTrue(content.isClosed());
+        Assertions.assertEquals(-1, content.get(0));
+        Assertions.assertEquals(-1, content.get(0, new byte[1], 0, 1));
+        Assertions.assertThrows(IllegalStateException.class, () -> content.slice(0, 1));
+        Assertions.assertThrows(IllegalStateException.class, content::toByteArray);
+        // the file is no longer mapped, so it can be replaced
+        final Path copy = Files.createTempFile("rups", ".pdf");
+        try {
+            Files.copy(TEST_FILE_PATH, copy, StandardCopyOption.REPLACE_EXISTING);
+            final OriginalContent mapped = OriginalContent.map(copy.toFile());
+            mapped.close();
+            Files.write(copy, new byte[] {1});
+            Assertions.assertEquals(1, Files.size(copy));
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IntegrationTest")
+class PageTreeIndexTest extends ExtendedITextTest {
+
+    @Test
+    void nestedPageTreeTest() throws IOException {
+        // iText writes leaves of ten pages, so this has several levels
+        final byte[] pdf = createPdf(1234);
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            final PageTreeIndex index = new PageTreeIndex(document.getCatalog().getPdfObject());
+            Assertions.assertEquals(1234, index.getPageCount());
+            for (int i = 0; i < index.getPageCount(); ++i) {
+                Assertions.assertEquals(document.getPage(i + 1).getPdfObject().getIndirectReference(),
+                        index.getPageReference(i));
+            }
+            Assertions.assertNull(index.getPageReference(1234));
+            Assertions.assertNull(index.getPageReference(-1));
+        }
+    }
+
+    @Test
+    void pageIndexTest() throws IOException {
+        final byte[] pdf = createPdf(1234);
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            final PageTreeIndex index = new PageTreeIndex(document.getCatalog().getPdfObject());
+            for (int i = 0; i < index.getPageCount(); i += 37) {
+                Assertions.assertEquals(i, index.getPageIndex(document.getPage(i + 1).getPdfObject()));
+            }
+            Assertions.assertEquals(1233, index.getPageIndex(document.getLastPage().getPdfObject()));
+            Assertions.assertEquals(-1, index.getPageIndex(document.getCatalog().getPdfObject()));
+        }
+    }
+
+    @Test
+    void singlePageTest() throws IOException {
+        final byte[] pdf = createPdf(1);
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            final PageTreeIndex index = new PageTreeIndex(document.getCatalog().getPdfObject());
+            Assertions.assertEquals(1, index.getPageCount());
+            Assertions.assertEquals(document.getFirstPage().getPdfObject().getIndirectReference(),
+                    index.getPageReference(0));
+        }
+    }
+
+    private static byte[] createPdf(int pages) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument document = new PdfDocument(new PdfWriter(baos))) {
+            for (int i = 0; i < pages; ++i) {
+                document.addNewPage();
+            }
+        }
+        return baos.toByteArray();
+    }
+}
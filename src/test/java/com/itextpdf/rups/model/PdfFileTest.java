@@ -280,7 +280,7 @@ class PdfFileTest {
 
         // These assertions should be valid on any properly opened file
         Assertions.assertEquals(testFile, openedFile.getOriginalFile());
-        Assertions.assertArrayEquals(readTestFileBytes(fileName), openedFile.getOriginalContent());
+        Assertions.assertArrayEquals(readTestFileBytes(fileName), openedFile.getOriginalContent().toByteArray());
         Assertions.assertNotNull(openedFile.getPdfDocument());
         return openedFile;
     }
@@ -293,7 +293,7 @@ class PdfFileTest {
 
         // These assertions should be valid on any properly opened file
         Assertions.assertEquals(testFile, openedFile.getOriginalFile());
-        Assertions.assertArrayEquals(readTestFileBytes(fileName), openedFile.getOriginalContent());
+        Assertions.assertArrayEquals(readTestFileBytes(fileName), openedFile.getOriginalContent().toByteArray());
         Assertions.assertNotNull(openedFile.getPdfDocument());
         // Should be opened as owner, as we are forcing it here
         Assertions.assertTrue(openedFile.isOpenedAsOwner());
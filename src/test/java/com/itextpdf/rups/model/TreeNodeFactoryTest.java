@@ -0,0 +1,135 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
+import com.itextpdf.rups.view.itext.treenodes.PdfRangeTreeNode;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class TreeNodeFactoryTest {
+
+    @Test
+    void smallArrayIsNotGroupedTest() {
+        final PdfArray array = new PdfArray();
+        for (int i = 0; i < PdfRangeTreeNode.GROUP_SIZE; ++i) {
+            array.add(new PdfNumber(i));
+        }
+        final TreeNodeFactory factory = new TreeNodeFactory(null);
+        final PdfObjectTreeNode node = PdfObjectTreeNode.getInstance(array);
+        factory.expandNode(node);
+
+        Assertions.assertEquals(PdfRangeTreeNode.GROUP_SIZE, node.getChildCount());
+        Assertions.assertFalse(factory.isGrouped(node));
+    }
+
+    @Test
+    void largeArrayIsGroupedTest() {
+        final PdfArray array = new PdfArray();
+        for (int i = 0; i < 2500; ++i) {
+            array.add(new PdfNumber(i));
+        }
+        final TreeNodeFactory factory = new TreeNodeFactory(null);
+        final PdfObjectTreeNode node = PdfObjectTreeNode.getInstance(array);
+        factory.expandNode(node);
+
+        Assertions.assertTrue(factory.isGrouped(node));
+        Assertions.assertEquals(3, node.getChildCount());
+        final PdfRangeTreeNode last = (PdfRangeTreeNode) node.getChildAt(2);
+        Assertions.assertEquals("[2000..2499]", last.toString());
+        Assertions.assertEquals(0, last.getChildCount());
+        Assertions.assertTrue(factory.hasChildren(last));
+
+        final PdfObjectTreeNode element = factory.getArrayChildNode(node, 2345);
+        Assertions.assertEquals(2345, ((PdfNumber) element.getPdfObject()).intValue());
+        Assertions.assertEquals(500, last.getChildCount());
+        Assertions.assertEquals(0, node.getChildAt(0).getChildCount());
+        Assertions.assertNull(factory.getArrayChildNode(node, 2500));
+    }
+
+    @Test
+    void largeDictionaryIsGroupedTest() {
+        final PdfDictionary dict = new PdfDictionary();
+        for (int i = 0; i < 1500; ++i) {
+            dict.put(new PdfName("Key" + i), new PdfNumber(i));
+        }
+        final TreeNodeFactory factory = new TreeNodeFactory(null);
+        final PdfObjectTreeNode node = PdfObjectTreeNode.getInstance(dict);
+
+        final PdfObjectTreeNode child = factory.getChildNode(node, new PdfName("Key1234"));
+        Assertions.assertTrue(factory.isGrouped(node));
+        Assertions.assertEquals(2, node.getChildCount());
+        Assertions.assertNotNull(child);
+        Assertions.assertEquals(1234, ((PdfNumber) child.getPdfObject()).intValue());
+    }
+
+    @Test
+    void rangesShareKeyIndexTest() {
+        final PdfDictionary dict = new PdfDictionary();
+        for (int i = 0; i < 1500; ++i) {
+            dict.put(new PdfName("Key" + i), new PdfNumber(i));
+        }
+        final TreeNodeFactory factory = new TreeNodeFactory(null);
+        final PdfObjectTreeNode node = PdfObjectTreeNode.getInstance(dict);
+        factory.expandNode(node);
+
+        final PdfRangeTreeNode first = (PdfRangeTreeNode) node.getChildAt(0);
+        final PdfRangeTreeNode second = (PdfRangeTreeNode) node.getChildAt(1);
+        Assertions.assertSame(first.getKeyIndexes(), second.getKeyIndexes());
+        // the ranges follow the order of the key set, which is not the insertion order
+        final PdfName[] keys = dict.keySet().toArray(new PdfName[0]);
+        for (int i = 0; i < keys.length; ++i) {
+            Assertions.assertEquals(i < first.getTo(), first.containsKey(keys[i]));
+            Assertions.assertEquals(i >= second.getFrom(), second.containsKey(keys[i]));
+        }
+        Assertions.assertEquals(first.getTo(), second.getFrom());
+        Assertions.assertFalse(second.containsKey(new PdfName("Missing")));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+class WeightedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedTest() {
+        final WeightedLruCache<Integer, byte[]> cache = new WeightedLruCache<>(10, value -> value.length);
+        cache.put(1, new byte[4]);
+        cache.put(2, new byte[4]);
+        // using the first value makes the second one the eldest
+        Assertions.assertNotNull(cache.get(1));
+        cache.put(3, new byte[4]);
+        Assertions.assertNotNull(cache.get(1));
+        Assertions.assertNull(cache.get(2));
+        Assertions.assertNotNull(cache.get(3));
+        Assertions.assertEquals(8, cache.getWeight());
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    void replaceAndRemoveTest() {
+        final WeightedLruCache<Integer, byte[]> cache = new WeightedLruCache<>(10, value -> value.length);
+        cache.put(1, new byte[4]);
+        cache.put(1, new byte[6]);
+        Assertions.assertEquals(6, cache.getWeight());
+        Assertions.assertEquals(6, cache.remove(1).length);
+        Assertions.assertNull(cache.remove(1));
+        Assertions.assertEquals(0, cache.getWeight());
+        cache.put(2, new byte[2]);
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void tooHeavyValueTest() {
+        final WeightedLruCache<Integer, byte[]> cache = new WeightedLruCache<>(10, value -> value.length);
+        cache.put(1, new byte[4]);
+        cache.put(2, new byte[11]);
+        Assertions.assertNull(cache.get(2));
+        Assertions.assertNotNull(cache.get(1));
+        // a value replaced by a value that is too heavy is dropped as well
+        cache.put(1, new byte[11]);
+        Assertions.assertNull(cache.get(1));
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+}
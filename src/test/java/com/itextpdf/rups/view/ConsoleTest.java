@@ -0,0 +1,128 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view;
+
+import com.itextpdf.rups.event.RupsEvent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.Observer;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("UnitTest")
+public class ConsoleTest {
+
+    @Test
+    public void batchedFlushTest() throws InterruptedException, InvocationTargetException {
+        final Console console = Console.getInstance();
+        final AtomicInteger events = new AtomicInteger();
+        final Observer observer = (o, arg) -> {
+            if (arg instanceof RupsEvent && ((RupsEvent) arg).getType() == RupsEvent.CONSOLE_WRITE_EVENT) {
+                events.incrementAndGet();
+            }
+        };
+        // the console is flushed by a timer on the event dispatch thread
+        SwingUtilities.invokeAndWait(() -> {
+            console.flush();
+            console.getTextArea().setText("");
+            console.addObserver(observer);
+        });
+        try {
+            final Console.ConsoleOutputStream info = new Console.ConsoleOutputStream(
+                    Console.ConsoleStyleContext.INFO);
+            final Console.ConsoleOutputStream error = new Console.ConsoleOutputStream(
+                    Console.ConsoleStyleContext.ERROR);
+            info.write("one\n".getBytes(StandardCharsets.UTF_8));
+            error.write("two\n".getBytes(StandardCharsets.UTF_8));
+            info.write("three\n".getBytes(StandardCharsets.UTF_8));
+            SwingUtilities.invokeAndWait(console::flush);
+            final String text = console.getTextArea().getText();
+            Assertions.assertTrue(text.endsWith("one\ntwo\nthree\n"));
+            Assertions.assertTrue(events.get() >= 1);
+        } finally {
+            SwingUtilities.invokeAndWait(() -> console.deleteObserver(observer));
+        }
+    }
+
+    @Test
+    public void rollingTrimTest() throws InterruptedException, InvocationTargetException {
+        final Console console = Console.getInstance();
+        final Console.ConsoleOutputStream info = new Console.ConsoleOutputStream(Console.ConsoleStyleContext.INFO);
+        SwingUtilities.invokeAndWait(() -> {
+            console.flush();
+            console.getTextArea().setText("");
+        });
+        for (int i = 0; i < 2000; i++) {
+            info.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        SwingUtilities.invokeAndWait(console::flush);
+        final String text = console.getTextArea().getText();
+        Assertions.assertTrue(text.length() <= 8192);
+        Assertions.assertTrue(text.startsWith(Language.ERROR_TOO_MANY_OUTPUT.getString().trim() + "\n"));
+        Assertions.assertTrue(text.endsWith("line 1999\n"));
+    }
+
+    @Test
+    public void droppedMessagesTest() throws InterruptedException, InvocationTargetException {
+        final Console console = Console.getInstance();
+        final Console.ConsoleOutputStream info = new Console.ConsoleOutputStream(Console.ConsoleStyleContext.INFO);
+        SwingUtilities.invokeAndWait(() -> {
+            console.flush();
+            console.getTextArea().setText("");
+        });
+        // more messages than the buffer holds, before the event dispatch thread flushes them
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 0; i < 5000; i++) {
+                info.write('x');
+            }
+            console.flush();
+        });
+        final String dropped = Language.ERROR_MESSAGES_DROPPED.getString();
+        Assertions.assertTrue(console.getTextArea().getText()
+                .contains(dropped.substring(0, dropped.indexOf('%')).trim()));
+    }
+}
@@ -42,6 +42,7 @@
  */
 package com.itextpdf.rups.view;
 
+import javax.swing.SwingUtilities;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -53,7 +54,7 @@ public class DebugViewTest {
     public void appendMessageTest() {
         String expected = "5";
         DebugView.getInstance().getTextArea().setText("");
-        new DebugView.UpdateTextPaneTask(expected).run();
+        DebugView.getInstance().append(expected);
         String actual = DebugView.getInstance().getTextArea().getText();
 
         Assertions.assertEquals(expected, actual);
@@ -63,14 +64,35 @@ public class DebugViewTest {
     public void backupMessageTest() {
         String expected = "5\n";
         DebugView.getInstance().getTextArea().setText("");
-        DebugView.UpdateTextPaneTask updateTextPaneTask = new DebugView.UpdateTextPaneTask(expected);
 
         for ( int i = 0; i <= 8192; i++) {
-            updateTextPaneTask.run();
+            DebugView.getInstance().append(expected);
         }
 
         String actual = DebugView.getInstance().getTextArea().getText();
 
-        Assertions.assertTrue(actual.contains(Language.ERROR_TOO_MANY_OUTPUT.getString()));
+        Assertions.assertTrue(actual.contains(Language.ERROR_TOO_MANY_OUTPUT.getString().trim()));
+        Assertions.assertEquals(8192, DebugView.getInstance().getTextArea().getLineCount());
+        Assertions.assertTrue(actual.endsWith(expected));
+    }
+
+    @Test
+    public void droppedMessagesTest() throws Exception {
+        final DebugView view = DebugView.getInstance();
+        final DebugView.DebugOutputStream out = new DebugView.DebugOutputStream();
+        SwingUtilities.invokeAndWait(() -> {
+            view.drain();
+            view.getTextArea().setText("");
+        });
+        // more messages than the buffer holds, before the event dispatch thread drains them
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 0; i < 10000; i++) {
+                out.write('x');
+            }
+            view.drain();
+        });
+        final String dropped = Language.ERROR_MESSAGES_DROPPED.getString();
+        Assertions.assertTrue(view.getTextArea().getText()
+                .contains(dropped.substring(0, dropped.indexOf('%')).trim()));
     }
 }
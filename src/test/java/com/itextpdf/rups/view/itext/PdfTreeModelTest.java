@@ -0,0 +1,140 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext;
+
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.rups.controller.PdfReaderController;
+import com.itextpdf.rups.event.PostOpenDocumentEvent;
+import com.itextpdf.rups.model.IProgressDialog;
+import com.itextpdf.rups.model.ObjectLoader;
+import com.itextpdf.rups.model.PdfFile;
+import com.itextpdf.rups.view.itext.treenodes.PdfObjectTreeNode;
+import com.itextpdf.test.ExtendedITextTest;
+
+import java.io.File;
+import java.io.IOException;
+import javax.swing.tree.TreeModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IntegrationTest")
+class PdfTreeModelTest extends ExtendedITextTest {
+
+    private static final String SOURCE_FILE =
+            "./src/test/resources/com/itextpdf/rups/controller/hello_world_tagged.pdf";
+
+    @Test
+    void childrenAreCreatedOnDemandTest() throws IOException {
+        final PdfFile pdfFile = PdfFile.open(new File(SOURCE_FILE));
+        final PdfReaderController controller = new PdfReaderController(null, null);
+        final ObjectLoader loader = new ObjectLoader(controller, pdfFile, "Test loader", new DummyProgressDialog());
+        loader.doTask();
+        controller.update(controller, new PostOpenDocumentEvent(loader));
+
+        final TreeModel model = controller.getPdfTree().getModel();
+        Assertions.assertTrue(model instanceof PdfTreeModel);
+
+        final PdfObjectTreeNode trailer = controller.getPdfTree().getRoot();
+        PdfObjectTreeNode root = null;
+        PdfObjectTreeNode info = null;
+        for (int i = 0; i < model.getChildCount(trailer); ++i) {
+            final PdfObjectTreeNode child = (PdfObjectTreeNode) model.getChild(trailer, i);
+            if (child.isDictionaryNode(PdfName.Root)) {
+                // the views linking into the catalog, like the outlines, may have built this path already
+                root = child;
+                continue;
+            }
+            if (child.isDictionaryNode(PdfName.Info)) {
+                info = child;
+            }
+            // the other entries of the trailer are not expanded yet
+            Assertions.assertEquals(0, child.getChildCount());
+        }
+        Assertions.assertNotNull(root);
+        Assertions.assertNotNull(info);
+
+        Assertions.assertFalse(model.isLeaf(info));
+        Assertions.assertEquals(1, model.getChildCount(info));
+        final PdfObjectTreeNode infoDictionary = (PdfObjectTreeNode) model.getChild(info, 0);
+        Assertions.assertTrue(infoDictionary.isDictionary());
+        Assertions.assertEquals(0, infoDictionary.getChildCount());
+        Assertions.assertFalse(model.isLeaf(infoDictionary));
+        Assertions.assertTrue(model.getChildCount(infoDictionary) > 0);
+
+        Assertions.assertFalse(model.isLeaf(root));
+        Assertions.assertEquals(1, model.getChildCount(root));
+        final PdfObjectTreeNode catalog = (PdfObjectTreeNode) model.getChild(root, 0);
+        Assertions.assertTrue(catalog.isDictionary());
+        Assertions.assertTrue(model.getChildCount(catalog) > 0);
+        pdfFile.getPdfDocument().close();
+    }
+
+    private static final class DummyProgressDialog implements IProgressDialog {
+
+        @Override
+        public void setMessage(String msg) {
+
+        }
+
+        @Override
+        public void setValue(int value) {
+
+        }
+
+        @Override
+        public void setTotal(int n) {
+
+        }
+
+        @Override
+        public void showErrorDialog(Exception ex) {
+
+        }
+
+        @Override
+        public void setVisible(boolean visible) {
+
+        }
+    }
+}
@@ -42,6 +42,13 @@
  */
 package com.itextpdf.rups.view.itext;
 
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.rups.controller.PdfReaderController;
 import com.itextpdf.rups.event.PostOpenDocumentEvent;
 import com.itextpdf.rups.model.IProgressDialog;
@@ -50,9 +57,14 @@ import com.itextpdf.rups.model.PdfFile;
 import com.itextpdf.rups.view.itext.treenodes.StructureTreeNode;
 import com.itextpdf.test.ExtendedITextTest;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
@@ -71,9 +83,11 @@ class StructureTreeTest extends ExtendedITextTest {
                 new File(sourceFolder + "hello_world_tagged.pdf")
         );
 
-        StructureTreeNode rootNode = getStructureTreeRootNode(pdfFile);
-        StructureTreeNode mciChild = (StructureTreeNode) rootNode.getChildAt(0).getChildAt(0)
-                .getChildAt(0).getChildAt(0);
+        final StructureTree tree = getStructureTree(pdfFile);
+        StructureTreeNode mciChild = (StructureTreeNode) tree.getModel().getRoot();
+        for (int level = 0; level < 4; ++level) {
+            mciChild = getFirstChild(tree, mciChild);
+        }
         String nodeLabel = (String) mciChild.getUserObject();
         Assertions.assertEquals("0 [Hello ]", nodeLabel);
     }
@@ -84,14 +98,54 @@ class StructureTreeTest extends ExtendedITextTest {
                 new File(sourceFolder + "hello_world_tagged_actualtext.pdf")
         );
 
-        StructureTreeNode rootNode = getStructureTreeRootNode(pdfFile);
-        StructureTreeNode mciChild = (StructureTreeNode) rootNode.getChildAt(0).getChildAt(0)
-                .getChildAt(0).getChildAt(0);
+        final StructureTree tree = getStructureTree(pdfFile);
+        StructureTreeNode mciChild = (StructureTreeNode) tree.getModel().getRoot();
+        for (int level = 0; level < 4; ++level) {
+            mciChild = getFirstChild(tree, mciChild);
+        }
         String nodeLabel = (String) mciChild.getUserObject();
         Assertions.assertEquals("0 [Olleh ]", nodeLabel);
     }
 
-    private static StructureTreeNode getStructureTreeRootNode(PdfFile pdfFile) {
+    @Test
+    void collectPagesTest() {
+        final PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        final PdfDictionary first = document.addNewPage().getPdfObject();
+        final PdfDictionary second = document.addNewPage().getPdfObject();
+
+        final PdfDictionary mcr = new PdfDictionary();
+        mcr.put(PdfName.Type, PdfName.MCR);
+        mcr.put(PdfName.Pg, second);
+        mcr.put(PdfName.MCID, new PdfNumber(1));
+        final PdfDictionary kid = new PdfDictionary();
+        kid.put(PdfName.Type, PdfName.StructElem);
+        kid.put(PdfName.Pg, second);
+        kid.put(PdfName.K, new PdfNumber(2));
+        final PdfDictionary element = new PdfDictionary();
+        element.put(PdfName.Type, PdfName.StructElem);
+
+        element.put(PdfName.K, new PdfArray(Arrays.asList(new PdfNumber(0), kid)));
+        Set<PdfIndirectReference> pages = StructureTree.collectPages(element, first);
+        // the marked content of the kid is only needed once the kid is expanded
+        Assertions.assertEquals(Collections.singleton(first.getIndirectReference()), pages);
+
+        element.put(PdfName.K, new PdfArray(Arrays.asList(mcr, new PdfNumber(0))));
+        pages = StructureTree.collectPages(element, first);
+        Assertions.assertEquals(Arrays.asList(second.getIndirectReference(), first.getIndirectReference()),
+                new ArrayList<>(pages));
+
+        element.put(PdfName.K, new PdfNumber(0));
+        Assertions.assertTrue(StructureTree.collectPages(element, null).isEmpty());
+        document.close();
+    }
+
+    private static StructureTreeNode getFirstChild(StructureTree tree, StructureTreeNode node) {
+        // children are normally created in the background, when the node is expanded
+        tree.loadChildren(node);
+        return (StructureTreeNode) node.getChildAt(0);
+    }
+
+    private static StructureTree getStructureTree(PdfFile pdfFile) {
 
         PdfReaderController controller = new PdfReaderController(null, null);
         ObjectLoader loader = new ObjectLoader(
@@ -107,7 +161,7 @@ class StructureTreeTest extends ExtendedITextTest {
         StructureTree tree = new StructureTree(controller);
         tree.setLoader(loader);
         tree.setModel(tree.recalculateTreeModel());
-        return (StructureTreeNode) tree.getModel().getRoot();
+        return tree;
     }
 
     private static final class DummyProgressDialog implements IProgressDialog {
@@ -0,0 +1,131 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import javax.swing.text.BadLocationException;
+
+@Tag("UnitTest")
+public class ContentStreamIndexTest {
+
+    private static final String SRC_DIR = "./src/test/resources/com/itextpdf/rups/view/itext/contentStreamSnippets";
+
+    @Test
+    public void operatorCountTest() throws Exception {
+        final byte[] content = Files.readAllBytes(Paths.get(SRC_DIR, "nestedPaths.cmp"));
+        Assertions.assertEquals(getLines(content).length, new ContentStreamIndex(content).getOperatorCount());
+    }
+
+    @Test
+    public void emptyStreamTest() {
+        Assertions.assertEquals(0, new ContentStreamIndex(new byte[0]).getOperatorCount());
+    }
+
+    @Test
+    public void cancelledTest() {
+        Assertions.assertEquals(0, new ContentStreamIndex(createNestedStream(), () -> true).getOperatorCount());
+    }
+
+    @Test
+    public void windowsOfSnippetTest() throws Exception {
+        checkWindows(Files.readAllBytes(Paths.get(SRC_DIR, "nestedPaths.cmp")), 3);
+    }
+
+    @Test
+    public void windowsAcrossCheckpointsTest() throws Exception {
+        checkWindows(createNestedStream(), 10);
+    }
+
+    @Test
+    public void windowPastEndTest() throws Exception {
+        final byte[] content = createNestedStream();
+        final ContentStreamIndex index = new ContentStreamIndex(content);
+        final String[] lines = getLines(content);
+        final StyledSyntaxDocument window = new StyledSyntaxDocument();
+        window.processContentStream(content, index, lines.length - 2, 10);
+        Assertions.assertEquals(lines[lines.length - 2] + lines[lines.length - 1],
+                window.getText(0, window.getLength()));
+    }
+
+    private static void checkWindows(byte[] content, int count) throws BadLocationException {
+        final ContentStreamIndex index = new ContentStreamIndex(content);
+        final String[] lines = getLines(content);
+        Assertions.assertEquals(lines.length, index.getOperatorCount());
+        for (int first = 0; first < lines.length; ++first) {
+            final StyledSyntaxDocument window = new StyledSyntaxDocument();
+            window.processContentStream(content, index, first, count);
+            final StringBuilder expected = new StringBuilder();
+            for (int i = first; i < Math.min(first + count, lines.length); ++i) {
+                expected.append(lines[i]);
+            }
+            Assertions.assertEquals(expected.toString(), window.getText(0, window.getLength()));
+        }
+    }
+
+    /**
+     * Gets the lines of the full document of a content stream, with one operator per line.
+     */
+    private static String[] getLines(byte[] content) throws BadLocationException {
+        final StyledSyntaxDocument doc = new StyledSyntaxDocument();
+        doc.processContentStream(content);
+        return doc.getText(0, doc.getLength()).split("(?<=\n)");
+    }
+
+    private static byte[] createNestedStream() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append("q 1 0 0 1 ").append(i).append(" 0 cm\n");
+            sb.append(i).append(" 0 m ").append(i).append(" 10 l S\n");
+        }
+        for (int i = 0; i < 100; ++i) {
+            sb.append("Q\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.swing.SwingUtilities;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.MutableAttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.undo.UndoManager;
+
+@Tag("UnitTest")
+public class ContentStreamRestylerTest {
+
+    @Test
+    public void highlightInsertedOperatorTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("1 0 0 1 0 0 cm\n0 g\n");
+        insert(doc, 0, "q\n", null);
+        Assertions.assertTrue(doc.getCharacterElement(0).getAttributes()
+                .isEqual(ContentStreamStyleConstants.getStyleAttributesFor("q")));
+    }
+
+    @Test
+    public void indentFollowingLinesTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("1 0 0 1 0 0 cm\n0 g\n");
+        insert(doc, 0, "q\n", null);
+        Assertions.assertEquals("q\n    1 0 0 1 0 0 cm\n    0 g\n", getText(doc));
+    }
+
+    @Test
+    public void unindentAfterRemovalTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("q\n0 g\nQ\n1 g\n");
+        Assertions.assertEquals("q\n    0 g\nQ\n1 g\n", getText(doc));
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                doc.remove(0, 2);
+            } catch (BadLocationException e) {
+                Assertions.fail(e);
+            }
+        });
+        SwingUtilities.invokeAndWait(() -> {});
+        Assertions.assertEquals("0 g\nQ\n1 g\n", getText(doc));
+    }
+
+    @Test
+    public void textTypedInIndentationIsWrittenTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("q\n0 g\nQ\n");
+        final String[] beforeRestyling = new String[1];
+        // typed text takes the attributes of the indentation before it
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                doc.insertString(6, "1 w\n", ContentStreamStyleConstants.INDENT_ATTRS);
+                beforeRestyling[0] = write(doc);
+            } catch (BadLocationException | IOException e) {
+                Assertions.fail(e);
+            }
+        });
+        SwingUtilities.invokeAndWait(() -> {});
+        Assertions.assertEquals("q\n    1 w\n    0 g\nQ\n", getText(doc));
+        // the writer also writes the implied newline at the end of the document
+        Assertions.assertEquals("q\n1 w\n0 g\nQ\n\n", beforeRestyling[0]);
+        Assertions.assertEquals("q\n1 w\n0 g\nQ\n\n", write(doc));
+    }
+
+    @Test
+    public void hexEditKeepsAttributesTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("(a\000b) Tj\n");
+        final int start = getText(doc).indexOf("00") + 1;
+        final MutableAttributeSet attributes = new SimpleAttributeSet();
+        attributes.addAttribute(ContentStreamStyleConstants.HEX_EDIT, true);
+        insert(doc, start, "75", attributes);
+        Assertions.assertNotNull(doc.getCharacterElement(start).getAttributes()
+                .getAttribute(ContentStreamStyleConstants.HEX_EDIT));
+    }
+
+    @Test
+    public void undoWithRestylingTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("1 0 0 1 0 0 cm\n0 g\n");
+        final UndoManager manager = new UndoManager();
+        doc.addUndoableEditListener(manager);
+        insert(doc, 0, "q\n", null);
+        SwingUtilities.invokeAndWait(manager::undo);
+        Assertions.assertEquals("1 0 0 1 0 0 cm\n0 g\n", getText(doc));
+        Assertions.assertTrue(manager.canRedo());
+        SwingUtilities.invokeAndWait(manager::redo);
+        Assertions.assertEquals("q\n    1 0 0 1 0 0 cm\n    0 g\n", getText(doc));
+    }
+
+    @Test
+    public void unfinishedStringTest() throws Exception {
+        final StyledSyntaxDocument doc = createDocument("q\n0 g\nQ\n");
+        insert(doc, 0, "(abc ", null);
+        Assertions.assertEquals("(abc q\n    0 g\nQ\n", getText(doc));
+        insert(doc, 5, ") Tj\n", null);
+        Assertions.assertEquals("(abc ) Tj\nq\n    0 g\nQ\n", getText(doc));
+        Assertions.assertTrue(doc.getCharacterElement(7).getAttributes()
+                .isEqual(ContentStreamStyleConstants.getStyleAttributesFor("Tj")));
+    }
+
+    @Test
+    public void indentationAfterCheckpointsTest() throws Exception {
+        final StringBuilder content = new StringBuilder("BT\n");
+        for (int i = 0; i < 4 * ContentStreamRestyler.CHECKPOINT_INTERVAL; ++i) {
+            content.append("(a) Tj\n");
+        }
+        content.append("ET\n");
+        final StyledSyntaxDocument doc = createDocument(content.toString());
+        final int interval = ContentStreamRestyler.CHECKPOINT_INTERVAL;
+        // records the checkpoints, then drops the ones after an earlier edit
+        insert(doc, getLineStart(doc, 3 * interval + 1), "q\n", null);
+        insert(doc, getLineStart(doc, interval / 2), "q\n", null);
+        insert(doc, getLineStart(doc, 2 * interval + 3), "Q\n", null);
+        insert(doc, getLineStart(doc, 3 * interval + 5), "1 g\n", null);
+
+        final String expected = getText(createDocument(getText(doc).replaceAll("(?m)^ +", "")));
+        Assertions.assertEquals(expected, getText(doc));
+    }
+
+    private static int getLineStart(StyledSyntaxDocument doc, int line) {
+        return doc.getDefaultRootElement().getElement(line).getStartOffset();
+    }
+
+    private static StyledSyntaxDocument createDocument(String content) {
+        final StyledSyntaxDocument doc = new StyledSyntaxDocument();
+        doc.processContentStream(content.getBytes(StandardCharsets.ISO_8859_1));
+        return doc;
+    }
+
+    /**
+     * Inserts text on the event dispatch thread and waits until the document is restyled.
+     */
+    private static void insert(StyledSyntaxDocument doc, int offset, String text, AttributeSet attributes)
+            throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                doc.insertString(offset, text, attributes);
+            } catch (BadLocationException e) {
+                Assertions.fail(e);
+            }
+        });
+        SwingUtilities.invokeAndWait(() -> {});
+    }
+
+    private static String write(StyledSyntaxDocument doc) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new ContentStreamWriter(baos).write(doc);
+        return new String(baos.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String getText(StyledSyntaxDocument doc) throws BadLocationException {
+        return doc.getText(0, doc.getLength());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+@Tag("UnitTest")
+public class ContentStreamWriterTest {
+
+    private static final String SRC_DIR = "./src/test/resources/com/itextpdf/rups/view/itext/contentStreamSnippets";
+
+    @Test
+    public void uneditedDocumentWritesSourceTest() throws Exception {
+        final byte[] origBytes = Files.readAllBytes(Paths.get(SRC_DIR, "stringWithBin.cmp"));
+        final StyledSyntaxDocument doc = new StyledSyntaxDocument();
+        doc.processContentStream(origBytes);
+        Assertions.assertArrayEquals(origBytes, write(doc, true));
+    }
+
+    @Test
+    public void editedRegionIsSerializedTest() throws Exception {
+        final String source = "1  g\n".repeat(200);
+        final StyledSyntaxDocument doc = new StyledSyntaxDocument();
+        doc.processContentStream(source.getBytes(StandardCharsets.ISO_8859_1));
+        final int start = doc.getDefaultRootElement().getElement(100).getStartOffset();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                doc.replace(start, 1, "0", null);
+            } catch (BadLocationException e) {
+                Assertions.fail(e);
+            }
+        });
+        SwingUtilities.invokeAndWait(() -> {});
+
+        // only the second region, with operators 64 to 127, is serialized from the text
+        final String expected = "1  g\n".repeat(63) + "1  g" + "\n"
+                + "1 g\n".repeat(36) + "0 g\n" + "1 g\n".repeat(27)
+                + "\n1  g".repeat(72) + "\n";
+        Assertions.assertEquals(expected, new String(write(doc, true), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void textSerializationTest() throws Exception {
+        final StyledSyntaxDocument doc = new StyledSyntaxDocument();
+        doc.processContentStream("1  g\n".repeat(3).getBytes(StandardCharsets.ISO_8859_1));
+        Assertions.assertEquals("1 g\n1 g\n1 g\n\n", new String(write(doc, false), StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] write(Document doc, boolean reuseSource) throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new ContentStreamWriter(baos, reuseSource).write(doc);
+        return baos.toByteArray();
+    }
+}
@@ -50,6 +50,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 class IndentManagerTest {
     private IndentManager indentManager;
@@ -121,4 +122,19 @@ class IndentManagerTest {
         indentManager.unindentIfNecessary(unindentingOperator);
         assertEquals(0, indentManager.getIndentLevel());
     }
+
+    @Test
+    void testRestore() {
+        IndentManager other = new IndentManager();
+        other.indentIfNecessary(indentingOperator);
+        other.indentIfNecessary(new PdfString("m"));
+        indentManager.restore(other.getIndentLevel(), other.isIndentingPath());
+        // a path under construction doesn't indent again
+        indentManager.indentIfNecessary(new PdfString("l"));
+        indentManager.indentIfNecessary(new PdfString("m"));
+        assertEquals(2, indentManager.getIndentLevel());
+        indentManager.unindentIfNecessary(new PdfString("S"));
+        assertEquals(1, indentManager.getIndentLevel());
+        assertFalse(indentManager.isIndentingPath());
+    }
 }
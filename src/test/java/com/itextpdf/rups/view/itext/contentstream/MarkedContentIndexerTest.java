@@ -0,0 +1,106 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.rups.model.PdfFile;
+import com.itextpdf.test.ExtendedITextTest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IntegrationTest")
+class MarkedContentIndexerTest extends ExtendedITextTest {
+
+    @Test
+    void indexSeveralTimesTest() throws Exception {
+        final PdfFile file = PdfFile.open(new File("twoPages.pdf"), MarkedContentInfoGathererTest.twoPageDoc());
+        final PdfDocument document = file.getPdfDocument();
+        final List<PdfIndirectReference> pages = Arrays.asList(
+                document.getPage(1).getPdfObject().getIndirectReference(),
+                document.getPage(2).getPdfObject().getIndirectReference());
+        final MarkedContentIndexer indexer = new MarkedContentIndexer(file);
+        try {
+            final Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> first = new ConcurrentHashMap<>();
+            indexer.index(pages, first, () -> false);
+            // the worker documents of the first call are reused
+            final Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> second = new ConcurrentHashMap<>();
+            indexer.index(pages, second, () -> false);
+
+            Assertions.assertEquals(2, first.size());
+            Assertions.assertEquals(first.keySet(), second.keySet());
+            for (final PdfIndirectReference page : pages) {
+                Assertions.assertFalse(first.get(page).isEmpty());
+                Assertions.assertEquals(first.get(page).keySet(), second.get(page).keySet());
+            }
+        } finally {
+            indexer.close();
+            file.close();
+        }
+    }
+
+    @Test
+    void cancelledTest() throws Exception {
+        final PdfFile file = PdfFile.open(new File("twoPages.pdf"), MarkedContentInfoGathererTest.twoPageDoc());
+        final PdfDocument document = file.getPdfDocument();
+        final List<PdfIndirectReference> pages = Arrays.asList(
+                document.getPage(1).getPdfObject().getIndirectReference(),
+                document.getPage(2).getPdfObject().getIndirectReference());
+        final MarkedContentIndexer indexer = new MarkedContentIndexer(file);
+        try {
+            final Map<PdfIndirectReference, Map<Integer, MarkedContentInfo>> target = new ConcurrentHashMap<>();
+            indexer.index(pages, target, () -> true);
+            Assertions.assertTrue(target.isEmpty());
+        } finally {
+            indexer.close();
+            file.close();
+        }
+    }
+}
@@ -271,7 +271,7 @@ public class MarkedContentInfoGathererTest extends ExtendedITextTest {
         }
     }
 
-    private static byte[] onePageWithXObj() {
+    static byte[] onePageWithXObj() {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (PdfWriter w = new PdfWriter(baos); PdfDocument pdfDocument = new PdfDocument(w)) {
             pdfDocument.setTagged();
@@ -282,7 +282,7 @@ public class MarkedContentInfoGathererTest extends ExtendedITextTest {
         return baos.toByteArray();
     }
 
-    private static byte[] onePageTwoContentStreams() {
+    static byte[] onePageTwoContentStreams() {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (PdfWriter w = new PdfWriter(baos); PdfDocument pdfDocument = new PdfDocument(w)) {
             pdfDocument.setTagged();
@@ -305,7 +305,7 @@ public class MarkedContentInfoGathererTest extends ExtendedITextTest {
         return baos.toByteArray();
     }
 
-    private static byte[] twoPageDoc() {
+    static byte[] twoPageDoc() {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (PdfWriter w = new PdfWriter(baos); PdfDocument pdfDocument = new PdfDocument(w)) {
             pdfDocument.setTagged();
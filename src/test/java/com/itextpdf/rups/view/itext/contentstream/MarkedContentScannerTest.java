@@ -0,0 +1,110 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2024 Apryse Group NV
+    Authors: Apryse Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    APRYSE GROUP. APRYSE GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.rups.view.itext.contentstream;
+
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.test.ExtendedITextTest;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IntegrationTest")
+class MarkedContentScannerTest extends ExtendedITextTest {
+
+    @Test
+    void sameAsGathererTest() throws Exception {
+        assertSameAsGatherer(MarkedContentInfoGathererTest.twoPageDoc());
+        assertSameAsGatherer(MarkedContentInfoGathererTest.onePageTwoContentStreams());
+        assertSameAsGatherer(MarkedContentInfoGathererTest.onePageWithXObj());
+    }
+
+    @Test
+    void decodeWhenRequestedTest() throws Exception {
+        final byte[] pdf = MarkedContentInfoGathererTest.onePageWithXObj();
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            final AtomicInteger decoded = new AtomicInteger();
+            final MarkedContentScanner scanner = new MarkedContentScanner(ref -> {
+                decoded.incrementAndGet();
+                return PdfFontFactory.createFont((PdfDictionary) pdfDoc.getPdfObject(ref));
+            });
+            scanner.processPageContent(pdfDoc.getFirstPage());
+            final Map<Integer, MarkedContentInfo> index = scanner.getMarkedContentIndex();
+            Assertions.assertEquals(4, index.size());
+            Assertions.assertEquals(0, decoded.get());
+            Assertions.assertEquals("iText ", index.get(2).getExtractedText());
+            Assertions.assertEquals(1, decoded.get());
+            Assertions.assertEquals("iText ", index.get(2).getExtractedText());
+            Assertions.assertEquals(1, decoded.get());
+        }
+    }
+
+    private static void assertSameAsGatherer(byte[] pdf) throws Exception {
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            final MarkedContentInfoGatherer gatherer = new MarkedContentInfoGatherer();
+            final MarkedContentScanner scanner = new MarkedContentScanner();
+            for (int i = 1; i <= pdfDoc.getNumberOfPages(); i++) {
+                final PdfPage page = pdfDoc.getPage(i);
+                gatherer.processPageContent(page);
+                scanner.processPageContent(page);
+                final Map<Integer, MarkedContentInfo> expected = gatherer.getMarkedContentIndex();
+                final Map<Integer, MarkedContentInfo> actual = scanner.getMarkedContentIndex();
+                Assertions.assertEquals(expected.keySet(), actual.keySet());
+                for (Map.Entry<Integer, MarkedContentInfo> entry : expected.entrySet()) {
+                    final MarkedContentInfo info = actual.get(entry.getKey());
+                    Assertions.assertEquals(entry.getValue().getStreamRef(), info.getStreamRef());
+                    Assertions.assertEquals(entry.getValue().getExtractedText(), info.getExtractedText());
+                }
+                gatherer.reset();
+                scanner.reset();
+            }
+        }
+    }
+}
@@ -53,6 +53,7 @@ import org.junit.jupiter.api.Test;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -174,6 +175,26 @@ public class StyledSyntaxDocumentTest {
         Assertions.assertTrue(Pattern.compile("ID\\s+EI").matcher(theText).find());
     }
 
+    @Test
+    public void testInlineImageDocContainsNoComponents() throws Exception {
+        byte[] origBytes = Files.readAllBytes(Paths.get(SRC_DIR, "charprocWithInlineImg.cmp"));
+        StyledSyntaxDocument doc = new StyledSyntaxDocument();
+        doc.processContentStream(origBytes);
+
+        boolean image = false;
+        boolean saveButton = false;
+        for (int i = 0; i < doc.getLength(); ++i) {
+            AttributeSet attrs = doc.getCharacterElement(i).getAttributes();
+            // components must only be created on the event dispatch thread
+            Assertions.assertNull(StyleConstants.getIcon(attrs));
+            Assertions.assertNull(StyleConstants.getComponent(attrs));
+            image |= attrs.getAttribute(ContentStreamStyleConstants.IMAGE) != null;
+            saveButton |= attrs.getAttribute(ContentStreamStyleConstants.SAVE_IMAGE) != null;
+        }
+        Assertions.assertTrue(image);
+        Assertions.assertTrue(saveButton);
+    }
+
     @Test
     public void testReserialiseCorruptInlineImage() throws Exception {
         // this inline image contains a totally nonsensical colour space
@@ -544,6 +565,11 @@ public class StyledSyntaxDocumentTest {
         new ContentStreamWriter(baos).write(doc);
         byte[] result = baos.toByteArray();
         Assertions.assertArrayEquals(origBytes, result);
+
+        // the serialized text must match as well
+        baos = new ByteArrayOutputStream();
+        new ContentStreamWriter(baos, false).write(doc);
+        Assertions.assertArrayEquals(origBytes, baos.toByteArray());
     }
 
     private void reserializeWithCompareTarget(String src, String cmp) throws Exception {
@@ -552,8 +578,9 @@ public class StyledSyntaxDocumentTest {
         StyledSyntaxDocument doc = new StyledSyntaxDocument();
         doc.processContentStream(origBytes);
 
+        // serialize the text, instead of writing back the unedited bytes
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        new ContentStreamWriter(baos).write(doc);
+        new ContentStreamWriter(baos, false).write(doc);
         byte[] result = baos.toByteArray();
 
         Assertions.assertArrayEquals(expectedResult, result);